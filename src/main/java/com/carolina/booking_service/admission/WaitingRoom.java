@@ -0,0 +1,162 @@
+package com.carolina.booking_service.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission queue for on-sale spikes: users take a ticket and are let through to the booking endpoints
+ * at a fixed rate, in the order they arrived. A ticket only admits the user who took it. Everything lives in memory and no lock is taken,
+ * so polling for a position costs a map lookup and two subtractions.
+ */
+@Component
+public class WaitingRoom {
+
+    private final Queue<Ticket> waiting = new ConcurrentLinkedQueue<>();
+    // Admitted in order with the same admission length, so the first to run out is always at the head
+    private final Queue<Ticket> admittedInOrder = new ConcurrentLinkedQueue<>();
+    private final Map<String, Ticket> ticketsByToken = new ConcurrentHashMap<>();
+    private final AtomicLong lastIssued = new AtomicLong();
+    private final AtomicLong lastAdmitted = new AtomicLong();
+    private final int admitsPerSecond;
+    private final long admissionMillis;
+    private final long staleAfterMillis;
+
+    public WaitingRoom(@Value("${waitingRoom.admitsPerSecond:50}") int admitsPerSecond,
+                       @Value("${waitingRoom.admissionMinutes:10}") long admissionMinutes,
+                       @Value("${waitingRoom.staleAfterSeconds:30}") long staleAfterSeconds) {
+        this.admitsPerSecond = admitsPerSecond;
+        this.admissionMillis = TimeUnit.MINUTES.toMillis(admissionMinutes);
+        this.staleAfterMillis = TimeUnit.SECONDS.toMillis(staleAfterSeconds);
+    }
+
+    /**
+     * Puts a new user at the back of the queue
+     * @param owner: username of the user taking the ticket
+     * @param nowMillis: epoch millis
+     * @return Ticket
+     */
+    public Ticket join(String owner, long nowMillis) {
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), owner, lastIssued.incrementAndGet(), nowMillis);
+        ticketsByToken.put(ticket.token, ticket);
+        waiting.add(ticket);
+        return ticket;
+    }
+
+    /**
+     * Looks the ticket up and records that its holder is still waiting
+     * @param token: queue token
+     * @param nowMillis: epoch millis
+     * @return Ticket, or null if the token is unknown or its admission ran out
+     */
+    public Ticket poll(String token, long nowMillis) {
+        Ticket ticket = token != null ? ticketsByToken.get(token) : null;
+        if (ticket == null || ticket.isExpired(nowMillis)) {
+            return null;
+        }
+        ticket.lastSeenAt = nowMillis;
+        return ticket;
+    }
+
+    /**
+     * Informs if the token was admitted for the user and its admission hasn't run out yet
+     * @param token: queue token
+     * @param owner: username of the user presenting the token
+     * @param nowMillis: epoch millis
+     * @return boolean
+     */
+    public boolean isAdmitted(String token, String owner, long nowMillis) {
+        Ticket ticket = token != null ? ticketsByToken.get(token) : null;
+        return ticket != null && ticket.owner.equals(owner) && ticket.isAdmitted() && !ticket.isExpired(nowMillis);
+    }
+
+    /**
+     * Number of users ahead of the ticket, 0 once it is admitted
+     * @param ticket: ticket
+     * @return long
+     */
+    public long getPosition(Ticket ticket) {
+        return ticket.isAdmitted() ? 0 : Math.max(1, ticket.sequence - lastAdmitted.get());
+    }
+
+    /**
+     * Rough number of seconds until the ticket is admitted, at the current admission rate
+     * @param ticket: ticket
+     * @return long
+     */
+    public long getEstimatedWaitSeconds(Ticket ticket) {
+        return (getPosition(ticket) + admitsPerSecond - 1) / Math.max(1, admitsPerSecond);
+    }
+
+    public int getWaitingCount() {
+        return waiting.size();
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void admit() {
+        admit(System.currentTimeMillis());
+    }
+
+    /**
+     * Admits the next users in line, up to the per second rate. Users that stopped polling give up their turn
+     * without using up the rate, and admissions that ran out are forgotten
+     * @param nowMillis: epoch millis
+     * @return number of users admitted
+     */
+    public int admit(long nowMillis) {
+        int admitted = 0;
+        Ticket ticket;
+        while (admitted < admitsPerSecond && (ticket = waiting.poll()) != null) {
+            lastAdmitted.set(ticket.sequence);
+            if (nowMillis - ticket.lastSeenAt > staleAfterMillis) {
+                ticketsByToken.remove(ticket.token);
+                continue;
+            }
+            ticket.admittedUntil = nowMillis + admissionMillis;
+            admittedInOrder.add(ticket);
+            admitted++;
+        }
+        Ticket expired;
+        while ((expired = admittedInOrder.peek()) != null && expired.isExpired(nowMillis)) {
+            admittedInOrder.poll();
+            ticketsByToken.remove(expired.token);
+        }
+        return admitted;
+    }
+
+    public static class Ticket {
+
+        private final String token;
+        private final String owner;
+        private final long sequence;
+        private volatile long lastSeenAt;
+        private volatile long admittedUntil;
+
+        private Ticket(String token, String owner, long sequence, long issuedAt) {
+            this.token = token;
+            this.owner = owner;
+            this.sequence = sequence;
+            this.lastSeenAt = issuedAt;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public boolean isAdmitted() {
+            return admittedUntil != 0;
+        }
+
+        private boolean isExpired(long nowMillis) {
+            return isAdmitted() && nowMillis > admittedUntil;
+        }
+    }
+}
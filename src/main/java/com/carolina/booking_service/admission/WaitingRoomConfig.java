@@ -0,0 +1,20 @@
+package com.carolina.booking_service.admission;
+
+import com.carolina.booking_service.util.JwtUtil;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(value = "waitingRoom.enabled", havingValue = "true")
+public class WaitingRoomConfig {
+
+    @Bean
+    public FilterRegistrationBean<WaitingRoomFilter> waitingRoomFilter(WaitingRoom waitingRoom, JwtUtil jwtUtil) {
+        FilterRegistrationBean<WaitingRoomFilter> registration = new FilterRegistrationBean<>(new WaitingRoomFilter(waitingRoom, jwtUtil));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
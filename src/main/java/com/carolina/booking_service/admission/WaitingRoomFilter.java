@@ -0,0 +1,65 @@
+package com.carolina.booking_service.admission;
+
+import com.carolina.booking_service.util.JwtUtil;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns away booking writes that don't carry a queue token admitted for the user in their bearer token. It is
+ * registered ahead of the security filter chain, so a rejected request never reaches the authentication filter
+ * and its user lookup. The bearer token is only checked for its signature here, the security chain still
+ * authenticates the requests that get through
+ */
+public class WaitingRoomFilter extends OncePerRequestFilter {
+
+    public static final String QUEUE_TOKEN_HEADER = "X-Queue-Token";
+    public static final List<String> QUEUED_PATHS = Arrays.asList("/api/v1/bookings", "/api/v1/bookings/batch", "/api/v1/bookings/holds/**");
+
+    private final WaitingRoom waitingRoom;
+    private final JwtUtil jwtUtil;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public WaitingRoomFilter(WaitingRoom waitingRoom, JwtUtil jwtUtil) {
+        this.waitingRoom = waitingRoom;
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        String path = urlPathHelper.getPathWithinApplication(request);
+        String trimmedPath = path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        return QUEUED_PATHS.stream().noneMatch(pattern -> pathMatcher.match(pattern, trimmedPath));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String owner = jwtUtil.extractUsernameFromHeader(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (waitingRoom.isAdmitted(request.getHeader(QUEUE_TOKEN_HEADER), owner, System.currentTimeMillis())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // Written here rather than through sendError, so the rejection isn't dispatched to /error and the security chain
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Join the waiting room at /api/v1/waiting-room first");
+    }
+}
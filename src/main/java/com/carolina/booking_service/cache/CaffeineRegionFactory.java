@@ -0,0 +1,97 @@
+package com.carolina.booking_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hibernate second-level cache regions kept in Caffeine caches, one per region. Entity and query result regions
+ * hold at most maximumSize entries each, for at most expireAfterWrite. The update timestamps region is never
+ * trimmed: dropping a table's last update time would let query results cached before the update be served.
+ * The hit, miss and eviction counts of every region are exposed as cache metrics named after the region
+ */
+public class CaffeineRegionFactory extends RegionFactoryTemplate implements MeterBinder {
+
+    private final long maximumSize;
+    private final Duration expireAfterWrite;
+    private final Map<String, Cache<Object, Object>> regions = new LinkedHashMap<>();
+    private final List<MeterRegistry> registries = new ArrayList<>();
+
+    public CaffeineRegionFactory(long maximumSize, Duration expireAfterWrite) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        // Configured through the constructor
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        synchronized (regions) {
+            regions.values().forEach(Cache::invalidateAll);
+        }
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new CaffeineStorageAccess(region(regionConfig.getRegionName(), true));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(region(regionName, true));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(region(regionName, false));
+    }
+
+    private Cache<Object, Object> region(String regionName, boolean bounded) {
+        synchronized (regions) {
+            return regions.computeIfAbsent(regionName, name -> {
+                Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+                if (bounded) {
+                    builder.maximumSize(maximumSize).expireAfterWrite(expireAfterWrite);
+                }
+                Cache<Object, Object> region = builder.build();
+                for (MeterRegistry registry : registries) {
+                    bind(name, region, registry);
+                }
+                return region;
+            });
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Regions are built with the session factory, which may happen before or after the registry comes up
+        synchronized (regions) {
+            registries.add(registry);
+            regions.forEach((name, region) -> bind(name, region, registry));
+        }
+    }
+
+    private static void bind(String regionName, Cache<Object, Object> region, MeterRegistry registry) {
+        new CaffeineCacheMetrics(region, regionName, Tags.of("cacheType", "hibernate")).bindTo(registry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.carolina.booking_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Reads and writes of one second-level cache region. Hibernate's access strategies take care of locking
+ * entries while they are updated, this only stores them
+ */
+class CaffeineStorageAccess implements DomainDataStorageAccess {
+
+    private final Cache<Object, Object> region;
+
+    CaffeineStorageAccess(Cache<Object, Object> region) {
+        this.region = region;
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        return region.getIfPresent(key);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        if (value == null) {
+            region.invalidate(key);
+        } else {
+            region.put(key, value);
+        }
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return region.asMap().containsKey(key);
+    }
+
+    @Override
+    public void evictData() {
+        region.invalidateAll();
+    }
+
+    @Override
+    public void evictData(Object key) {
+        region.invalidate(key);
+    }
+
+    @Override
+    public void release() {
+        region.invalidateAll();
+    }
+}
@@ -0,0 +1,33 @@
+package com.carolina.booking_service.cache;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.SharedCacheMode;
+import java.time.Duration;
+
+/**
+ * Turns on Hibernate's second-level and query caches for the entities marked @Cacheable
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public CaffeineRegionFactory caffeineRegionFactory(@Value("${hibernateCache.maximumSize:10000}") long maximumSize,
+                                                       @Value("${hibernateCache.expireAfterWriteMinutes:60}") long expireAfterWriteMinutes) {
+        return new CaffeineRegionFactory(maximumSize, Duration.ofMinutes(expireAfterWriteMinutes));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CaffeineRegionFactory caffeineRegionFactory) {
+        return properties -> {
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, caffeineRegionFactory);
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.JPA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE);
+        };
+    }
+}
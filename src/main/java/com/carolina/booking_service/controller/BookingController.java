@@ -1,55 +1,195 @@
 package com.carolina.booking_service.controller;
 
+import com.carolina.booking_service.exception.IdempotencyKeyInUseException;
+import com.carolina.booking_service.exception.IdempotencyKeyReusedException;
 import com.carolina.booking_service.exception.SeatNotAvailableException;
 import com.carolina.booking_service.exception.VenueSoldOutException;
+import com.carolina.booking_service.model.BookingBatchRequestDTO;
+import com.carolina.booking_service.model.BookingFilter;
+import com.carolina.booking_service.model.BookingPageDTO;
 import com.carolina.booking_service.model.BookingRequestDTO;
 import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.IdempotentResponse;
+import com.carolina.booking_service.model.ResourceVersion;
+import com.carolina.booking_service.model.VenueArea;
 import com.carolina.booking_service.service.BookingService;
+import com.carolina.booking_service.service.IdempotencyService;
 import com.carolina.booking_service.validation.Create;
 import com.carolina.booking_service.validation.Update;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RequestMapping("/api/v1/bookings")
 @RestController
 public class BookingController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    // Clients may keep the response but have to check with us before using it again
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectWriter bookingWriter;
 
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, IdempotencyService idempotencyService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.idempotencyService = idempotencyService;
+        this.bookingWriter = objectMapper.writerFor(BookingResponseDTO.class);
     }
 
     @GetMapping("/")
-    public ResponseEntity<List<BookingResponseDTO>> getBookings() {
-        return ResponseEntity.ok(bookingService.getAllBookings());
+    public ResponseEntity<?> getBookings(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer pageSize,
+                                         @RequestParam(required = false) Long showId,
+                                         @RequestParam(required = false) VenueArea venueArea,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            BookingPageDTO page = bookingService.getBookings(new BookingFilter(showId, venueArea, from, to), cursor, pageSize);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException exception) {
+            return ResponseEntity.badRequest().body(exception.getMessage());
+        }
     }
 
+    /**
+     * Writes every booking as one JSON object per line while they are read, so the response is never held in memory
+     */
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBookings() {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                bookingService.exportBookings(bookings -> {
+                    try {
+                        for (BookingResponseDTO booking : bookings) {
+                            outputStream.write(bookingWriter.writeValueAsBytes(booking));
+                            outputStream.write('\n');
+                        }
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            } catch (UncheckedIOException exception) {
+                throw exception.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    /**
+     * Answers 304 when the client's ETag or Last-Modified still matches, without mapping the booking or looking up
+     * its show
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<BookingResponseDTO> getBooking(@PathVariable Long id) {
+    public ResponseEntity<BookingResponseDTO> getBooking(@PathVariable Long id, WebRequest request) {
+       ResourceVersion version = bookingService.getBookingVersion(id);
+       if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+           return null;
+       }
        BookingResponseDTO bookingDTO = bookingService.getBookingById(id);
-       return ResponseEntity.ok().body(bookingDTO);
+       return ResponseEntity.ok().cacheControl(REVALIDATE).body(bookingDTO);
     }
 
     @PostMapping
-    public ResponseEntity<String> createBooking(@RequestBody @Validated(Create.class) BookingRequestDTO bookingDTO) {
+    public ResponseEntity<?> createBooking(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                           @RequestBody @Validated(Create.class) BookingRequestDTO bookingDTO) {
+        if (idempotencyKey == null) {
+            return book(bookingDTO);
+        }
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body("The Idempotency-Key must have between 1 and " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters!");
+        }
+
+        // A retry of a request that already went through gets the same response, without booking anything
+        String requestFingerprint = bookingDTO.getShowId() + ":" + bookingDTO.getUserId() + ":" + bookingDTO.getSeatId();
+        Optional<IdempotentResponse> previousResponse;
+        try {
+            previousResponse = idempotencyService.begin(idempotencyKey, requestFingerprint);
+        } catch (IdempotencyKeyInUseException exception) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(exception.getMessage());
+        } catch (IdempotencyKeyReusedException exception) {
+            return ResponseEntity.unprocessableEntity().body(exception.getMessage());
+        }
+        if (previousResponse.isPresent()) {
+            return replay(previousResponse.get());
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = book(bookingDTO);
+        } catch (RuntimeException exception) {
+            idempotencyService.abandon(idempotencyKey);
+            throw exception;
+        }
+        if (response.getBody() instanceof BookingResponseDTO) {
+            URI location = response.getHeaders().getLocation();
+            idempotencyService.complete(idempotencyKey, requestFingerprint, response.getStatusCodeValue(),
+                    location == null ? null : location.toString(), (BookingResponseDTO) response.getBody());
+        } else {
+            // Nothing was booked, so a retry should try again
+            idempotencyService.abandon(idempotencyKey);
+        }
+        return response;
+    }
+
+    private ResponseEntity<?> book(BookingRequestDTO bookingDTO) {
         try {
             BookingResponseDTO newBooking = bookingService.createBooking(bookingDTO);
+            if (newBooking.getBookingId() == null) {
+                // Recorded in the booking ledger, the booking gets its id once it is written to the database
+                return ResponseEntity.accepted().body(newBooking);
+            }
             URI location = ServletUriComponentsBuilder.fromCurrentRequest()
                                                         .path("/{id}")
                                                         .buildAndExpand(newBooking.getBookingId())
                                                         .toUri();
-            return ResponseEntity.created(location).build();
+            return ResponseEntity.created(location).body(newBooking);
+        } catch (VenueSoldOutException | SeatNotAvailableException exception) {
+            return ResponseEntity.ok().body(exception.getMessage());
+        }
+    }
+
+    private ResponseEntity<BookingResponseDTO> replay(IdempotentResponse previousResponse) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(previousResponse.getStatus())
+                .header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        if (previousResponse.getLocation() != null) {
+            builder.location(URI.create(previousResponse.getLocation()));
+        }
+        return builder.body(previousResponse.getBooking());
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBookings(@RequestBody @Validated(Create.class) BookingBatchRequestDTO bookingsDTO) {
+        try {
+            List<BookingResponseDTO> newBookings = bookingService.createBookings(bookingsDTO);
+            return ResponseEntity.status(HttpStatus.CREATED).body(newBookings);
         } catch (VenueSoldOutException | SeatNotAvailableException exception) {
             return ResponseEntity.ok().body(exception.getMessage());
+        } catch (EntityNotFoundException entityNotFoundException) {
+            return ResponseEntity.notFound().build();
         }
     }
 
@@ -0,0 +1,125 @@
+package com.carolina.booking_service.controller;
+
+import com.carolina.booking_service.exception.ShowServiceUnavailableException;
+import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.SeatMapChangesDTO;
+import com.carolina.booking_service.model.SeatMapDTO;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.seatstream.SeatChangeStream;
+import com.carolina.booking_service.service.SeatService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.List;
+import java.util.Map;
+
+@RequestMapping("/api/v1/seats")
+@RestController
+public class SeatController {
+
+    private final SeatService seatService;
+    private final SeatChangeStream seatChangeStream;
+
+    @Autowired
+    public SeatController(SeatService seatService, SeatChangeStream seatChangeStream) {
+        this.seatService = seatService;
+        this.seatChangeStream = seatChangeStream;
+    }
+
+    @GetMapping("/available")
+    public ResponseEntity<List<Seat>> getAvailableSeats(@RequestParam Long showId,
+                                                        @RequestParam(required = false) VenueArea venueArea) {
+        try {
+            List<Seat> seats = venueArea == null
+                    ? seatService.getAvailableSeats(showId)
+                    : seatService.getAvailableSeats(showId, venueArea);
+            return ResponseEntity.ok().body(seats);
+        } catch (EntityNotFoundException entityNotFoundException) {
+            return ResponseEntity.notFound().build();
+        } catch (ShowServiceUnavailableException exception) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Number of seats left per venue area, for widgets that don't need the seats themselves
+     */
+    @GetMapping("/available/counts")
+    public ResponseEntity<Map<VenueArea, Integer>> getAvailableCounts(@RequestParam Long showId) {
+        try {
+            return ResponseEntity.ok().body(seatService.getAvailableCounts(showId));
+        } catch (EntityNotFoundException entityNotFoundException) {
+            return ResponseEntity.notFound().build();
+        } catch (ShowServiceUnavailableException exception) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Availability of every seat of the show as a bitset. The ETag carries the seat map version, so polling with
+     * If-None-Match gets a 304 without the seat map being copied while nothing changed
+     */
+    @GetMapping("/map")
+    public ResponseEntity<?> getSeatMap(@RequestParam Long showId,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            String currentETag = seatMapETag(showId, seatService.getSeatMapVersion(showId));
+            if (currentETag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+            }
+            // Seats may change before the copy, so the ETag is taken from the version the copy reflects
+            SeatMapDTO seatMap = seatService.getSeatMap(showId);
+            return ResponseEntity.ok().eTag(seatMapETag(showId, seatMap.getVersion())).body(seatMap);
+        } catch (EntityNotFoundException entityNotFoundException) {
+            return ResponseEntity.notFound().build();
+        } catch (ShowServiceUnavailableException exception) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Seats whose availability changed after the seat map version, or 410 if those changes are no longer kept
+     * and the whole seat map has to be fetched again
+     */
+    @GetMapping("/map/changes")
+    public ResponseEntity<?> getSeatMapChanges(@RequestParam Long showId, @RequestParam long since) {
+        try {
+            SeatMapChangesDTO changes = seatService.getSeatMapChanges(showId, since);
+            if (changes == null) {
+                return ResponseEntity.status(HttpStatus.GONE).body("Changes since version " + since + " are no longer available");
+            }
+            return ResponseEntity.ok().eTag(seatMapETag(showId, changes.getVersion())).body(changes);
+        } catch (EntityNotFoundException entityNotFoundException) {
+            return ResponseEntity.notFound().build();
+        } catch (ShowServiceUnavailableException exception) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Server-sent events of the show's seats: a "snapshot" event with the seat map first and whenever the client
+     * fell too far behind, then "changes" events with the seats booked and released since the previous one.
+     * The show is looked up first, so nobody subscribes to a show that doesn't exist
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSeatChanges(@RequestParam Long showId) {
+        try {
+            seatService.getSeatMapVersion(showId);
+        } catch (EntityNotFoundException entityNotFoundException) {
+            return ResponseEntity.notFound().build();
+        } catch (ShowServiceUnavailableException exception) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().body(seatChangeStream.subscribe(showId));
+    }
+
+    private static String seatMapETag(Long showId, long version) {
+        return "\"" + showId + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,94 @@
+package com.carolina.booking_service.controller;
+
+import com.carolina.booking_service.exception.SeatNotAvailableException;
+import com.carolina.booking_service.exception.VenueSoldOutException;
+import com.carolina.booking_service.model.BestAvailableHoldRequestDTO;
+import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.SeatHoldRequestDTO;
+import com.carolina.booking_service.model.SeatHoldResponseDTO;
+import com.carolina.booking_service.service.SeatHoldService;
+import com.carolina.booking_service.validation.Create;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.persistence.EntityNotFoundException;
+import java.net.URI;
+import java.util.List;
+
+@RequestMapping("/api/v1/bookings/holds")
+@RestController
+public class SeatHoldController {
+
+    private final SeatHoldService seatHoldService;
+
+    @Autowired
+    public SeatHoldController(SeatHoldService seatHoldService) {
+        this.seatHoldService = seatHoldService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createHold(@RequestBody @Validated(Create.class) SeatHoldRequestDTO holdDTO) {
+        try {
+            SeatHoldResponseDTO hold = seatHoldService.createHold(holdDTO);
+            URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                                                        .path("/{id}")
+                                                        .buildAndExpand(hold.getHoldId())
+                                                        .toUri();
+            return ResponseEntity.created(location).body(hold);
+        } catch (VenueSoldOutException | SeatNotAvailableException exception) {
+            return ResponseEntity.ok().body(exception.getMessage());
+        } catch (EntityNotFoundException entityNotFoundException) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/best-available")
+    public ResponseEntity<?> createBestAvailableHold(@RequestBody @Validated(Create.class) BestAvailableHoldRequestDTO holdDTO) {
+        try {
+            SeatHoldResponseDTO hold = seatHoldService.createBestAvailableHold(holdDTO);
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                                                        .path("/api/v1/bookings/holds/{id}")
+                                                        .buildAndExpand(hold.getHoldId())
+                                                        .toUri();
+            return ResponseEntity.created(location).body(hold);
+        } catch (VenueSoldOutException | SeatNotAvailableException exception) {
+            return ResponseEntity.ok().body(exception.getMessage());
+        } catch (EntityNotFoundException entityNotFoundException) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<SeatHoldResponseDTO> getHold(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok().body(seatHoldService.getHold(id));
+        } catch (EntityNotFoundException entityNotFoundException) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<?> confirmHold(@PathVariable String id) {
+        try {
+            List<BookingResponseDTO> bookings = seatHoldService.confirmHold(id);
+            return ResponseEntity.ok().body(bookings);
+        } catch (EntityNotFoundException entityNotFoundException) {
+            return ResponseEntity.notFound().build();
+        } catch (SeatNotAvailableException exception) {
+            return ResponseEntity.ok().body(exception.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String id) {
+        try {
+            seatHoldService.releaseHold(id);
+            return ResponseEntity.ok().build();
+        } catch (EntityNotFoundException entityNotFoundException) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.carolina.booking_service.controller;
 
 import com.carolina.booking_service.exception.UserAlreadyExistsException;
+import com.carolina.booking_service.model.ResourceVersion;
 import com.carolina.booking_service.model.User;
 import com.carolina.booking_service.model.UserBookingDTO;
 import com.carolina.booking_service.service.BookingService;
@@ -8,9 +9,11 @@ import com.carolina.booking_service.service.UserService;
 import com.carolina.booking_service.validation.Create;
 import com.carolina.booking_service.validation.Update;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.persistence.EntityNotFoundException;
@@ -20,6 +23,8 @@ import java.net.URI;
 @RequestMapping("/api/v1/users")
 public class UserController {
 
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private UserService userService;
     private BookingService bookingService;
 
@@ -30,18 +35,30 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUser(@PathVariable Long id) {
+    public ResponseEntity<User> getUser(@PathVariable Long id, WebRequest request) {
         try {
+            ResourceVersion version = userService.getUserVersion(id);
+            if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+                return null;
+            }
             User user = userService.getUser(id);
-            return ResponseEntity.ok().body(user);
+            return ResponseEntity.ok().cacheControl(REVALIDATE).body(user);
         } catch (EntityNotFoundException entityNotFoundException) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Answers 304 when the client's ETag or Last-Modified still matches, without mapping the bookings or looking up
+     * their shows
+     */
     @GetMapping("/{id}/bookings")
-    public ResponseEntity<UserBookingDTO> getUserBookings(@PathVariable("id") Long id) {
-        return ResponseEntity.ok().body(bookingService.getBookingsByUser(id));
+    public ResponseEntity<UserBookingDTO> getUserBookings(@PathVariable("id") Long id, WebRequest request) {
+        ResourceVersion version = bookingService.getBookingsByUserVersion(id);
+        if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(bookingService.getBookingsByUser(id));
     }
 
     @PostMapping
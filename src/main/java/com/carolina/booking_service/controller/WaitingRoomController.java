@@ -0,0 +1,57 @@
+package com.carolina.booking_service.controller;
+
+import com.carolina.booking_service.admission.WaitingRoom;
+import com.carolina.booking_service.model.QueueTicketDTO;
+import com.carolina.booking_service.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+@RequestMapping("/api/v1/waiting-room")
+@RestController
+public class WaitingRoomController {
+
+    private final WaitingRoom waitingRoom;
+    private final JwtUtil jwtUtil;
+
+    @Autowired
+    public WaitingRoomController(WaitingRoom waitingRoom, JwtUtil jwtUtil) {
+        this.waitingRoom = waitingRoom;
+        this.jwtUtil = jwtUtil;
+    }
+
+    // The waiting room is outside the security chain's authentication, so joining reads the user from the
+    // bearer token's signature alone instead of loading them on every spike request
+    @PostMapping
+    public ResponseEntity<QueueTicketDTO> joinQueue(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String owner = jwtUtil.extractUsernameFromHeader(authorization);
+        if (owner == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        WaitingRoom.Ticket ticket = waitingRoom.join(owner, System.currentTimeMillis());
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                                                    .path("/{token}")
+                                                    .buildAndExpand(ticket.getToken())
+                                                    .toUri();
+        return ResponseEntity.created(location).body(mapToDTO(ticket));
+    }
+
+    @GetMapping("/{token}")
+    public ResponseEntity<QueueTicketDTO> getPosition(@PathVariable String token) {
+        WaitingRoom.Ticket ticket = waitingRoom.poll(token, System.currentTimeMillis());
+        if (ticket == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().body(mapToDTO(ticket));
+    }
+
+    private QueueTicketDTO mapToDTO(WaitingRoom.Ticket ticket) {
+        return new QueueTicketDTO(ticket.getToken(), waitingRoom.getPosition(ticket), ticket.isAdmitted(),
+                waitingRoom.getEstimatedWaitSeconds(ticket));
+    }
+}
@@ -0,0 +1,84 @@
+package com.carolina.booking_service.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Remembers recent writes, so reads that could miss them on a lagging replica go to the primary instead.
+ * With the USER policy only the user who wrote reads from the primary, for the window after the commit.
+ * With GLOBAL any write sends every read to the primary for the window, and with NONE reads always use the replica
+ */
+public class ReadYourWrites {
+
+    public enum Policy {
+        NONE, USER, GLOBAL
+    }
+
+    private static final String EVERYONE = "";
+
+    private final Policy policy;
+    private final Supplier<String> currentUser;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(Policy policy, Duration window) {
+        this(policy, window, ReadYourWrites::authenticatedUser, Ticker.systemTicker());
+    }
+
+    ReadYourWrites(Policy policy, Duration window, Supplier<String> currentUser, Ticker ticker) {
+        this.policy = policy;
+        this.currentUser = currentUser;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Records that the current user just committed a write
+     */
+    public void recordWrite() {
+        String key = key();
+        if (key != null) {
+            recentWriters.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @return true if the current user wrote within the window and has to read from the primary
+     */
+    public boolean mustReadPrimary() {
+        String key = key();
+        return key != null && recentWriters.getIfPresent(key) != null;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    private String key() {
+        switch (policy) {
+            case USER:
+                // Writes made without a user, like expiring holds, don't pin anyone to the primary
+                return currentUser.get();
+            case GLOBAL:
+                return EVERYONE;
+            default:
+                return null;
+        }
+    }
+
+    private static String authenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,73 @@
+package com.carolina.booking_service.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything else.
+ * The route is picked when a connection is fetched, so this has to sit behind a LazyConnectionDataSourceProxy:
+ * transaction managers fetch the connection before the transaction is marked read-only, the proxy only
+ * fetches it at the first statement. A read-write transaction that commits is recorded in ReadYourWrites,
+ * which may send the following read-only transactions to the primary as well.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    enum Route {
+        PRIMARY, REPLICA, PRIMARY_AFTER_WRITE
+    }
+
+    private final ReadYourWrites readYourWrites;
+    private final AtomicLongArray routed = new AtomicLongArray(Route.values().length);
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        targets.put(Route.REPLICA, replica);
+        targets.put(Route.PRIMARY_AFTER_WRITE, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = route();
+        routed.incrementAndGet(route.ordinal());
+        return route;
+    }
+
+    private Route route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        readYourWrites.recordWrite();
+                    }
+                });
+            }
+            return Route.PRIMARY;
+        }
+        return readYourWrites.mustReadPrimary() ? Route.PRIMARY_AFTER_WRITE : Route.REPLICA;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Route route : Route.values()) {
+            FunctionCounter.builder("datasource.routing.connections", this, dataSource -> dataSource.routed.get(route.ordinal()))
+                    .description("Connections handed out by the routing data source, by where they went")
+                    .tag("route", route.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.carolina.booking_service.eventlog;
+
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.inventory.ShowInventory;
+import com.carolina.booking_service.model.SeatEvent;
+import com.carolina.booking_service.model.SeatEventType;
+import com.carolina.booking_service.model.ShowSeat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of committed seat changes, split into memory-mapped segments, with periodic snapshots of the
+ * booked seats of every tracked show. On startup the seat inventory is rebuilt from the latest snapshot plus the
+ * events after it, instead of loading every show from the database.
+ * The log tracks a show from its first event on, starting from the seats its inventory was loaded with. Those seats
+ * are written to a layout file before the first event, so recovery never needs the database or show-service.
+ * Events of a show with neither a snapshot nor a layout, as written by earlier versions, are skipped: the show is
+ * loaded from the database on first use instead.
+ */
+@Component
+public class SeatEventLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatEventLog.class);
+
+    private final SeatInventory seatInventory;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+
+    private final Map<Long, ShowSeats> seatsByShow = new HashMap<>();
+    private SeatEventSegment segment;
+    private long lastSequence;
+
+    @Autowired
+    public SeatEventLog(SeatInventory seatInventory,
+                        @Value("${seatEvents.enabled:false}") boolean enabled,
+                        @Value("${seatEvents.directory:seat-events}") String directory,
+                        @Value("${seatEvents.segmentBytes:67108864}") int segmentBytes) {
+        if (segmentBytes < SeatEventSegment.RECORD_BYTES) {
+            throw new IllegalArgumentException("A segment must hold at least one event");
+        }
+        this.seatInventory = seatInventory;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Rebuilds the inventory of every show in the log and opens the log for appending
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        int restored = recover();
+        logger.info("Restored the seat inventory of {} show(s) from the seat event log up to event {} in {} ms",
+                restored, lastSequence, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private synchronized int recover() throws IOException {
+        long snapshotSequence = 0;
+        Path snapshotPath = latest(SeatSnapshot::isSnapshot, SeatSnapshot::sequenceOf);
+        if (snapshotPath != null) {
+            SeatSnapshot snapshot = SeatSnapshot.read(snapshotPath);
+            snapshotSequence = snapshot.getSequence();
+            snapshot.getSeatsByShow().forEach((showId, showSeats) -> seatsByShow.put(showId, new ShowSeats(showSeats)));
+        }
+        // Shows first tracked after the snapshot, a layout left behind by a crash during a snapshot is older than it
+        for (Path layoutPath : list(SeatSnapshot::isLayout, SeatSnapshot::showIdOf)) {
+            SeatSnapshot.read(layoutPath).getSeatsByShow()
+                    .forEach((showId, showSeats) -> seatsByShow.putIfAbsent(showId, new ShowSeats(showSeats)));
+        }
+
+        int[] skipped = {0};
+        lastSequence = snapshotSequence;
+        for (Path path : list(SeatEventSegment::isSegment, SeatEventSegment::firstSequenceOf)) {
+            if (segment != null) {
+                segment.close();
+            }
+            segment = SeatEventSegment.open(path);
+            if (segment.getFirstSequence() > lastSequence + 1) {
+                throw new IllegalStateException("The seat event log is missing the events before " + path);
+            }
+            lastSequence = segment.replay(segment.getFirstSequence() - 1, event -> {
+                if (event.getSequence() <= this.lastSequence) {
+                    return;
+                }
+                ShowSeats showSeats = seatsByShow.get(event.getShowId());
+                if (showSeats != null) {
+                    showSeats.apply(event);
+                } else {
+                    skipped[0]++;
+                }
+            });
+            lastSequence = Math.max(lastSequence, snapshotSequence);
+        }
+        if (segment == null) {
+            segment = SeatEventSegment.create(directory, lastSequence + 1, segmentBytes);
+        }
+        if (skipped[0] > 0) {
+            logger.warn("Skipped {} seat event(s) of shows without a layout, they are loaded from the database instead", skipped[0]);
+        }
+
+        for (Map.Entry<Long, ShowSeats> show : seatsByShow.entrySet()) {
+            seatInventory.restore(new ShowInventory(show.getKey(), show.getValue().toShowSeats(show.getKey())));
+        }
+        return seatsByShow.size();
+    }
+
+    /**
+     * Starts tracking a show from the seats its inventory was loaded with, writing them to the show's layout file
+     * so that recovery can replay the show's events on top of them
+     */
+    private ShowSeats track(Long showId) throws IOException {
+        ShowSeats showSeats = seatsByShow.get(showId);
+        if (showSeats == null) {
+            List<ShowSeat> loadedSeats = seatInventory.getShowInventory(showId).getLoadedSeats();
+            new SeatSnapshot(lastSequence, Collections.singletonMap(showId, loadedSeats)).writeLayout(directory, showId);
+            showSeats = new ShowSeats(loadedSeats);
+            seatsByShow.put(showId, showSeats);
+        }
+        return showSeats;
+    }
+
+    /**
+     * Records the seat change once the current transaction commits, or right away outside of one.
+     * Callers hold the seat's lock until the transaction completes, so events of one seat are logged in commit order
+     * @param type: SeatEventType
+     * @param showId: show id
+     * @param seatId: seat id
+     * @param previousSeatId: seat given up by a swap, null otherwise
+     */
+    public void recordAfterCommit(SeatEventType type, Long showId, Integer seatId, Integer previousSeatId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(type, showId, seatId, previousSeatId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(type, showId, seatId, previousSeatId);
+            }
+        });
+    }
+
+    private void record(SeatEventType type, Long showId, Integer seatId, Integer previousSeatId) {
+        try {
+            append(type, showId, seatId, previousSeatId);
+        } catch (RuntimeException exception) {
+            // The change is committed, the reconciler catches the inventory up if it is ever rebuilt without it
+            logger.error("Couldn't log {} of seat {} for show {}", type, seatId, showId, exception);
+        }
+    }
+
+    /**
+     * Appends the event, rolling over to a new segment when the current one is full
+     * @param type: SeatEventType
+     * @param showId: show id
+     * @param seatId: seat id
+     * @param previousSeatId: seat given up by a swap, null otherwise
+     * @return SeatEvent
+     */
+    public synchronized SeatEvent append(SeatEventType type, Long showId, Integer seatId, Integer previousSeatId) {
+        if (!enabled) {
+            throw new IllegalStateException("The seat event log is disabled");
+        }
+        SeatEvent event = new SeatEvent(lastSequence + 1, type, showId, seatId, previousSeatId, System.currentTimeMillis());
+        ShowSeats showSeats;
+        try {
+            // The layout is on disk before the show's first event is
+            showSeats = track(showId);
+            if (!segment.append(event)) {
+                segment.force();
+                segment.close();
+                segment = SeatEventSegment.create(directory, event.getSequence(), segmentBytes);
+                segment.append(event);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        lastSequence = event.getSequence();
+        showSeats.apply(event);
+        return event;
+    }
+
+    /**
+     * Writes a snapshot of every tracked show and deletes the segments and snapshots it makes redundant
+     * @return sequence of the last event in the snapshot
+     */
+    @Scheduled(fixedDelayString = "${seatEvents.snapshotIntervalMs:60000}",
+            initialDelayString = "${seatEvents.snapshotIntervalMs:60000}")
+    public long snapshot() throws IOException {
+        if (!enabled) {
+            return 0;
+        }
+        SeatSnapshot snapshot;
+        synchronized (this) {
+            segment.force();
+            Map<Long, List<ShowSeat>> copy = new HashMap<>();
+            seatsByShow.forEach((showId, showSeats) -> copy.put(showId, showSeats.toShowSeats(showId)));
+            snapshot = new SeatSnapshot(lastSequence, copy);
+        }
+        Path written = snapshot.write(directory);
+
+        // Every event of a segment is in the snapshot once the next segment starts at or before it
+        List<Path> segments = list(SeatEventSegment::isSegment, SeatEventSegment::firstSequenceOf);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            long nextStart = SeatEventSegment.firstSequenceOf(segments.get(i + 1));
+            if (nextStart <= snapshot.getSequence() + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+        for (Path path : list(SeatSnapshot::isSnapshot, SeatSnapshot::sequenceOf)) {
+            if (!path.equals(written)) {
+                Files.deleteIfExists(path);
+            }
+        }
+        // Layouts of shows tracked since the snapshot was taken are still needed
+        for (Path path : list(SeatSnapshot::isLayout, SeatSnapshot::showIdOf)) {
+            if (snapshot.getSeatsByShow().containsKey(SeatSnapshot.showIdOf(path))) {
+                Files.deleteIfExists(path);
+            }
+        }
+        return snapshot.getSequence();
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (segment != null) {
+            segment.force();
+            segment.close();
+            segment = null;
+        }
+    }
+
+    private Path latest(Predicate<Path> filter, ToLongFunction<Path> order) throws IOException {
+        List<Path> paths = list(filter, order);
+        return paths.isEmpty() ? null : paths.get(paths.size() - 1);
+    }
+
+    private List<Path> list(Predicate<Path> filter, ToLongFunction<Path> order) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(filter)
+                    .sorted((first, second) -> Long.compare(order.applyAsLong(first), order.applyAsLong(second)))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Seat layout of a tracked show and which of its seats are booked
+     */
+    private static class ShowSeats {
+
+        private final List<ShowSeat> layout;
+        private final BitSet booked = new BitSet();
+
+        private ShowSeats(List<ShowSeat> showSeats) {
+            this.layout = new ArrayList<>(showSeats);
+            for (ShowSeat showSeat : showSeats) {
+                if (showSeat.isBooked()) {
+                    booked.set(showSeat.getSeatId());
+                }
+            }
+        }
+
+        private void apply(SeatEvent event) {
+            if (event.getType() == SeatEventType.RELEASED) {
+                booked.clear(event.getSeatId());
+                return;
+            }
+            booked.set(event.getSeatId());
+            if (event.getType() == SeatEventType.SWAPPED && event.getPreviousSeatId() != null) {
+                booked.clear(event.getPreviousSeatId());
+            }
+        }
+
+        private List<ShowSeat> toShowSeats(Long showId) {
+            List<ShowSeat> showSeats = new ArrayList<>(layout.size());
+            for (ShowSeat showSeat : layout) {
+                showSeats.add(new ShowSeat(showId, showSeat.getSeatId(), showSeat.getVenueArea(),
+                        booked.get(showSeat.getSeatId()), showSeat.getRowIndex(), showSeat.getSeatNumber()));
+            }
+            return showSeats;
+        }
+    }
+}
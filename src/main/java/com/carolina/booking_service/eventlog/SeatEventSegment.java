@@ -0,0 +1,177 @@
+package com.carolina.booking_service.eventlog;
+
+import com.carolina.booking_service.model.SeatEvent;
+import com.carolina.booking_service.model.SeatEventType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * One file of the seat event log, mapped into memory at a fixed size and filled with fixed-size records.
+ * Appending is a copy into the mapping, the operating system writes the pages back; an unwritten record
+ * is all zeroes, so the end of the log is the first record whose type or checksum doesn't match.
+ * Not thread-safe, the log serializes access.
+ */
+class SeatEventSegment implements Closeable {
+
+    private static final Pattern FILE_NAME = Pattern.compile("seat-events-(\\d{20})\\.log");
+    // crc, type, padding, sequence, showId, seatId, previousSeatId, createdAt
+    static final int RECORD_BYTES = Integer.BYTES + 4 + Long.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int TYPE_OFFSET = Integer.BYTES;
+    private static final int SEQUENCE_OFFSET = TYPE_OFFSET + 4;
+
+    private final long firstSequence;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private SeatEventSegment(long firstSequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.firstSequence = firstSequence;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates and maps a new segment whose first event will have the given sequence
+     * @param directory: directory of the log
+     * @param firstSequence: sequence of the first event
+     * @param segmentBytes: size of the file
+     * @return SeatEventSegment
+     */
+    static SeatEventSegment create(Path directory, long firstSequence, int segmentBytes) throws IOException {
+        Path path = directory.resolve(fileName(firstSequence));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int size = segmentBytes - segmentBytes % RECORD_BYTES;
+        return new SeatEventSegment(firstSequence, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    /**
+     * Maps an existing segment, positioned at its start
+     * @param path: file of the segment
+     * @return SeatEventSegment
+     */
+    static SeatEventSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size() - channel.size() % RECORD_BYTES;
+        return new SeatEventSegment(firstSequenceOf(path), path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    static String fileName(long firstSequence) {
+        return String.format("seat-events-%020d.log", firstSequence);
+    }
+
+    static boolean isSegment(Path path) {
+        return FILE_NAME.matcher(path.getFileName().toString()).matches();
+    }
+
+    static long firstSequenceOf(Path path) {
+        Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(path + " isn't a seat event segment");
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    long getFirstSequence() {
+        return firstSequence;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Reads the records from the start of the segment up to the first incomplete one and leaves the segment
+     * positioned right after the last good record, ready for appending
+     * @param afterSequence: sequence of the last event that precedes this segment
+     * @param consumer: receives every event read
+     * @return sequence of the last event read, or afterSequence if there was none
+     */
+    long replay(long afterSequence, Consumer<SeatEvent> consumer) {
+        long lastSequence = afterSequence;
+        buffer.position(0);
+        while (buffer.remaining() >= RECORD_BYTES) {
+            int start = buffer.position();
+            SeatEvent event = read(start);
+            // Sequences only grow, anything else is a record left over from before a crash
+            if (event == null || event.getSequence() <= lastSequence) {
+                break;
+            }
+            consumer.accept(event);
+            lastSequence = event.getSequence();
+            buffer.position(start + RECORD_BYTES);
+        }
+        return lastSequence;
+    }
+
+    private SeatEvent read(int start) {
+        int type = buffer.get(start + TYPE_OFFSET);
+        if (type <= 0 || type > SeatEventType.values().length || buffer.getInt(start) != crcOf(start)) {
+            return null;
+        }
+        int seatId = buffer.getInt(start + SEQUENCE_OFFSET + 2 * Long.BYTES);
+        int previousSeatId = buffer.getInt(start + SEQUENCE_OFFSET + 2 * Long.BYTES + Integer.BYTES);
+        return new SeatEvent(
+                buffer.getLong(start + SEQUENCE_OFFSET),
+                SeatEventType.values()[type - 1],
+                buffer.getLong(start + SEQUENCE_OFFSET + Long.BYTES),
+                seatId,
+                previousSeatId < 0 ? null : previousSeatId,
+                buffer.getLong(start + SEQUENCE_OFFSET + 2 * Long.BYTES + 2 * Integer.BYTES)
+        );
+    }
+
+    /**
+     * Writes the event after the last record
+     * @param event: SeatEvent
+     * @return false if the segment is full
+     */
+    boolean append(SeatEvent event) {
+        if (buffer.remaining() < RECORD_BYTES) {
+            return false;
+        }
+        int start = buffer.position();
+        buffer.put(start + TYPE_OFFSET, (byte) (event.getType().ordinal() + 1));
+        buffer.putLong(start + SEQUENCE_OFFSET, event.getSequence());
+        buffer.putLong(start + SEQUENCE_OFFSET + Long.BYTES, event.getShowId());
+        buffer.putInt(start + SEQUENCE_OFFSET + 2 * Long.BYTES, event.getSeatId());
+        buffer.putInt(start + SEQUENCE_OFFSET + 2 * Long.BYTES + Integer.BYTES,
+                event.getPreviousSeatId() == null ? -1 : event.getPreviousSeatId());
+        buffer.putLong(start + SEQUENCE_OFFSET + 2 * Long.BYTES + 2 * Integer.BYTES, event.getCreatedAtMillis());
+        // The checksum goes in last, so a record is only valid once it is complete
+        buffer.putInt(start, crcOf(start));
+        buffer.position(start + RECORD_BYTES);
+        return true;
+    }
+
+    private int crcOf(int start) {
+        CRC32 crc = new CRC32();
+        ByteBuffer record = buffer.duplicate();
+        record.position(start + TYPE_OFFSET);
+        record.limit(start + RECORD_BYTES);
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Writes the mapped pages back to the file
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,201 @@
+package com.carolina.booking_service.eventlog;
+
+import com.carolina.booking_service.model.ShowSeat;
+import com.carolina.booking_service.model.VenueArea;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Seat layout and booked seats of every tracked show as of one sequence of the seat event log.
+ * The booked seats are stored as a bitmap, so a snapshot costs a few bytes per seat plus one bit.
+ * A show that starts being tracked between snapshots gets a layout file of its own in the same format,
+ * holding just that show, until the next snapshot takes it in
+ */
+class SeatSnapshot {
+
+    private static final Pattern FILE_NAME = Pattern.compile("snapshot-(\\d{20})\\.bin");
+    private static final Pattern LAYOUT_FILE_NAME = Pattern.compile("layout-(\\d{20})\\.bin");
+    private static final int MAGIC = 0x53454154;
+    private static final int VERSION = 1;
+    // magic, version, sequence, number of shows
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    // seat id, venue area, row index, seat number
+    private static final int SEAT_BYTES = Integer.BYTES + 1 + Integer.BYTES + Integer.BYTES;
+
+    private final long sequence;
+    private final Map<Long, List<ShowSeat>> seatsByShow;
+
+    SeatSnapshot(long sequence, Map<Long, List<ShowSeat>> seatsByShow) {
+        this.sequence = sequence;
+        this.seatsByShow = seatsByShow;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    Map<Long, List<ShowSeat>> getSeatsByShow() {
+        return seatsByShow;
+    }
+
+    static boolean isSnapshot(Path path) {
+        return FILE_NAME.matcher(path.getFileName().toString()).matches();
+    }
+
+    static long sequenceOf(Path path) {
+        Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(path + " isn't a seat snapshot");
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    static boolean isLayout(Path path) {
+        return LAYOUT_FILE_NAME.matcher(path.getFileName().toString()).matches();
+    }
+
+    static long showIdOf(Path path) {
+        Matcher matcher = LAYOUT_FILE_NAME.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(path + " isn't a show layout");
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    static Path layoutPath(Path directory, long showId) {
+        return directory.resolve(String.format("layout-%020d.bin", showId));
+    }
+
+    /**
+     * Writes the snapshot next to the log, replacing the file in one step so a crash never leaves half of one
+     * @param directory: directory of the log
+     * @return the snapshot file
+     */
+    Path write(Path directory) throws IOException {
+        return write(directory, directory.resolve(String.format("snapshot-%020d.bin", sequence)));
+    }
+
+    /**
+     * Writes a snapshot holding a single show as the show's layout file
+     * @param directory: directory of the log
+     * @param showId: show id
+     * @return the layout file
+     */
+    Path writeLayout(Path directory, long showId) throws IOException {
+        return write(directory, layoutPath(directory, showId));
+    }
+
+    private Path write(Path directory, Path path) throws IOException {
+        Map<Long, long[]> bookedByShow = new HashMap<>();
+        int size = HEADER_BYTES + Long.BYTES;
+        for (Map.Entry<Long, List<ShowSeat>> show : seatsByShow.entrySet()) {
+            BitSet booked = new BitSet();
+            for (ShowSeat showSeat : show.getValue()) {
+                if (showSeat.isBooked()) {
+                    booked.set(showSeat.getSeatId());
+                }
+            }
+            long[] words = booked.toLongArray();
+            bookedByShow.put(show.getKey(), words);
+            size += Long.BYTES + Integer.BYTES + show.getValue().size() * SEAT_BYTES + Integer.BYTES + words.length * Long.BYTES;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(sequence).putInt(seatsByShow.size());
+        for (Map.Entry<Long, List<ShowSeat>> show : seatsByShow.entrySet()) {
+            buffer.putLong(show.getKey()).putInt(show.getValue().size());
+            for (ShowSeat showSeat : show.getValue()) {
+                buffer.putInt(showSeat.getSeatId())
+                        .put((byte) showSeat.getVenueArea().ordinal())
+                        .putInt(showSeat.getRowIndex() == null ? -1 : showSeat.getRowIndex())
+                        .putInt(showSeat.getSeatNumber() == null ? -1 : showSeat.getSeatNumber());
+            }
+            long[] words = bookedByShow.get(show.getKey());
+            buffer.putInt(words.length);
+            for (long word : words) {
+                buffer.putLong(word);
+            }
+        }
+        // The checksum covers everything before it
+        buffer.putLong(crcOf(buffer.array(), buffer.position()));
+        buffer.flip();
+
+        Path temporary = directory.resolve(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return path;
+    }
+
+    /**
+     * Reads a snapshot, checking that it is complete
+     * @param path: snapshot file
+     * @return SeatSnapshot
+     */
+    static SeatSnapshot read(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length < HEADER_BYTES + Long.BYTES
+                || ByteBuffer.wrap(bytes, bytes.length - Long.BYTES, Long.BYTES).getLong() != crcOf(bytes, bytes.length - Long.BYTES)) {
+            throw new IOException(path + " is corrupt");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, bytes.length - Long.BYTES);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException(path + " isn't a seat snapshot this version can read");
+        }
+        long sequence = buffer.getLong();
+        int showCount = buffer.getInt();
+        Map<Long, List<ShowSeat>> seatsByShow = new HashMap<>();
+        for (int show = 0; show < showCount; show++) {
+            long showId = buffer.getLong();
+            int seatCount = buffer.getInt();
+            // The bitmap comes after the seats, so read it first
+            int seatsStart = buffer.position();
+            buffer.position(seatsStart + seatCount * SEAT_BYTES);
+            long[] words = new long[buffer.getInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = buffer.getLong();
+            }
+            int showEnd = buffer.position();
+            BitSet booked = BitSet.valueOf(words);
+
+            buffer.position(seatsStart);
+            List<ShowSeat> showSeats = new ArrayList<>(seatCount);
+            for (int i = 0; i < seatCount; i++) {
+                int seatId = buffer.getInt();
+                VenueArea venueArea = VenueArea.values()[buffer.get()];
+                int rowIndex = buffer.getInt();
+                int seatNumber = buffer.getInt();
+                showSeats.add(new ShowSeat(showId, seatId, venueArea, booked.get(seatId),
+                        rowIndex < 0 ? null : rowIndex, seatNumber < 0 ? null : seatNumber));
+            }
+            buffer.position(showEnd);
+            seatsByShow.put(showId, showSeats);
+        }
+        return new SeatSnapshot(sequence, seatsByShow);
+    }
+
+    private static long crcOf(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,8 @@
+package com.carolina.booking_service.exception;
+
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    public IdempotencyKeyInUseException() {
+        super("A request with this Idempotency-Key is still being processed!");
+    }
+}
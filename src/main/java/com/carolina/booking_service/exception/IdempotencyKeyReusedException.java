@@ -0,0 +1,8 @@
+package com.carolina.booking_service.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException() {
+        super("The Idempotency-Key has already been used for a different request!");
+    }
+}
@@ -0,0 +1,8 @@
+package com.carolina.booking_service.exception;
+
+public class ShowServiceUnavailableException extends RuntimeException {
+
+    public ShowServiceUnavailableException(String reason) {
+        super("show-service is currently not available: " + reason);
+    }
+}
@@ -0,0 +1,17 @@
+package com.carolina.booking_service.inventory;
+
+import java.util.Collection;
+
+/**
+ * Seats claimed in the in-memory inventory that the show_seat table doesn't know are taken yet,
+ * such as holds and bookings still waiting in the ledger
+ */
+public interface PendingClaims {
+
+    /**
+     * Returns the seats of the show that are claimed in memory but still free in the database
+     * @param showId: show id
+     * @return Collection<Integer>
+     */
+    Collection<Integer> getPendingSeatIds(Long showId);
+}
@@ -0,0 +1,147 @@
+package com.carolina.booking_service.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size bitset indexed by seat ordinal, where a set bit means the seat can still be claimed.
+ * Claiming and releasing a seat is a single compare-and-set on the 64-bit word holding its bit,
+ * so concurrent callers never need a lock and never both win the same seat.
+ */
+public class SeatBitmap {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private final AtomicLongArray words;
+    private final int size;
+
+    public SeatBitmap(int size) {
+        this.size = size;
+        this.words = new AtomicLongArray(wordIndex(size - 1) + 1);
+    }
+
+    private static int wordIndex(int ordinal) {
+        return ordinal >> ADDRESS_BITS_PER_WORD;
+    }
+
+    /**
+     * Number of ordinals this bitmap can hold
+     * @return int
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Marks the seat as available, used while loading the bitmap
+     * @param ordinal: seat ordinal
+     */
+    public void set(int ordinal) {
+        release(ordinal);
+    }
+
+    /**
+     * Informs if the seat is currently available
+     * @param ordinal: seat ordinal
+     * @return boolean
+     */
+    public boolean isAvailable(int ordinal) {
+        if (ordinal < 0 || ordinal >= this.size) {
+            return false;
+        }
+        return (this.words.get(wordIndex(ordinal)) & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Atomically flips the seat from available to claimed
+     * @param ordinal: seat ordinal
+     * @return true if this call claimed the seat, false if it was not available
+     */
+    public boolean tryClaim(int ordinal) {
+        if (ordinal < 0 || ordinal >= this.size) {
+            return false;
+        }
+        int index = wordIndex(ordinal);
+        long mask = 1L << ordinal;
+        while (true) {
+            long current = this.words.get(index);
+            if ((current & mask) == 0) {
+                return false;
+            }
+            if (this.words.compareAndSet(index, current, current & ~mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically flips the seat from claimed back to available
+     * @param ordinal: seat ordinal
+     * @return true if this call released the seat, false if it was already available
+     */
+    public boolean release(int ordinal) {
+        if (ordinal < 0 || ordinal >= this.size) {
+            return false;
+        }
+        int index = wordIndex(ordinal);
+        long mask = 1L << ordinal;
+        while (true) {
+            long current = this.words.get(index);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (this.words.compareAndSet(index, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Finds the first available seat at or after the given ordinal
+     * @param fromOrdinal: ordinal to start from
+     * @return the ordinal, or -1 if there is none
+     */
+    public int nextAvailable(int fromOrdinal) {
+        if (fromOrdinal < 0) {
+            fromOrdinal = 0;
+        }
+        if (fromOrdinal >= this.size) {
+            return -1;
+        }
+        int index = wordIndex(fromOrdinal);
+        long word = this.words.get(index) & (-1L << fromOrdinal);
+        while (true) {
+            if (word != 0) {
+                int ordinal = (index << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                return ordinal < this.size ? ordinal : -1;
+            }
+            if (++index == this.words.length()) {
+                return -1;
+            }
+            word = this.words.get(index);
+        }
+    }
+
+    /**
+     * Copies the bitset, bit (ordinal % 8) of byte (ordinal / 8) being the seat with that ordinal
+     * @return byte[]
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[(this.size + 7) / 8];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (this.words.get(i >> 3) >>> ((i & 7) << 3));
+        }
+        return bytes;
+    }
+
+    /**
+     * Counts the available seats
+     * @return int
+     */
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < this.words.length(); i++) {
+            count += Long.bitCount(this.words.get(i));
+        }
+        return count;
+    }
+}
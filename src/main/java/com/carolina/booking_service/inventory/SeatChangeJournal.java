@@ -0,0 +1,128 @@
+package com.carolina.booking_service.inventory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The most recent seat changes of a show in a fixed-size ring, each numbered with the version it produced.
+ * A client that has seen version N catches up with just the seats changed after it, as long as those changes
+ * are still in the ring. Versions of a new journal start from the wall clock in microseconds, so a version handed
+ * out by an earlier inventory of the show, in this process or a previous one, is never taken for one of its own.
+ * Lock-free: a change takes its version from an atomic sequence and is published into its ring slot with a
+ * compare-and-set, and readers only see versions whose changes, and every earlier one, are published
+ */
+public class SeatChangeJournal {
+
+    private final AtomicReferenceArray<Change> ring;
+    private final long firstVersion;
+    private final AtomicLong sequence;
+    // Highest version known to have every change up to it published, moved forward by whoever reads it
+    private final AtomicLong published;
+
+    public SeatChangeJournal(int capacity) {
+        this(capacity, System.currentTimeMillis() * 1000);
+    }
+
+    SeatChangeJournal(int capacity, long firstVersion) {
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.firstVersion = firstVersion;
+        this.sequence = new AtomicLong(firstVersion);
+        this.published = new AtomicLong(firstVersion);
+    }
+
+    /**
+     * Records the new state of the seat
+     * @param seatId: seat id
+     * @param available: true if the seat became available, false if it was claimed
+     * @return the version this change produced
+     */
+    public long record(int seatId, boolean available) {
+        long version = sequence.incrementAndGet();
+        Change change = new Change(version, seatId, available);
+        int slot = slotOf(version);
+        // A writer that stalled for a whole lap of the ring must not overwrite the newer change in its slot
+        Change current;
+        do {
+            current = ring.get(slot);
+            if (current != null && current.version > version) {
+                break;
+            }
+        } while (!ring.compareAndSet(slot, current, change));
+        return version;
+    }
+
+    /**
+     * @return long, version of the last change that, along with every change before it, is published
+     */
+    public long getVersion() {
+        long last = sequence.get();
+        // Changes a whole lap behind are either in the ring or already overwritten, never still to come
+        long version = Math.max(published.get(), last - ring.length());
+        while (version < last) {
+            Change next = ring.get(slotOf(version + 1));
+            if (next == null || next.version < version + 1) {
+                break;
+            }
+            version++;
+        }
+        long seen = published.get();
+        while (seen < version && !published.compareAndSet(seen, version)) {
+            seen = published.get();
+        }
+        return Math.max(version, seen);
+    }
+
+    /**
+     * Returns the latest state of every seat changed after the version
+     * @param sinceVersion: version the caller has seen
+     * @return Map<Integer, Boolean>, true for seats that became available, or null if the version is unknown
+     * to this journal or its changes have already been overwritten
+     */
+    public Map<Integer, Boolean> getChangesSince(long sinceVersion) {
+        return getChangesBetween(sinceVersion, getVersion());
+    }
+
+    /**
+     * Returns the latest state of every seat changed after one version, up to and including another
+     * @param sinceVersion: version the caller has seen
+     * @param untilVersion: version obtained from {@link #getVersion()}
+     * @return Map<Integer, Boolean>, true for seats that became available, or null if the version is unknown
+     * to this journal or its changes have already been overwritten
+     */
+    public Map<Integer, Boolean> getChangesBetween(long sinceVersion, long untilVersion) {
+        if (sinceVersion < Math.max(firstVersion, untilVersion - ring.length()) || sinceVersion > untilVersion) {
+            return null;
+        }
+        Map<Integer, Boolean> changes = new LinkedHashMap<>();
+        for (long version = sinceVersion + 1; version <= untilVersion; version++) {
+            Change change = ring.get(slotOf(version));
+            // Overwritten by a later lap while being read
+            if (change == null || change.version != version) {
+                return null;
+            }
+            // A seat that changed twice ends up with its last state
+            changes.remove(change.seatId);
+            changes.put(change.seatId, change.available);
+        }
+        return changes;
+    }
+
+    private int slotOf(long version) {
+        return (int) (version % ring.length());
+    }
+
+    private static class Change {
+
+        private final long version;
+        private final int seatId;
+        private final boolean available;
+
+        private Change(long version, int seatId, boolean available) {
+            this.version = version;
+            this.seatId = seatId;
+            this.available = available;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.carolina.booking_service.inventory;
+
+import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.ShowSeat;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.repository.BookingRepository;
+import com.carolina.booking_service.repository.SeatRepository;
+import com.carolina.booking_service.repository.ShowSeatRepository;
+import com.carolina.booking_service.show.ShowNameCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory view of which seats can still be booked, per show.
+ * A show's inventory is loaded on first use, once the show is known to exist, and is then the
+ * gatekeeper for claims: a booking only reaches the database after it has won the seat here.
+ * Reading a show doesn't write anything: until the show is first claimed from, its inventory is built from the
+ * seats and the show's bookings, and only claims create its rows in the show_seat table.
+ * Inventories of shows nobody used for the idle timeout, and with no pending claims, are dropped.
+ */
+@Component
+public class SeatInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatInventory.class);
+
+    private final ShowSeatRepository showSeatRepository;
+    private final SeatRepository seatRepository;
+    private final BookingRepository bookingRepository;
+    private final ShowNameCache showNameCache;
+    private final List<PendingClaims> pendingClaims = new CopyOnWriteArrayList<>();
+    private final long idleTimeoutMillis;
+    private final Map<Long, LoadedShow> inventoryByShow = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> openShows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SeatInventory(ShowSeatRepository showSeatRepository, SeatRepository seatRepository,
+                         BookingRepository bookingRepository, ShowNameCache showNameCache,
+                         @Value("${inventory.idleTimeoutMinutes:1440}") long idleTimeoutMinutes) {
+        this.showSeatRepository = showSeatRepository;
+        this.seatRepository = seatRepository;
+        this.bookingRepository = bookingRepository;
+        this.showNameCache = showNameCache;
+        this.idleTimeoutMillis = Duration.ofMinutes(idleTimeoutMinutes).toMillis();
+    }
+
+    /**
+     * Registers something that claims seats the database doesn't know about. The holders of pending claims depend
+     * on the inventory, so they register themselves instead of being injected
+     * @param claims: PendingClaims
+     */
+    public void addPendingClaims(PendingClaims claims) {
+        pendingClaims.add(claims);
+    }
+
+    /**
+     * Claims the seat for the show if it is enabled and not booked yet
+     * @param showId: show id
+     * @param seatId: seat id
+     * @return true if the seat was claimed by this call
+     */
+    public boolean tryClaim(Long showId, Integer seatId) {
+        return seatId != null && getOpenShowInventory(showId).tryClaim(seatId);
+    }
+
+    /**
+     * Claims the seat for the show in memory only, without creating the show's rows in the show_seat table.
+     * For claims whose writes don't need the rows, such as those of the booking ledger
+     * @param showId: show id
+     * @param seatId: seat id
+     * @return true if the seat was claimed by this call
+     */
+    public boolean tryClaimWithoutOpening(Long showId, Integer seatId) {
+        return seatId != null && getShowInventory(showId).tryClaim(seatId);
+    }
+
+    /**
+     * Claims the first run of adjacent free seats in the venue area for the show, front row first
+     * @param showId: show id
+     * @param venueArea: venue area
+     * @param quantity: number of adjacent seats wanted
+     * @return the claimed seat ids, or an empty list if there is no such run
+     */
+    public List<Integer> claimAdjacent(Long showId, VenueArea venueArea, int quantity) {
+        return getOpenShowInventory(showId).claimAdjacent(venueArea, quantity);
+    }
+
+    /**
+     * Makes a previously claimed seat available again for the show. A show that isn't loaded has nothing to give
+     * back, it is loaded as the database has it on next use
+     * @param showId: show id
+     * @param seatId: seat id
+     */
+    public void release(Long showId, Integer seatId) {
+        LoadedShow loadedShow = seatId != null ? inventoryByShow.get(showId) : null;
+        if (loadedShow != null) {
+            loadedShow.showInventory.release(seatId);
+        }
+    }
+
+    /**
+     * Makes the seat available again once the current transaction commits, or right away outside of one,
+     * so a seat whose release is rolled back never becomes claimable
+     * @param showId: show id
+     * @param seatId: seat id
+     */
+    public void releaseAfterCommit(Long showId, Integer seatId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(showId, seatId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(showId, seatId);
+            }
+        });
+    }
+
+    /**
+     * Checks if the seat can currently be claimed for the show
+     * @param showId: show id
+     * @param seatId: seat id
+     * @return boolean
+     */
+    public boolean isAvailable(Long showId, Integer seatId) {
+        return seatId != null && getShowInventory(showId).isAvailable(seatId);
+    }
+
+    /**
+     * Returns the number of seats that can currently be claimed for the show
+     * @param showId: show id
+     * @return int
+     */
+    public int getAvailableCount(Long showId) {
+        return getShowInventory(showId).getAvailableCount();
+    }
+
+    /**
+     * Returns the number of seats in the venue area that can currently be claimed for the show
+     * @param showId: show id
+     * @param venueArea: venue area
+     * @return int
+     */
+    public int getAvailableCount(Long showId, VenueArea venueArea) {
+        return getShowInventory(showId).getAvailableCount(venueArea);
+    }
+
+    /**
+     * Returns the ids of the seats that can currently be claimed for the show
+     * @param showId: show id
+     * @return List<Integer>
+     */
+    public List<Integer> getAvailableSeatIds(Long showId) {
+        return getShowInventory(showId).getAvailableSeatIds();
+    }
+
+    /**
+     * Returns the ids of the seats in the venue area that can currently be claimed for the show
+     * @param showId: show id
+     * @param venueArea: venue area
+     * @return List<Integer>
+     */
+    public List<Integer> getAvailableSeatIds(Long showId, VenueArea venueArea) {
+        return getShowInventory(showId).getAvailableSeatIds(venueArea);
+    }
+
+    /**
+     * Returns the show's inventory, loading it on first use
+     * @param showId: show id
+     * @return ShowInventory
+     * @throws EntityNotFoundException if show-service doesn't know the show
+     */
+    public ShowInventory getShowInventory(Long showId) {
+        LoadedShow loadedShow = inventoryByShow.get(showId);
+        if (loadedShow == null) {
+            // A show with rows was checked when it was opened. Asked outside of the map, so a slow show-service
+            // doesn't hold up other shows
+            if (!showSeatRepository.existsByShowId(showId) && !showNameCache.isKnownShow(showId)) {
+                throw new EntityNotFoundException("Show " + showId + " doesn't exist");
+            }
+            loadedShow = inventoryByShow.computeIfAbsent(showId, id -> new LoadedShow(load(id)));
+        }
+        loadedShow.lastUsedMillis = System.currentTimeMillis();
+        return loadedShow.showInventory;
+    }
+
+    /**
+     * Returns the show's inventory for a claim, creating the show's rows in the show_seat table first.
+     * The rows are committed in their own transaction before the show counts as open, so a booking that rolls back
+     * can't leave an open show without rows. Claims of the same show wait on its inventory while it opens,
+     * instead of inside the map, where the insert would hold up other shows
+     */
+    private ShowInventory getOpenShowInventory(Long showId) {
+        ShowInventory showInventory = getShowInventory(showId);
+        if (!openShows.containsKey(showId)) {
+            synchronized (showInventory) {
+                if (!openShows.containsKey(showId)) {
+                    showSeatRepository.openShow(showId);
+                    openShows.put(showId, Boolean.TRUE);
+                }
+            }
+        }
+        return showInventory;
+    }
+
+    /**
+     * Returns the ids of the loaded shows that have their rows in the show_seat table
+     * @return Set<Long>
+     */
+    public Set<Long> getOpenShowIds() {
+        Set<Long> showIds = new HashSet<>(openShows.keySet());
+        showIds.retainAll(inventoryByShow.keySet());
+        return showIds;
+    }
+
+    /**
+     * Drops the cached inventory of the show, so that it is loaded again on next use
+     * @param showId: show id
+     */
+    public void evict(Long showId) {
+        inventoryByShow.remove(showId);
+        openShows.remove(showId);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.evictionIntervalMs:600000}")
+    public void evictIdleShows() {
+        evictIdleShows(System.currentTimeMillis());
+    }
+
+    /**
+     * Drops the inventories nobody used for the idle timeout, such as those of shows that are over.
+     * Shows with holds or unflushed ledger bookings are kept, those claims aren't in the database
+     * @param nowMillis: epoch millis
+     * @return number of inventories dropped
+     */
+    public int evictIdleShows(long nowMillis) {
+        int evicted = 0;
+        for (Map.Entry<Long, LoadedShow> entry : inventoryByShow.entrySet()) {
+            Long showId = entry.getKey();
+            if (nowMillis - entry.getValue().lastUsedMillis >= idleTimeoutMillis && getPendingSeatIds(showId).isEmpty()
+                    && inventoryByShow.remove(showId, entry.getValue())) {
+                openShows.remove(showId);
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.info("Dropped the seat inventory of {} idle show(s)", evicted);
+        }
+        return evicted;
+    }
+
+    /**
+     * Installs an inventory that was rebuilt without the database, e.g. from the seat event log. The show counts as
+     * open: its seats changed, so its rows were created by the claims, or are by the booking ledger's writer
+     * @param showInventory: ShowInventory
+     */
+    public void restore(ShowInventory showInventory) {
+        inventoryByShow.put(showInventory.getShowId(), new LoadedShow(showInventory));
+        openShows.put(showInventory.getShowId(), Boolean.TRUE);
+    }
+
+    /**
+     * Returns the seats of the show that are claimed in memory, by holds or unflushed ledger bookings,
+     * but still free in the show_seat table
+     * @param showId: show id
+     * @return Set<Integer>
+     */
+    public Set<Integer> getPendingSeatIds(Long showId) {
+        Set<Integer> seatIds = new HashSet<>();
+        for (PendingClaims claims : pendingClaims) {
+            seatIds.addAll(claims.getPendingSeatIds(showId));
+        }
+        return seatIds;
+    }
+
+    /**
+     * Replaces the cached inventory of the show with a fresh copy loaded from the database
+     * @param showId: show id
+     */
+    public void reload(Long showId) {
+        inventoryByShow.compute(showId, (id, previous) -> new LoadedShow(load(id)));
+    }
+
+    /**
+     * Loads the show from its show_seat rows, or from the seats and its bookings while it has none, in which case
+     * the next claim opens it again. Pending claims are taken again, the database can't know about them
+     */
+    private ShowInventory load(Long showId) {
+        List<ShowSeat> showSeats = showSeatRepository.findEnabledByShowId(showId);
+        if (showSeats.isEmpty()) {
+            Set<Integer> bookedSeatIds = new HashSet<>(bookingRepository.findSeatIdsByShowId(showId));
+            showSeats = new ArrayList<>();
+            for (Seat seat : seatRepository.findByEnabledTrue()) {
+                showSeats.add(new ShowSeat(showId, seat.getId(), seat.getVenueArea(), bookedSeatIds.contains(seat.getId()),
+                        seat.getRowIndex(), seat.getSeatNumber()));
+            }
+            openShows.remove(showId);
+        } else {
+            openShows.put(showId, Boolean.TRUE);
+        }
+
+        ShowInventory showInventory = new ShowInventory(showId, showSeats);
+        for (Integer seatId : getPendingSeatIds(showId)) {
+            showInventory.tryClaim(seatId);
+        }
+        return showInventory;
+    }
+
+    private static class LoadedShow {
+
+        private final ShowInventory showInventory;
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+
+        private LoadedShow(ShowInventory showInventory) {
+            this.showInventory = showInventory;
+        }
+    }
+}
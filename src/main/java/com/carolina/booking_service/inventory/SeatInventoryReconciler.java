@@ -0,0 +1,75 @@
+package com.carolina.booking_service.inventory;
+
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.model.VenueAreaCount;
+import com.carolina.booking_service.repository.ShowSeatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Periodically compares the in-memory available seat counters with the show_seat table.
+ * Seats taken by holds or by bookings still waiting in the ledger are free in the database, so they are
+ * left out of the comparison. A booking in flight briefly shows up as a difference, so a show is only reloaded
+ * when its counters disagree with the database on two runs in a row.
+ */
+@Component
+public class SeatInventoryReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatInventoryReconciler.class);
+
+    private final SeatInventory seatInventory;
+    private final ShowSeatRepository showSeatRepository;
+    private Set<Long> showsWithDrift = new HashSet<>();
+
+    @Autowired
+    public SeatInventoryReconciler(SeatInventory seatInventory, ShowSeatRepository showSeatRepository) {
+        this.seatInventory = seatInventory;
+        this.showSeatRepository = showSeatRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reconciliationIntervalMs:60000}",
+            initialDelayString = "${inventory.reconciliationIntervalMs:60000}")
+    public synchronized void reconcile() {
+        Set<Long> drifted = new HashSet<>();
+        for (Long showId : seatInventory.getOpenShowIds()) {
+            if (!hasDrift(seatInventory.getShowInventory(showId))) {
+                continue;
+            }
+            if (showsWithDrift.contains(showId)) {
+                logger.warn("Seat counters of show {} drifted from the database, reloading its inventory", showId);
+                seatInventory.reload(showId);
+            } else {
+                drifted.add(showId);
+            }
+        }
+        showsWithDrift = drifted;
+    }
+
+    private boolean hasDrift(ShowInventory showInventory) {
+        Map<VenueArea, Long> availableByArea = new EnumMap<>(VenueArea.class);
+        for (VenueAreaCount areaCount : showSeatRepository.countAvailableByVenueArea(showInventory.getShowId())) {
+            availableByArea.put(areaCount.getVenueArea(), areaCount.getCount());
+        }
+        for (Integer seatId : seatInventory.getPendingSeatIds(showInventory.getShowId())) {
+            VenueArea venueArea = showInventory.getVenueArea(seatId);
+            if (venueArea != null) {
+                availableByArea.merge(venueArea, -1L, Long::sum);
+            }
+        }
+        for (VenueArea venueArea : VenueArea.values()) {
+            long expected = availableByArea.getOrDefault(venueArea, 0L);
+            if (showInventory.getAvailableCount(venueArea) != expected) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
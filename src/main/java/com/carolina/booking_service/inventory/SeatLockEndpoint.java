@@ -0,0 +1,35 @@
+package com.carolina.booking_service.inventory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes the per stripe contention of the seat locks under /actuator/seatlocks
+ */
+@Component
+@Endpoint(id = "seatlocks")
+public class SeatLockEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final SeatLockManager seatLockManager;
+
+    @Autowired
+    public SeatLockEndpoint(SeatLockManager seatLockManager) {
+        this.seatLockManager = seatLockManager;
+    }
+
+    @ReadOperation
+    public Map<String, Object> seatLocks(@Nullable Integer limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("stripes", seatLockManager.getStripeCount());
+        result.put("hottest", seatLockManager.getHottestStripes(limit != null ? limit : DEFAULT_LIMIT));
+        return result;
+    }
+}
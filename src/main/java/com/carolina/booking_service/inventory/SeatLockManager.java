@@ -0,0 +1,224 @@
+package com.carolina.booking_service.inventory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes changes to the same seat of a show with a fixed array of locks, picked by hashing the show and seat.
+ * Unrelated seats only wait on each other when they hash to the same stripe, unlike with a single global lock,
+ * and a caller locking several seats always takes their stripes in ascending order, so two callers can't deadlock.
+ */
+@Component
+public class SeatLockManager implements MeterBinder {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final AtomicLongArray acquisitions;
+    private final AtomicLongArray contended;
+    private final AtomicLongArray waitNanos;
+
+    public SeatLockManager(@Value("${seatLocks.stripes:1024}") int stripeCount) {
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("The number of stripes must be a power of two");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = stripeCount - 1;
+        this.acquisitions = new AtomicLongArray(stripeCount);
+        this.contended = new AtomicLongArray(stripeCount);
+        this.waitNanos = new AtomicLongArray(stripeCount);
+    }
+
+    /**
+     * Returns the stripe guarding the seat of the show
+     * @param showId: show id
+     * @param seatId: seat id
+     * @return int
+     */
+    public int stripeOf(Long showId, Integer seatId) {
+        int hash = 31 * Objects.hashCode(showId) + Objects.hashCode(seatId);
+        // Spread the bits, seat ids are sequential and would otherwise only use the low stripes
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        hash ^= hash >>> 16;
+        return hash & mask;
+    }
+
+    /**
+     * Locks the seats of the show, taking their stripes in ascending order
+     * @param showId: show id
+     * @param seatIds: seat ids, null ids are ignored
+     * @return SeatLocks, to be closed once the seats have been changed
+     */
+    public SeatLocks lock(Long showId, Integer... seatIds) {
+        int[] stripeIndexes = Arrays.stream(seatIds)
+                .filter(Objects::nonNull)
+                .mapToInt(seatId -> stripeOf(showId, seatId))
+                .sorted()
+                .distinct()
+                .toArray();
+        for (int i = 0; i < stripeIndexes.length; i++) {
+            try {
+                acquire(stripeIndexes[i]);
+            } catch (RuntimeException exception) {
+                unlock(stripeIndexes, i);
+                throw exception;
+            }
+        }
+        return new SeatLocks(stripeIndexes);
+    }
+
+    /**
+     * Locks the seats of the show until the current transaction commits or rolls back,
+     * so no one else sees the seats half-changed
+     * @param showId: show id
+     * @param seatIds: seat ids, null ids are ignored
+     */
+    public void lockUntilTransactionEnds(Long showId, Integer... seatIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Seats can only be locked for a transaction from inside one");
+        }
+        SeatLocks locks = lock(showId, seatIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                locks.close();
+            }
+        });
+    }
+
+    private void acquire(int stripe) {
+        ReentrantLock lock = stripes[stripe];
+        if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lock();
+            contended.incrementAndGet(stripe);
+            waitNanos.addAndGet(stripe, System.nanoTime() - start);
+        }
+        acquisitions.incrementAndGet(stripe);
+    }
+
+    private void unlock(int[] stripeIndexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[stripeIndexes[i]].unlock();
+        }
+    }
+
+    /**
+     * Returns the stripes that had to wait the most, busiest first
+     * @param limit: maximum number of stripes to return
+     * @return List<StripeStats>
+     */
+    public List<StripeStats> getHottestStripes(int limit) {
+        List<StripeStats> stats = new ArrayList<>();
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            if (acquisitions.get(stripe) > 0) {
+                stats.add(getStripeStats(stripe));
+            }
+        }
+        stats.sort(Comparator.comparingLong(StripeStats::getWaitNanos).reversed()
+                .thenComparing(Comparator.comparingLong(StripeStats::getAcquisitions).reversed()));
+        return stats.subList(0, Math.min(limit, stats.size()));
+    }
+
+    public StripeStats getStripeStats(int stripe) {
+        return new StripeStats(stripe, acquisitions.get(stripe), contended.get(stripe), waitNanos.get(stripe));
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("seat.locks.acquisitions", this, manager -> manager.sum(manager.acquisitions))
+                .description("Seat lock stripes acquired")
+                .register(registry);
+        FunctionCounter.builder("seat.locks.contended", this, manager -> manager.sum(manager.contended))
+                .description("Seat lock stripe acquisitions that had to wait for another holder")
+                .register(registry);
+        FunctionTimer.builder("seat.locks.wait", this,
+                        manager -> manager.sum(manager.contended),
+                        manager -> manager.sum(manager.waitNanos),
+                        TimeUnit.NANOSECONDS)
+                .description("Time spent waiting for contended seat lock stripes")
+                .register(registry);
+    }
+
+    private long sum(AtomicLongArray values) {
+        long total = 0;
+        for (int i = 0; i < values.length(); i++) {
+            total += values.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Stripes held by one caller, released in reverse order. Must be closed by the thread that took them
+     */
+    public class SeatLocks implements AutoCloseable {
+
+        private final int[] stripeIndexes;
+        private boolean closed;
+
+        private SeatLocks(int[] stripeIndexes) {
+            this.stripeIndexes = stripeIndexes;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                unlock(stripeIndexes, stripeIndexes.length);
+            }
+        }
+    }
+
+    public static class StripeStats {
+
+        private final int stripe;
+        private final long acquisitions;
+        private final long contended;
+        private final long waitNanos;
+
+        public StripeStats(int stripe, long acquisitions, long contended, long waitNanos) {
+            this.stripe = stripe;
+            this.acquisitions = acquisitions;
+            this.contended = contended;
+            this.waitNanos = waitNanos;
+        }
+
+        public int getStripe() {
+            return stripe;
+        }
+
+        public long getAcquisitions() {
+            return acquisitions;
+        }
+
+        public long getContended() {
+            return contended;
+        }
+
+        public long getWaitNanos() {
+            return waitNanos;
+        }
+    }
+}
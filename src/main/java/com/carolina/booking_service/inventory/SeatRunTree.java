@@ -0,0 +1,100 @@
+package com.carolina.booking_service.inventory;
+
+/**
+ * Segment tree over a line of seat slots that knows the longest run of free slots in every range,
+ * so the first run of K free slots is found in O(log n) and each claim or release is an O(log n) update.
+ * Not thread-safe, callers serialize access.
+ */
+public class SeatRunTree {
+
+    private final int size;
+    private final int[] prefix;
+    private final int[] suffix;
+    private final int[] longest;
+
+    /**
+     * Builds the tree with every slot taken
+     * @param size: number of slots
+     */
+    public SeatRunTree(int size) {
+        this.size = size;
+        int nodes = 4 * Math.max(size, 1);
+        this.prefix = new int[nodes];
+        this.suffix = new int[nodes];
+        this.longest = new int[nodes];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Marks the slot as free or taken
+     * @param slot: slot position
+     * @param free: true if the slot is free
+     */
+    public void set(int slot, boolean free) {
+        if (slot >= 0 && slot < size) {
+            set(1, 0, size - 1, slot, free ? 1 : 0);
+        }
+    }
+
+    private void set(int node, int from, int to, int slot, int value) {
+        if (from == to) {
+            prefix[node] = suffix[node] = longest[node] = value;
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        if (slot <= middle) {
+            set(2 * node, from, middle, slot, value);
+        } else {
+            set(2 * node + 1, middle + 1, to, slot, value);
+        }
+        merge(node, middle - from + 1, to - middle);
+    }
+
+    private void merge(int node, int leftLength, int rightLength) {
+        int left = 2 * node;
+        int right = 2 * node + 1;
+        prefix[node] = prefix[left] == leftLength ? leftLength + prefix[right] : prefix[left];
+        suffix[node] = suffix[right] == rightLength ? rightLength + suffix[left] : suffix[right];
+        longest[node] = Math.max(Math.max(longest[left], longest[right]), suffix[left] + prefix[right]);
+    }
+
+    /**
+     * Length of the longest run of free slots
+     * @return int
+     */
+    public int longestRun() {
+        return size == 0 ? 0 : longest[1];
+    }
+
+    /**
+     * Finds the leftmost run of free slots of the given length
+     * @param length: number of adjacent free slots wanted
+     * @return the first slot of the run, or -1 if there is none
+     */
+    public int findRun(int length) {
+        if (length <= 0 || size == 0 || longest[1] < length) {
+            return -1;
+        }
+        int node = 1;
+        int from = 0;
+        int to = size - 1;
+        while (from != to) {
+            int middle = (from + to) >>> 1;
+            int left = 2 * node;
+            int right = 2 * node + 1;
+            if (longest[left] >= length) {
+                node = left;
+                to = middle;
+            } else if (suffix[left] + prefix[right] >= length) {
+                return middle - suffix[left] + 1;
+            } else {
+                node = right;
+                from = middle + 1;
+            }
+        }
+        return from;
+    }
+}
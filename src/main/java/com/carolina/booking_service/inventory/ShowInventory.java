@@ -0,0 +1,338 @@
+package com.carolina.booking_service.inventory;
+
+import com.carolina.booking_service.model.SeatMapChangesDTO;
+import com.carolina.booking_service.model.SeatMapDTO;
+import com.carolina.booking_service.model.ShowSeat;
+import com.carolina.booking_service.model.VenueArea;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seat availability of a single show: a bitmap of claimable seats plus running counts per venue area and
+ * for the whole show, kept in step with every claim and release so that sold-out checks are O(1).
+ * Each venue area also lays its seats out row by row in a {@link SeatRunTree}, so adjacent free seats are found in O(log n).
+ * Every claim and release is numbered in a {@link SeatChangeJournal}, which versions the seat map clients poll.
+ * Claiming or releasing a seat by id takes no lock: after its compare-and-set it only marks the seat's slot stale,
+ * and the run tree catches up on the stale slots the next time an adjacent search takes the area's lock
+ */
+public class ShowInventory {
+
+    private static final int RECENT_CHANGES = 4096;
+
+    private static final Comparator<ShowSeat> SEAT_ORDER = Comparator
+            .comparing(ShowSeat::getRowIndex, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ShowSeat::getSeatNumber, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ShowSeat::getSeatId);
+
+    private final Long showId;
+    private final SeatBitmap bitmap;
+    private final VenueArea[] areaBySeatId;
+    private final AtomicInteger[] availableByArea;
+    private final AtomicInteger available = new AtomicInteger();
+    private final int[] slotBySeatId;
+    private final AreaLayout[] layoutByArea;
+    private final List<ShowSeat> loadedSeats;
+    private final SeatChangeJournal journal = new SeatChangeJournal(RECENT_CHANGES);
+
+    public ShowInventory(Long showId, List<ShowSeat> showSeats) {
+        this.showId = showId;
+        this.loadedSeats = Collections.unmodifiableList(new ArrayList<>(showSeats));
+        int maxSeatId = showSeats.stream().mapToInt(ShowSeat::getSeatId).max().orElse(0);
+        this.bitmap = new SeatBitmap(maxSeatId + 1);
+        this.areaBySeatId = new VenueArea[maxSeatId + 1];
+        this.availableByArea = new AtomicInteger[VenueArea.values().length];
+        for (int i = 0; i < this.availableByArea.length; i++) {
+            this.availableByArea[i] = new AtomicInteger();
+        }
+        for (ShowSeat showSeat : showSeats) {
+            this.areaBySeatId[showSeat.getSeatId()] = showSeat.getVenueArea();
+            if (!showSeat.isBooked()) {
+                this.bitmap.set(showSeat.getSeatId());
+                this.availableByArea[showSeat.getVenueArea().ordinal()].incrementAndGet();
+                this.available.incrementAndGet();
+            }
+        }
+
+        this.slotBySeatId = new int[maxSeatId + 1];
+        Arrays.fill(this.slotBySeatId, -1);
+        this.layoutByArea = new AreaLayout[VenueArea.values().length];
+        for (VenueArea venueArea : VenueArea.values()) {
+            this.layoutByArea[venueArea.ordinal()] = buildLayout(venueArea, showSeats);
+        }
+    }
+
+    /**
+     * Lays the area's seats out front row first. A blocked slot is put wherever two consecutive seats
+     * aren't side by side (a new row or a gap in the numbering), so runs never span them
+     */
+    private AreaLayout buildLayout(VenueArea venueArea, List<ShowSeat> showSeats) {
+        List<ShowSeat> areaSeats = new ArrayList<>();
+        for (ShowSeat showSeat : showSeats) {
+            if (showSeat.getVenueArea() == venueArea) {
+                areaSeats.add(showSeat);
+            }
+        }
+        areaSeats.sort(SEAT_ORDER);
+
+        List<Integer> seatIdBySlot = new ArrayList<>();
+        ShowSeat previous = null;
+        for (ShowSeat showSeat : areaSeats) {
+            if (previous != null && !isNextTo(previous, showSeat)) {
+                seatIdBySlot.add(-1);
+            }
+            this.slotBySeatId[showSeat.getSeatId()] = seatIdBySlot.size();
+            seatIdBySlot.add(showSeat.getSeatId());
+            previous = showSeat;
+        }
+
+        AreaLayout layout = new AreaLayout(seatIdBySlot.stream().mapToInt(Integer::intValue).toArray());
+        for (int slot = 0; slot < layout.seatIdBySlot.length; slot++) {
+            int seatId = layout.seatIdBySlot[slot];
+            layout.tree.set(slot, seatId >= 0 && this.bitmap.isAvailable(seatId));
+        }
+        return layout;
+    }
+
+    private static boolean isNextTo(ShowSeat previous, ShowSeat showSeat) {
+        return previous.getRowIndex() != null && Objects.equals(previous.getRowIndex(), showSeat.getRowIndex())
+                && previous.getSeatNumber() != null && showSeat.getSeatNumber() != null
+                && showSeat.getSeatNumber() == previous.getSeatNumber() + 1;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    /**
+     * Returns the seats this inventory was built from, as they were when it was loaded
+     * @return List<ShowSeat>
+     */
+    public List<ShowSeat> getLoadedSeats() {
+        return loadedSeats;
+    }
+
+    /**
+     * Claims the seat for this show
+     * @param seatId: seat id
+     * @return true if the seat was claimed by this call
+     */
+    public boolean tryClaim(int seatId) {
+        if (!bitmap.tryClaim(seatId)) {
+            return false;
+        }
+        availableByArea[areaBySeatId[seatId].ordinal()].decrementAndGet();
+        available.decrementAndGet();
+        markStale(seatId);
+        journal.record(seatId, false);
+        return true;
+    }
+
+    /**
+     * Makes the seat available again for this show
+     * @param seatId: seat id
+     * @return true if the seat was released by this call
+     */
+    public boolean release(int seatId) {
+        VenueArea venueArea = getVenueArea(seatId);
+        // Seats that are disabled or unknown to the show never become available
+        if (venueArea == null || !bitmap.release(seatId)) {
+            return false;
+        }
+        availableByArea[venueArea.ordinal()].incrementAndGet();
+        available.incrementAndGet();
+        markStale(seatId);
+        journal.record(seatId, true);
+        return true;
+    }
+
+    /**
+     * Claims the first run of adjacent free seats in the venue area, front row first
+     * @param venueArea: venue area
+     * @param quantity: number of adjacent seats wanted
+     * @return the claimed seat ids in seat order, or an empty list if there is no such run
+     */
+    public List<Integer> claimAdjacent(VenueArea venueArea, int quantity) {
+        AreaLayout layout = layoutByArea[venueArea.ordinal()];
+        synchronized (layout) {
+            // A seat claimed by id may win its bit before the tree hears about it, in which case look again
+            while (true) {
+                catchUp(layout);
+                int start = layout.tree.findRun(quantity);
+                if (start < 0) {
+                    return Collections.emptyList();
+                }
+                List<Integer> claimed = new ArrayList<>(quantity);
+                for (int slot = start; slot < start + quantity; slot++) {
+                    int seatId = layout.seatIdBySlot[slot];
+                    if (!tryClaim(seatId)) {
+                        layout.tree.set(slot, bitmap.isAvailable(seatId));
+                        claimed.forEach(this::release);
+                        claimed = null;
+                        break;
+                    }
+                    claimed.add(seatId);
+                }
+                if (claimed != null) {
+                    return claimed;
+                }
+            }
+        }
+    }
+
+    /**
+     * Length of the longest run of adjacent free seats in the venue area
+     * @param venueArea: venue area
+     * @return int
+     */
+    public int getLongestAdjacentRun(VenueArea venueArea) {
+        AreaLayout layout = layoutByArea[venueArea.ordinal()];
+        synchronized (layout) {
+            catchUp(layout);
+            return layout.tree.longestRun();
+        }
+    }
+
+    /**
+     * Flags the seat's slot for its area's tree with a compare-and-set on the slot's bit, then the area as stale
+     */
+    private void markStale(int seatId) {
+        AreaLayout layout = layoutByArea[areaBySeatId[seatId].ordinal()];
+        int slot = slotBySeatId[seatId];
+        long bit = 1L << slot;
+        long word;
+        do {
+            word = layout.staleSlots.get(slot >>> 6);
+        } while ((word & bit) == 0 && !layout.staleSlots.compareAndSet(slot >>> 6, word, word | bit));
+        if (!layout.stale) {
+            layout.stale = true;
+        }
+    }
+
+    /**
+     * Copies the current state of every stale slot from the bitmap into the area's tree. The area is marked fresh
+     * before its slots are taken, so a seat marked while this runs is either copied now or leaves the area stale.
+     * Reading the bitmap, instead of passing the new state along, keeps the tree right when a claim and a release race.
+     * Callers hold the layout's lock
+     */
+    private void catchUp(AreaLayout layout) {
+        if (!layout.stale) {
+            return;
+        }
+        layout.stale = false;
+        for (int i = 0; i < layout.staleSlots.length(); i++) {
+            long word = layout.staleSlots.get(i) != 0 ? layout.staleSlots.getAndSet(i, 0) : 0;
+            while (word != 0) {
+                int slot = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                layout.tree.set(slot, bitmap.isAvailable(layout.seatIdBySlot[slot]));
+            }
+        }
+    }
+
+    public boolean isAvailable(int seatId) {
+        return bitmap.isAvailable(seatId);
+    }
+
+    /**
+     * Returns the venue area of an enabled seat
+     * @param seatId: seat id
+     * @return VenueArea, or null if the seat is disabled or unknown
+     */
+    public VenueArea getVenueArea(int seatId) {
+        return seatId >= 0 && seatId < areaBySeatId.length ? areaBySeatId[seatId] : null;
+    }
+
+    public int getAvailableCount() {
+        return available.get();
+    }
+
+    public int getAvailableCount(VenueArea venueArea) {
+        return availableByArea[venueArea.ordinal()].get();
+    }
+
+    public List<Integer> getAvailableSeatIds() {
+        List<Integer> seatIds = new ArrayList<>();
+        for (int seatId = bitmap.nextAvailable(0); seatId >= 0; seatId = bitmap.nextAvailable(seatId + 1)) {
+            seatIds.add(seatId);
+        }
+        return seatIds;
+    }
+
+    /**
+     * Returns the ids of the seats in the venue area that can currently be claimed
+     * @param venueArea: venue area
+     * @return List<Integer>
+     */
+    public List<Integer> getAvailableSeatIds(VenueArea venueArea) {
+        List<Integer> seatIds = new ArrayList<>(getAvailableCount(venueArea));
+        for (int seatId = bitmap.nextAvailable(0); seatId >= 0; seatId = bitmap.nextAvailable(seatId + 1)) {
+            if (areaBySeatId[seatId] == venueArea) {
+                seatIds.add(seatId);
+            }
+        }
+        return seatIds;
+    }
+
+    /**
+     * @return long, version of the seat map, which moves on with every claim and release
+     */
+    public long getSeatMapVersion() {
+        return journal.getVersion();
+    }
+
+    /**
+     * Copies the availability of every seat along with the version it reflects. Every change reaches the bitmap
+     * before the journal, so the version is read first. A change after it may already show, it is then sent again
+     * as a change after this version
+     * @return SeatMapDTO
+     */
+    public SeatMapDTO getSeatMap() {
+        long version = journal.getVersion();
+        return new SeatMapDTO(showId, version, bitmap.size(), bitmap.toByteArray());
+    }
+
+    /**
+     * Returns the seats whose availability changed after the version
+     * @param sinceVersion: seat map version the caller has
+     * @return SeatMapChangesDTO, or null if those changes are no longer kept and the whole seat map is needed
+     */
+    public SeatMapChangesDTO getSeatMapChanges(long sinceVersion) {
+        long version = journal.getVersion();
+        Map<Integer, Boolean> changes = journal.getChangesBetween(sinceVersion, version);
+        if (changes == null) {
+            return null;
+        }
+        List<Integer> availableSeatIds = new ArrayList<>();
+        List<Integer> unavailableSeatIds = new ArrayList<>();
+        // A claim and the release after it may be journaled out of order, so each changed seat is sent with
+        // its state in the bitmap. A newer change showing early is sent again after its own version
+        changes.keySet().forEach(seatId -> (bitmap.isAvailable(seatId) ? availableSeatIds : unavailableSeatIds).add(seatId));
+        return new SeatMapChangesDTO(showId, sinceVersion, version, availableSeatIds, unavailableSeatIds);
+    }
+
+    public boolean isSoldOut() {
+        return available.get() == 0;
+    }
+
+    private static class AreaLayout {
+
+        private final int[] seatIdBySlot;
+        private final SeatRunTree tree;
+        private final AtomicLongArray staleSlots;
+        private volatile boolean stale;
+
+        private AreaLayout(int[] seatIdBySlot) {
+            this.seatIdBySlot = seatIdBySlot;
+            this.tree = new SeatRunTree(seatIdBySlot.length);
+            this.staleSlots = new AtomicLongArray((seatIdBySlot.length + 63) >>> 6);
+        }
+    }
+}
@@ -0,0 +1,545 @@
+package com.carolina.booking_service.ledger;
+
+import com.carolina.booking_service.inventory.PendingClaims;
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.model.BookingLedgerEntry;
+import com.carolina.booking_service.repository.BookingRepository;
+import com.carolina.booking_service.repository.ShowSeatRepository;
+import com.carolina.booking_service.seatstream.SeatChangeStream;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Write-behind mode for bookings: a booking is confirmed once it is appended and synced to a local write-ahead log,
+ * and a background writer moves it into the database in batches. The sequence of the last written entry is kept in
+ * a checkpoint file, so on startup every entry after it is written again before the application takes traffic.
+ * Concurrent appenders share fsyncs: whoever syncs covers every record written before it.
+ * A batch the database turns down is written again one entry at a time, so one bad entry can't hold up the ones
+ * behind it. An entry the database keeps rejecting on its own is moved to a dead-letter file next to the log and its
+ * seat is given back; while the database can't be reached at all, every entry just waits for the next run.
+ * An entry whose seat the database has booked for someone else is a conflict: it goes to the dead-letter file too,
+ * but the seat stays claimed, since it belongs to the other booking.
+ * If an fsync fails, the records it should have covered are cut from the log and their bookings fail.
+ * Claims in this mode don't create the show's rows in the show_seat table, the writer does before it writes the
+ * show's first batch, so a show restored from the seat event log has its rows like any other open show.
+ */
+@Component
+public class BookingLedger implements PendingClaims, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingLedger.class);
+    // sequence, showId, seatId, userId, createdAt
+    private static final int PAYLOAD_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES;
+    // payload length, crc, payload
+    private static final int RECORD_BYTES = Integer.BYTES + Long.BYTES + PAYLOAD_BYTES;
+
+    private final BookingRepository bookingRepository;
+    private final ShowSeatRepository showSeatRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SeatInventory seatInventory;
+    private final SeatChangeStream seatChangeStream;
+    private final boolean enabled;
+    private final Path logPath;
+    private final Path checkpointPath;
+    private final Path deadLetterPath;
+    private final int batchSize;
+    private final long compactAfterBytes;
+    private final int maxAttempts;
+
+    private final Queue<PendingEntry> pending = new ConcurrentLinkedQueue<>();
+    // Shows whose rows the writer has created since startup
+    private final Set<Long> openedShows = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+    private long writtenBytes;
+    // Written under the append lock only. Counts bytes of the current generation, which compaction starts anew
+    private volatile long syncedBytes;
+    private long generation;
+    private volatile long checkpoint;
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private volatile long lastProgressMillis = System.currentTimeMillis();
+
+    @Autowired
+    public BookingLedger(BookingRepository bookingRepository, ShowSeatRepository showSeatRepository,
+                         TransactionTemplate transactionTemplate,
+                         SeatInventory seatInventory, SeatChangeStream seatChangeStream,
+                         @Value("${bookingLedger.enabled:false}") boolean enabled,
+                         @Value("${bookingLedger.path:booking-ledger.wal}") String path,
+                         @Value("${bookingLedger.batchSize:500}") int batchSize,
+                         @Value("${bookingLedger.compactAfterBytes:67108864}") long compactAfterBytes,
+                         @Value("${bookingLedger.maxAttempts:3}") int maxAttempts) {
+        this.bookingRepository = bookingRepository;
+        this.showSeatRepository = showSeatRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.seatInventory = seatInventory;
+        this.seatChangeStream = seatChangeStream;
+        this.enabled = enabled;
+        this.logPath = Paths.get(path);
+        this.checkpointPath = Paths.get(path + ".checkpoint");
+        this.deadLetterPath = Paths.get(path + ".dead");
+        this.batchSize = batchSize;
+        this.compactAfterBytes = compactAfterBytes;
+        this.maxAttempts = maxAttempts;
+        seatInventory.addPendingClaims(this);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens the log and writes every entry that wasn't in the database yet when the application stopped
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (logPath.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(logPath.toAbsolutePath().getParent());
+        }
+        checkpoint = readCheckpoint();
+        lastSequence.set(checkpoint);
+        channel = openLog(logPath);
+        writtenBytes = replay();
+        channel.truncate(writtenBytes);
+        channel.position(writtenBytes);
+        syncedBytes = writtenBytes;
+
+        int replayed = pending.size();
+        flush();
+        if (replayed > 0) {
+            logger.info("Wrote {} booking(s) from the ledger that weren't in the database yet", replayed);
+        }
+    }
+
+    FileChannel openLog(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reads the log up to the first torn or corrupt record, queueing the entries after the checkpoint
+     * @return the length of the valid part of the log
+     */
+    private long replay() throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        long position = 0;
+        while (true) {
+            record.clear();
+            while (record.hasRemaining() && channel.read(record, position + record.position()) > 0) {
+                // keep reading until the record is complete or the file ends
+            }
+            if (record.hasRemaining()) {
+                return position;
+            }
+            record.flip();
+            if (record.getInt() != PAYLOAD_BYTES) {
+                return position;
+            }
+            long crc = record.getLong();
+            if (crc != crcOf(record, record.position())) {
+                return position;
+            }
+            BookingLedgerEntry entry = new BookingLedgerEntry(record.getLong(), record.getLong(), record.getInt(),
+                    record.getLong(), record.getLong());
+            lastSequence.accumulateAndGet(entry.getSequence(), Math::max);
+            position += RECORD_BYTES;
+            if (entry.getSequence() > checkpoint) {
+                pending.add(new PendingEntry(entry, position));
+            }
+        }
+    }
+
+    /**
+     * Durably records the booking; once this returns the booking survives a crash
+     * @param showId: show id
+     * @param seatId: seat id
+     * @param userId: user id
+     * @return BookingLedgerEntry
+     */
+    public BookingLedgerEntry append(Long showId, Integer seatId, Long userId) {
+        if (!enabled) {
+            throw new IllegalStateException("The booking ledger is disabled");
+        }
+        PendingEntry pendingEntry;
+        BookingLedgerEntry entry;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        synchronized (appendLock) {
+            entry = new BookingLedgerEntry(lastSequence.incrementAndGet(), showId, seatId, userId, System.currentTimeMillis());
+            record.putInt(PAYLOAD_BYTES).putLong(0)
+                    .putLong(entry.getSequence()).putLong(showId).putInt(seatId).putLong(userId).putLong(entry.getCreatedAtMillis());
+            record.putLong(Integer.BYTES, crcOf(record, Integer.BYTES + Long.BYTES));
+            record.flip();
+            try {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+            writtenBytes += RECORD_BYTES;
+            // Queued in sequence order, the writer skips it until it is synced
+            pendingEntry = new PendingEntry(entry, writtenBytes);
+            pending.add(pendingEntry);
+        }
+        sync(pendingEntry);
+        return entry;
+    }
+
+    private void sync(PendingEntry pendingEntry) {
+        synchronized (syncLock) {
+            if (pendingEntry.voided) {
+                throw new UncheckedIOException(new IOException("The booking ledger couldn't be synced"));
+            }
+            if (syncedBytes >= pendingEntry.endOfRecord) {
+                // Another appender's fsync already covered this record
+                return;
+            }
+            long target;
+            long targetGeneration;
+            synchronized (appendLock) {
+                target = writtenBytes;
+                targetGeneration = generation;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException exception) {
+                voidUnsynced();
+                throw new UncheckedIOException(exception);
+            }
+            synchronized (appendLock) {
+                // A compaction since then started a new generation, whose bytes this fsync says nothing about
+                if (generation == targetGeneration) {
+                    syncedBytes = target;
+                }
+            }
+        }
+    }
+
+    /**
+     * After a failed fsync nothing says the records it should have covered are on disk, so they are cut from the log
+     * and taken off the queue. Their appenders fail, and none of them reaches the database
+     */
+    private void voidUnsynced() {
+        synchronized (appendLock) {
+            long firstVoided = 0;
+            for (PendingEntry pendingEntry : pending) {
+                if (pendingEntry.endOfRecord > syncedBytes) {
+                    pendingEntry.voided = true;
+                    if (firstVoided == 0) {
+                        firstVoided = pendingEntry.entry.getSequence();
+                    }
+                }
+            }
+            pending.removeIf(pendingEntry -> pendingEntry.voided);
+            if (firstVoided > 0) {
+                lastSequence.set(firstVoided - 1);
+            }
+            writtenBytes = syncedBytes;
+            try {
+                channel.truncate(syncedBytes);
+                channel.position(syncedBytes);
+            } catch (IOException exception) {
+                logger.error("Couldn't cut the unsynced records from the booking ledger, they may be written on restart",
+                        exception);
+            }
+        }
+    }
+
+    /**
+     * Writes the pending entries to the database in batches and moves the checkpoint past them
+     * @return number of entries written
+     */
+    @Scheduled(fixedDelayString = "${bookingLedger.flushIntervalMs:200}")
+    public synchronized int flush() {
+        if (!enabled) {
+            return 0;
+        }
+        int flushed = 0;
+        while (true) {
+            // Only entries that are already synced, so nothing reaches the database that a crash could take back
+            List<PendingEntry> batch = new ArrayList<>(batchSize);
+            for (PendingEntry pendingEntry : pending) {
+                if (batch.size() == batchSize || pendingEntry.endOfRecord > syncedBytes) {
+                    break;
+                }
+                batch.add(pendingEntry);
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                List<BookingLedgerEntry> entries = new ArrayList<>(batch.size());
+                batch.forEach(pendingEntry -> entries.add(pendingEntry.entry));
+                write(entries).forEach(this::deadLetterConflict);
+            } catch (RuntimeException exception) {
+                // One bad entry fails the whole batch, so its entries are tried on their own to get past it
+                logger.warn("Couldn't write {} ledger bookings to the database, writing them one at a time", batch.size(), exception);
+                for (PendingEntry pendingEntry : batch) {
+                    Outcome outcome = flushAlone(pendingEntry);
+                    if (outcome == Outcome.RETRY_LATER) {
+                        // The entry and everything behind it stay queued in order
+                        return flushed;
+                    }
+                    if (outcome == Outcome.WRITTEN) {
+                        flushed++;
+                    }
+                }
+                continue;
+            }
+            writeCheckpoint(batch.get(batch.size() - 1).entry.getSequence());
+            for (int i = 0; i < batch.size(); i++) {
+                pending.poll();
+            }
+            flushed += batch.size();
+            lastProgressMillis = System.currentTimeMillis();
+        }
+        lastProgressMillis = System.currentTimeMillis();
+        compactIfFlushed();
+        return flushed;
+    }
+
+    /**
+     * @return the entries whose seat the database has booked for another booking
+     */
+    private List<BookingLedgerEntry> write(List<BookingLedgerEntry> entries) {
+        for (BookingLedgerEntry entry : entries) {
+            // Commits on its own and only adds missing rows, so opening a show twice is harmless
+            if (!openedShows.contains(entry.getShowId())) {
+                showSeatRepository.openShow(entry.getShowId());
+                openedShows.add(entry.getShowId());
+            }
+        }
+        List<BookingLedgerEntry> conflicting = transactionTemplate.execute(status -> bookingRepository.insertLedgerEntries(entries));
+        return conflicting != null ? conflicting : Collections.emptyList();
+    }
+
+    /**
+     * Records an entry the database turned down because its seat has another booking. The seat is left claimed
+     * for that booking, the entry's own booking needs someone to sort it out
+     */
+    private void deadLetterConflict(BookingLedgerEntry entry) {
+        logger.error("Seat {} of ledger booking {} for show {} is booked by another booking, moving it to {}",
+                entry.getSeatId(), entry.getSequence(), entry.getShowId(), deadLetterPath);
+        writeDeadLetter(entry, "seat is booked by another booking or no longer exists");
+        conflicts.incrementAndGet();
+    }
+
+    /**
+     * Writes the entry at the head of the queue on its own. Once the database has rejected it maxAttempts times,
+     * it goes to the dead-letter file instead and its seat is made available again
+     */
+    private Outcome flushAlone(PendingEntry pendingEntry) {
+        BookingLedgerEntry entry = pendingEntry.entry;
+        try {
+            write(Collections.singletonList(entry)).forEach(this::deadLetterConflict);
+        } catch (RuntimeException exception) {
+            // Only a rejection of the entry itself counts, not a database that can't be reached
+            boolean rejected = exception instanceof NonTransientDataAccessException
+                    && !(exception instanceof NonTransientDataAccessResourceException);
+            if (!rejected || ++pendingEntry.rejections < maxAttempts) {
+                logger.error("Couldn't write ledger booking {} to the database, retrying later", entry.getSequence(), exception);
+                return Outcome.RETRY_LATER;
+            }
+            logger.error("The database keeps rejecting ledger booking {} of seat {} for show {}, moving it to {}",
+                    entry.getSequence(), entry.getSeatId(), entry.getShowId(), deadLetterPath, exception);
+            writeDeadLetter(entry, String.valueOf(exception.getMessage()));
+            writeCheckpoint(entry.getSequence());
+            pending.poll();
+            deadLettered.incrementAndGet();
+            seatInventory.release(entry.getShowId(), entry.getSeatId());
+            seatChangeStream.publish(entry.getShowId(), entry.getSeatId(), false);
+            return Outcome.DEAD_LETTERED;
+        }
+        writeCheckpoint(entry.getSequence());
+        pending.poll();
+        lastProgressMillis = System.currentTimeMillis();
+        return Outcome.WRITTEN;
+    }
+
+    /**
+     * Appends the entry to the dead-letter file as one line, sequence,showId,seatId,userId,createdAtMillis,error
+     */
+    private void writeDeadLetter(BookingLedgerEntry entry, String reason) {
+        String line = entry.getSequence() + "," + entry.getShowId() + "," + entry.getSeatId() + "," + entry.getUserId()
+                + "," + entry.getCreatedAtMillis() + "," + reason.replaceAll("\\s+", " ") + "\n";
+        try (FileChannel deadLetterChannel = FileChannel.open(deadLetterPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            deadLetterChannel.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+            deadLetterChannel.force(true);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getDeadLetteredCount() {
+        return deadLettered.get();
+    }
+
+    /**
+     * @return long, number of entries dead-lettered because their seat had another booking
+     */
+    public long getConflictCount() {
+        return conflicts.get();
+    }
+
+    public Path getDeadLetterPath() {
+        return deadLetterPath;
+    }
+
+    /**
+     * @return long, epoch millis of the last time the writer emptied the queue or wrote an entry
+     */
+    public long getLastProgressMillis() {
+        return lastProgressMillis;
+    }
+
+    /**
+     * Returns the seats of the show booked in the ledger but not written to the database yet
+     * @param showId: show id
+     * @return Collection<Integer>
+     */
+    @Override
+    public Collection<Integer> getPendingSeatIds(Long showId) {
+        List<Integer> seatIds = new ArrayList<>();
+        for (PendingEntry pendingEntry : pending) {
+            if (pendingEntry.entry.getShowId().equals(showId)) {
+                seatIds.add(pendingEntry.entry.getSeatId());
+            }
+        }
+        return seatIds;
+    }
+
+    /**
+     * Empties the log once it is large and everything in it has reached the database
+     */
+    private void compactIfFlushed() {
+        synchronized (appendLock) {
+            if (writtenBytes < compactAfterBytes || checkpoint < lastSequence.get()) {
+                return;
+            }
+            try {
+                channel.truncate(0);
+                channel.position(0);
+                channel.force(true);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+            writtenBytes = 0;
+            syncedBytes = 0;
+            generation++;
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointPath)) {
+            return 0;
+        }
+        return Long.parseLong(new String(Files.readAllBytes(checkpointPath), StandardCharsets.UTF_8).trim());
+    }
+
+    private void writeCheckpoint(long sequence) {
+        Path temporary = Paths.get(checkpointPath + ".tmp");
+        try (FileChannel checkpointChannel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            checkpointChannel.write(ByteBuffer.wrap(Long.toString(sequence).getBytes(StandardCharsets.UTF_8)));
+            checkpointChannel.force(true);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        try {
+            Files.move(temporary, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        checkpoint = sequence;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (channel != null) {
+            flush();
+            channel.close();
+        }
+    }
+
+    private static long crcOf(ByteBuffer record, int from) {
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = record.duplicate();
+        payload.position(from);
+        payload.limit(from + PAYLOAD_BYTES);
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("booking.ledger.pending", pending, Queue::size)
+                .description("Ledger bookings not written to the database yet")
+                .register(registry);
+        FunctionCounter.builder("booking.ledger.dead.letters", deadLettered, AtomicLong::get)
+                .description("Ledger bookings the database kept rejecting, moved to the dead-letter file")
+                .register(registry);
+        FunctionCounter.builder("booking.ledger.conflicts", conflicts, AtomicLong::get)
+                .description("Ledger bookings whose seat had another booking, moved to the dead-letter file")
+                .register(registry);
+    }
+
+    private enum Outcome {
+        WRITTEN, DEAD_LETTERED, RETRY_LATER
+    }
+
+    private static class PendingEntry {
+
+        private final BookingLedgerEntry entry;
+        private final long endOfRecord;
+        private int rejections;
+        // Set under the append lock when a failed fsync cut the record from the log
+        private volatile boolean voided;
+
+        private PendingEntry(BookingLedgerEntry entry, long endOfRecord) {
+            this.entry = entry;
+            this.endOfRecord = endOfRecord;
+        }
+    }
+}
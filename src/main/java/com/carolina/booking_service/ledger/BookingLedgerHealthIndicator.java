@@ -0,0 +1,43 @@
+package com.carolina.booking_service.ledger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the booking ledger as down when bookings are waiting and the writer hasn't got any of them into the
+ * database for the stall timeout. Bookings moved to the dead-letter file are reported as a detail: the ledger
+ * keeps working, but they need someone to look at them. So do conflicts, bookings whose seat the database had
+ * booked for someone else
+ */
+@Component
+public class BookingLedgerHealthIndicator implements HealthIndicator {
+
+    private final BookingLedger bookingLedger;
+    private final long stalledAfterMillis;
+
+    @Autowired
+    public BookingLedgerHealthIndicator(BookingLedger bookingLedger,
+                                        @Value("${bookingLedger.stalledAfterMs:60000}") long stalledAfterMillis) {
+        this.bookingLedger = bookingLedger;
+        this.stalledAfterMillis = stalledAfterMillis;
+    }
+
+    @Override
+    public Health health() {
+        if (!bookingLedger.isEnabled()) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        int pendingCount = bookingLedger.getPendingCount();
+        boolean stalled = pendingCount > 0
+                && System.currentTimeMillis() - bookingLedger.getLastProgressMillis() > stalledAfterMillis;
+        return (stalled ? Health.down() : Health.up())
+                .withDetail("pending", pendingCount)
+                .withDetail("deadLettered", bookingLedger.getDeadLetteredCount())
+                .withDetail("conflicts", bookingLedger.getConflictCount())
+                .withDetail("deadLetterFile", bookingLedger.getDeadLetterPath().toString())
+                .build();
+    }
+}
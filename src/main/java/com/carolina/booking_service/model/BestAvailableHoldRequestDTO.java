@@ -0,0 +1,78 @@
+package com.carolina.booking_service.model;
+
+import com.carolina.booking_service.validation.Create;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+public class BestAvailableHoldRequestDTO {
+
+    @NotNull(groups = Create.class)
+    private Long showId;
+
+    @NotNull(groups = Create.class)
+    private Long userId;
+
+    @NotNull(groups = Create.class)
+    private VenueArea venueArea;
+
+    @NotNull(groups = Create.class)
+    @Min(value = 1, groups = Create.class)
+    @Max(value = 20, groups = Create.class)
+    private Integer quantity;
+
+    @Min(value = 1, groups = Create.class)
+    @Max(value = 30, groups = Create.class)
+    private Integer minutes;
+
+    public BestAvailableHoldRequestDTO() {}
+
+    public BestAvailableHoldRequestDTO(Long showId, Long userId, VenueArea venueArea, Integer quantity, Integer minutes) {
+        this.showId = showId;
+        this.userId = userId;
+        this.venueArea = venueArea;
+        this.quantity = quantity;
+        this.minutes = minutes;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public void setShowId(Long showId) {
+        this.showId = showId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public VenueArea getVenueArea() {
+        return venueArea;
+    }
+
+    public void setVenueArea(VenueArea venueArea) {
+        this.venueArea = venueArea;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Integer getMinutes() {
+        return minutes;
+    }
+
+    public void setMinutes(Integer minutes) {
+        this.minutes = minutes;
+    }
+}
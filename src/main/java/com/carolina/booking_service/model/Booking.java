@@ -10,6 +10,12 @@ import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"showId", "seatId"}, name = "unique_booking_show_seat"),
+       indexes = {
+               // Keyset pagination walks bookings newest first, on its own or within a show
+               @Index(name = "idx_booking_created_at_id", columnList = "createdAt, id"),
+               @Index(name = "idx_booking_show_created_at_id", columnList = "showId, createdAt, id")
+       })
 public class Booking {
 
     @Id
@@ -32,7 +38,7 @@ public class Booking {
     private User user;
 
     @NotEmpty(groups = Create.class)
-    @OneToOne
+    @ManyToOne
     @JoinColumn(name = "seatId", referencedColumnName = "id", foreignKey = @ForeignKey(name = "fk_booking_seat_id"), nullable = false)
     private Seat seat;
 
@@ -69,22 +75,16 @@ public class Booking {
     }
 
     public Seat getSeat() {
-        Seat copy = new Seat(this.seat.getId(), this.seat.getVenueArea(), this.seat.isEnabled(), this.seat.isBooked());
+        Seat copy = new Seat(this.seat.getId(), this.seat.getVenueArea(), this.seat.isEnabled());
         copy.setCreatedAt(this.seat.getCreatedAt());
         copy.setUpdatedAt(this.seat.getUpdatedAt());
-        if (seat.getBooking() != null) {
-            copy.setBooking(seat.getBooking());
-        }
-            return copy;
+        return copy;
     }
 
     public void setSeat(Seat seat) {
-        Seat copy = new Seat(seat.getId(), seat.getVenueArea(), seat.isEnabled(), seat.isBooked());
+        Seat copy = new Seat(seat.getId(), seat.getVenueArea(), seat.isEnabled());
         copy.setCreatedAt(seat.getCreatedAt());
         copy.setUpdatedAt(seat.getUpdatedAt());
-        if (seat.getBooking() != null) {
-            copy.setBooking(seat.getBooking());
-        }
         this.seat = copy;
     }
 
@@ -92,7 +92,7 @@ public class Booking {
         User copy = new User(this.user.getId(), this.user.getFirstName(), this.user.getLastName(), this.user.getEmail(), this.user.getPassword());
         copy.setCreatedAt(this.user.getCreatedAt());
         copy.setUpdatedAt(this.user.getUpdatedAt());
-        if (user.getBookings() != null) {
+        if (user.hasLoadedBookings()) {
             copy.setBookings(user.getBookings());
         }
         return copy;
@@ -102,7 +102,7 @@ public class Booking {
         User copy = new User(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getPassword());
         copy.setCreatedAt(user.getCreatedAt());
         copy.setUpdatedAt(user.getUpdatedAt());
-        if (user.getBookings() != null) {
+        if (user.hasLoadedBookings()) {
             copy.setBookings(user.getBookings());
         }
         this.user = copy;
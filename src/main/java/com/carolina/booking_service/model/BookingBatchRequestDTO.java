@@ -0,0 +1,53 @@
+package com.carolina.booking_service.model;
+
+import com.carolina.booking_service.validation.Create;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class BookingBatchRequestDTO {
+
+    @NotNull(groups = Create.class)
+    private Long showId;
+
+    @NotNull(groups = Create.class)
+    private Long userId;
+
+    @NotEmpty(groups = Create.class)
+    @Size(max = 20, groups = Create.class, message = "A booking can't have more than 20 seats")
+    private List<@NotNull(groups = Create.class) Integer> seatIds;
+
+    public BookingBatchRequestDTO() {}
+
+    public BookingBatchRequestDTO(Long showId, Long userId, List<Integer> seatIds) {
+        this.showId = showId;
+        this.userId = userId;
+        this.seatIds = seatIds;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public void setShowId(Long showId) {
+        this.showId = showId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public List<Integer> getSeatIds() {
+        return seatIds;
+    }
+
+    public void setSeatIds(List<Integer> seatIds) {
+        this.seatIds = seatIds;
+    }
+}
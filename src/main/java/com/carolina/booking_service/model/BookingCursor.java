@@ -0,0 +1,59 @@
+package com.carolina.booking_service.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last booking of a page. Bookings are listed newest first, so the next page starts at the bookings
+ * created before it, or created at the same time with a lower id. Clients get it as an opaque Base64 string.
+ */
+public class BookingCursor {
+
+    private static final String VERSION = "1";
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public BookingCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static BookingCursor after(BookingRow booking) {
+        return new BookingCursor(booking.getCreatedAt(), booking.getId());
+    }
+
+    /**
+     * Reads a cursor handed out by encode
+     * @param cursor: opaque cursor
+     * @return BookingCursor
+     * @throws IllegalArgumentException if the cursor wasn't produced by encode
+     */
+    public static BookingCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor!");
+            }
+            return new BookingCursor(LocalDateTime.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (DateTimeParseException | IllegalArgumentException exception) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor!", exception);
+        }
+    }
+
+    public String encode() {
+        String value = VERSION + '|' + createdAt + '|' + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
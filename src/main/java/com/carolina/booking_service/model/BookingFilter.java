@@ -0,0 +1,45 @@
+package com.carolina.booking_service.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for listing bookings, a null field doesn't filter
+ */
+public class BookingFilter {
+
+    private Long showId;
+    private VenueArea venueArea;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public BookingFilter() {}
+
+    public BookingFilter(Long showId, VenueArea venueArea, LocalDateTime from, LocalDateTime to) {
+        this.showId = showId;
+        this.venueArea = venueArea;
+        this.from = from;
+        this.to = to;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public VenueArea getVenueArea() {
+        return venueArea;
+    }
+
+    /**
+     * @return LocalDateTime, inclusive lower bound of the booking creation time
+     */
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    /**
+     * @return LocalDateTime, exclusive upper bound of the booking creation time
+     */
+    public LocalDateTime getTo() {
+        return to;
+    }
+}
@@ -0,0 +1,51 @@
+package com.carolina.booking_service.model;
+
+/**
+ * A booking confirmed in memory and recorded in the write-ahead log, waiting to be written to the database
+ */
+public class BookingLedgerEntry {
+
+    private final long sequence;
+    private final Long showId;
+    private final Integer seatId;
+    private final Long userId;
+    private final long createdAtMillis;
+
+    public BookingLedgerEntry(long sequence, Long showId, Integer seatId, Long userId, long createdAtMillis) {
+        this.sequence = sequence;
+        this.showId = showId;
+        this.seatId = seatId;
+        this.userId = userId;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public Integer getSeatId() {
+        return seatId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BookingLedgerEntry{" +
+                "sequence=" + sequence +
+                ", showId=" + showId +
+                ", seatId=" + seatId +
+                ", userId=" + userId +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+package com.carolina.booking_service.model;
+
+import java.util.List;
+
+public class BookingPageDTO {
+
+    private List<BookingResponseDTO> bookings;
+    private String nextCursor;
+
+    public BookingPageDTO() {}
+
+    public BookingPageDTO(List<BookingResponseDTO> bookings, String nextCursor) {
+        this.bookings = bookings;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BookingResponseDTO> getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(List<BookingResponseDTO> bookings) {
+        this.bookings = bookings;
+    }
+
+    /**
+     * @return String, cursor of the next page, or null on the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
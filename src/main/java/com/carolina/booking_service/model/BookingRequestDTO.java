@@ -9,7 +9,7 @@ import java.time.LocalDateTime;
 
 public class BookingRequestDTO {
 
-    @NotNull
+    @NotNull(groups = Create.class)
     private Long showId;
 
     @NotNull(groups = Create.class)
@@ -0,0 +1,50 @@
+package com.carolina.booking_service.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns a booking response needs, selected by projection queries in one joined statement
+ * instead of loading the booking with its seat and user
+ */
+public class BookingRow {
+
+    private final Long id;
+    private final Long showId;
+    private final String userEmail;
+    private final Integer seatId;
+    private final VenueArea venueArea;
+    private final LocalDateTime createdAt;
+
+    public BookingRow(Long id, Long showId, String userEmail, Integer seatId, VenueArea venueArea, LocalDateTime createdAt) {
+        this.id = id;
+        this.showId = showId;
+        this.userEmail = userEmail;
+        this.seatId = seatId;
+        this.venueArea = venueArea;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public Integer getSeatId() {
+        return seatId;
+    }
+
+    public VenueArea getVenueArea() {
+        return venueArea;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
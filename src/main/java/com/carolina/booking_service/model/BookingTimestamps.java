@@ -0,0 +1,14 @@
+package com.carolina.booking_service.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of bookings and the latest change to them, their users and their seats, as returned by aggregate queries
+ */
+public interface BookingTimestamps {
+
+    Long getCount();
+    LocalDateTime getBookingsUpdatedAt();
+    LocalDateTime getUsersUpdatedAt();
+    LocalDateTime getSeatsUpdatedAt();
+}
@@ -0,0 +1,94 @@
+package com.carolina.booking_service.model;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a request sent with an Idempotency-Key, so that retries of it get the same response.
+ * A record that isn't completed yet marks the key as taken by a request still being processed
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_record_created_at", columnList = "createdAt"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(length = 255)
+    private String idempotencyKey;
+    @Column(nullable = false)
+    private String requestFingerprint;
+    @Column(nullable = false)
+    private Boolean completed = false;
+    private Integer responseStatus;
+    private String location;
+    @Column(length = 2000)
+    private String responseBody;
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    // Taking a key must be an insert, so that two requests racing for it can't both succeed
+    @Transient
+    private boolean newRecord = true;
+
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String idempotencyKey, String requestFingerprint, LocalDateTime createdAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.requestFingerprint = requestFingerprint;
+        this.createdAt = createdAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.newRecord = false;
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getRequestFingerprint() {
+        return requestFingerprint;
+    }
+
+    public Boolean isCompleted() {
+        return completed;
+    }
+
+    public Integer getResponseStatus() {
+        return responseStatus;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyRecord{" +
+                "idempotencyKey='" + idempotencyKey + '\'' +
+                ", completed=" + completed +
+                ", responseStatus=" + responseStatus +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,29 @@
+package com.carolina.booking_service.model;
+
+/**
+ * Response stored for an Idempotency-Key and returned again to retries of the same request
+ */
+public class IdempotentResponse {
+
+    private final int status;
+    private final String location;
+    private final BookingResponseDTO booking;
+
+    public IdempotentResponse(int status, String location, BookingResponseDTO booking) {
+        this.status = status;
+        this.location = location;
+        this.booking = booking;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public BookingResponseDTO getBooking() {
+        return booking;
+    }
+}
@@ -0,0 +1,50 @@
+package com.carolina.booking_service.model;
+
+public class QueueTicketDTO {
+
+    private String token;
+    private Long position;
+    private Boolean admitted;
+    private Long estimatedWaitSeconds;
+
+    public QueueTicketDTO() {}
+
+    public QueueTicketDTO(String token, Long position, Boolean admitted, Long estimatedWaitSeconds) {
+        this.token = token;
+        this.position = position;
+        this.admitted = admitted;
+        this.estimatedWaitSeconds = estimatedWaitSeconds;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    public Boolean getAdmitted() {
+        return admitted;
+    }
+
+    public void setAdmitted(Boolean admitted) {
+        this.admitted = admitted;
+    }
+
+    public Long getEstimatedWaitSeconds() {
+        return estimatedWaitSeconds;
+    }
+
+    public void setEstimatedWaitSeconds(Long estimatedWaitSeconds) {
+        this.estimatedWaitSeconds = estimatedWaitSeconds;
+    }
+}
@@ -0,0 +1,68 @@
+package com.carolina.booking_service.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * Validators of a resource's representation, an entity tag and the time it last changed, worked out from the
+ * rows it is built from without building it. Every insert or update moves a row's updatedAt past the others,
+ * and a delete lowers the row count, so the latest updatedAt and the count change whenever the rows do
+ */
+public class ResourceVersion {
+
+    private final String eTag;
+    private final long lastModifiedMillis;
+
+    public ResourceVersion(String eTag, long lastModifiedMillis) {
+        this.eTag = eTag;
+        this.lastModifiedMillis = lastModifiedMillis;
+    }
+
+    /**
+     * @param resource: names the resource, e.g. booking-1
+     * @param count: number of rows the representation is built from
+     * @param updatedAt: last change of each kind of row, null when there is none
+     * @return ResourceVersion
+     */
+    public static ResourceVersion of(String resource, long count, LocalDateTime... updatedAt) {
+        LocalDateTime latest = null;
+        for (LocalDateTime candidate : updatedAt) {
+            if (candidate != null && (latest == null || candidate.isAfter(latest))) {
+                latest = candidate;
+            }
+        }
+        long latestMicros = latest == null ? 0 : ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), latest);
+        long lastModifiedMillis = latest == null ? 0 : latest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new ResourceVersion("\"" + resource + "-" + count + "-" + latestMicros + "\"", lastModifiedMillis);
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * @return long, epoch millis of the latest change, 0 if nothing ever changed
+     */
+    public long getLastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ResourceVersion)) {
+            return false;
+        }
+        ResourceVersion that = (ResourceVersion) other;
+        return lastModifiedMillis == that.lastModifiedMillis && Objects.equals(eTag, that.eTag);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eTag, lastModifiedMillis);
+    }
+}
@@ -1,5 +1,7 @@
 package com.carolina.booking_service.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -7,6 +9,8 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Seat {
 
     @Id
@@ -17,31 +21,33 @@ public class Seat {
     private VenueArea venueArea;
     @Column(columnDefinition = "boolean default true")
     private Boolean enabled = true;
-    @Column(columnDefinition = "boolean default false")
-    private Boolean booked = false;
+    private Integer rowIndex;
+    private Integer seatNumber;
     @Column(nullable = false)
     @CreationTimestamp
     private LocalDateTime createdAt;
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
-    @OneToOne(mappedBy = "seat")
-    private Booking booking;
-
     public Seat() {}
 
     public Seat(VenueArea venueArea) {
         this.venueArea = venueArea;
     }
 
+    public Seat(VenueArea venueArea, Integer rowIndex, Integer seatNumber) {
+        this.venueArea = venueArea;
+        this.rowIndex = rowIndex;
+        this.seatNumber = seatNumber;
+    }
+
     /**
      * Constructor handy for unit testing
      */
-    public Seat(Integer id, VenueArea venueArea, Boolean enabled, Boolean booked) {
+    public Seat(Integer id, VenueArea venueArea, Boolean enabled) {
         this.id = id;
         this.venueArea = venueArea;
         this.enabled = enabled;
-        this.booked = booked;
     }
 
     public Integer getId() {
@@ -64,20 +70,24 @@ public class Seat {
         return enabled;
     }
 
-    public Booking getBooking() {
-        return booking;
-    }
-
     public void setEnabled(Boolean enabled) {
         this.enabled = enabled;
     }
 
-    public Boolean isBooked() {
-        return booked;
+    public Integer getRowIndex() {
+        return rowIndex;
     }
 
-    public void setBooked(Boolean booked) {
-        this.booked = booked;
+    public void setRowIndex(Integer rowIndex) {
+        this.rowIndex = rowIndex;
+    }
+
+    public Integer getSeatNumber() {
+        return seatNumber;
+    }
+
+    public void setSeatNumber(Integer seatNumber) {
+        this.seatNumber = seatNumber;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -96,10 +106,6 @@ public class Seat {
         this.updatedAt = updatedAt;
     }
 
-    public void setBooking(Booking booking) {
-        this.booking = booking;
-    }
-
     @Override
     public String toString() {
         String result = "Booking{";
@@ -112,9 +118,6 @@ public class Seat {
         if (enabled != null) {
             result += enabled + " ,";
         }
-        if (booked != null) {
-            result += booked + " ,";
-        }
         return result;
     }
 }
@@ -0,0 +1,45 @@
+package com.carolina.booking_service.model;
+
+import java.util.List;
+
+/**
+ * Seats of a show booked or released since the previous batch, each seat listed once with its latest state
+ */
+public class SeatChangeBatchDTO {
+
+    private Long showId;
+    private List<Integer> bookedSeatIds;
+    private List<Integer> releasedSeatIds;
+
+    public SeatChangeBatchDTO() {}
+
+    public SeatChangeBatchDTO(Long showId, List<Integer> bookedSeatIds, List<Integer> releasedSeatIds) {
+        this.showId = showId;
+        this.bookedSeatIds = bookedSeatIds;
+        this.releasedSeatIds = releasedSeatIds;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public void setShowId(Long showId) {
+        this.showId = showId;
+    }
+
+    public List<Integer> getBookedSeatIds() {
+        return bookedSeatIds;
+    }
+
+    public void setBookedSeatIds(List<Integer> bookedSeatIds) {
+        this.bookedSeatIds = bookedSeatIds;
+    }
+
+    public List<Integer> getReleasedSeatIds() {
+        return releasedSeatIds;
+    }
+
+    public void setReleasedSeatIds(List<Integer> releasedSeatIds) {
+        this.releasedSeatIds = releasedSeatIds;
+    }
+}
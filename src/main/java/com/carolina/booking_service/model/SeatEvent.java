@@ -0,0 +1,59 @@
+package com.carolina.booking_service.model;
+
+/**
+ * A committed change to a seat of a show, as recorded in the seat event log.
+ * A swap books the seat and frees the previous one in a single event
+ */
+public class SeatEvent {
+
+    private final long sequence;
+    private final SeatEventType type;
+    private final Long showId;
+    private final Integer seatId;
+    private final Integer previousSeatId;
+    private final long createdAtMillis;
+
+    public SeatEvent(long sequence, SeatEventType type, Long showId, Integer seatId, Integer previousSeatId, long createdAtMillis) {
+        this.sequence = sequence;
+        this.type = type;
+        this.showId = showId;
+        this.seatId = seatId;
+        this.previousSeatId = previousSeatId;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public SeatEventType getType() {
+        return type;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public Integer getSeatId() {
+        return seatId;
+    }
+
+    public Integer getPreviousSeatId() {
+        return previousSeatId;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatEvent{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", showId=" + showId +
+                ", seatId=" + seatId +
+                ", previousSeatId=" + previousSeatId +
+                '}';
+    }
+}
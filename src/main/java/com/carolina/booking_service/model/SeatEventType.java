@@ -0,0 +1,7 @@
+package com.carolina.booking_service.model;
+
+public enum SeatEventType {
+    BOOKED,
+    RELEASED,
+    SWAPPED
+}
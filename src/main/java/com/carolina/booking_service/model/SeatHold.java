@@ -0,0 +1,57 @@
+package com.carolina.booking_service.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seats reserved for a user for a limited time, before being confirmed as bookings.
+ * Holds only live in memory.
+ */
+public class SeatHold {
+
+    private final String id;
+    private final Long showId;
+    private final Long userId;
+    private final List<Integer> seatIds;
+    private final LocalDateTime expiresAt;
+
+    public SeatHold(String id, Long showId, Long userId, List<Integer> seatIds, LocalDateTime expiresAt) {
+        this.id = id;
+        this.showId = showId;
+        this.userId = userId;
+        this.seatIds = new ArrayList<>(seatIds);
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public List<Integer> getSeatIds() {
+        return new ArrayList<>(seatIds);
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold{" +
+                "id='" + id + '\'' +
+                ", showId=" + showId +
+                ", userId=" + userId +
+                ", seatIds=" + seatIds +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
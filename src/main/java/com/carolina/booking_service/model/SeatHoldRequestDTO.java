@@ -0,0 +1,68 @@
+package com.carolina.booking_service.model;
+
+import com.carolina.booking_service.validation.Create;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class SeatHoldRequestDTO {
+
+    @NotNull(groups = Create.class)
+    private Long showId;
+
+    @NotNull(groups = Create.class)
+    private Long userId;
+
+    @NotEmpty(groups = Create.class)
+    @Size(max = 20, groups = Create.class, message = "A hold can't have more than 20 seats")
+    private List<@NotNull(groups = Create.class) Integer> seatIds;
+
+    @Min(value = 1, groups = Create.class)
+    @Max(value = 30, groups = Create.class)
+    private Integer minutes;
+
+    public SeatHoldRequestDTO() {}
+
+    public SeatHoldRequestDTO(Long showId, Long userId, List<Integer> seatIds, Integer minutes) {
+        this.showId = showId;
+        this.userId = userId;
+        this.seatIds = seatIds;
+        this.minutes = minutes;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public void setShowId(Long showId) {
+        this.showId = showId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public List<Integer> getSeatIds() {
+        return seatIds;
+    }
+
+    public void setSeatIds(List<Integer> seatIds) {
+        this.seatIds = seatIds;
+    }
+
+    public Integer getMinutes() {
+        return minutes;
+    }
+
+    public void setMinutes(Integer minutes) {
+        this.minutes = minutes;
+    }
+}
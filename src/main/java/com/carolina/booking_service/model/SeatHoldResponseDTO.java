@@ -0,0 +1,63 @@
+package com.carolina.booking_service.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class SeatHoldResponseDTO {
+
+    private String holdId;
+    private Long showId;
+    private Long userId;
+    private List<Integer> seatIds;
+    private LocalDateTime expiresAt;
+
+    public SeatHoldResponseDTO() {}
+
+    public SeatHoldResponseDTO(String holdId, Long showId, Long userId, List<Integer> seatIds, LocalDateTime expiresAt) {
+        this.holdId = holdId;
+        this.showId = showId;
+        this.userId = userId;
+        this.seatIds = seatIds;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(String holdId) {
+        this.holdId = holdId;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public void setShowId(Long showId) {
+        this.showId = showId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public List<Integer> getSeatIds() {
+        return seatIds;
+    }
+
+    public void setSeatIds(List<Integer> seatIds) {
+        this.seatIds = seatIds;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,65 @@
+package com.carolina.booking_service.model;
+
+import java.util.List;
+
+/**
+ * Seats of a show whose availability changed between two seat map versions
+ */
+public class SeatMapChangesDTO {
+
+    private Long showId;
+    private long fromVersion;
+    private long version;
+    private List<Integer> availableSeatIds;
+    private List<Integer> unavailableSeatIds;
+
+    public SeatMapChangesDTO() {}
+
+    public SeatMapChangesDTO(Long showId, long fromVersion, long version, List<Integer> availableSeatIds, List<Integer> unavailableSeatIds) {
+        this.showId = showId;
+        this.fromVersion = fromVersion;
+        this.version = version;
+        this.availableSeatIds = availableSeatIds;
+        this.unavailableSeatIds = unavailableSeatIds;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public void setShowId(Long showId) {
+        this.showId = showId;
+    }
+
+    public long getFromVersion() {
+        return fromVersion;
+    }
+
+    public void setFromVersion(long fromVersion) {
+        this.fromVersion = fromVersion;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public List<Integer> getAvailableSeatIds() {
+        return availableSeatIds;
+    }
+
+    public void setAvailableSeatIds(List<Integer> availableSeatIds) {
+        this.availableSeatIds = availableSeatIds;
+    }
+
+    public List<Integer> getUnavailableSeatIds() {
+        return unavailableSeatIds;
+    }
+
+    public void setUnavailableSeatIds(List<Integer> unavailableSeatIds) {
+        this.unavailableSeatIds = unavailableSeatIds;
+    }
+}
@@ -0,0 +1,57 @@
+package com.carolina.booking_service.model;
+
+/**
+ * Availability of every seat of a show as a bitset: bit (seatId % 8) of byte (seatId / 8) is set when the seat
+ * can still be booked. The bytes are sent base64 encoded
+ */
+public class SeatMapDTO {
+
+    private Long showId;
+    private long version;
+    private int seatCount;
+    private byte[] seats;
+
+    public SeatMapDTO() {}
+
+    public SeatMapDTO(Long showId, long version, int seatCount, byte[] seats) {
+        this.showId = showId;
+        this.version = version;
+        this.seatCount = seatCount;
+        this.seats = seats;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public void setShowId(Long showId) {
+        this.showId = showId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * @return int, number of bits in the bitset, one more than the highest seat id
+     */
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    public void setSeatCount(int seatCount) {
+        this.seatCount = seatCount;
+    }
+
+    public byte[] getSeats() {
+        return seats;
+    }
+
+    public void setSeats(byte[] seats) {
+        this.seats = seats;
+    }
+}
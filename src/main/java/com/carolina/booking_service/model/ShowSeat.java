@@ -0,0 +1,94 @@
+package com.carolina.booking_service.model;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Availability of a seat for one show
+ */
+@Entity
+@IdClass(ShowSeatId.class)
+@Table(indexes = @Index(name = "idx_show_seat_show_booked_area", columnList = "showId, booked, venueArea"))
+public class ShowSeat {
+
+    @Id
+    private Long showId;
+    @Id
+    private Integer seatId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private VenueArea venueArea;
+    @Column(columnDefinition = "boolean default false", nullable = false)
+    private Boolean booked = false;
+    private Integer rowIndex;
+    private Integer seatNumber;
+    @Column(nullable = false)
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    public ShowSeat() {}
+
+    public ShowSeat(Long showId, Integer seatId, VenueArea venueArea, Boolean booked) {
+        this.showId = showId;
+        this.seatId = seatId;
+        this.venueArea = venueArea;
+        this.booked = booked;
+    }
+
+    public ShowSeat(Long showId, Integer seatId, VenueArea venueArea, Boolean booked, Integer rowIndex, Integer seatNumber) {
+        this(showId, seatId, venueArea, booked);
+        this.rowIndex = rowIndex;
+        this.seatNumber = seatNumber;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public Integer getSeatId() {
+        return seatId;
+    }
+
+    public VenueArea getVenueArea() {
+        return venueArea;
+    }
+
+    public Integer getRowIndex() {
+        return rowIndex;
+    }
+
+    public Integer getSeatNumber() {
+        return seatNumber;
+    }
+
+    public Boolean isBooked() {
+        return booked;
+    }
+
+    public void setBooked(Boolean booked) {
+        this.booked = booked;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ShowSeat{" +
+                "showId=" + showId +
+                ", seatId=" + seatId +
+                ", venueArea=" + venueArea +
+                ", booked=" + booked +
+                '}';
+    }
+}
@@ -0,0 +1,44 @@
+package com.carolina.booking_service.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class ShowSeatId implements Serializable {
+
+    private static final long serialVersionUID = 4718309123557712096L;
+
+    private Long showId;
+    private Integer seatId;
+
+    public ShowSeatId() {}
+
+    public ShowSeatId(Long showId, Integer seatId) {
+        this.showId = showId;
+        this.seatId = seatId;
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public Integer getSeatId() {
+        return seatId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ShowSeatId)) {
+            return false;
+        }
+        ShowSeatId that = (ShowSeatId) o;
+        return Objects.equals(showId, that.showId) && Objects.equals(seatId, that.seatId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(showId, seatId);
+    }
+}
@@ -4,6 +4,9 @@ import com.carolina.booking_service.validation.Create;
 import com.carolina.booking_service.validation.Update;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -17,6 +20,8 @@ import java.util.Collections;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = "email", name = "unique_user_email"))
 public class User {
 
@@ -129,6 +134,14 @@ public class User {
         return this.bookings;
     }
 
+    /**
+     * Whether the bookings are already in memory, so copying them doesn't load them from the database
+     * @return boolean
+     */
+    public boolean hasLoadedBookings() {
+        return this.bookings != null && Hibernate.isInitialized(this.bookings);
+    }
+
     public void setBookings(List<Booking> bookings) {
         if (bookings != null) {
             List<Booking> copy = new ArrayList<>(bookings);
@@ -1,5 +1,7 @@
 package com.carolina.booking_service.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -9,6 +11,8 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Venue {
 
     @Id
@@ -20,8 +24,6 @@ public class Venue {
     private String address;
     @Column(nullable = false)
     private final Integer capacity = 10000;
-    @Column(columnDefinition = "boolean default false", nullable = false)
-    private Boolean soldOut = false;
     @Column(nullable = false)
     @CreationTimestamp
     private LocalDateTime createdAt;
@@ -54,18 +56,10 @@ public class Venue {
         this.address = address;
     }
 
-    public Boolean getSoldOut() {
-        return this.soldOut;
-    }
-
     public Integer getCapacity() {
         return this.capacity;
     }
 
-    public void setSoldOut(Boolean soldOut) {
-        this.soldOut = soldOut;
-    }
-
     public LocalDateTime getCreatedAt() {
         return this.createdAt;
     }
@@ -81,7 +75,6 @@ public class Venue {
                 ", name='" + name + '\'' +
                 ", address='" + address + '\'' +
                 ", capacity=" + capacity +
-                ", soldOut=" + soldOut +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
                 '}';
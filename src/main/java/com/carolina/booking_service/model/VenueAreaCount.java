@@ -0,0 +1,10 @@
+package com.carolina.booking_service.model;
+
+/**
+ * Number of seats in a venue area, as returned by aggregate queries
+ */
+public interface VenueAreaCount {
+
+    VenueArea getVenueArea();
+    Long getCount();
+}
@@ -1,14 +1,72 @@
 package com.carolina.booking_service.repository;
 
 import com.carolina.booking_service.model.Booking;
+import com.carolina.booking_service.model.BookingRow;
+import com.carolina.booking_service.model.BookingTimestamps;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface    BookingRepository extends JpaRepository<Booking, Long> {
+public interface    BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+
+    // Bookings that are read as entities bring their user and seat in the same select, instead of one more per booking
 
+    @Override
+    @EntityGraph(attributePaths = {"user", "seat"})
+    List<Booking> findAll();
+
+    @EntityGraph(attributePaths = {"user", "seat"})
     List<Booking> findByUserId(Long id);
-}
 
+    @Query("select b from Booking b join fetch b.user join fetch b.seat s where b.showId = :showId and s.id in :seatIds")
+    List<Booking> findByShowIdAndSeatIds(@Param("showId") Long showId, @Param("seatIds") Collection<Integer> seatIds);
+
+    @Query("select b.seat.id from Booking b where b.showId = :showId")
+    List<Integer> findSeatIdsByShowId(@Param("showId") Long showId);
+
+    String SELECT_BOOKING_ROW = "select new com.carolina.booking_service.model.BookingRow(" +
+            "b.id, b.showId, u.email, s.id, s.venueArea, b.createdAt) from Booking b join b.user u join b.seat s";
+
+    // Read-only, so they can be served by a replica. The transaction ends with the query, before the rows are mapped
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BOOKING_ROW + " where b.id = :id")
+    Optional<BookingRow> findRowById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BOOKING_ROW + " where u.id = :userId")
+    List<BookingRow> findRowsByUserId(@Param("userId") Long userId);
+
+    String SELECT_BOOKING_TIMESTAMPS = "select count(b) as count, max(b.updatedAt) as bookingsUpdatedAt, " +
+            "max(u.updatedAt) as usersUpdatedAt, max(s.updatedAt) as seatsUpdatedAt from Booking b join b.user u join b.seat s";
+
+    @Query(SELECT_BOOKING_TIMESTAMPS + " where b.id = :id")
+    BookingTimestamps findTimestampsById(@Param("id") Long id);
+
+    @Query(SELECT_BOOKING_TIMESTAMPS + " where u.id = :userId")
+    BookingTimestamps findTimestampsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Reads every booking through a forward-only cursor, fetchSize rows at a time. Must be consumed and closed
+     * within a transaction. MySQL only honours the fetch size with useCursorFetch=true, otherwise the driver
+     * reads the whole result set into memory
+     * @return Stream<BookingRow>, ordered by id
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(SELECT_BOOKING_ROW + " order by b.id")
+    Stream<BookingRow> streamAllRows();
+}
@@ -0,0 +1,15 @@
+package com.carolina.booking_service.repository;
+
+import com.carolina.booking_service.model.BookingCursor;
+import com.carolina.booking_service.model.BookingFilter;
+import com.carolina.booking_service.model.BookingLedgerEntry;
+import com.carolina.booking_service.model.BookingRow;
+
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    void insertAll(Long showId, Long userId, List<Integer> seatIds);
+    List<BookingLedgerEntry> insertLedgerEntries(List<BookingLedgerEntry> entries);
+    List<BookingRow> findPage(BookingFilter filter, BookingCursor after, int limit);
+}
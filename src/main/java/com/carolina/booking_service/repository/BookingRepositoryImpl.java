@@ -0,0 +1,165 @@
+package com.carolina.booking_service.repository;
+
+import com.carolina.booking_service.model.BookingCursor;
+import com.carolina.booking_service.model.BookingFilter;
+import com.carolina.booking_service.model.BookingLedgerEntry;
+import com.carolina.booking_service.model.BookingRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Booking ids are generated by the database (IDENTITY), which stops Hibernate from batching inserts,
+ * so bookings created together are written as a single JDBC batch instead.
+ */
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+
+    private static final String INSERT_BOOKING =
+            "insert into booking (show_id, seat_id, user_id, created_at, updated_at) values (?, ?, ?, ?, ?)";
+
+    // Replaying the ledger after a crash may hit bookings that were already written, so the insert skips seats
+    // that have a booking, and a skipped entry is only written off as done if that booking is its own
+    private static final String INSERT_LEDGER_BOOKING =
+            "insert into booking (show_id, seat_id, user_id, created_at, updated_at) select ?, ?, ?, ?, ? from seat " +
+            "where id = ? and not exists (select 1 from booking b where b.show_id = ? and b.seat_id = ?)";
+    private static final String COUNT_LEDGER_BOOKING =
+            "select count(*) from booking where show_id = ? and seat_id = ? and user_id = ? and created_at = ?";
+    private static final String BOOK_SHOW_SEAT =
+            "update show_seat set booked = true, updated_at = ? where show_id = ? and seat_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public BookingRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts one booking per seat for the show and user in a single batch
+     * @param showId: show id
+     * @param userId: user id
+     * @param seatIds: seat ids
+     */
+    @Override
+    public void insertAll(Long showId, Long userId, List<Integer> seatIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_BOOKING, seatIds, seatIds.size(), (statement, seatId) -> {
+            statement.setLong(1, showId);
+            statement.setInt(2, seatId);
+            statement.setLong(3, userId);
+            statement.setTimestamp(4, now);
+            statement.setTimestamp(5, now);
+        });
+    }
+
+    /**
+     * Writes bookings recorded in the ledger and marks their seats as booked, in two batches.
+     * An entry whose seat already has its booking, written by an earlier run, is skipped. An entry whose seat has
+     * another booking, or no longer exists, is a conflict: it is left out and its seat isn't touched
+     * @param entries: ledger entries
+     * @return List<BookingLedgerEntry>, the conflicting entries
+     */
+    @Override
+    public List<BookingLedgerEntry> insertLedgerEntries(List<BookingLedgerEntry> entries) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_LEDGER_BOOKING, entries, entries.size(), (statement, entry) -> {
+            Timestamp createdAt = new Timestamp(entry.getCreatedAtMillis());
+            statement.setLong(1, entry.getShowId());
+            statement.setInt(2, entry.getSeatId());
+            statement.setLong(3, entry.getUserId());
+            statement.setTimestamp(4, createdAt);
+            statement.setTimestamp(5, createdAt);
+            statement.setInt(6, entry.getSeatId());
+            statement.setLong(7, entry.getShowId());
+            statement.setInt(8, entry.getSeatId());
+        });
+
+        List<BookingLedgerEntry> booked = new ArrayList<>(entries.size());
+        List<BookingLedgerEntry> conflicts = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                BookingLedgerEntry entry = entries.get(index++);
+                // Only a skipped entry, or one the driver didn't report on, is looked up
+                if (count == 1 || isLedgerBooking(entry)) {
+                    booked.add(entry);
+                } else {
+                    conflicts.add(entry);
+                }
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(BOOK_SHOW_SEAT, booked, booked.size(), (statement, entry) -> {
+            statement.setTimestamp(1, now);
+            statement.setLong(2, entry.getShowId());
+            statement.setInt(3, entry.getSeatId());
+        });
+        return conflicts;
+    }
+
+    private boolean isLedgerBooking(BookingLedgerEntry entry) {
+        Integer count = jdbcTemplate.queryForObject(COUNT_LEDGER_BOOKING, Integer.class, entry.getShowId(),
+                entry.getSeatId(), entry.getUserId(), new Timestamp(entry.getCreatedAtMillis()));
+        return count != null && count > 0;
+    }
+
+    /**
+     * Returns the bookings matching the filter that come after the cursor, newest first. Only the conditions
+     * of the filters that are set are added to the query, so it can use the (showId, createdAt, id) or
+     * (createdAt, id) index instead of scanning
+     * @param filter: filters
+     * @param after: last booking of the previous page, or null for the first page
+     * @param limit: maximum number of bookings
+     * @return List<BookingRow>
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingRow> findPage(BookingFilter filter, BookingCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder(BookingRepository.SELECT_BOOKING_ROW).append(" where 1 = 1");
+        if (filter.getShowId() != null) {
+            jpql.append(" and b.showId = :showId");
+        }
+        if (filter.getVenueArea() != null) {
+            jpql.append(" and s.venueArea = :venueArea");
+        }
+        if (filter.getFrom() != null) {
+            jpql.append(" and b.createdAt >= :from");
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" and b.createdAt < :to");
+        }
+        if (after != null) {
+            jpql.append(" and (b.createdAt < :afterCreatedAt or (b.createdAt = :afterCreatedAt and b.id < :afterId))");
+        }
+        jpql.append(" order by b.createdAt desc, b.id desc");
+
+        TypedQuery<BookingRow> query = entityManager.createQuery(jpql.toString(), BookingRow.class);
+        if (filter.getShowId() != null) {
+            query.setParameter("showId", filter.getShowId());
+        }
+        if (filter.getVenueArea() != null) {
+            query.setParameter("venueArea", filter.getVenueArea());
+        }
+        if (filter.getFrom() != null) {
+            query.setParameter("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            query.setParameter("to", filter.getTo());
+        }
+        if (after != null) {
+            query.setParameter("afterCreatedAt", after.getCreatedAt());
+            query.setParameter("afterId", after.getId());
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,39 @@
+package com.carolina.booking_service.repository;
+
+import com.carolina.booking_service.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Reads the record in a read-write transaction, so it comes from the primary: a replica may not have
+     * the key yet when a retry arrives right after the first request
+     */
+    @Override
+    @Transactional
+    Optional<IdempotencyRecord> findById(String key);
+
+    /**
+     * Stores the response of the request that took the key
+     * @return the number of rows updated, 0 if the key isn't taken anymore
+     */
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.completed = true, r.responseStatus = :status, r.location = :location, " +
+            "r.responseBody = :body where r.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("status") Integer status, @Param("location") String location, @Param("body") String body);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -4,6 +4,10 @@ import com.carolina.booking_service.model.Seat;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface SeatRepository extends JpaRepository<Seat, Integer> {
+
+    List<Seat> findByEnabledTrue();
 }
@@ -0,0 +1,85 @@
+package com.carolina.booking_service.repository;
+
+import com.carolina.booking_service.model.ShowSeat;
+import com.carolina.booking_service.model.ShowSeatId;
+import com.carolina.booking_service.model.VenueAreaCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface ShowSeatRepository extends JpaRepository<ShowSeat, ShowSeatId> {
+
+    /**
+     * Creates the show's availability rows for every seat that doesn't have one yet,
+     * taking into account bookings that already exist for the show. Hibernate can't tell which tables a native
+     * statement writes, so it is told, otherwise it would empty every second-level cache region.
+     * Commits on its own: the rows mirror committed bookings, and must outlive a claim whose booking rolls back
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "show_seat"))
+    @Query(value = "insert into show_seat (show_id, seat_id, venue_area, row_index, seat_number, booked, created_at, updated_at) " +
+            "select :showId, s.id, s.venue_area, s.row_index, s.seat_number, " +
+            "exists (select 1 from booking b where b.show_id = :showId and b.seat_id = s.id), now(), now() " +
+            "from seat s " +
+            "where not exists (select 1 from show_seat ss where ss.show_id = :showId and ss.seat_id = s.id)",
+            nativeQuery = true)
+    int openShow(@Param("showId") Long showId);
+
+    boolean existsByShowId(Long showId);
+
+    @Query("select ss from ShowSeat ss, Seat s where s.id = ss.seatId and s.enabled = true and ss.showId = :showId")
+    List<ShowSeat> findEnabledByShowId(@Param("showId") Long showId);
+
+    @Query("select ss.venueArea as venueArea, count(ss) as count from ShowSeat ss, Seat s " +
+            "where s.id = ss.seatId and s.enabled = true and ss.showId = :showId and ss.booked = false " +
+            "group by ss.venueArea")
+    List<VenueAreaCount> countAvailableByVenueArea(@Param("showId") Long showId);
+
+    /**
+     * Books the seat for the show only if it is enabled and not booked yet
+     * @return the number of rows updated, 1 if the seat was claimed and 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("update ShowSeat ss set ss.booked = true, ss.updatedAt = current_timestamp " +
+            "where ss.showId = :showId and ss.seatId = :seatId and ss.booked = false " +
+            "and ss.seatId in (select s.id from Seat s where s.enabled = true)")
+    int claim(@Param("showId") Long showId, @Param("seatId") Integer seatId);
+
+    /**
+     * Books all of the seats for the show in one statement, skipping the ones that are disabled or already booked
+     * @return the number of seats claimed, lower than the number of ids if any of them couldn't be claimed
+     */
+    @Transactional
+    @Modifying
+    @Query("update ShowSeat ss set ss.booked = true, ss.updatedAt = current_timestamp " +
+            "where ss.showId = :showId and ss.seatId in :seatIds and ss.booked = false " +
+            "and ss.seatId in (select s.id from Seat s where s.enabled = true)")
+    int claimAll(@Param("showId") Long showId, @Param("seatIds") Collection<Integer> seatIds);
+
+    @Query("select ss.seatId from ShowSeat ss where ss.showId = :showId and ss.seatId in :seatIds and ss.booked = true")
+    List<Integer> findBookedSeatIds(@Param("showId") Long showId, @Param("seatIds") Collection<Integer> seatIds);
+
+    /**
+     * Frees the seat for the show only if it is currently booked
+     * @return the number of rows updated, 1 if the seat was released and 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("update ShowSeat ss set ss.booked = false, ss.updatedAt = current_timestamp " +
+            "where ss.showId = :showId and ss.seatId = :seatId and ss.booked = true")
+    int release(@Param("showId") Long showId, @Param("seatId") Integer seatId);
+}
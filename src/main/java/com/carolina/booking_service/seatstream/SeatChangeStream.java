@@ -0,0 +1,293 @@
+package com.carolina.booking_service.seatstream;
+
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.model.SeatChangeBatchDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes booked and released seats to the subscribers of each show over server-sent events.
+ * Committed changes are collected per show and sent as one batch per flush interval, so an on-sale with thousands
+ * of bookings a second sends a few batches a second instead of one event per seat. Subscribers don't hold a thread:
+ * the emitters are asynchronous requests, and a small pool of senders writes the batches. Each subscriber buffers a
+ * bounded number of batches; one that falls further behind has its buffer dropped and gets a fresh seat map
+ * snapshot instead, so a slow consumer costs a bounded amount of memory and never holds the others up for long.
+ * Every subscriber starts with a snapshot
+ */
+@Component
+public class SeatChangeStream implements MeterBinder {
+
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String CHANGES_EVENT = "changes";
+
+    private final SeatInventory seatInventory;
+    private final long timeoutMillis;
+    private final int maxBufferedBatches;
+    private final Executor senders;
+
+    private final Map<Long, Set<Subscriber>> subscribersByShow = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Integer, Boolean>> pendingByShow = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong snapshotsSent = new AtomicLong();
+    private final AtomicLong droppedToSnapshot = new AtomicLong();
+
+    @Autowired
+    public SeatChangeStream(SeatInventory seatInventory,
+                            @Value("${seatStream.timeoutMinutes:30}") long timeoutMinutes,
+                            @Value("${seatStream.maxBufferedBatches:64}") int maxBufferedBatches,
+                            @Value("${seatStream.senderThreads:4}") int senderThreads) {
+        this(seatInventory, Duration.ofMinutes(timeoutMinutes), maxBufferedBatches, Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "seat-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    SeatChangeStream(SeatInventory seatInventory, Duration timeout, int maxBufferedBatches, Executor senders) {
+        this.seatInventory = seatInventory;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxBufferedBatches = maxBufferedBatches;
+        this.senders = senders;
+    }
+
+    /**
+     * Opens a stream of the show's seat changes, starting with a snapshot of its seat map
+     * @param showId: show id
+     * @return SseEmitter
+     */
+    public SseEmitter subscribe(Long showId) {
+        return subscribe(showId, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Long showId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(showId, emitter);
+        subscribersByShow.compute(showId, (id, showSubscribers) -> {
+            Set<Subscriber> updated = showSubscribers == null ? ConcurrentHashMap.newKeySet() : showSubscribers;
+            updated.add(subscriber);
+            return updated;
+        });
+        subscribers.incrementAndGet();
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        subscriber.requestSnapshot();
+        return emitter;
+    }
+
+    /**
+     * Publishes the seat change once the current transaction commits, or right away outside of one
+     * @param showId: show id
+     * @param seatId: seat id
+     * @param booked: true if the seat was booked, false if it was released
+     */
+    public void publishAfterCommit(Long showId, Integer seatId, boolean booked) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(showId, seatId, booked);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(showId, seatId, booked);
+            }
+        });
+    }
+
+    /**
+     * Adds the seat change to the show's next batch. Nothing is kept for shows no one subscribed to, their
+     * subscribers start from a snapshot anyway
+     * @param showId: show id
+     * @param seatId: seat id
+     * @param booked: true if the seat was booked, false if it was released
+     */
+    public void publish(Long showId, Integer seatId, boolean booked) {
+        if (!subscribersByShow.containsKey(showId)) {
+            return;
+        }
+        pendingByShow.compute(showId, (id, pending) -> {
+            Map<Integer, Boolean> updated = pending == null ? new LinkedHashMap<>() : pending;
+            // A seat booked and released within one interval is sent once, with its last state
+            updated.remove(seatId);
+            updated.put(seatId, booked);
+            return updated;
+        });
+    }
+
+    /**
+     * Sends every show's pending changes to its subscribers as one batch
+     */
+    @Scheduled(fixedDelayString = "${seatStream.flushIntervalMs:100}")
+    public void flush() {
+        for (Long showId : pendingByShow.keySet()) {
+            Map<Integer, Boolean> pending = pendingByShow.remove(showId);
+            Set<Subscriber> showSubscribers = subscribersByShow.get(showId);
+            if (pending == null || showSubscribers == null) {
+                continue;
+            }
+            List<Integer> booked = new ArrayList<>();
+            List<Integer> released = new ArrayList<>();
+            pending.forEach((seatId, isBooked) -> (isBooked ? booked : released).add(seatId));
+            SeatChangeBatchDTO batch = new SeatChangeBatchDTO(showId, booked, released);
+            for (Subscriber subscriber : showSubscribers) {
+                subscriber.offer(batch);
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        boolean[] removed = new boolean[1];
+        subscribersByShow.computeIfPresent(subscriber.showId, (id, showSubscribers) -> {
+            removed[0] = showSubscribers.remove(subscriber);
+            return showSubscribers.isEmpty() ? null : showSubscribers;
+        });
+        if (removed[0]) {
+            subscribers.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (senders instanceof ExecutorService) {
+            ((ExecutorService) senders).shutdownNow();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("seat.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Open seat change streams")
+                .register(registry);
+        FunctionCounter.builder("seat.stream.batches", batchesSent, AtomicLong::get)
+                .description("Batches of seat changes sent to subscribers")
+                .register(registry);
+        FunctionCounter.builder("seat.stream.snapshots", snapshotsSent, AtomicLong::get)
+                .description("Seat map snapshots sent to subscribers")
+                .register(registry);
+        FunctionCounter.builder("seat.stream.dropped", droppedToSnapshot, AtomicLong::get)
+                .description("Times a subscriber fell too far behind and its batches were replaced by a snapshot")
+                .register(registry);
+    }
+
+    /**
+     * Batches waiting to be written to one subscriber. At most one sender drains a subscriber at a time, so its
+     * events go out in order
+     */
+    private class Subscriber {
+
+        private final Long showId;
+        private final SseEmitter emitter;
+        private final Deque<SeatChangeBatchDTO> buffered = new ArrayDeque<>();
+        private boolean snapshotNeeded;
+        private boolean draining;
+
+        private Subscriber(Long showId, SseEmitter emitter) {
+            this.showId = showId;
+            this.emitter = emitter;
+        }
+
+        private void requestSnapshot() {
+            synchronized (this) {
+                buffered.clear();
+                snapshotNeeded = true;
+            }
+            schedule();
+        }
+
+        private void offer(SeatChangeBatchDTO batch) {
+            synchronized (this) {
+                if (snapshotNeeded) {
+                    // The snapshot is taken when it is sent, so it already has this batch
+                    return;
+                }
+                if (buffered.size() >= maxBufferedBatches) {
+                    droppedToSnapshot.incrementAndGet();
+                    buffered.clear();
+                    snapshotNeeded = true;
+                } else {
+                    buffered.add(batch);
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RuntimeException exception) {
+                // The senders are shut down
+                synchronized (this) {
+                    draining = false;
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                boolean snapshot;
+                SeatChangeBatchDTO batch;
+                synchronized (this) {
+                    snapshot = snapshotNeeded;
+                    snapshotNeeded = false;
+                    batch = snapshot ? null : buffered.poll();
+                    if (!snapshot && batch == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    if (snapshot) {
+                        emitter.send(SseEmitter.event().name(SNAPSHOT_EVENT)
+                                .data(seatInventory.getShowInventory(showId).getSeatMap(), MediaType.APPLICATION_JSON));
+                        snapshotsSent.incrementAndGet();
+                    } else {
+                        emitter.send(SseEmitter.event().name(CHANGES_EVENT).data(batch, MediaType.APPLICATION_JSON));
+                        batchesSent.incrementAndGet();
+                    }
+                } catch (IOException | RuntimeException exception) {
+                    // The client went away, or the emitter already completed
+                    unsubscribe(this);
+                    synchronized (this) {
+                        buffered.clear();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
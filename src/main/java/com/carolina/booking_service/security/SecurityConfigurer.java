@@ -72,6 +72,7 @@ public class SecurityConfigurer extends WebSecurityConfigurerAdapter {
 
        http.authorizeRequests()
                 .antMatchers("POST", "/api/v1/authenticate").permitAll()
+                .antMatchers(CustomAuthenticationFilter.UNAUTHENTICATED_PATHS).permitAll()
                 .anyRequest().authenticated();
 
        http.addFilterBefore(customAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -9,13 +9,17 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Arrays;
 
 @Profile(value = {"!test"})
 @Component
@@ -26,8 +30,18 @@ public class CustomAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService service;
 
+    // The waiting room is polled by every user in line, it identifies them without loading them
+    public static final String[] UNAUTHENTICATED_PATHS = {"/api/v1/waiting-room", "/api/v1/waiting-room/**"};
+
     private final String TOKEN_PREFIX = "Bearer ";
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
 
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        return Arrays.stream(UNAUTHENTICATED_PATHS).anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, FilterChain filterChain) throws ServletException, IOException {
@@ -62,11 +62,11 @@ public class DataSeeder implements CommandLineRunner {
     private void loadSeatData() {
         if (seatRepository.count() == 0) {
             List<Seat> seats = Arrays.asList(
-                    new Seat(VenueArea.FLOOR),
-                    new Seat(VenueArea.FLOOR),
-                    new Seat(VenueArea.LEVEL_1),
-                    new Seat(VenueArea.LEVEL_2),
-                    new Seat(VenueArea.LEVEL_1)
+                    new Seat(VenueArea.FLOOR, 1, 1),
+                    new Seat(VenueArea.FLOOR, 1, 2),
+                    new Seat(VenueArea.LEVEL_1, 1, 1),
+                    new Seat(VenueArea.LEVEL_2, 1, 1),
+                    new Seat(VenueArea.LEVEL_1, 1, 2)
                     );
             seatRepository.saveAll(seats);
         }
@@ -1,17 +1,27 @@
 package com.carolina.booking_service.service;
 
+import com.carolina.booking_service.model.BookingBatchRequestDTO;
+import com.carolina.booking_service.model.BookingFilter;
+import com.carolina.booking_service.model.BookingPageDTO;
 import com.carolina.booking_service.model.BookingRequestDTO;
 import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.ResourceVersion;
 import com.carolina.booking_service.model.UserBookingDTO;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
-    List<BookingResponseDTO> getAllBookings();
+    BookingPageDTO getBookings(BookingFilter filter, String cursor, Integer pageSize);
+    long exportBookings(Consumer<List<BookingResponseDTO>> consumer);
     BookingResponseDTO getBookingById(Long id);
+    ResourceVersion getBookingVersion(Long id);
     UserBookingDTO getBookingsByUser(Long userId);
+    ResourceVersion getBookingsByUserVersion(Long userId);
     BookingResponseDTO createBooking(BookingRequestDTO bookingDTO);
+    List<BookingResponseDTO> createBookings(BookingBatchRequestDTO bookingsDTO);
+    List<BookingResponseDTO> createBookingsForClaimedSeats(Long showId, Long userId, List<Integer> seatIds);
     BookingResponseDTO updateBooking(Long id, BookingRequestDTO bookingDTO);
     void deleteBooking(Long id);
 }
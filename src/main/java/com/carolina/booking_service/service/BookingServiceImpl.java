@@ -1,15 +1,25 @@
 package com.carolina.booking_service.service;
 
 import com.carolina.booking_service.exception.SeatNotAvailableException;
+import com.carolina.booking_service.eventlog.SeatEventLog;
 import com.carolina.booking_service.exception.VenueSoldOutException;
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.inventory.SeatLockManager;
+import com.carolina.booking_service.ledger.BookingLedger;
 import com.carolina.booking_service.model.*;
 import com.carolina.booking_service.repository.BookingRepository;
+import com.carolina.booking_service.seatstream.SeatChangeStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class BookingServiceImpl implements BookingService {
@@ -19,29 +29,87 @@ public class BookingServiceImpl implements BookingService {
     private final SeatService seatService;
     private final UserService userService;
     private final MappingService mappingService;
+    private final SeatInventory seatInventory;
+    private final SeatLockManager seatLockManager;
+    private final BookingLedger bookingLedger;
+    private final SeatEventLog seatEventLog;
+    private final SeatChangeStream seatChangeStream;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int exportChunkSize;
 
     @Autowired
-    public BookingServiceImpl(BookingRepository bookingRepository, VenueService venueService, SeatService seatService, UserService userService, MappingService mappingService) {
+    public BookingServiceImpl(BookingRepository bookingRepository, VenueService venueService, SeatService seatService, UserService userService, MappingService mappingService, SeatInventory seatInventory, SeatLockManager seatLockManager, BookingLedger bookingLedger, SeatEventLog seatEventLog,
+                              SeatChangeStream seatChangeStream, TransactionTemplate transactionTemplate,
+                              @Value("${bookings.defaultPageSize:50}") int defaultPageSize,
+                              @Value("${bookings.maxPageSize:500}") int maxPageSize,
+                              @Value("${bookings.exportChunkSize:500}") int exportChunkSize) {
         this.bookingRepository = bookingRepository;
         this.venueService = venueService;
         this.seatService = seatService;
         this.userService = userService;
         this.mappingService = mappingService;
+        this.seatInventory = seatInventory;
+        this.seatLockManager = seatLockManager;
+        this.bookingLedger = bookingLedger;
+        this.seatEventLog = seatEventLog;
+        this.seatChangeStream = seatChangeStream;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.exportChunkSize = exportChunkSize;
     }
 
     /**
-     * Returns all of the bookings
-     * @return List<BookingResponseDTO>
+     * Returns a page of the bookings matching the filter, newest first
+     * @param filter: filters
+     * @param cursor: next cursor of the previous page, or null for the first page
+     * @param pageSize: number of bookings, capped at the maximum page size. The default page size when null
+     * @return BookingPageDTO
+     * @throws IllegalArgumentException if the cursor is invalid or the page size isn't positive
      */
     @Override
-    public List<BookingResponseDTO> getAllBookings() {
-        List<Booking> bookings = bookingRepository.findAll();
-        List<BookingResponseDTO> bookingsDTO = new ArrayList<>();
-        bookings.stream()
-                .map(b -> this.mappingService.mapToResponseDTO(b))
-                .forEach(bookingsDTO::add);
+    public BookingPageDTO getBookings(BookingFilter filter, String cursor, Integer pageSize) {
+        int limit = pageSize == null ? defaultPageSize : Math.min(pageSize, maxPageSize);
+        if (limit < 1) {
+            throw new IllegalArgumentException("The page size must be positive!");
+        }
+        BookingCursor after = cursor == null ? null : BookingCursor.decode(cursor);
 
-        return bookingsDTO;
+        // One more than the page tells whether there is a next page
+        List<BookingRow> bookings = bookingRepository.findPage(filter, after, limit + 1);
+        String nextCursor = null;
+        if (bookings.size() > limit) {
+            bookings = bookings.subList(0, limit);
+            nextCursor = BookingCursor.after(bookings.get(limit - 1)).encode();
+        }
+        return new BookingPageDTO(this.mappingService.mapRowsToResponseDTOs(bookings), nextCursor);
+    }
+
+    /**
+     * Hands every booking to the consumer in chunks, reading them through a database cursor. The rows are projections,
+     * not entities, so nothing accumulates in the persistence context, and show names are looked up once per chunk
+     * @param consumer: receives the bookings, in id order
+     * @return number of bookings exported
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBookings(Consumer<List<BookingResponseDTO>> consumer) {
+        long exported = 0;
+        List<BookingRow> chunk = new ArrayList<>(exportChunkSize);
+        try (Stream<BookingRow> bookings = bookingRepository.streamAllRows()) {
+            Iterator<BookingRow> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == exportChunkSize || !iterator.hasNext()) {
+                    consumer.accept(this.mappingService.mapRowsToResponseDTOs(chunk));
+                    exported += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        return exported;
     }
 
     /**
@@ -51,13 +119,29 @@ public class BookingServiceImpl implements BookingService {
      */
     @Override
     public BookingResponseDTO getBookingById(Long id) {
-        Optional<Booking> bookingOptional = bookingRepository.findById(id);
+        Optional<BookingRow> bookingOptional = bookingRepository.findRowById(id);
         if (!bookingOptional.isPresent()) {
             throw new EntityNotFoundException();
         }
         return this.mappingService.mapToResponseDTO(bookingOptional.get());
     }
 
+    /**
+     * Returns the version of a booking's response, from the last changes to the booking, its user and its seat
+     * @param id: booking id
+     * @return ResourceVersion
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getBookingVersion(Long id) {
+        BookingTimestamps timestamps = bookingRepository.findTimestampsById(id);
+        if (timestamps.getCount() == 0) {
+            throw new EntityNotFoundException();
+        }
+        return ResourceVersion.of("booking-" + id, timestamps.getCount(), timestamps.getBookingsUpdatedAt(),
+                timestamps.getUsersUpdatedAt(), timestamps.getSeatsUpdatedAt());
+    }
+
     /**
      * Returns all of the user's bookings
             * @param userId: the user's id
@@ -65,46 +149,182 @@ public class BookingServiceImpl implements BookingService {
      */
     @Override
     public UserBookingDTO getBookingsByUser(Long userId) {
-        List<Booking> bookingsPerUser = bookingRepository.findByUserId(userId);
-        List<BookingResponseDTO> bookingsDTO = new ArrayList<>();
-        for (Booking b : bookingsPerUser) {
-            bookingsDTO.add(this.mappingService.mapToResponseDTO(b));
-        }
-        return new UserBookingDTO(userId, bookingsDTO);
+        List<BookingRow> bookingsPerUser = bookingRepository.findRowsByUserId(userId);
+        return new UserBookingDTO(userId, this.mappingService.mapRowsToResponseDTOs(bookingsPerUser));
+    }
+
+    /**
+     * Returns the version of the user's bookings response, from their count and the last changes to them,
+     * the user and their seats
+     * @param userId: the user's id
+     * @return ResourceVersion
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getBookingsByUserVersion(Long userId) {
+        BookingTimestamps timestamps = bookingRepository.findTimestampsByUserId(userId);
+        return ResourceVersion.of("user-" + userId + "-bookings", timestamps.getCount(), timestamps.getBookingsUpdatedAt(),
+                timestamps.getUsersUpdatedAt(), timestamps.getSeatsUpdatedAt());
     }
 
     /**
-     *
+     * Books a seat. With the booking ledger enabled the booking is only recorded in the ledger and written
+     * to the database later, so the returned record has no booking id yet
      * @param bookingDTO: BookingRequestDTO record
      * @return bookingResponseDTO record
      */
     @Override
     public BookingResponseDTO createBooking(BookingRequestDTO bookingDTO) {
-        // Check if the venus is still not sold out
-        Boolean isVenueSoldOut = venueService.isVenueSoldOut();
-        if (isVenueSoldOut) {
+        if (bookingLedger.isEnabled()) {
+            return appendBooking(bookingDTO);
+        }
+        return transactionTemplate.execute(status -> saveBooking(bookingDTO));
+    }
+
+    /**
+     * Write-behind: the seat is booked once the ledger has it, the database catches up in the background.
+     * Runs outside of a transaction and checks the booking against the inventory and the second-level cache,
+     * so nothing waits on the database before the ledger's fsync
+     */
+    private BookingResponseDTO appendBooking(BookingRequestDTO bookingDTO) {
+        Long showId = bookingDTO.getShowId();
+        if (venueService.isVenueSoldOut(showId)) {
             throw new VenueSoldOutException();
         }
+        // Fails before claiming the seat if the seat or the user doesn't exist
+        Booking booking = this.mappingService.mapToBooking(bookingDTO);
 
-        // Check if the chosen seat is available (currently in use and not booked yet)
-        boolean isSeatAvailable = seatService.isSeatAvailable(bookingDTO.getSeatId());
-        if (!isSeatAvailable) {
+        // The ledger's writer doesn't need the show's rows in show_seat, so the claim doesn't create them
+        Integer seatId = bookingDTO.getSeatId();
+        if (!seatInventory.tryClaimWithoutOpening(showId, seatId)) {
             throw new SeatNotAvailableException();
         }
+        try {
+            bookingLedger.append(showId, seatId, booking.getUser().getId());
+        } catch (RuntimeException exception) {
+            seatInventory.release(showId, seatId);
+            throw exception;
+        }
+        seatEventLog.recordAfterCommit(SeatEventType.BOOKED, showId, seatId, null);
+        seatChangeStream.publishAfterCommit(showId, seatId, true);
+        return this.mappingService.mapToResponseDTO(booking);
+    }
 
-        // Create booking
-        Booking booking = this.mappingService.mapToBooking(bookingDTO);
-        bookingRepository.save(booking);
+    private BookingResponseDTO saveBooking(BookingRequestDTO bookingDTO) {
+        // Check if the venue is still not sold out for the show
+        Long showId = bookingDTO.getShowId();
+        Boolean isVenueSoldOut = venueService.isVenueSoldOut(showId);
+        if (isVenueSoldOut) {
+            throw new VenueSoldOutException();
+        }
 
-        // Set related seat 'booked' status
-        seatService.changeSeatBookingStatus(bookingDTO.getSeatId(), true);
+        // Claim the seat in memory first, so that only one request per seat goes on to the database
+        Integer seatId = bookingDTO.getSeatId();
+        seatLockManager.lockUntilTransactionEnds(showId, seatId);
+        if (!seatInventory.tryClaim(showId, seatId)) {
+            throw new SeatNotAvailableException();
+        }
 
-        // Check and update, if needed, the venue's sold out status
-        venueService.changeVenueAvailability();
+        Booking booking;
+        try {
+            // Book the seat in the database, the update only matches if it is still enabled and free
+            if (!seatService.claimSeat(showId, seatId)) {
+                // The database knows better, so the seat stays claimed in memory
+                throw new SeatNotAvailableException();
+            }
+
+            // Create booking
+            booking = this.mappingService.mapToBooking(bookingDTO);
+            bookingRepository.save(booking);
+            seatEventLog.recordAfterCommit(SeatEventType.BOOKED, showId, seatId, null);
+            seatChangeStream.publishAfterCommit(showId, seatId, true);
+        } catch (SeatNotAvailableException exception) {
+            throw exception;
+        } catch (RuntimeException exception) {
+            // Give the seat back if it couldn't be persisted, the transaction undoes the database claim
+            seatInventory.release(showId, seatId);
+            throw exception;
+        }
 
         return this.mappingService.mapToResponseDTO(booking);
     }
 
+    /**
+     * Books several seats of one show for a user. Either every seat is booked or none is
+     * @param bookingsDTO: BookingBatchRequestDTO record
+     * @return List<BookingResponseDTO>
+     */
+    @Override
+    @Transactional
+    public List<BookingResponseDTO> createBookings(BookingBatchRequestDTO bookingsDTO) {
+        // Check once if the venue is still not sold out for the show
+        Long showId = bookingsDTO.getShowId();
+        if (venueService.isVenueSoldOut(showId)) {
+            throw new VenueSoldOutException();
+        }
+
+        // Claim all of the seats in memory or none of them
+        List<Integer> seatIds = new ArrayList<>(new LinkedHashSet<>(bookingsDTO.getSeatIds()));
+        seatLockManager.lockUntilTransactionEnds(showId, seatIds.toArray(new Integer[0]));
+        List<Integer> claimed = new ArrayList<>();
+        for (Integer seatId : seatIds) {
+            if (!seatInventory.tryClaim(showId, seatId)) {
+                releaseAll(showId, claimed);
+                throw new SeatNotAvailableException();
+            }
+            claimed.add(seatId);
+        }
+
+        try {
+            return bookClaimedSeats(showId, bookingsDTO.getUserId(), seatIds);
+        } catch (RuntimeException exception) {
+            // The transaction undoes every database claim and booking, so give every seat back
+            releaseAll(showId, claimed);
+            throw exception;
+        }
+    }
+
+    /**
+     * Books seats that the caller already claimed in the in-memory inventory, e.g. through a hold.
+     * Either every seat is booked or none is: if one of them can't be booked the transaction is rolled back.
+     * The in-memory claims stay with the caller, which has to release them if this fails
+     * @param showId: show id
+     * @param userId: user id
+     * @param seatIds: ids of the claimed seats
+     * @return List<BookingResponseDTO>
+     */
+    @Override
+    @Transactional
+    public List<BookingResponseDTO> createBookingsForClaimedSeats(Long showId, Long userId, List<Integer> seatIds) {
+        return bookClaimedSeats(showId, userId, new ArrayList<>(new LinkedHashSet<>(seatIds)));
+    }
+
+    private List<BookingResponseDTO> bookClaimedSeats(Long showId, Long userId, List<Integer> seatIds) {
+        // Reentrant, so seats that createBookings already locked are simply locked again
+        seatLockManager.lockUntilTransactionEnds(showId, seatIds.toArray(new Integer[0]));
+
+        // Fail before touching any seat if the user doesn't exist
+        userService.getUser(userId);
+
+        // Book every seat in the database with one conditional update and one batch of inserts
+        if (!seatService.claimSeats(showId, seatIds)) {
+            throw new SeatNotAvailableException();
+        }
+        bookingRepository.insertAll(showId, userId, seatIds);
+        for (Integer seatId : seatIds) {
+            seatEventLog.recordAfterCommit(SeatEventType.BOOKED, showId, seatId, null);
+            seatChangeStream.publishAfterCommit(showId, seatId, true);
+        }
+
+        return this.mappingService.mapToResponseDTOs(bookingRepository.findByShowIdAndSeatIds(showId, seatIds));
+    }
+
+    private void releaseAll(Long showId, List<Integer> seatIds) {
+        for (Integer seatId : seatIds) {
+            seatInventory.release(showId, seatId);
+        }
+    }
+
     /**
      * Updates the specified booking and related seat object
      * @param bookingDTO: BookingRequestDTO object
@@ -112,6 +332,7 @@ public class BookingServiceImpl implements BookingService {
      * @return BookingResponseDTO
      */
     @Override
+    @Transactional
     public BookingResponseDTO updateBooking(Long id, BookingRequestDTO bookingDTO) {
         // Check if the booking exists
         Optional<Booking> bookingOptional = bookingRepository.findById(id);
@@ -119,28 +340,46 @@ public class BookingServiceImpl implements BookingService {
             throw new EntityNotFoundException();
         }
 
-        // Check if the chosen seat is available (currently in use and not booked yet)
+        Booking existingBooking = bookingOptional.get();
+        Long showId = existingBooking.getShowId();
+        Integer previousSeatId = existingBooking.getSeat().getId();
         Integer chosenSeatId = bookingDTO.getSeatId();
-        boolean isSeatAvailable = seatService.isSeatAvailable(chosenSeatId);
-        if (!isSeatAvailable) {
+        // Without a seat id, or with the current one, there is nothing to change
+        if (chosenSeatId == null || Objects.equals(previousSeatId, chosenSeatId)) {
+            return this.mappingService.mapToResponseDTO(existingBooking);
+        }
+
+        // Lock both seats in a fixed order, so two bookings swapping seats can't deadlock
+        seatLockManager.lockUntilTransactionEnds(showId, previousSeatId, chosenSeatId);
+
+        // Claim the chosen seat (currently in use and not booked yet)
+        if (!seatInventory.tryClaim(showId, chosenSeatId)) {
             throw new SeatNotAvailableException();
         }
 
-        // Update booking (only the seat)
-        Booking existingBooking = bookingOptional.get();
-        if (bookingDTO.getSeatId() != null) {
+        try {
+            // Book the chosen seat in the database
+            if (!seatService.claimSeat(showId, chosenSeatId)) {
+                throw new SeatNotAvailableException();
+            }
+
+            // Update booking (only the seat)
             Seat chosenSeat = seatService.getSeat(chosenSeatId);
             existingBooking.setSeat(chosenSeat);
-        }
-        bookingRepository.save(existingBooking);
+            bookingRepository.save(existingBooking);
 
-         // Set the previously-chosen seat as not booked if the seat id has changed
-        Integer previousSeatId = existingBooking.getSeat().getId();
-        if (!Objects.equals(previousSeatId, chosenSeatId)) {
-            seatService.changeSeatBookingStatus(previousSeatId, false);
+            // Set the previously-chosen seat as not booked
+            seatService.releaseSeat(showId, previousSeatId);
+            seatEventLog.recordAfterCommit(SeatEventType.SWAPPED, showId, chosenSeatId, previousSeatId);
+            seatChangeStream.publishAfterCommit(showId, chosenSeatId, true);
+            seatChangeStream.publishAfterCommit(showId, previousSeatId, false);
+        } catch (SeatNotAvailableException exception) {
+            throw exception;
+        } catch (RuntimeException exception) {
+            seatInventory.release(showId, chosenSeatId);
+            throw exception;
         }
-        // Set the chosen seat as booked
-        seatService.changeSeatBookingStatus(chosenSeatId, true);
+        seatInventory.releaseAfterCommit(showId, previousSeatId);
 
         return this.mappingService.mapToResponseDTO(existingBooking);
     }
@@ -150,16 +389,24 @@ public class BookingServiceImpl implements BookingService {
      * @param id: booking id
      */
     @Override
+    @Transactional
     public void deleteBooking(Long id) {
         Optional<Booking> bookingOptional = bookingRepository.findById(id);
         if (!bookingOptional.isPresent()) {
             throw new EntityNotFoundException();
         }
 
+        Booking booking = bookingOptional.get();
+        Long showId = booking.getShowId();
+        Integer seatId = booking.getSeat().getId();
+        seatLockManager.lockUntilTransactionEnds(showId, seatId);
+
         // Delete booking
         bookingRepository.deleteById(id);
         // Set related seat as not booked
-        Booking booking = bookingOptional.get();
-        seatService.changeSeatBookingStatus(booking.getSeat().getId(), false);
+        seatService.releaseSeat(showId, seatId);
+        seatInventory.releaseAfterCommit(showId, seatId);
+        seatEventLog.recordAfterCommit(SeatEventType.RELEASED, showId, seatId, null);
+        seatChangeStream.publishAfterCommit(showId, seatId, false);
     }
 }
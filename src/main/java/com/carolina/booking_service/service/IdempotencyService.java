@@ -0,0 +1,14 @@
+package com.carolina.booking_service.service;
+
+import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.IdempotentResponse;
+
+import java.util.Optional;
+
+public interface IdempotencyService {
+
+    Optional<IdempotentResponse> begin(String idempotencyKey, String requestFingerprint);
+    void complete(String idempotencyKey, String requestFingerprint, int status, String location, BookingResponseDTO booking);
+    void abandon(String idempotencyKey);
+    int purgeExpired();
+}
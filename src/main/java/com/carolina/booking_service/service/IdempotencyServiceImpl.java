@@ -0,0 +1,201 @@
+package com.carolina.booking_service.service;
+
+import com.carolina.booking_service.exception.IdempotencyKeyInUseException;
+import com.carolina.booking_service.exception.IdempotencyKeyReusedException;
+import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.IdempotencyRecord;
+import com.carolina.booking_service.model.IdempotentResponse;
+import com.carolina.booking_service.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Completed responses are kept in a bounded LRU in front of the idempotency_record table, so most retries are
+ * answered from memory. A key is taken by inserting its record before the request runs: a second request with
+ * the same key, on this or another instance, gets a conflict until the first one completes or gives the key back.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration inProgressTimeout;
+    private final Map<String, CachedResponse> cache;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper,
+                                  @Value("${idempotency.cacheSize:10000}") int cacheSize,
+                                  @Value("${idempotency.ttlHours:24}") long ttlHours,
+                                  @Value("${idempotency.inProgressTimeoutSeconds:60}") long inProgressTimeoutSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.inProgressTimeout = Duration.ofSeconds(inProgressTimeoutSeconds);
+        this.cache = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Takes the key for a new request, unless a request with the key already completed
+     * @param idempotencyKey: Idempotency-Key header
+     * @param requestFingerprint: identifies what the request asks for
+     * @return the stored response of the request that used the key first, or empty if the caller should go ahead
+     */
+    @Override
+    public Optional<IdempotentResponse> begin(String idempotencyKey, String requestFingerprint) {
+        CachedResponse cached = getCached(idempotencyKey);
+        if (cached != null) {
+            return Optional.of(checkFingerprint(cached.requestFingerprint, requestFingerprint, cached.response));
+        }
+        if (!inFlight.add(idempotencyKey)) {
+            throw new IdempotencyKeyInUseException();
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(idempotencyKey);
+            if (existing.isPresent()) {
+                IdempotencyRecord record = existing.get();
+                boolean expired = record.getCreatedAt().plus(ttl).isBefore(now);
+                if (!expired && record.isCompleted()) {
+                    IdempotentResponse response = toResponse(record);
+                    putCached(idempotencyKey, record.getRequestFingerprint(), response);
+                    inFlight.remove(idempotencyKey);
+                    return Optional.of(checkFingerprint(record.getRequestFingerprint(), requestFingerprint, response));
+                }
+                if (!expired && record.getCreatedAt().plus(inProgressTimeout).isAfter(now)) {
+                    throw new IdempotencyKeyInUseException();
+                }
+                // The key expired or the request that took it never finished
+                idempotencyRecordRepository.delete(record);
+            }
+            idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(idempotencyKey, requestFingerprint, now));
+            return Optional.empty();
+        } catch (DataIntegrityViolationException exception) {
+            // Another instance took the key in the meantime
+            inFlight.remove(idempotencyKey);
+            throw new IdempotencyKeyInUseException();
+        } catch (RuntimeException exception) {
+            inFlight.remove(idempotencyKey);
+            throw exception;
+        }
+    }
+
+    /**
+     * Stores the response of the request that took the key and frees the key for replays
+     * @param idempotencyKey: Idempotency-Key header
+     * @param requestFingerprint: identifies what the request asked for
+     * @param status: HTTP status of the response
+     * @param location: Location header of the response, if any
+     * @param booking: body of the response
+     */
+    @Override
+    public void complete(String idempotencyKey, String requestFingerprint, int status, String location, BookingResponseDTO booking) {
+        IdempotentResponse response = new IdempotentResponse(status, location, booking);
+        putCached(idempotencyKey, requestFingerprint, response);
+        try {
+            idempotencyRecordRepository.complete(idempotencyKey, status, location, objectMapper.writeValueAsString(booking));
+        } catch (JsonProcessingException | RuntimeException exception) {
+            // The booking is done either way, retries reaching this instance are still answered from memory
+            logger.warn("Couldn't store the response for Idempotency-Key {}", idempotencyKey, exception);
+        } finally {
+            inFlight.remove(idempotencyKey);
+        }
+    }
+
+    /**
+     * Gives the key back when the request didn't produce a response worth replaying, so a retry runs again
+     * @param idempotencyKey: Idempotency-Key header
+     */
+    @Override
+    public void abandon(String idempotencyKey) {
+        try {
+            idempotencyRecordRepository.deleteById(idempotencyKey);
+        } catch (EmptyResultDataAccessException exception) {
+            // Already gone
+        } finally {
+            inFlight.remove(idempotencyKey);
+        }
+    }
+
+    /**
+     * Deletes the records whose time to live has passed
+     * @return number of records deleted
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${idempotency.purgeIntervalMs:3600000}", initialDelayString = "${idempotency.purgeIntervalMs:3600000}")
+    public int purgeExpired() {
+        return idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    private IdempotentResponse checkFingerprint(String storedFingerprint, String requestFingerprint, IdempotentResponse response) {
+        if (!Objects.equals(storedFingerprint, requestFingerprint)) {
+            throw new IdempotencyKeyReusedException();
+        }
+        return response;
+    }
+
+    private IdempotentResponse toResponse(IdempotencyRecord record) {
+        try {
+            return new IdempotentResponse(record.getResponseStatus(), record.getLocation(),
+                    objectMapper.readValue(record.getResponseBody(), BookingResponseDTO.class));
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Couldn't read the stored response for Idempotency-Key " + record.getIdempotencyKey(), exception);
+        }
+    }
+
+    private CachedResponse getCached(String idempotencyKey) {
+        synchronized (cache) {
+            CachedResponse cached = cache.get(idempotencyKey);
+            if (cached != null && cached.expiresAtMillis <= System.currentTimeMillis()) {
+                cache.remove(idempotencyKey);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void putCached(String idempotencyKey, String requestFingerprint, IdempotentResponse response) {
+        synchronized (cache) {
+            cache.put(idempotencyKey, new CachedResponse(requestFingerprint, response, System.currentTimeMillis() + ttl.toMillis()));
+        }
+    }
+
+    private static class CachedResponse {
+
+        private final String requestFingerprint;
+        private final IdempotentResponse response;
+        private final long expiresAtMillis;
+
+        private CachedResponse(String requestFingerprint, IdempotentResponse response, long expiresAtMillis) {
+            this.requestFingerprint = requestFingerprint;
+            this.response = response;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -3,9 +3,15 @@ package com.carolina.booking_service.service;
 import com.carolina.booking_service.model.Booking;
 import com.carolina.booking_service.model.BookingRequestDTO;
 import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.BookingRow;
+
+import java.util.List;
 
 public interface MappingService {
 
     BookingResponseDTO mapToResponseDTO(Booking booking);
+    List<BookingResponseDTO> mapToResponseDTOs(List<Booking> bookings);
+    BookingResponseDTO mapToResponseDTO(BookingRow booking);
+    List<BookingResponseDTO> mapRowsToResponseDTOs(List<BookingRow> bookings);
     Booking mapToBooking(BookingRequestDTO bookingDTO);
 }
@@ -1,56 +1,102 @@
 package com.carolina.booking_service.service;
 
 import com.carolina.booking_service.model.*;
+import com.carolina.booking_service.show.ShowNameCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class MappingServiceImpl implements MappingService {
 
     private final UserService userService;
     private final SeatService seatService;
-    private final RestTemplate restTemplate;
-    @Value("${showApiUrl}")
-    private String showApiUrl;
+    private final ShowNameCache showNameCache;
 
     @Autowired
-    public MappingServiceImpl(UserService userService, SeatService seatService, RestTemplate restTemplate) {
+    public MappingServiceImpl(UserService userService, SeatService seatService, ShowNameCache showNameCache) {
         this.userService = userService;
         this.seatService = seatService;
-        this.restTemplate = restTemplate;
+        this.showNameCache = showNameCache;
     }
 
     @Override
     public BookingResponseDTO mapToResponseDTO(Booking booking) {
-        // Fetch show data
-        String url = this.showApiUrl + '/' + booking.getShowId();
-        String showName;
+        return mapToResponseDTO(booking, showNameCache.getShowName(booking.getShowId()));
+    }
+
+    /**
+     * Maps a list of bookings, looking up the name of each distinct show once for the whole list
+     * @param bookings: bookings
+     * @return List<BookingResponseDTO>, in the order of the bookings
+     */
+    @Override
+    public List<BookingResponseDTO> mapToResponseDTOs(List<Booking> bookings) {
+        Map<Long, String> showNames = getShowNames(bookings.stream().map(Booking::getShowId));
+
+        List<BookingResponseDTO> bookingsDTO = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            bookingsDTO.add(mapToResponseDTO(booking, showNames.getOrDefault(booking.getShowId(), "")));
+        }
+        return bookingsDTO;
+    }
+
+    @Override
+    public BookingResponseDTO mapToResponseDTO(BookingRow booking) {
+        return mapToResponseDTO(booking, showNameCache.getShowName(booking.getShowId()));
+    }
+
+    /**
+     * Maps bookings read by a projection query, looking up the name of each distinct show once for the whole list
+     * @param bookings: booking rows
+     * @return List<BookingResponseDTO>, in the order of the rows
+     */
+    @Override
+    public List<BookingResponseDTO> mapRowsToResponseDTOs(List<BookingRow> bookings) {
+        Map<Long, String> showNames = getShowNames(bookings.stream().map(BookingRow::getShowId));
+
+        List<BookingResponseDTO> bookingsDTO = new ArrayList<>(bookings.size());
+        for (BookingRow booking : bookings) {
+            bookingsDTO.add(mapToResponseDTO(booking, showNames.getOrDefault(booking.getShowId(), "")));
+        }
+        return bookingsDTO;
+    }
+
+    private Map<Long, String> getShowNames(Stream<Long> showIds) {
+        Set<Long> distinctShowIds = showIds.filter(Objects::nonNull).collect(Collectors.toSet());
+        return showNameCache.getShowNames(distinctShowIds);
+    }
+
+    private BookingResponseDTO mapToResponseDTO(BookingRow booking, String showName) {
+        return new BookingResponseDTO(
+                booking.getId(),
+                showName,
+                booking.getUserEmail(),
+                booking.getSeatId(),
+                booking.getVenueArea(),
+                booking.getCreatedAt()
+        );
+    }
+
+    private BookingResponseDTO mapToResponseDTO(Booking booking, String showName) {
         // Fetch seat data
         Seat seat = booking.getSeat();
 
-        try {
-            Show show = restTemplate.getForObject(url, Show.class);
-            return new BookingResponseDTO(
-                    booking.getId(),
-                    show.getName(),
-                    booking.getUser().getEmail(),
-                    seat.getId(),
-                    seat.getVenueArea(),
-                    booking.getCreatedAt()
-            );
-        } catch (Exception e) {
-            showName = "";
-            return new BookingResponseDTO(
-                    booking.getId(),
-                    showName,
-                    booking.getUser().getEmail(),
-                    seat.getId(),
-                    seat.getVenueArea(),
-                    booking.getCreatedAt()
-            );
-        }
+        return new BookingResponseDTO(
+                booking.getId(),
+                showName,
+                booking.getUser().getEmail(),
+                seat.getId(),
+                seat.getVenueArea(),
+                booking.getCreatedAt()
+        );
     }
 
     @Override
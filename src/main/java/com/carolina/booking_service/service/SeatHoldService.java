@@ -0,0 +1,18 @@
+package com.carolina.booking_service.service;
+
+import com.carolina.booking_service.model.BestAvailableHoldRequestDTO;
+import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.SeatHoldRequestDTO;
+import com.carolina.booking_service.model.SeatHoldResponseDTO;
+
+import java.util.List;
+
+public interface SeatHoldService {
+
+    SeatHoldResponseDTO createHold(SeatHoldRequestDTO holdDTO);
+    SeatHoldResponseDTO createBestAvailableHold(BestAvailableHoldRequestDTO holdDTO);
+    SeatHoldResponseDTO getHold(String holdId);
+    List<BookingResponseDTO> confirmHold(String holdId);
+    void releaseHold(String holdId);
+    int expireHolds(long nowMillis);
+}
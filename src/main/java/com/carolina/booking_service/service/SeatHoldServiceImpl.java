@@ -0,0 +1,284 @@
+package com.carolina.booking_service.service;
+
+import com.carolina.booking_service.exception.SeatNotAvailableException;
+import com.carolina.booking_service.exception.VenueSoldOutException;
+import com.carolina.booking_service.inventory.PendingClaims;
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.model.BestAvailableHoldRequestDTO;
+import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.SeatHold;
+import com.carolina.booking_service.model.SeatHoldRequestDTO;
+import com.carolina.booking_service.model.SeatHoldResponseDTO;
+import com.carolina.booking_service.seatstream.SeatChangeStream;
+import com.carolina.booking_service.util.HashedTimerWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds claim seats in the in-memory inventory only, so abandoned checkouts never touch the database.
+ * Expiry is driven by a hashed timer wheel: every tick only looks at the holds due in that tick.
+ * Held seats are unavailable to everyone else, so placing, releasing and expiring a hold is pushed to the
+ * subscribers of the show's seat stream like a booking is.
+ */
+@Service
+public class SeatHoldServiceImpl implements SeatHoldService, PendingClaims {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldServiceImpl.class);
+    private static final int WHEEL_SIZE = 512;
+
+    private final SeatInventory seatInventory;
+    private final VenueService venueService;
+    private final BookingService bookingService;
+    private final SeatService seatService;
+    private final UserService userService;
+    private final SeatChangeStream seatChangeStream;
+    private final Map<String, Entry> holds = new ConcurrentHashMap<>();
+    private final HashedTimerWheel<String> expiryWheel;
+    @Value("${holds.defaultMinutes:10}")
+    private int defaultMinutes;
+
+    @Autowired
+    public SeatHoldServiceImpl(SeatInventory seatInventory, VenueService venueService, BookingService bookingService,
+                               SeatService seatService, UserService userService, SeatChangeStream seatChangeStream,
+                               @Value("${holds.tickMs:1000}") long tickMillis) {
+        this.seatInventory = seatInventory;
+        this.venueService = venueService;
+        this.bookingService = bookingService;
+        this.seatService = seatService;
+        this.userService = userService;
+        this.seatChangeStream = seatChangeStream;
+        this.expiryWheel = new HashedTimerWheel<>(tickMillis, WHEEL_SIZE, System.currentTimeMillis());
+        seatInventory.addPendingClaims(this);
+    }
+
+    /**
+     * Claims every requested seat for the show and keeps them for the user until the hold expires
+     * @param holdDTO: SeatHoldRequestDTO record
+     * @return SeatHoldResponseDTO
+     */
+    @Override
+    public SeatHoldResponseDTO createHold(SeatHoldRequestDTO holdDTO) {
+        Long showId = holdDTO.getShowId();
+        if (venueService.isVenueSoldOut(showId)) {
+            throw new VenueSoldOutException();
+        }
+        // Fail before claiming any seat if the user doesn't exist
+        userService.getUser(holdDTO.getUserId());
+
+        // Claim all of the seats or none of them
+        List<Integer> seatIds = new ArrayList<>(new LinkedHashSet<>(holdDTO.getSeatIds()));
+        List<Integer> claimed = new ArrayList<>();
+        for (Integer seatId : seatIds) {
+            if (!seatInventory.tryClaim(showId, seatId)) {
+                release(showId, claimed);
+                throw new SeatNotAvailableException();
+            }
+            claimed.add(seatId);
+        }
+
+        publish(showId, seatIds, true);
+        return mapToResponseDTO(saveHold(showId, holdDTO.getUserId(), seatIds, holdDTO.getMinutes()));
+    }
+
+    /**
+     * Claims the best adjacent seats left in the venue area and keeps them for the user until the hold expires
+     * @param holdDTO: BestAvailableHoldRequestDTO record
+     * @return SeatHoldResponseDTO
+     */
+    @Override
+    public SeatHoldResponseDTO createBestAvailableHold(BestAvailableHoldRequestDTO holdDTO) {
+        Long showId = holdDTO.getShowId();
+        if (venueService.isVenueSoldOut(showId)) {
+            throw new VenueSoldOutException();
+        }
+        // Fail before claiming any seat if the user doesn't exist
+        userService.getUser(holdDTO.getUserId());
+
+        List<Integer> seatIds = seatInventory.claimAdjacent(showId, holdDTO.getVenueArea(), holdDTO.getQuantity());
+        if (seatIds.isEmpty()) {
+            throw new SeatNotAvailableException();
+        }
+        publish(showId, seatIds, true);
+        return mapToResponseDTO(saveHold(showId, holdDTO.getUserId(), seatIds, holdDTO.getMinutes()));
+    }
+
+    /**
+     * Gets a hold that hasn't expired yet
+     * @param holdId: hold id
+     * @return SeatHoldResponseDTO
+     */
+    @Override
+    public SeatHoldResponseDTO getHold(String holdId) {
+        Entry entry = holds.get(holdId);
+        if (entry == null) {
+            throw new EntityNotFoundException();
+        }
+        return mapToResponseDTO(entry.hold);
+    }
+
+    /**
+     * Turns the hold into bookings. The hold keeps its seats pending until the bookings are committed.
+     * If the bookings can't be created the seats are given back, except for those the database has booked already,
+     * which stay claimed in memory like they do for a single booking
+     * @param holdId: hold id
+     * @return List<BookingResponseDTO>
+     */
+    @Override
+    public List<BookingResponseDTO> confirmHold(String holdId) {
+        Entry entry = take(holdId);
+        SeatHold hold = entry.hold;
+        List<BookingResponseDTO> bookings;
+        try {
+            bookings = bookingService.createBookingsForClaimedSeats(hold.getShowId(), hold.getUserId(), hold.getSeatIds());
+        } catch (SeatNotAvailableException exception) {
+            List<Integer> seatIds = new ArrayList<>(hold.getSeatIds());
+            seatIds.removeAll(seatService.getBookedSeatIds(hold.getShowId(), hold.getSeatIds()));
+            forget(entry);
+            giveBack(hold.getShowId(), seatIds);
+            throw exception;
+        } catch (RuntimeException exception) {
+            forget(entry);
+            giveBack(hold.getShowId(), hold.getSeatIds());
+            throw exception;
+        }
+        forget(entry);
+        return bookings;
+    }
+
+    /**
+     * Cancels the hold and makes its seats available again
+     * @param holdId: hold id
+     */
+    @Override
+    public void releaseHold(String holdId) {
+        Entry entry = take(holdId);
+        forget(entry);
+        giveBack(entry.hold.getShowId(), entry.hold.getSeatIds());
+    }
+
+    @Scheduled(fixedRateString = "${holds.tickMs:1000}")
+    public void expireHolds() {
+        expireHolds(System.currentTimeMillis());
+    }
+
+    /**
+     * Releases the seats of every hold whose deadline has passed
+     * @param nowMillis: epoch millis
+     * @return number of holds that expired
+     */
+    @Override
+    public int expireHolds(long nowMillis) {
+        int expiredCount = 0;
+        for (String holdId : expiryWheel.advance(nowMillis)) {
+            Entry entry = holds.get(holdId);
+            // A hold whose confirmation has started is the confirmation's to finish
+            if (entry != null && entry.taken.compareAndSet(false, true)) {
+                forget(entry);
+                giveBack(entry.hold.getShowId(), entry.hold.getSeatIds());
+                expiredCount++;
+            }
+        }
+        if (expiredCount > 0) {
+            logger.debug("Released the seats of {} expired holds", expiredCount);
+        }
+        return expiredCount;
+    }
+
+    /**
+     * Returns the seats of the show kept by holds, which the database still sees as free
+     * @param showId: show id
+     * @return Collection<Integer>
+     */
+    @Override
+    public Collection<Integer> getPendingSeatIds(Long showId) {
+        List<Integer> seatIds = new ArrayList<>();
+        for (Entry entry : holds.values()) {
+            if (entry.hold.getShowId().equals(showId)) {
+                seatIds.addAll(entry.hold.getSeatIds());
+            }
+        }
+        return seatIds;
+    }
+
+    private SeatHold saveHold(Long showId, Long userId, List<Integer> seatIds, Integer minutes) {
+        long expiresAt = System.currentTimeMillis() + (minutes != null ? minutes : defaultMinutes) * 60_000L;
+        SeatHold hold = new SeatHold(UUID.randomUUID().toString(), showId, userId, seatIds,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault()));
+        holds.put(hold.getId(), new Entry(hold, expiryWheel.schedule(hold.getId(), expiresAt)));
+        return hold;
+    }
+
+    /**
+     * Marks the hold as taken so that it can't be confirmed, released or expired twice. Its seats stay pending
+     * until it is forgotten
+     */
+    private Entry take(String holdId) {
+        Entry entry = holdId != null ? holds.get(holdId) : null;
+        if (entry == null || !entry.taken.compareAndSet(false, true)) {
+            throw new EntityNotFoundException();
+        }
+        entry.timeout.cancel();
+        return entry;
+    }
+
+    /**
+     * Removes a taken hold, from then on its seats are no longer pending. Done before the seats are given back,
+     * so a reload in between can't claim them again for a hold that is gone
+     */
+    private void forget(Entry entry) {
+        holds.remove(entry.hold.getId(), entry);
+    }
+
+    private void release(Long showId, List<Integer> seatIds) {
+        for (Integer seatId : seatIds) {
+            seatInventory.release(showId, seatId);
+        }
+    }
+
+    /**
+     * Makes seats of a hold that was placed available again, and tells the show's subscribers
+     */
+    private void giveBack(Long showId, List<Integer> seatIds) {
+        release(showId, seatIds);
+        publish(showId, seatIds, false);
+    }
+
+    private void publish(Long showId, List<Integer> seatIds, boolean taken) {
+        for (Integer seatId : seatIds) {
+            seatChangeStream.publish(showId, seatId, taken);
+        }
+    }
+
+    private SeatHoldResponseDTO mapToResponseDTO(SeatHold hold) {
+        return new SeatHoldResponseDTO(hold.getId(), hold.getShowId(), hold.getUserId(), hold.getSeatIds(), hold.getExpiresAt());
+    }
+
+    private static class Entry {
+
+        private final SeatHold hold;
+        private final HashedTimerWheel.Timeout<String> timeout;
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        private Entry(SeatHold hold, HashedTimerWheel.Timeout<String> timeout) {
+            this.hold = hold;
+            this.timeout = timeout;
+        }
+    }
+}
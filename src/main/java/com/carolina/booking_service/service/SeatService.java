@@ -1,14 +1,25 @@
 package com.carolina.booking_service.service;
 
 import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.SeatMapChangesDTO;
+import com.carolina.booking_service.model.SeatMapDTO;
+import com.carolina.booking_service.model.VenueArea;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 public interface SeatService {
 
-    List<Seat> getAvailableSeats();
-    Boolean isSeatAvailable(Integer id);
+    List<Seat> getAvailableSeats(Long showId);
+    List<Seat> getAvailableSeats(Long showId, VenueArea venueArea);
+    Map<VenueArea, Integer> getAvailableCounts(Long showId);
+    long getSeatMapVersion(Long showId);
+    SeatMapDTO getSeatMap(Long showId);
+    SeatMapChangesDTO getSeatMapChanges(Long showId, long sinceVersion);
+    Boolean isSeatAvailable(Long showId, Integer id);
     Seat getSeat(Integer id);
-    void changeSeatBookingStatus(Integer id, Boolean isBooked);
+    Boolean claimSeat(Long showId, Integer id);
+    Boolean claimSeats(Long showId, List<Integer> ids);
+    List<Integer> getBookedSeatIds(Long showId, List<Integer> ids);
+    void releaseSeat(Long showId, Integer id);
 }
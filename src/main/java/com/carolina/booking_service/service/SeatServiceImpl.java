@@ -1,19 +1,29 @@
 package com.carolina.booking_service.service;
 
+import com.carolina.booking_service.inventory.SeatInventory;
 import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.SeatMapChangesDTO;
+import com.carolina.booking_service.model.SeatMapDTO;
+import com.carolina.booking_service.model.VenueArea;
 import com.carolina.booking_service.repository.SeatRepository;
+import com.carolina.booking_service.repository.ShowSeatRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import javax.persistence.EntityNotFoundException;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class SeatServiceImpl implements SeatService {
 
     @Autowired
     private SeatRepository seatRepository;
+    @Autowired
+    private ShowSeatRepository showSeatRepository;
+    @Autowired
+    private SeatInventory seatInventory;
 
     /**
      * Get seat by id
@@ -30,37 +40,125 @@ public class SeatServiceImpl implements SeatService {
     }
 
     /**
-     * Returns all seats that are active (available to be used) and not booked yet
+     * Returns all seats that are active (available to be used) and not booked yet for the show.
+     * Not a read-only transaction itself: a show loaded here for the first time is read from the primary, and only
+     * the lookup of the seats, read-only on its own, can go to the replica
+     * @param showId: show id
      * @return List<Seat></Seat>
      */
     @Override
-    public List<Seat> getAvailableSeats() {
-        return seatRepository.findAll()
-                .stream()
-                .filter(s -> s.isEnabled() && !s.isBooked())
-                .collect(Collectors.toList());
+    public List<Seat> getAvailableSeats(Long showId) {
+        return seatRepository.findAllById(seatInventory.getAvailableSeatIds(showId));
+    }
+
+    /**
+     * Returns the seats of the venue area that are active and not booked yet for the show
+     * @param showId: show id
+     * @param venueArea: venue area
+     * @return List<Seat>
+     */
+    @Override
+    public List<Seat> getAvailableSeats(Long showId, VenueArea venueArea) {
+        return seatRepository.findAllById(seatInventory.getAvailableSeatIds(showId, venueArea));
+    }
+
+    /**
+     * Returns how many seats of each venue area can still be booked for the show, read from the inventory's
+     * running counts, so no seat is loaded
+     * @param showId: show id
+     * @return Map<VenueArea, Integer>, with every venue area
+     */
+    @Override
+    public Map<VenueArea, Integer> getAvailableCounts(Long showId) {
+        Map<VenueArea, Integer> counts = new EnumMap<>(VenueArea.class);
+        for (VenueArea venueArea : VenueArea.values()) {
+            counts.put(venueArea, seatInventory.getAvailableCount(showId, venueArea));
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the version of the show's seat map, without copying it
+     * @param showId: show id
+     * @return long
+     */
+    @Override
+    public long getSeatMapVersion(Long showId) {
+        return seatInventory.getShowInventory(showId).getSeatMapVersion();
+    }
+
+    /**
+     * Returns the availability of every seat of the show as a bitset
+     * @param showId: show id
+     * @return SeatMapDTO
+     */
+    @Override
+    public SeatMapDTO getSeatMap(Long showId) {
+        return seatInventory.getShowInventory(showId).getSeatMap();
     }
 
     /**
-     * Checks if the specified seat is being used (enabled) and hasn't been booked yet
+     * Returns the seats of the show whose availability changed after the seat map version
+     * @param showId: show id
+     * @param sinceVersion: seat map version the caller has
+     * @return SeatMapChangesDTO, or null if the changes are no longer kept
+     */
+    @Override
+    public SeatMapChangesDTO getSeatMapChanges(Long showId, long sinceVersion) {
+        return seatInventory.getShowInventory(showId).getSeatMapChanges(sinceVersion);
+    }
+
+    /**
+     * Checks if the specified seat is being used (enabled) and hasn't been booked yet for the show
+     * @param showId: show id
      * @param id: seat id
      * @return Boolean
      */
     @Override
-    public Boolean isSeatAvailable(Integer id) {
-        Optional<Seat> seatOptional = seatRepository.findById(id);
-        return seatOptional.isPresent() && seatOptional.get().isEnabled() && !seatOptional.get().isBooked();
+    public Boolean isSeatAvailable(Long showId, Integer id) {
+        return seatInventory.isAvailable(showId, id);
+    }
+
+    /**
+     * Books the seat for the show in a single conditional update
+     * @param showId: show id
+     * @param id: seat id
+     * @return Boolean, false if the seat was disabled or already booked
+     */
+    @Override
+    public Boolean claimSeat(Long showId, Integer id) {
+        return showSeatRepository.claim(showId, id) == 1;
+    }
+
+    /**
+     * Books all of the seats for the show in a single conditional update
+     * @param showId: show id
+     * @param ids: distinct seat ids
+     * @return Boolean, false if any of the seats was disabled or already booked
+     */
+    @Override
+    public Boolean claimSeats(Long showId, List<Integer> ids) {
+        return showSeatRepository.claimAll(showId, ids) == ids.size();
+    }
+
+    /**
+     * Returns which of the seats the database has booked for the show
+     * @param showId: show id
+     * @param ids: seat ids
+     * @return List<Integer>
+     */
+    @Override
+    public List<Integer> getBookedSeatIds(Long showId, List<Integer> ids) {
+        return showSeatRepository.findBookedSeatIds(showId, ids);
     }
 
     /**
-     * Changes a seat's booking status
+     * Frees the seat for the show if it is booked
+     * @param showId: show id
      * @param id: seat id
-     * @param isBooked: boolean
      */
     @Override
-    public void changeSeatBookingStatus(Integer id, Boolean isBooked) {
-        Seat seat = seatRepository.findById(id).get();
-        seat.setBooked(isBooked);
-        seatRepository.save(seat);
+    public void releaseSeat(Long showId, Integer id) {
+        showSeatRepository.release(showId, id);
     }
 }
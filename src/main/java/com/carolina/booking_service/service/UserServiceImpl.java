@@ -7,8 +7,10 @@ import com.carolina.booking_service.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +29,7 @@ public class UserServiceImpl implements UserService {
      * @return User
      */
     @Override
+    @Transactional(readOnly = true)
     public User getUser(Long userId) {
         Optional<User> optionalUser = userRepository.findById(userId);
         if (!optionalUser.isPresent()) {
@@ -36,6 +39,17 @@ public class UserServiceImpl implements UserService {
         return optionalUser.get();
     }
 
+    /**
+     * Returns the version of a user's response, without loading the user
+     * @param userId: the user's id
+     * @return ResourceVersion
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getUserVersion(Long userId) {
+        LocalDateTime updatedAt = userRepository.findUpdatedAtById(userId).orElseThrow(EntityNotFoundException::new);
+        return ResourceVersion.of("user-" + userId, 1, updatedAt);
+    }
 
     /**
      * Gets a user based on the email address
@@ -3,6 +3,5 @@ package com.carolina.booking_service.service;
 public interface VenueService {
 
     Integer getVenueCapacity();
-    Boolean isVenueSoldOut();
-    void changeVenueAvailability();
+    Boolean isVenueSoldOut(Long showId);
 }
@@ -1,6 +1,6 @@
 package com.carolina.booking_service.service;
 
-import com.carolina.booking_service.model.Venue;
+import com.carolina.booking_service.inventory.SeatInventory;
 import com.carolina.booking_service.repository.VenueRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -13,7 +13,7 @@ public class VenueServiceImpl implements VenueService {
     @Autowired
     private VenueRepository venueRepository;
     @Autowired
-    private SeatService seatService;
+    private SeatInventory seatInventory;
 
     /**
      * Returns the venue's capacity
@@ -25,23 +25,13 @@ public class VenueServiceImpl implements VenueService {
     }
 
     /**
-     * Informs if the venus is currently sold out or not
+     * Informs if the venue is currently sold out for the show or not,
+     * based on the show's available seats counter
+     * @param showId: show id
      * @return Boolean
      */
     @Override
-    public Boolean isVenueSoldOut() {
-        Venue venue = venueRepository.findById(venueId).get();
-        return venue.getSoldOut();
-    }
-
-    /**
-     * Checks if the venue is sold out basead on the total number of seats available and the venue's capacity
-     */
-    @Override
-    public void changeVenueAvailability() {
-        Integer bookedSeatsCount = seatService.getAvailableSeats().size();
-
-        Venue venue = venueRepository.findById(venueId).get();
-        venue.setSoldOut(bookedSeatsCount.equals(venue.getCapacity()));
+    public Boolean isVenueSoldOut(Long showId) {
+        return seatInventory.getShowInventory(showId).isSoldOut();
     }
 }
@@ -0,0 +1,125 @@
+package com.carolina.booking_service.show;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the outcome of the last calls and opens once enough of them failed. While open every call is refused
+ * without reaching the remote service. After the open duration a single trial call is let through: if it succeeds
+ * the circuit closes again, if it fails the circuit stays open for another open duration.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean[] failedCalls;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final LongSupplier nanoTime;
+
+    private State state = State.CLOSED;
+    private int position;
+    private int recordedCalls;
+    private int failures;
+    private long openedAt;
+    private boolean trialCallInFlight;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, Duration openDuration) {
+        this(windowSize, minimumCalls, failureRatePercent, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, Duration openDuration, LongSupplier nanoTime) {
+        if (minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("The minimum number of calls must be between 1 and the window size");
+        }
+        this.failedCalls = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.openNanos = openDuration.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Asks whether a call may go out. Every permitted call must be followed by onSuccess, onFailure or releasePermission
+     * @return boolean
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoTime.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialCallInFlight) {
+                return false;
+            }
+            trialCallInFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * Gives a permission back for a call that never went out
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            trialCallInFlight = false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recordedCalls >= minimumCalls && failures * 100 >= failureRatePercent * recordedCalls) {
+                open();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (recordedCalls == failedCalls.length) {
+            if (failedCalls[position]) {
+                failures--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        failedCalls[position] = failed;
+        if (failed) {
+            failures++;
+        }
+        position = (position + 1) % failedCalls.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoTime.getAsLong();
+        trialCallInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        trialCallInFlight = false;
+        position = 0;
+        recordedCalls = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,250 @@
+package com.carolina.booking_service.show;
+
+import com.carolina.booking_service.exception.ShowServiceUnavailableException;
+import com.carolina.booking_service.model.Show;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Asynchronous client for show-service. Requests go out on the JDK HTTP client, so no thread waits for the answer,
+ * and every call fails after the call timeout. At most maxConcurrentCalls requests are in flight, a bounded number
+ * more wait for a free slot and the rest are refused straight away. A circuit breaker refuses every call while
+ * show-service keeps failing, so callers fall back immediately instead of each waiting for their own timeout.
+ */
+@Component
+public class ShowClient implements MeterBinder {
+
+    private enum Outcome {
+        SUCCESS, NOT_FOUND, FAILURE, TIMEOUT, REJECTED_BULKHEAD, REJECTED_CIRCUIT_OPEN
+    }
+
+    private final ObjectMapper objectMapper;
+    private final LoadBalancerClient loadBalancerClient;
+    private final String showApiUrl;
+    private final Duration callTimeout;
+    private final int maxConcurrentCalls;
+    private final int maxWaitingCalls;
+    private final CircuitBreaker circuitBreaker;
+    private final HttpClient httpClient;
+
+    private final Deque<Runnable> waitingCalls = new ArrayDeque<>();
+    private int activeCalls;
+
+    private final AtomicLongArray outcomes = new AtomicLongArray(Outcome.values().length);
+    private final AtomicLong answeredCalls = new AtomicLong();
+    private final AtomicLong answerNanos = new AtomicLong();
+
+    @Autowired
+    public ShowClient(ObjectMapper objectMapper,
+                      ObjectProvider<LoadBalancerClient> loadBalancerClient,
+                      @Value("${showApiUrl}") String showApiUrl,
+                      @Value("${showClient.connectTimeoutMs:1000}") long connectTimeoutMillis,
+                      @Value("${showClient.callTimeoutMs:2000}") long callTimeoutMillis,
+                      @Value("${showClient.maxConcurrentCalls:16}") int maxConcurrentCalls,
+                      @Value("${showClient.maxWaitingCalls:256}") int maxWaitingCalls,
+                      @Value("${showClient.circuit.windowSize:20}") int windowSize,
+                      @Value("${showClient.circuit.minimumCalls:10}") int minimumCalls,
+                      @Value("${showClient.circuit.failureRatePercent:50}") int failureRatePercent,
+                      @Value("${showClient.circuit.openSeconds:30}") long openSeconds) {
+        this(objectMapper, loadBalancerClient.getIfAvailable(), showApiUrl, Duration.ofMillis(connectTimeoutMillis),
+                Duration.ofMillis(callTimeoutMillis), maxConcurrentCalls, maxWaitingCalls,
+                new CircuitBreaker(windowSize, minimumCalls, failureRatePercent, Duration.ofSeconds(openSeconds)));
+    }
+
+    ShowClient(ObjectMapper objectMapper, LoadBalancerClient loadBalancerClient, String showApiUrl, Duration connectTimeout,
+               Duration callTimeout, int maxConcurrentCalls, int maxWaitingCalls, CircuitBreaker circuitBreaker) {
+        this.objectMapper = objectMapper;
+        this.loadBalancerClient = loadBalancerClient;
+        this.showApiUrl = showApiUrl;
+        this.callTimeout = callTimeout;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitingCalls = maxWaitingCalls;
+        this.circuitBreaker = circuitBreaker;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+    }
+
+    /**
+     * Fetches a show
+     * @param showId: show id
+     * @return CompletableFuture<Optional<Show>>, empty if show-service doesn't know the show. Completes exceptionally
+     * with ShowServiceUnavailableException when the call is refused or fails, or with a TimeoutException
+     */
+    public CompletableFuture<Optional<Show>> getShow(Long showId) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            outcomes.incrementAndGet(Outcome.REJECTED_CIRCUIT_OPEN.ordinal());
+            return CompletableFuture.failedFuture(new ShowServiceUnavailableException("circuit breaker is open"));
+        }
+
+        CompletableFuture<Optional<Show>> result = new CompletableFuture<>();
+        if (!admit(() -> send(showId, result))) {
+            circuitBreaker.releasePermission();
+            outcomes.incrementAndGet(Outcome.REJECTED_BULKHEAD.ordinal());
+            return CompletableFuture.failedFuture(new ShowServiceUnavailableException("too many calls in flight"));
+        }
+        // Counts from the moment the call is accepted, so time spent waiting for a slot is included
+        return result.orTimeout(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private void send(Long showId, CompletableFuture<Optional<Show>> result) {
+        if (result.isDone()) {
+            // Timed out while waiting for a slot
+            circuitBreaker.releasePermission();
+            outcomes.incrementAndGet(Outcome.TIMEOUT.ordinal());
+            release();
+            return;
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<byte[]>> response;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(resolve(showId))
+                    .timeout(callTimeout)
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException exception) {
+            response = CompletableFuture.failedFuture(exception);
+        }
+        response.whenComplete((answer, error) -> {
+            release();
+            answeredCalls.incrementAndGet();
+            answerNanos.addAndGet(System.nanoTime() - start);
+            complete(result, answer, error instanceof CompletionException ? error.getCause() : error);
+        });
+    }
+
+    private void complete(CompletableFuture<Optional<Show>> result, HttpResponse<byte[]> answer, Throwable error) {
+        if (error instanceof HttpTimeoutException) {
+            fail(result, Outcome.TIMEOUT, "call timed out");
+        } else if (error != null) {
+            fail(result, Outcome.FAILURE, error.toString());
+        } else if (answer.statusCode() == 404) {
+            succeed(result, Outcome.NOT_FOUND, Optional.empty());
+        } else if (answer.statusCode() / 100 != 2) {
+            fail(result, Outcome.FAILURE, "answered with status " + answer.statusCode());
+        } else {
+            try {
+                succeed(result, Outcome.SUCCESS, Optional.ofNullable(objectMapper.readValue(answer.body(), Show.class)));
+            } catch (IOException exception) {
+                fail(result, Outcome.FAILURE, "answered with an unreadable show");
+            }
+        }
+    }
+
+    private void succeed(CompletableFuture<Optional<Show>> result, Outcome outcome, Optional<Show> show) {
+        circuitBreaker.onSuccess();
+        outcomes.incrementAndGet(outcome.ordinal());
+        result.complete(show);
+    }
+
+    private void fail(CompletableFuture<Optional<Show>> result, Outcome outcome, String reason) {
+        circuitBreaker.onFailure();
+        outcomes.incrementAndGet(outcome.ordinal());
+        result.completeExceptionally(new ShowServiceUnavailableException(reason));
+    }
+
+    private URI resolve(Long showId) {
+        URI uri = URI.create(showApiUrl + '/' + showId);
+        if (loadBalancerClient != null) {
+            // The host of the show API url is the service id registered in Eureka
+            ServiceInstance instance = loadBalancerClient.choose(uri.getHost());
+            if (instance != null) {
+                return loadBalancerClient.reconstructURI(instance, uri);
+            }
+        }
+        return uri;
+    }
+
+    private boolean admit(Runnable call) {
+        synchronized (waitingCalls) {
+            if (activeCalls >= maxConcurrentCalls) {
+                return waitingCalls.size() < maxWaitingCalls && waitingCalls.add(call);
+            }
+            activeCalls++;
+        }
+        call.run();
+        return true;
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (waitingCalls) {
+            next = waitingCalls.poll();
+            if (next == null) {
+                activeCalls--;
+            }
+        }
+        // The slot goes straight to the next waiting call
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    private int getActiveCalls() {
+        synchronized (waitingCalls) {
+            return activeCalls;
+        }
+    }
+
+    private int getWaitingCalls() {
+        synchronized (waitingCalls) {
+            return waitingCalls.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Outcome outcome : Outcome.values()) {
+            FunctionCounter.builder("show.client.calls", this, client -> client.outcomes.get(outcome.ordinal()))
+                    .description("Calls to show-service by outcome")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry);
+        }
+        FunctionTimer.builder("show.client.latency", this,
+                        client -> client.answeredCalls.get(),
+                        client -> client.answerNanos.get(),
+                        TimeUnit.NANOSECONDS)
+                .description("Time until show-service answered or the call failed")
+                .register(registry);
+        Gauge.builder("show.client.calls.active", this, ShowClient::getActiveCalls)
+                .description("Calls to show-service in flight")
+                .register(registry);
+        Gauge.builder("show.client.calls.waiting", this, ShowClient::getWaitingCalls)
+                .description("Calls to show-service waiting for a free slot")
+                .register(registry);
+        Gauge.builder("show.client.circuit.state", this, client -> client.getCircuitState().ordinal())
+                .description("Circuit breaker state, 0 closed, 1 open, 2 half open")
+                .register(registry);
+    }
+}
@@ -0,0 +1,213 @@
+package com.carolina.booking_service.show;
+
+import com.carolina.booking_service.exception.ShowServiceUnavailableException;
+import com.carolina.booking_service.model.Show;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Show names by show id, so mapping a booking doesn't call show-service every time.
+ * A name is refreshed in the background once it is older than the refresh interval and kept until it expires,
+ * so while show-service is slow or down callers keep getting the last known name. Shows that don't exist are
+ * remembered for a shorter time, so repeated lookups of them don't reach show-service either.
+ * show-service has no bulk lookup, so the names missing for a list of shows are all requested at once through
+ * the asynchronous show client, and the whole lookup waits at most the bulk timeout.
+ */
+@Component
+public class ShowNameCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShowNameCache.class);
+
+    private final ShowClient showClient;
+    private final long bulkTimeoutNanos;
+    private final LoadingCache<Long, Optional<String>> names;
+
+    @Autowired
+    public ShowNameCache(ShowClient showClient,
+                         @Value("${showCache.maximumSize:10000}") long maximumSize,
+                         @Value("${showCache.ttlMinutes:1440}") long ttlMinutes,
+                         @Value("${showCache.refreshAfterMinutes:10}") long refreshAfterMinutes,
+                         @Value("${showCache.negativeTtlSeconds:60}") long negativeTtlSeconds,
+                         @Value("${showCache.bulkTimeoutMs:2000}") long bulkTimeoutMillis) {
+        this(showClient, maximumSize, Duration.ofMinutes(ttlMinutes), Duration.ofMinutes(refreshAfterMinutes),
+                Duration.ofSeconds(negativeTtlSeconds), Ticker.systemTicker(), ForkJoinPool.commonPool(),
+                Duration.ofMillis(bulkTimeoutMillis));
+    }
+
+    ShowNameCache(ShowClient showClient, long maximumSize, Duration ttl, Duration refreshAfter, Duration negativeTtl,
+                  Ticker ticker, Executor executor, Duration bulkTimeout) {
+        this.showClient = showClient;
+        this.bulkTimeoutNanos = bulkTimeout.toNanos();
+        this.names = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NameExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .refreshAfterWrite(refreshAfter)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .build(new CacheLoader<Long, Optional<String>>() {
+                    @Override
+                    public Optional<String> load(Long showId) {
+                        return ShowNameCache.this.load(showId);
+                    }
+
+                    @Override
+                    public Map<Long, Optional<String>> loadAll(Iterable<? extends Long> showIds) {
+                        return ShowNameCache.this.loadAll(showIds);
+                    }
+                });
+    }
+
+    /**
+     * Returns the name of the show, or an empty name if the show doesn't exist or show-service can't be reached
+     * and the name isn't cached
+     * @param showId: show id
+     * @return String
+     */
+    public String getShowName(Long showId) {
+        try {
+            return names.get(showId).orElse("");
+        } catch (RuntimeException exception) {
+            logger.warn("Couldn't fetch the name of show {}", showId, exception);
+            return "";
+        }
+    }
+
+    /**
+     * Returns the names of the shows, fetching the ones that aren't cached concurrently
+     * @param showIds: show ids
+     * @return Map<Long, String>, with an empty name for shows that don't exist or couldn't be fetched in time
+     */
+    public Map<Long, String> getShowNames(Collection<Long> showIds) {
+        Map<Long, String> namesById = new HashMap<>();
+        try {
+            names.getAll(showIds).forEach((showId, name) -> namesById.put(showId, name.orElse("")));
+        } catch (RuntimeException exception) {
+            logger.warn("Couldn't fetch the names of shows {}", showIds, exception);
+        }
+        for (Long showId : showIds) {
+            namesById.putIfAbsent(showId, "");
+        }
+        return namesById;
+    }
+
+    /**
+     * Checks if show-service knows the show, answering from the cache when it can
+     * @param showId: show id
+     * @return boolean
+     * @throws ShowServiceUnavailableException if show-service can't be reached and the show isn't cached
+     */
+    public boolean isKnownShow(Long showId) {
+        try {
+            return names.get(showId).isPresent();
+        } catch (ShowServiceUnavailableException exception) {
+            throw exception;
+        } catch (RuntimeException exception) {
+            throw new ShowServiceUnavailableException(String.valueOf(exception.getMessage()));
+        }
+    }
+
+    /**
+     * Drops the cached name of the show
+     * @param showId: show id
+     */
+    public void evict(Long showId) {
+        names.invalidate(showId);
+    }
+
+    private Optional<String> load(Long showId) {
+        try {
+            return request(showId).join();
+        } catch (CompletionException exception) {
+            throw exception.getCause() instanceof RuntimeException ? (RuntimeException) exception.getCause() : exception;
+        }
+    }
+
+    private CompletableFuture<Optional<String>> request(Long showId) {
+        return showClient.getShow(showId).thenApply(show -> show.map(Show::getName));
+    }
+
+    private Map<Long, Optional<String>> loadAll(Iterable<? extends Long> showIds) {
+        Map<Long, CompletableFuture<Optional<String>>> requests = new LinkedHashMap<>();
+        for (Long showId : showIds) {
+            requests.put(showId, request(showId));
+        }
+
+        long deadline = System.nanoTime() + bulkTimeoutNanos;
+        Map<Long, Optional<String>> loaded = new HashMap<>();
+        for (Map.Entry<Long, CompletableFuture<Optional<String>>> request : requests.entrySet()) {
+            try {
+                loaded.put(request.getKey(), request.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException exception) {
+                // Too late for this lookup, but the name still goes into the cache for the next one
+                request.getValue().thenAccept(name -> names.put(request.getKey(), name));
+            } catch (ExecutionException exception) {
+                logger.warn("Couldn't fetch the name of show {}", request.getKey(), exception.getCause());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics(names, "showNames", Tags.empty()).bindTo(registry);
+    }
+
+    /**
+     * Names live for the TTL, unknown shows only for the negative TTL
+     */
+    private static class NameExpiry implements Expiry<Long, Optional<String>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private NameExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Long showId, Optional<String> name, long currentTime) {
+            return name.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long showId, Optional<String> name, long currentTime, long currentDuration) {
+            return expireAfterCreate(showId, name, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long showId, Optional<String> name, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.carolina.booking_service.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hashed timer wheel: deadlines are hashed into a ring of buckets, one per tick, so scheduling is O(1)
+ * and each tick only looks at the bucket it lands on instead of every pending deadline.
+ * Any thread can schedule or cancel; {@link #advance(long)} must be driven by a single caller.
+ */
+public class HashedTimerWheel<T> {
+
+    private final long tickMillis;
+    private final List<LinkedList<Timeout<T>>> buckets;
+    private final int mask;
+    private final Queue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+    private final long startedAt;
+    private long currentTick;
+
+    public HashedTimerWheel(long tickMillis, int wheelSize, long startedAt) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("The wheel size must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.startedAt = startedAt;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            this.buckets.add(new LinkedList<>());
+        }
+    }
+
+    /**
+     * Schedules the item to expire at the deadline
+     * @param item: item to hand back when it expires
+     * @param deadlineMillis: epoch millis
+     * @return Timeout, that can be used to cancel the expiry
+     */
+    public Timeout<T> schedule(T item, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(item, deadlineMillis);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Processes every tick that has fully elapsed by the given time,
+     * so items expire at most one tick after their deadline
+     * @param nowMillis: epoch millis
+     * @return the items whose deadline has passed and that weren't cancelled
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = (nowMillis - startedAt) / tickMillis;
+        transferPending();
+        while (currentTick < targetTick) {
+            expireBucket(buckets.get((int) (currentTick & mask)), expired);
+            currentTick++;
+        }
+        return expired;
+    }
+
+    private void transferPending() {
+        Timeout<T> timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isDone()) {
+                continue;
+            }
+            // Deadlines that already passed go into the current bucket
+            long deadlineTick = Math.max((timeout.deadlineMillis - startedAt) / tickMillis, currentTick);
+            timeout.remainingRounds = (deadlineTick - currentTick) / buckets.size();
+            buckets.get((int) (deadlineTick & mask)).add(timeout);
+        }
+    }
+
+    private void expireBucket(LinkedList<Timeout<T>> bucket, List<T> expired) {
+        Iterator<Timeout<T>> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout<T> timeout = iterator.next();
+            if (timeout.isDone()) {
+                iterator.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                iterator.remove();
+                if (timeout.expire()) {
+                    expired.add(timeout.item);
+                }
+            }
+        }
+    }
+
+    public static class Timeout<T> {
+
+        private final T item;
+        private final long deadlineMillis;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private long remainingRounds;
+
+        private Timeout(T item, long deadlineMillis) {
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        /**
+         * Stops the item from expiring
+         * @return true if it was cancelled before it expired
+         */
+        public boolean cancel() {
+            return done.compareAndSet(false, true);
+        }
+
+        private boolean expire() {
+            return done.compareAndSet(false, true);
+        }
+
+        /**
+         * Informs if the timeout was cancelled or has already expired
+         * @return boolean
+         */
+        public boolean isDone() {
+            return done.get();
+        }
+    }
+}
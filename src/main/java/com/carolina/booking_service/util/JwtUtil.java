@@ -4,6 +4,7 @@ import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 
 import java.util.Date;
@@ -16,6 +17,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class JwtUtil {
 
+    private static final String TOKEN_PREFIX = "Bearer ";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -23,6 +26,23 @@ public class JwtUtil {
         return extractClaim(token, Claims::getSubject);
     }
 
+    /**
+     * Reads the username out of an Authorization header, checking the token's signature and expiration
+     * but without loading the user
+     * @param authorizationHeader: value of the Authorization header, may be null
+     * @return String, or null if there is no valid bearer token
+     */
+    public String extractUsernameFromHeader(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith(TOKEN_PREFIX)) {
+            return null;
+        }
+        try {
+            return extractUsername(authorizationHeader.substring(TOKEN_PREFIX.length()));
+        } catch (JwtException | IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
@@ -0,0 +1,125 @@
+package com.carolina.booking_service.admission;
+
+import com.carolina.booking_service.util.JwtUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.mockito.Mockito.*;
+
+class WaitingRoomFilterTest {
+
+    private final String owner = "user@test.com";
+    private final String authorization = "Bearer user-jwt";
+    private WaitingRoom waitingRoom;
+    private JwtUtil jwtUtil;
+    private WaitingRoomFilter waitingRoomFilter;
+
+    @BeforeEach
+    void setUp() {
+        this.waitingRoom = new WaitingRoom(2, 1, 30);
+        this.jwtUtil = mock(JwtUtil.class);
+        when(jwtUtil.extractUsernameFromHeader(this.authorization)).thenReturn(this.owner);
+        this.waitingRoomFilter = new WaitingRoomFilter(this.waitingRoom, this.jwtUtil);
+    }
+
+    @Test
+    void doFilter_bookingWithoutAdmittedToken_returns429WithoutCallingTheChain() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/bookings");
+        request.addHeader(WaitingRoomFilter.QUEUE_TOKEN_HEADER, waitingRoom.join(this.owner, System.currentTimeMillis()).getToken());
+        request.addHeader(HttpHeaders.AUTHORIZATION, this.authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        // When
+        waitingRoomFilter.doFilter(request, response, filterChain);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        Assertions.assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        Assertions.assertNull(filterChain.getRequest());
+    }
+
+    @Test
+    void doFilter_holdWithAdmittedToken_callsTheChain() throws Exception {
+        // Given
+        long now = System.currentTimeMillis();
+        String token = waitingRoom.join(this.owner, now).getToken();
+        waitingRoom.admit(now);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/bookings/holds/1/confirm");
+        request.addHeader(WaitingRoomFilter.QUEUE_TOKEN_HEADER, token);
+        request.addHeader(HttpHeaders.AUTHORIZATION, this.authorization);
+        MockFilterChain filterChain = new MockFilterChain();
+
+        // When
+        waitingRoomFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        // Then
+        Assertions.assertNotNull(filterChain.getRequest());
+    }
+
+    @Test
+    void doFilter_bookingWithATokenAdmittedForAnotherUser_returns429WithoutCallingTheChain() throws Exception {
+        // Given
+        long now = System.currentTimeMillis();
+        String token = waitingRoom.join(this.owner, now).getToken();
+        waitingRoom.admit(now);
+        when(jwtUtil.extractUsernameFromHeader("Bearer other-jwt")).thenReturn("other@test.com");
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/bookings");
+        request.addHeader(WaitingRoomFilter.QUEUE_TOKEN_HEADER, token);
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer other-jwt");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        // When
+        waitingRoomFilter.doFilter(request, response, filterChain);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        Assertions.assertNull(filterChain.getRequest());
+    }
+
+    @Test
+    void doFilter_readsAndOtherPaths_callTheChain() throws Exception {
+        // Given
+        MockFilterChain readChain = new MockFilterChain();
+        MockFilterChain joinChain = new MockFilterChain();
+
+        // When
+        waitingRoomFilter.doFilter(new MockHttpServletRequest("GET", "/api/v1/bookings"), new MockHttpServletResponse(), readChain);
+        waitingRoomFilter.doFilter(new MockHttpServletRequest("POST", "/api/v1/waiting-room"), new MockHttpServletResponse(), joinChain);
+
+        // Then
+        Assertions.assertNotNull(readChain.getRequest());
+        Assertions.assertNotNull(joinChain.getRequest());
+    }
+
+    @Test
+    void doFilter_bookingPathWithTrailingSlash_isQueued() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        waitingRoomFilter.doFilter(new MockHttpServletRequest("POST", "/api/v1/bookings/"), response, new MockFilterChain());
+
+        // Then
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+    }
+
+    @Test
+    void waitingRoomFilter_isRegisteredAheadOfTheSecurityFilterChain() {
+        // When
+        FilterRegistrationBean<WaitingRoomFilter> registration = new WaitingRoomConfig().waitingRoomFilter(this.waitingRoom, this.jwtUtil);
+
+        // Then
+        Assertions.assertTrue(registration.getOrder() < SecurityProperties.DEFAULT_FILTER_ORDER);
+    }
+}
@@ -0,0 +1,144 @@
+package com.carolina.booking_service.admission;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+class WaitingRoomTest {
+
+    private final long now = 1_000_000L;
+    private final String owner = "user@test.com";
+    private WaitingRoom waitingRoom;
+
+    @BeforeEach
+    void setUp() {
+        // 2 admissions per second, admitted for 1 minute, give up the turn after 30 seconds without polling
+        this.waitingRoom = new WaitingRoom(2, 1, 30);
+    }
+
+    @Test
+    void admit_letsUsersInAtTheConfiguredRateInArrivalOrder() {
+        // Given
+        WaitingRoom.Ticket first = waitingRoom.join(this.owner, this.now);
+        WaitingRoom.Ticket second = waitingRoom.join(this.owner, this.now);
+        WaitingRoom.Ticket third = waitingRoom.join(this.owner, this.now);
+
+        // When
+        int admitted = waitingRoom.admit(this.now + 1_000);
+
+        // Then
+        Assertions.assertEquals(2, admitted);
+        Assertions.assertTrue(waitingRoom.isAdmitted(first.getToken(), this.owner, this.now + 1_000));
+        Assertions.assertTrue(waitingRoom.isAdmitted(second.getToken(), this.owner, this.now + 1_000));
+        Assertions.assertFalse(waitingRoom.isAdmitted(third.getToken(), this.owner, this.now + 1_000));
+        Assertions.assertEquals(1, waitingRoom.getPosition(third));
+    }
+
+    @Test
+    void getPosition_countsTheUsersAhead() {
+        // Given
+        List<WaitingRoom.Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tickets.add(waitingRoom.join(this.owner, this.now));
+        }
+
+        // When
+        waitingRoom.admit(this.now);
+
+        // Then
+        Assertions.assertEquals(0, waitingRoom.getPosition(tickets.get(1)));
+        Assertions.assertEquals(1, waitingRoom.getPosition(tickets.get(2)));
+        Assertions.assertEquals(8, waitingRoom.getPosition(tickets.get(9)));
+        Assertions.assertEquals(4, waitingRoom.getEstimatedWaitSeconds(tickets.get(9)));
+    }
+
+    @Test
+    void admit_skipsUsersThatStoppedPolling() {
+        // Given
+        WaitingRoom.Ticket gone = waitingRoom.join(this.owner, this.now);
+        WaitingRoom.Ticket polling = waitingRoom.join(this.owner, this.now);
+        waitingRoom.poll(polling.getToken(), this.now + 40_000);
+
+        // When
+        int admitted = waitingRoom.admit(this.now + 40_000);
+
+        // Then
+        Assertions.assertEquals(1, admitted);
+        Assertions.assertNull(waitingRoom.poll(gone.getToken(), this.now + 40_000));
+        Assertions.assertTrue(waitingRoom.isAdmitted(polling.getToken(), this.owner, this.now + 40_000));
+    }
+
+    @Test
+    void isAdmitted_returnsFalseOnceTheAdmissionRunsOut() {
+        // Given
+        WaitingRoom.Ticket ticket = waitingRoom.join(this.owner, this.now);
+        waitingRoom.admit(this.now);
+
+        // When
+        waitingRoom.admit(this.now + 61_000);
+
+        // Then
+        Assertions.assertFalse(waitingRoom.isAdmitted(ticket.getToken(), this.owner, this.now + 61_000));
+        Assertions.assertNull(waitingRoom.poll(ticket.getToken(), this.now + 61_000));
+    }
+
+    @Test
+    void admit_forgetsTheAdmissionsThatRanOutAndKeepsTheLaterOnes() {
+        // Given
+        WaitingRoom.Ticket first = waitingRoom.join(this.owner, this.now);
+        waitingRoom.admit(this.now);
+        WaitingRoom.Ticket second = waitingRoom.join(this.owner, this.now + 30_000);
+        waitingRoom.admit(this.now + 30_000);
+
+        // When
+        waitingRoom.admit(this.now + 61_000);
+
+        // Then
+        // Looked up at a time the admission was still valid, so only a forgotten ticket comes back empty
+        Assertions.assertNull(waitingRoom.poll(first.getToken(), this.now));
+        Assertions.assertTrue(waitingRoom.isAdmitted(second.getToken(), this.owner, this.now + 61_000));
+    }
+
+    @Test
+    void join_whenManyThreadsJoinAtOnce_issuesUniqueConsecutivePositions() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<Long> positions = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    positions.add(waitingRoom.getPosition(waitingRoom.join(this.owner, this.now)));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        Assertions.assertEquals(8_000, positions.size());
+        Assertions.assertEquals(8_000, waitingRoom.getWaitingCount());
+    }
+
+    @Test
+    void isAdmitted_forAnotherUser_isFalse() {
+        // Given
+        WaitingRoom.Ticket ticket = waitingRoom.join(this.owner, this.now);
+        waitingRoom.admit(this.now);
+
+        // When / Then
+        Assertions.assertTrue(waitingRoom.isAdmitted(ticket.getToken(), this.owner, this.now));
+        Assertions.assertFalse(waitingRoom.isAdmitted(ticket.getToken(), "other@test.com", this.now));
+        Assertions.assertFalse(waitingRoom.isAdmitted(ticket.getToken(), null, this.now));
+    }
+}
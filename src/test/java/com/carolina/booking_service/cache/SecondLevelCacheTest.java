@@ -0,0 +1,118 @@
+package com.carolina.booking_service.cache;
+
+import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.User;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.repository.SeatRepository;
+import com.carolina.booking_service.repository.ShowSeatRepository;
+import com.carolina.booking_service.repository.SqlStatementCounter;
+import com.carolina.booking_service.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.carolina.booking_service.repository.SqlStatementCounter")
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    private static final Long SHOW_ID = 9004L;
+
+    @Autowired
+    private SeatRepository seatRepository;
+    @Autowired
+    private ShowSeatRepository showSeatRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Seat seat;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        this.seat = seatRepository.save(new Seat(VenueArea.FLOOR));
+        this.user = userRepository.save(new User("Ana", "Almeida", "cached@test.com", "testPassword"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        showSeatRepository.deleteAll();
+        userRepository.deleteAll();
+        seatRepository.deleteAll();
+    }
+
+    @Test
+    void findById_isServedFromTheEntityCache() {
+        // Given
+        seatRepository.findById(this.seat.getId());
+        double hitsBefore = regionHits(Seat.class.getName());
+
+        // When
+        SqlStatementCounter.reset();
+        Seat cachedSeat = seatRepository.findById(this.seat.getId()).get();
+
+        // Then
+        Assertions.assertEquals(0, SqlStatementCounter.count());
+        Assertions.assertEquals(VenueArea.FLOOR, cachedSeat.getVenueArea());
+        Assertions.assertEquals(hitsBefore + 1, regionHits(Seat.class.getName()));
+    }
+
+    @Test
+    void findByEmail_isServedFromTheQueryCacheUntilTheUserChanges() {
+        // Given
+        userRepository.findByEmail(this.user.getEmail());
+
+        // When
+        SqlStatementCounter.reset();
+        userRepository.findByEmail(this.user.getEmail());
+        int statementsWhileCached = SqlStatementCounter.count();
+        User changed = userRepository.findById(this.user.getId()).get();
+        changed.setFirstName("Carolina");
+        userRepository.save(changed);
+        User reloaded = userRepository.findByEmail(this.user.getEmail()).get();
+
+        // Then
+        Assertions.assertEquals(0, statementsWhileCached);
+        Assertions.assertEquals("Carolina", reloaded.getFirstName());
+    }
+
+    @Test
+    void delete_stopsServingTheCachedUser() {
+        // Given
+        userRepository.findById(this.user.getId());
+        userRepository.findByEmail(this.user.getEmail());
+
+        // When
+        userRepository.deleteById(this.user.getId());
+
+        // Then
+        Assertions.assertFalse(userRepository.findById(this.user.getId()).isPresent());
+        Assertions.assertFalse(userRepository.findByEmail(this.user.getEmail()).isPresent());
+    }
+
+    @Test
+    void openShow_leavesTheSeatRegionCached() {
+        // Given
+        seatRepository.findById(this.seat.getId());
+
+        // When
+        showSeatRepository.openShow(SHOW_ID);
+
+        // Then
+        Assertions.assertTrue(entityManagerFactory.getCache().contains(Seat.class, this.seat.getId()));
+    }
+
+    private double regionHits(String region) {
+        return meterRegistry.get("cache.gets").tag("cache", region).tag("result", "hit").functionCounter().count();
+    }
+}
@@ -1,7 +1,10 @@
 package com.carolina.booking_service.controller;
 
 import com.carolina.booking_service.model.*;
+import com.carolina.booking_service.exception.IdempotencyKeyInUseException;
+import com.carolina.booking_service.exception.SeatNotAvailableException;
 import com.carolina.booking_service.service.BookingService;
+import com.carolina.booking_service.service.IdempotencyService;
 import com.carolina.booking_service.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
@@ -22,6 +25,10 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.mockito.Mockito.*;
 
@@ -39,6 +46,8 @@ class BookingControllerTest {
     private BookingService bookingService;
     @MockBean
     private UserService userService;
+    @MockBean
+    private IdempotencyService idempotencyService;
 
     private BookingRequestDTO mockRequestBooking;
     private BookingResponseDTO mockResponseBooking;
@@ -55,12 +64,81 @@ class BookingControllerTest {
         mockResponseBooking =  new BookingResponseDTO(1L, "Dancing Queen", "user@test.com", 1, VenueArea.LEVEL_1, LocalDateTime.now());
     }
 
+    @Test
+    void get_bookings_returns200WithPageAndNextCursor() throws Exception {
+        // Given
+        String url = this.apiUrl + "/?showId=1&venueArea=LEVEL_1&from=2022-03-01T00:00:00&pageSize=1";
+        BookingFilter filter = new BookingFilter(1L, VenueArea.LEVEL_1, LocalDateTime.of(2022, 3, 1, 0, 0), null);
+
+        when(bookingService.getBookings(any(BookingFilter.class), isNull(), eq(1)))
+                .thenReturn(new BookingPageDTO(Arrays.asList(this.mockResponseBooking), "next"));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(url)
+                                                .accept(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+        BookingPageDTO actualPage = this.mapper.readValue(response.getContentAsString(), BookingPageDTO.class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        Assertions.assertEquals(1, actualPage.getBookings().size());
+        Assertions.assertEquals("next", actualPage.getNextCursor());
+        verify(bookingService).getBookings(argThat(actual -> filter.getShowId().equals(actual.getShowId())
+                && filter.getVenueArea() == actual.getVenueArea()
+                && filter.getFrom().equals(actual.getFrom())
+                && actual.getTo() == null), isNull(), eq(1));
+    }
+
+    @Test
+    void get_bookings_withInvalidCursor_returns400() throws Exception {
+        // Given
+        String url = this.apiUrl + "/?cursor=not-a-cursor";
+
+        when(bookingService.getBookings(any(BookingFilter.class), eq("not-a-cursor"), isNull()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor!"));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(url);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+        Assertions.assertEquals("Invalid cursor!", response.getContentAsString());
+    }
+
+    @Test
+    void get_exportBookings_writesOneBookingPerLine() throws Exception {
+        // Given
+        String url = this.apiUrl + "/export";
+        BookingResponseDTO otherBooking = new BookingResponseDTO(2L, "Cats", "other@test.com", 2, VenueArea.FLOOR, LocalDateTime.now());
+
+        when(bookingService.exportBookings(any())).thenAnswer(invocation -> {
+            Consumer<List<BookingResponseDTO>> consumer = invocation.getArgument(0);
+            consumer.accept(Arrays.asList(this.mockResponseBooking));
+            consumer.accept(Arrays.asList(otherBooking));
+            return 2L;
+        });
+
+        // When
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.get(url)).andReturn();
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn().getResponse();
+        String[] lines = response.getContentAsString().split("\n");
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        Assertions.assertEquals(BookingController.NDJSON_VALUE, response.getContentType());
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertEquals("Dancing Queen", this.mapper.readValue(lines[0], BookingResponseDTO.class).getShowName());
+        Assertions.assertEquals("Cats", this.mapper.readValue(lines[1], BookingResponseDTO.class).getShowName());
+    }
+
     @Test
     void get_bookingById_returns200WithBookingResponseDTO() throws Exception {
         // Given
         Long bookingId = this.mockResponseBooking.getBookingId();
         String url = this.apiUrl + '/' + bookingId;
 
+        when(bookingService.getBookingVersion(bookingId)).thenReturn(new ResourceVersion("\"booking-1\"", 1_600_000_000_000L));
         when(bookingService.getBookingById(bookingId)).thenReturn(this.mockResponseBooking);
 
         // When
@@ -75,6 +153,44 @@ class BookingControllerTest {
         Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
         Assertions.assertNotNull(actualBooking);
         Assertions.assertEquals(this.mockResponseBooking.getShowName(), actualBooking.getShowName());
+        Assertions.assertEquals("\"booking-1\"", response.getHeader("ETag"));
+        Assertions.assertNotNull(response.getHeader("Last-Modified"));
+        Assertions.assertEquals("no-cache, private", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void get_bookingById_withMatchingETag_returns304WithoutMappingTheBooking() throws Exception {
+        // Given
+        Long bookingId = this.mockResponseBooking.getBookingId();
+        when(bookingService.getBookingVersion(bookingId)).thenReturn(new ResourceVersion("\"booking-1\"", 1_600_000_000_000L));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(this.apiUrl + '/' + bookingId)
+                                                .header("If-None-Match", "\"booking-1\"")
+                                                .accept(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        Assertions.assertEquals("", response.getContentAsString());
+        verify(bookingService, never()).getBookingById(bookingId);
+    }
+
+    @Test
+    void get_bookingById_notModifiedSinceLastModified_returns304() throws Exception {
+        // Given
+        Long bookingId = this.mockResponseBooking.getBookingId();
+        when(bookingService.getBookingVersion(bookingId)).thenReturn(new ResourceVersion("\"booking-1\"", 1_600_000_000_000L));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(this.apiUrl + '/' + bookingId)
+                                                .header("If-Modified-Since", "Sun, 13 Sep 2020 12:26:40 GMT")
+                                                .accept(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        verify(bookingService, never()).getBookingById(bookingId);
     }
 
     @Test
@@ -96,6 +212,140 @@ class BookingControllerTest {
         // Then
         Assertions.assertEquals(HttpStatus.CREATED.value(), response.getStatus());
     }
+
+    @Test
+    void post_createBooking_whenRecordedInTheBookingLedger_returns202() throws Exception {
+        // Given
+        BookingResponseDTO pendingBooking = new BookingResponseDTO(null, "Dancing Queen", "user@test.com", 1, VenueArea.LEVEL_1, null);
+
+        when(bookingService.createBooking(any(BookingRequestDTO.class))).thenReturn(pendingBooking);
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(apiUrl)
+                                    .accept(MediaType.APPLICATION_JSON)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(this.mapper.writeValueAsString(this.mockRequestBooking));
+
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.ACCEPTED.value(), response.getStatus());
+        Assertions.assertNull(response.getHeader("Location"));
+    }
+
+    @Test
+    void post_createBooking_withIdempotencyKey_storesTheResponse() throws Exception {
+        // Given
+        when(idempotencyService.begin("key-1", "1:1:1")).thenReturn(Optional.empty());
+        when(bookingService.createBooking(any(BookingRequestDTO.class))).thenReturn(this.mockResponseBooking);
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(apiUrl)
+                                    .header(BookingController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                                    .accept(MediaType.APPLICATION_JSON)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(this.mapper.writeValueAsString(this.mockRequestBooking));
+
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+        verify(idempotencyService, times(1)).complete(eq("key-1"), eq("1:1:1"), eq(HttpStatus.CREATED.value()),
+                eq(response.getHeader("Location")), any(BookingResponseDTO.class));
+    }
+
+    @Test
+    void post_createBooking_withReplayedIdempotencyKey_returnsTheOriginalResponse() throws Exception {
+        // Given
+        String location = apiUrl + "/1";
+        when(idempotencyService.begin("key-1", "1:1:1"))
+                .thenReturn(Optional.of(new IdempotentResponse(HttpStatus.CREATED.value(), location, this.mockResponseBooking)));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(apiUrl)
+                                    .header(BookingController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                                    .accept(MediaType.APPLICATION_JSON)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(this.mapper.writeValueAsString(this.mockRequestBooking));
+
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        BookingResponseDTO actualBooking = this.mapper.readValue(response.getContentAsString(), BookingResponseDTO.class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+        Assertions.assertEquals(location, response.getHeader("Location"));
+        Assertions.assertEquals("true", response.getHeader(BookingController.IDEMPOTENT_REPLAYED_HEADER));
+        Assertions.assertEquals(this.mockResponseBooking.getBookingId(), actualBooking.getBookingId());
+        verify(bookingService, never()).createBooking(any(BookingRequestDTO.class));
+    }
+
+    @Test
+    void post_createBooking_whileIdempotencyKeyIsInUse_returns409() throws Exception {
+        // Given
+        when(idempotencyService.begin("key-1", "1:1:1")).thenThrow(new IdempotencyKeyInUseException());
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(apiUrl)
+                                    .header(BookingController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                                    .accept(MediaType.APPLICATION_JSON)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(this.mapper.writeValueAsString(this.mockRequestBooking));
+
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.CONFLICT.value(), response.getStatus());
+        verify(bookingService, never()).createBooking(any(BookingRequestDTO.class));
+    }
+
+    @Test
+    void post_createBooking_withIdempotencyKey_whenSeatIsntAvailable_freesTheKey() throws Exception {
+        // Given
+        when(idempotencyService.begin("key-1", "1:1:1")).thenReturn(Optional.empty());
+        when(bookingService.createBooking(any(BookingRequestDTO.class))).thenThrow(new SeatNotAvailableException());
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(apiUrl)
+                                    .header(BookingController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                                    .accept(MediaType.APPLICATION_JSON)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(this.mapper.writeValueAsString(this.mockRequestBooking));
+
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        verify(idempotencyService, times(1)).abandon("key-1");
+        verify(idempotencyService, never()).complete(anyString(), anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    void post_createBookings_returns201WithBookings() throws Exception {
+        // Given
+        String url = apiUrl + "/batch";
+        BookingBatchRequestDTO requestDTO = new BookingBatchRequestDTO(1L, 1L, Arrays.asList(1, 2));
+
+        when(bookingService.createBookings(any(BookingBatchRequestDTO.class))).thenReturn(Arrays.asList(this.mockResponseBooking, this.mockResponseBooking));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(url)
+                                    .accept(MediaType.APPLICATION_JSON)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(this.mapper.writeValueAsString(requestDTO));
+
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        BookingResponseDTO[] actualBookings = this.mapper.readValue(response.getContentAsString(), BookingResponseDTO[].class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+        Assertions.assertEquals(2, actualBookings.length);
+    }
 //
     @Test
     void put_updateBooking_returns200WithUpdatedBookingResponseDTO() throws Exception {
@@ -0,0 +1,179 @@
+package com.carolina.booking_service.controller;
+
+import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.SeatMapDTO;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.seatstream.SeatChangeStream;
+import com.carolina.booking_service.service.SeatService;
+import com.carolina.booking_service.service.UserService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@AutoConfigureMockMvc(addFilters = false)
+@WebMvcTest(SeatController.class)
+class SeatControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SeatService seatService;
+    @MockBean
+    private SeatChangeStream seatChangeStream;
+    @MockBean
+    private UserService userService;
+
+    private final String port = String.valueOf(8080);
+    private final String baseUrl = "http://localhost:";
+    private String apiUrl;
+
+    @BeforeEach
+    void setUp() {
+        apiUrl = baseUrl + port + "/api/v1/seats";
+    }
+
+    @Test
+    void get_availableSeats_returnsSeatsOfTheShow() throws Exception {
+        // Given
+        when(seatService.getAvailableSeats(1L)).thenReturn(Arrays.asList(new Seat(1, VenueArea.FLOOR, true)));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(apiUrl + "/available?showId=1")
+                                    .accept(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        Assertions.assertTrue(response.getContentAsString().contains("\"venueArea\":\"FLOOR\""));
+    }
+
+    @Test
+    void get_availableSeats_withVenueArea_returnsOnlyThatAreasSeats() throws Exception {
+        // Given
+        when(seatService.getAvailableSeats(1L, VenueArea.LEVEL_1)).thenReturn(Arrays.asList(new Seat(7, VenueArea.LEVEL_1, true)));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(apiUrl + "/available?showId=1&venueArea=LEVEL_1")
+                                    .accept(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        verify(seatService, never()).getAvailableSeats(1L);
+    }
+
+    @Test
+    void get_availableSeats_ofAnUnknownShow_returnsNotFound() throws Exception {
+        // Given
+        when(seatService.getAvailableSeats(99L)).thenThrow(new EntityNotFoundException());
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(apiUrl + "/available?showId=99")
+                                    .accept(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+    }
+
+    @Test
+    void get_stream_ofAnUnknownShow_returnsNotFoundWithoutSubscribing() throws Exception {
+        // Given
+        when(seatService.getSeatMapVersion(99L)).thenThrow(new EntityNotFoundException());
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(apiUrl + "/stream?showId=99")
+                                    .accept(MediaType.TEXT_EVENT_STREAM);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+        verify(seatChangeStream, never()).subscribe(99L);
+    }
+
+    @Test
+    void get_availableCounts_returnsCountPerVenueArea() throws Exception {
+        // Given
+        Map<VenueArea, Integer> counts = new EnumMap<>(VenueArea.class);
+        counts.put(VenueArea.FLOOR, 3);
+        counts.put(VenueArea.LEVEL_1, 0);
+        counts.put(VenueArea.LEVEL_2, 12);
+        when(seatService.getAvailableCounts(1L)).thenReturn(counts);
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(apiUrl + "/available/counts?showId=1")
+                                    .accept(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        Assertions.assertEquals("{\"FLOOR\":3,\"LEVEL_1\":0,\"LEVEL_2\":12}", response.getContentAsString());
+    }
+
+    @Test
+    void get_seatMap_returnsTheBitsetWithAVersionETag() throws Exception {
+        // Given
+        when(seatService.getSeatMapVersion(1L)).thenReturn(41L);
+        when(seatService.getSeatMap(1L)).thenReturn(new SeatMapDTO(1L, 42L, 10, new byte[]{(byte) 0b10110110, 0b11}));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(apiUrl + "/map?showId=1")
+                                    .accept(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        Assertions.assertEquals("\"1-42\"", response.getHeader("ETag"));
+        Assertions.assertTrue(response.getContentAsString().contains("\"seats\":\"tgM=\""));
+    }
+
+    @Test
+    void get_seatMap_whenTheVersionMatches_returns304WithoutCopyingTheSeatMap() throws Exception {
+        // Given
+        when(seatService.getSeatMapVersion(1L)).thenReturn(42L);
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(apiUrl + "/map?showId=1")
+                                    .header("If-None-Match", "\"1-42\"")
+                                    .accept(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        verify(seatService, never()).getSeatMap(1L);
+    }
+
+    @Test
+    void get_seatMapChanges_whenTheChangesAreNoLongerKept_returns410() throws Exception {
+        // Given
+        when(seatService.getSeatMapChanges(1L, 7L)).thenReturn(null);
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(apiUrl + "/map/changes?showId=1&since=7")
+                                    .accept(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.GONE.value(), response.getStatus());
+    }
+}
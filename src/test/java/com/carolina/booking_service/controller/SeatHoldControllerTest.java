@@ -0,0 +1,182 @@
+package com.carolina.booking_service.controller;
+
+import com.carolina.booking_service.exception.SeatNotAvailableException;
+import com.carolina.booking_service.model.*;
+import com.carolina.booking_service.service.SeatHoldService;
+import com.carolina.booking_service.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@AutoConfigureMockMvc(addFilters = false)
+@WebMvcTest(SeatHoldController.class)
+class SeatHoldControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper mapper;
+
+    @MockBean
+    private SeatHoldService seatHoldService;
+    @MockBean
+    private UserService userService;
+
+    private SeatHoldRequestDTO mockRequestHold;
+    private SeatHoldResponseDTO mockResponseHold;
+
+    private final String port = String.valueOf(8080);
+    private final String baseUrl = "http://localhost:";
+    private String apiUrl;
+
+    @BeforeEach
+    void setUp() {
+        apiUrl = baseUrl + port + "/api/v1/bookings/holds";
+
+        mockRequestHold = new SeatHoldRequestDTO(1L, 1L, Arrays.asList(1, 2), null);
+        mockResponseHold = new SeatHoldResponseDTO("hold-1", 1L, 1L, Arrays.asList(1, 2), LocalDateTime.now().plusMinutes(10));
+    }
+
+    @Test
+    void post_createHold_returns201WithLocation() throws Exception {
+        // Given
+        when(seatHoldService.createHold(any(SeatHoldRequestDTO.class))).thenReturn(this.mockResponseHold);
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(apiUrl)
+                                    .accept(MediaType.APPLICATION_JSON)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(this.mapper.writeValueAsString(this.mockRequestHold));
+
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+        Assertions.assertTrue(response.getHeader("Location").endsWith("/api/v1/bookings/holds/hold-1"));
+    }
+
+    @Test
+    void post_createHoldWithoutSeats_returns400() throws Exception {
+        // Given
+        SeatHoldRequestDTO emptyHold = new SeatHoldRequestDTO(1L, 1L, Collections.emptyList(), null);
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(apiUrl)
+                                    .accept(MediaType.APPLICATION_JSON)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(this.mapper.writeValueAsString(emptyHold));
+
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+        verify(seatHoldService, never()).createHold(any(SeatHoldRequestDTO.class));
+    }
+
+    @Test
+    void post_createBestAvailableHold_returns201WithTheHold() throws Exception {
+        // Given
+        String url = this.apiUrl + "/best-available";
+        BestAvailableHoldRequestDTO requestDTO = new BestAvailableHoldRequestDTO(1L, 1L, VenueArea.LEVEL_1, 2, null);
+        when(seatHoldService.createBestAvailableHold(any(BestAvailableHoldRequestDTO.class))).thenReturn(this.mockResponseHold);
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(url)
+                                    .accept(MediaType.APPLICATION_JSON)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(this.mapper.writeValueAsString(requestDTO));
+
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        SeatHoldResponseDTO actualHold = this.mapper.readValue(response.getContentAsString(), SeatHoldResponseDTO.class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+        Assertions.assertTrue(response.getHeader("Location").endsWith("/api/v1/bookings/holds/hold-1"));
+        Assertions.assertEquals(this.mockResponseHold.getSeatIds(), actualHold.getSeatIds());
+    }
+
+    @Test
+    void post_confirmHold_returns200WithBookings() throws Exception {
+        // Given
+        String url = this.apiUrl + "/hold-1/confirm";
+        BookingResponseDTO booking = new BookingResponseDTO(1L, "Dancing Queen", "user@test.com", 1, VenueArea.LEVEL_1, LocalDateTime.now());
+        when(seatHoldService.confirmHold("hold-1")).thenReturn(Collections.singletonList(booking));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(url)
+                                    .accept(MediaType.APPLICATION_JSON);
+
+        MvcResult result = mockMvc.perform(requestBuilder).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        BookingResponseDTO[] actualBookings = this.mapper.readValue(response.getContentAsString(), BookingResponseDTO[].class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
+        Assertions.assertEquals(1, actualBookings.length);
+        Assertions.assertEquals(booking.getSeatId(), actualBookings[0].getSeatId());
+    }
+
+    @Test
+    void post_confirmExpiredHold_catchesExceptionAndReturns404() throws Exception {
+        // Given
+        String url = this.apiUrl + "/hold-1/confirm";
+        when(seatHoldService.confirmHold("hold-1")).thenThrow(EntityNotFoundException.class);
+
+        // When
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post(url)).andReturn();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.NOT_FOUND.value(), result.getResponse().getStatus());
+    }
+
+    @Test
+    void post_confirmHoldWithSeatTaken_returns200WithMessage() throws Exception {
+        // Given
+        String url = this.apiUrl + "/hold-1/confirm";
+        when(seatHoldService.confirmHold("hold-1")).thenThrow(new SeatNotAvailableException());
+
+        // When
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post(url)).andReturn();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK.value(), result.getResponse().getStatus());
+        Assertions.assertEquals(new SeatNotAvailableException().getMessage(), result.getResponse().getContentAsString());
+    }
+
+    @Test
+    void delete_releaseNonExistingHold_catchesExceptionAndReturns404() throws Exception {
+        // Given
+        String url = this.apiUrl + "/hold-1";
+        doThrow(EntityNotFoundException.class).when(seatHoldService).releaseHold("hold-1");
+
+        // When
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.delete(url)).andReturn();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.NOT_FOUND.value(), result.getResponse().getStatus());
+    }
+}
@@ -61,6 +61,7 @@ class UserControllerTest {
         Long userId = this.mockUser.getId();
         String url = this.apiUrl + '/' + userId;
 
+        when(userService.getUserVersion(userId)).thenReturn(new ResourceVersion("\"user-1\"", 1_600_000_000_000L));
         when(userService.getUser(userId)).thenReturn(this.mockUser);
 
         // When
@@ -83,7 +84,7 @@ class UserControllerTest {
         // GiveN
         Long userId = this.mockUser.getId();
         String url = this.apiUrl + '/' + this.mockUser.getId();
-        when(userService.getUser(userId)).thenThrow(EntityNotFoundException.class);
+        when(userService.getUserVersion(userId)).thenThrow(EntityNotFoundException.class);
 
         // When
         RequestBuilder requestBuilder = MockMvcRequestBuilders.get(url)
@@ -115,6 +116,7 @@ class UserControllerTest {
         ));
         Integer expectedBookingsCount = 2;
 
+        when(bookingService.getBookingsByUserVersion(userId)).thenReturn(new ResourceVersion("\"user-1-bookings\"", 1_600_000_000_000L));
         when(bookingService.getBookingsByUser(userId)).thenReturn(mockUserBookingDTO);
 
         // When
@@ -261,4 +263,21 @@ class UserControllerTest {
         // Then
         Assertions.assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    void get_userBookingsById_withMatchingETag_returns304WithoutMappingTheBookings() throws Exception {
+        // Given
+        Long userId = this.mockUser.getId();
+        when(bookingService.getBookingsByUserVersion(userId)).thenReturn(new ResourceVersion("\"user-1-bookings\"", 1_600_000_000_000L));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get(this.apiUrl + '/' + userId + "/bookings")
+                                                .header("If-None-Match", "\"user-1-bookings\"")
+                                                .accept(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        verify(bookingService, never()).getBookingsByUser(userId);
+    }
+}
@@ -0,0 +1,159 @@
+package com.carolina.booking_service.controller;
+
+import com.carolina.booking_service.admission.WaitingRoom;
+import com.carolina.booking_service.admission.WaitingRoomConfig;
+import com.carolina.booking_service.admission.WaitingRoomFilter;
+import com.carolina.booking_service.model.BookingRequestDTO;
+import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.QueueTicketDTO;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.service.BookingService;
+import com.carolina.booking_service.service.IdempotencyService;
+import com.carolina.booking_service.service.UserService;
+import com.carolina.booking_service.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@AutoConfigureMockMvc(addFilters = false)
+@WebMvcTest(controllers = {WaitingRoomController.class, BookingController.class}, properties = "waitingRoom.enabled=true")
+@Import({WaitingRoom.class, WaitingRoomConfig.class})
+class WaitingRoomControllerTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    @Autowired
+    private FilterRegistrationBean<WaitingRoomFilter> waitingRoomFilter;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private WaitingRoom waitingRoom;
+
+    @MockBean
+    private BookingService bookingService;
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private IdempotencyService idempotencyService;
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    private final String apiUrl = "http://localhost:8080/api/v1";
+    private final String owner = "user@test.com";
+    private final String authorization = "Bearer user-jwt";
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // The security filters stay off, the waiting room filter runs as it would ahead of them
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .addFilters(this.waitingRoomFilter.getFilter())
+                .build();
+        when(jwtUtil.extractUsernameFromHeader(this.authorization)).thenReturn(this.owner);
+    }
+
+    @Test
+    void post_joinQueue_returns201WithPosition() throws Exception {
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(apiUrl + "/waiting-room")
+                                    .header(HttpHeaders.AUTHORIZATION, this.authorization);
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+        QueueTicketDTO ticket = this.mapper.readValue(response.getContentAsString(), QueueTicketDTO.class);
+
+        // Then
+        Assertions.assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+        Assertions.assertNotNull(ticket.getToken());
+        Assertions.assertFalse(ticket.getAdmitted());
+        Assertions.assertTrue(ticket.getPosition() >= 1);
+    }
+
+    @Test
+    void post_joinQueueWithoutBearerToken_returns401() throws Exception {
+        // When
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.post(apiUrl + "/waiting-room")).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatus());
+    }
+
+    @Test
+    void get_unknownToken_returns404() throws Exception {
+        // When
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get(apiUrl + "/waiting-room/unknown")).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+    }
+
+    @Test
+    void post_createBookingWithoutAdmittedToken_returns429() throws Exception {
+        // Given
+        String token = waitingRoom.join(this.owner, System.currentTimeMillis()).getToken();
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(apiUrl + "/bookings")
+                                    .header(WaitingRoomFilter.QUEUE_TOKEN_HEADER, token)
+                                    .header(HttpHeaders.AUTHORIZATION, this.authorization)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(this.mapper.writeValueAsString(new BookingRequestDTO(1L, 1L, 1)));
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        verify(bookingService, never()).createBooking(any(BookingRequestDTO.class));
+    }
+
+    @Test
+    void post_createBookingWithAdmittedToken_reachesTheController() throws Exception {
+        // Given
+        long now = System.currentTimeMillis();
+        String token = waitingRoom.join(this.owner, now).getToken();
+        while (!waitingRoom.isAdmitted(token, this.owner, now)) {
+            waitingRoom.admit(now);
+        }
+        when(bookingService.createBooking(any(BookingRequestDTO.class))).thenReturn(
+                new BookingResponseDTO(1L, "Dancing Queen", "user@test.com", 1, VenueArea.FLOOR, LocalDateTime.now()));
+
+        // When
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(apiUrl + "/bookings")
+                                    .header(WaitingRoomFilter.QUEUE_TOKEN_HEADER, token)
+                                    .header(HttpHeaders.AUTHORIZATION, this.authorization)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(this.mapper.writeValueAsString(new BookingRequestDTO(1L, 1L, 1)));
+        MockHttpServletResponse response = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+    }
+
+    @Test
+    void get_bookingsAreNotQueued() throws Exception {
+        // When
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get(apiUrl + "/bookings/")).andReturn().getResponse();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
+    }
+}
@@ -0,0 +1,185 @@
+package com.carolina.booking_service.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Routes between two embedded databases, each of which knows its own name
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final String SELECT_NAME = "select name from database_name";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicReference<String> user = new AtomicReference<>("ana@test.com");
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+
+    @BeforeEach
+    void setUp() {
+        this.primary = newDatabase("primary");
+        this.replica = newDatabase("replica");
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.primary.shutdown();
+        this.replica.shutdown();
+    }
+
+    private static EmbeddedDatabase newDatabase(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table database_name (name varchar(16))");
+        jdbcTemplate.update("insert into database_name (name) values (?)", name);
+        return database;
+    }
+
+    private ReplicaRoutingDataSource newRoutingDataSource(ReadYourWrites.Policy policy) {
+        ReadYourWrites readYourWrites = new ReadYourWrites(policy, Duration.ofSeconds(2), this.user::get, this.nanos::get);
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(this.primary, this.replica, readYourWrites);
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+
+    private static TransactionTemplate newTransactionTemplate(JdbcTemplate jdbcTemplate, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate;
+    }
+
+    private static String readName(JdbcTemplate jdbcTemplate) {
+        return newTransactionTemplate(jdbcTemplate, true).execute(status -> jdbcTemplate.queryForObject(SELECT_NAME, String.class));
+    }
+
+    private static void write(JdbcTemplate jdbcTemplate) {
+        newTransactionTemplate(jdbcTemplate, false).executeWithoutResult(status ->
+                jdbcTemplate.update("update database_name set name = name"));
+    }
+
+    @Test
+    void readOnlyTransaction_usesTheReplica() {
+        // Given
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(newRoutingDataSource(ReadYourWrites.Policy.USER)));
+
+        // When
+        String name = readName(jdbcTemplate);
+
+        // Then
+        Assertions.assertEquals("replica", name);
+    }
+
+    @Test
+    void readWriteTransactionAndNoTransaction_useThePrimary() {
+        // Given
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(newRoutingDataSource(ReadYourWrites.Policy.USER)));
+
+        // When
+        String inTransaction = newTransactionTemplate(jdbcTemplate, false).execute(status ->
+                jdbcTemplate.queryForObject(SELECT_NAME, String.class));
+        String withoutTransaction = jdbcTemplate.queryForObject(SELECT_NAME, String.class);
+
+        // Then
+        Assertions.assertEquals("primary", inTransaction);
+        Assertions.assertEquals("primary", withoutTransaction);
+    }
+
+    @Test
+    void afterAWrite_theWriterReadsThePrimaryUntilTheWindowPasses() {
+        // Given
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(newRoutingDataSource(ReadYourWrites.Policy.USER)));
+        write(jdbcTemplate);
+
+        // When
+        String writerRead = readName(jdbcTemplate);
+        this.user.set("carolina@test.com");
+        String otherUserRead = readName(jdbcTemplate);
+        this.user.set("ana@test.com");
+        this.nanos.addAndGet(Duration.ofSeconds(3).toNanos());
+        String writerReadLater = readName(jdbcTemplate);
+
+        // Then
+        Assertions.assertEquals("primary", writerRead);
+        Assertions.assertEquals("replica", otherUserRead);
+        Assertions.assertEquals("replica", writerReadLater);
+    }
+
+    @Test
+    void afterARolledBackWrite_readsStayOnTheReplica() {
+        // Given
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(newRoutingDataSource(ReadYourWrites.Policy.USER)));
+        newTransactionTemplate(jdbcTemplate, false).executeWithoutResult(status -> {
+            jdbcTemplate.update("update database_name set name = name");
+            status.setRollbackOnly();
+        });
+
+        // When
+        String name = readName(jdbcTemplate);
+
+        // Then
+        Assertions.assertEquals("replica", name);
+    }
+
+    @Test
+    void withGlobalPolicy_aWriteSendsEveryoneToThePrimary() {
+        // Given
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(newRoutingDataSource(ReadYourWrites.Policy.GLOBAL)));
+        this.user.set(null);
+        write(jdbcTemplate);
+
+        // When
+        this.user.set("carolina@test.com");
+        String name = readName(jdbcTemplate);
+
+        // Then
+        Assertions.assertEquals("primary", name);
+    }
+
+    @Test
+    void withNoPolicy_readsUseTheReplicaRightAfterAWrite() {
+        // Given
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(newRoutingDataSource(ReadYourWrites.Policy.NONE)));
+        write(jdbcTemplate);
+
+        // When
+        String name = readName(jdbcTemplate);
+
+        // Then
+        Assertions.assertEquals("replica", name);
+    }
+
+    @Test
+    void bindTo_countsConnectionsByRoute() {
+        // Given
+        ReplicaRoutingDataSource routingDataSource = newRoutingDataSource(ReadYourWrites.Policy.USER);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        routingDataSource.bindTo(registry);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(routingDataSource));
+
+        // When
+        readName(jdbcTemplate);
+        write(jdbcTemplate);
+        readName(jdbcTemplate);
+
+        // Then
+        Assertions.assertEquals(1.0, registry.get("datasource.routing.connections").tag("route", "replica").functionCounter().count());
+        Assertions.assertEquals(1.0, registry.get("datasource.routing.connections").tag("route", "primary_after_write").functionCounter().count());
+    }
+}
@@ -0,0 +1,83 @@
+package com.carolina.booking_service.datasource;
+
+import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.repository.SeatRepository;
+import com.carolina.booking_service.repository.ShowSeatRepository;
+import com.carolina.booking_service.service.SeatService;
+import com.carolina.booking_service.show.ShowNameCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * The replica is the primary database itself, so only the routing counts tell the two apart
+ */
+@SpringBootTest(properties = {
+        "replica.enabled=true",
+        "replica.readYourWrites=none",
+        "replica.datasource.jdbc-url=${spring.datasource.url}",
+        "replica.datasource.username=${spring.datasource.username}",
+        "replica.datasource.password=${spring.datasource.password}",
+        "replica.datasource.driver-class-name=${spring.datasource.driver-class-name}"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingSeatServiceTest {
+
+    private static final Long COLD_SHOW_ID = 9005L;
+
+    @Autowired
+    private SeatService seatService;
+    @Autowired
+    private SeatRepository seatRepository;
+    @Autowired
+    private ShowSeatRepository showSeatRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private ShowNameCache showNameCache;
+
+    @BeforeEach
+    void setUp() {
+        seatRepository.saveAll(Arrays.asList(new Seat(VenueArea.FLOOR), new Seat(VenueArea.LEVEL_1)));
+        when(showNameCache.isKnownShow(COLD_SHOW_ID)).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        showSeatRepository.deleteAll();
+        seatRepository.deleteAll();
+    }
+
+    @Test
+    void getAvailableSeats_ofAColdShow_loadsTheShowFromThePrimaryAndTheSeatsFromTheReplica() {
+        // Given
+        double primaryBefore = routedConnections("primary");
+        double replicaBefore = routedConnections("replica");
+
+        // When
+        List<Seat> seats = seatService.getAvailableSeats(COLD_SHOW_ID);
+
+        // Then
+        Assertions.assertEquals(2, seats.size());
+        Assertions.assertTrue(routedConnections("primary") > primaryBefore);
+        Assertions.assertEquals(replicaBefore + 1, routedConnections("replica"));
+        Assertions.assertFalse(showSeatRepository.existsByShowId(COLD_SHOW_ID));
+    }
+
+    private double routedConnections(String route) {
+        return meterRegistry.get("datasource.routing.connections").tag("route", route).functionCounter().count();
+    }
+}
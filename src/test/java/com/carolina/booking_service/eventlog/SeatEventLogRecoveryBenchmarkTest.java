@@ -0,0 +1,100 @@
+package com.carolina.booking_service.eventlog;
+
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.inventory.ShowInventory;
+import com.carolina.booking_service.model.SeatEventType;
+import com.carolina.booking_service.model.ShowSeat;
+import com.carolina.booking_service.model.VenueArea;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Books one million seats through the seat event log and times how long a restart takes to rebuild the inventory,
+ * once from a snapshot plus the last 10% of the log and once from the whole log, logging both
+ */
+@Tag("benchmark")
+class SeatEventLogRecoveryBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatEventLogRecoveryBenchmarkTest.class);
+
+    private static final int SHOWS = 100;
+    private static final int SEATS_PER_SHOW = 10_000;
+    private static final int SEATS_PER_ROW = 50;
+    private static final int SEGMENT_BYTES = 8 << 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recovery_ofOneMillionBookings() throws IOException {
+        // Warm up both paths on a tenth of the shows first
+        bookAllSeatsAndRestart(this.directory.resolve("warm-up-snapshot"), true, SHOWS / 10);
+        bookAllSeatsAndRestart(this.directory.resolve("warm-up-log"), false, SHOWS / 10);
+
+        long fromSnapshot = bookAllSeatsAndRestart(this.directory.resolve("with-snapshot"), true, SHOWS);
+        long fromLog = bookAllSeatsAndRestart(this.directory.resolve("log-only"), false, SHOWS);
+
+        logger.info("Recovery of {} bookings from snapshot and tail: {} ms", SHOWS * SEATS_PER_SHOW, fromSnapshot);
+        logger.info("Recovery of {} bookings from the log only: {} ms", SHOWS * SEATS_PER_SHOW, fromLog);
+    }
+
+    private long bookAllSeatsAndRestart(Path logDirectory, boolean withSnapshot, int shows) throws IOException {
+        Files.createDirectories(logDirectory);
+        SeatEventLog seatEventLog = new SeatEventLog(newSeatInventory(), true, logDirectory.toString(), SEGMENT_BYTES);
+        seatEventLog.open();
+        int bookings = 0;
+        for (int seatId = 1; seatId <= SEATS_PER_SHOW; seatId++) {
+            for (long showId = 1; showId <= shows; showId++) {
+                seatEventLog.append(SeatEventType.BOOKED, showId, seatId, null);
+                if (withSnapshot && ++bookings == shows * SEATS_PER_SHOW * 9 / 10) {
+                    seatEventLog.snapshot();
+                }
+            }
+        }
+        seatEventLog.close();
+
+        SeatInventory restartedInventory = newSeatInventory();
+        long start = System.nanoTime();
+        SeatEventLog restarted = new SeatEventLog(restartedInventory, true, logDirectory.toString(), SEGMENT_BYTES);
+        restarted.open();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        ArgumentCaptor<ShowInventory> restored = ArgumentCaptor.forClass(ShowInventory.class);
+        verify(restartedInventory, times(shows)).restore(restored.capture());
+        for (ShowInventory showInventory : restored.getAllValues()) {
+            Assertions.assertTrue(showInventory.isSoldOut());
+        }
+        Assertions.assertEquals((long) shows * SEATS_PER_SHOW, restarted.getLastSequence());
+        restarted.close();
+        return elapsedMillis;
+    }
+
+    private static SeatInventory newSeatInventory() {
+        SeatInventory seatInventory = mock(SeatInventory.class);
+        when(seatInventory.getShowInventory(anyLong())).thenAnswer(invocation -> {
+            Long showId = invocation.getArgument(0);
+            List<ShowSeat> showSeats = new ArrayList<>(SEATS_PER_SHOW);
+            for (int seatId = 1; seatId <= SEATS_PER_SHOW; seatId++) {
+                int ordinal = seatId - 1;
+                showSeats.add(new ShowSeat(showId, seatId, VenueArea.values()[ordinal % VenueArea.values().length], false,
+                        ordinal / SEATS_PER_ROW, ordinal % SEATS_PER_ROW + 1));
+            }
+            return new ShowInventory(showId, showSeats);
+        });
+        return seatInventory;
+    }
+}
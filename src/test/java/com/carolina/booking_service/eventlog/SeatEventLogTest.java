@@ -0,0 +1,173 @@
+package com.carolina.booking_service.eventlog;
+
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.inventory.ShowInventory;
+import com.carolina.booking_service.model.SeatEventType;
+import com.carolina.booking_service.model.ShowSeat;
+import com.carolina.booking_service.model.VenueArea;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+
+class SeatEventLogTest {
+
+    private static final Long SHOW_ID = 1L;
+
+    @TempDir
+    Path directory;
+
+    private SeatInventory seatInventory;
+
+    @BeforeEach
+    void setUp() {
+        List<ShowSeat> showSeats = new ArrayList<>();
+        for (int seatId = 1; seatId <= 6; seatId++) {
+            showSeats.add(new ShowSeat(SHOW_ID, seatId, VenueArea.FLOOR, false, 1, seatId));
+        }
+        this.seatInventory = mock(SeatInventory.class);
+        when(this.seatInventory.getShowInventory(SHOW_ID)).thenReturn(new ShowInventory(SHOW_ID, showSeats));
+    }
+
+    private SeatEventLog openLog(int segmentBytes) throws IOException {
+        SeatEventLog seatEventLog = new SeatEventLog(this.seatInventory, true, this.directory.toString(), segmentBytes);
+        seatEventLog.open();
+        return seatEventLog;
+    }
+
+    private ShowInventory restoredInventory() {
+        ArgumentCaptor<ShowInventory> restored = ArgumentCaptor.forClass(ShowInventory.class);
+        verify(this.seatInventory, atLeastOnce()).restore(restored.capture());
+        return restored.getValue();
+    }
+
+    @Test
+    void open_rebuildsTheInventoryFromTheLog() throws IOException {
+        // Given
+        SeatEventLog seatEventLog = openLog(1 << 16);
+        seatEventLog.append(SeatEventType.BOOKED, SHOW_ID, 1, null);
+        seatEventLog.append(SeatEventType.BOOKED, SHOW_ID, 2, null);
+        seatEventLog.append(SeatEventType.SWAPPED, SHOW_ID, 3, 2);
+        seatEventLog.append(SeatEventType.RELEASED, SHOW_ID, 1, null);
+        seatEventLog.close();
+
+        // When
+        SeatEventLog restarted = openLog(1 << 16);
+
+        // Then
+        Assertions.assertEquals(Arrays.asList(1, 2, 4, 5, 6), restoredInventory().getAvailableSeatIds());
+        Assertions.assertEquals(4, restarted.getLastSequence());
+    }
+
+    @Test
+    void snapshot_dropsCoveredSegmentsAndRestartReplaysOnlyTheTail() throws IOException {
+        // Given two events per segment
+        SeatEventLog seatEventLog = openLog(2 * SeatEventSegment.RECORD_BYTES);
+        for (int seatId = 1; seatId <= 5; seatId++) {
+            seatEventLog.append(SeatEventType.BOOKED, SHOW_ID, seatId, null);
+        }
+
+        // When
+        long snapshotSequence = seatEventLog.snapshot();
+        seatEventLog.append(SeatEventType.RELEASED, SHOW_ID, 2, null);
+        seatEventLog.close();
+        SeatEventLog restarted = openLog(2 * SeatEventSegment.RECORD_BYTES);
+
+        // Then
+        Assertions.assertEquals(5, snapshotSequence);
+        Assertions.assertEquals(Arrays.asList("seat-events-00000000000000000005.log", "snapshot-00000000000000000005.bin"),
+                fileNames());
+        Assertions.assertEquals(Arrays.asList(2, 6), restoredInventory().getAvailableSeatIds());
+        Assertions.assertEquals(6, restarted.getLastSequence());
+    }
+
+    @Test
+    void open_stopsAtATornRecord() throws IOException {
+        // Given
+        SeatEventLog seatEventLog = openLog(1 << 16);
+        seatEventLog.append(SeatEventType.BOOKED, SHOW_ID, 1, null);
+        seatEventLog.append(SeatEventType.BOOKED, SHOW_ID, 2, null);
+        seatEventLog.close();
+        try (FileChannel channel = FileChannel.open(this.directory.resolve(SeatEventSegment.fileName(1)), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{7}), SeatEventSegment.RECORD_BYTES + 20);
+        }
+
+        // When
+        SeatEventLog restarted = openLog(1 << 16);
+
+        // Then the second event is gone and its sequence is reused
+        Assertions.assertEquals(Arrays.asList(2, 3, 4, 5, 6), restoredInventory().getAvailableSeatIds());
+        Assertions.assertEquals(2, restarted.append(SeatEventType.BOOKED, SHOW_ID, 3, null).getSequence());
+    }
+
+    @Test
+    void open_ofAShowFirstTrackedAfterTheSnapshot_startsFromItsLayoutWithoutTheInventory() throws IOException {
+        // Given
+        SeatEventLog seatEventLog = openLog(1 << 16);
+        seatEventLog.append(SeatEventType.BOOKED, SHOW_ID, 1, null);
+        seatEventLog.append(SeatEventType.BOOKED, SHOW_ID, 4, null);
+        seatEventLog.close();
+        clearInvocations(this.seatInventory);
+
+        // When
+        openLog(1 << 16);
+
+        // Then
+        verify(this.seatInventory, never()).getShowInventory(any(Long.class));
+        Assertions.assertEquals(Arrays.asList(2, 3, 5, 6), restoredInventory().getAvailableSeatIds());
+        Assertions.assertEquals(Arrays.asList("layout-00000000000000000001.bin", "seat-events-00000000000000000001.log"),
+                fileNames());
+    }
+
+    @Test
+    void open_skipsEventsOfAShowWithoutALayout() throws IOException {
+        // Given
+        SeatEventLog seatEventLog = openLog(1 << 16);
+        seatEventLog.append(SeatEventType.BOOKED, SHOW_ID, 1, null);
+        seatEventLog.close();
+        Files.delete(this.directory.resolve("layout-00000000000000000001.bin"));
+        clearInvocations(this.seatInventory);
+
+        // When
+        SeatEventLog restarted = openLog(1 << 16);
+
+        // Then the show is loaded from the database on first use instead
+        verify(this.seatInventory, never()).getShowInventory(any(Long.class));
+        verify(this.seatInventory, never()).restore(any(ShowInventory.class));
+        Assertions.assertEquals(1, restarted.getLastSequence());
+    }
+
+    @Test
+    void recordAfterCommit_whenDisabled_doesNothing() {
+        // Given
+        SeatEventLog seatEventLog = new SeatEventLog(this.seatInventory, false, this.directory.toString(), 1 << 16);
+
+        // When
+        seatEventLog.recordAfterCommit(SeatEventType.BOOKED, SHOW_ID, 1, null);
+
+        // Then
+        Assertions.assertEquals(0, seatEventLog.getLastSequence());
+        verifyNoInteractions(this.seatInventory);
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (Stream<Path> paths = Files.list(this.directory)) {
+            return paths.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.carolina.booking_service.inventory;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntPredicate;
+
+class SeatBitmapTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatBitmapTest.class);
+
+    private static final int SEATS = 10000;
+    private static final int THREADS = 8;
+
+    private SeatBitmap bitmap;
+
+    @BeforeEach
+    void setUp() {
+        this.bitmap = new SeatBitmap(SEATS);
+        for (int i = 1; i < SEATS; i++) {
+            this.bitmap.set(i);
+        }
+    }
+
+    @Test
+    void toByteArray_laysTheSeatsOutLikeABitSet() {
+        // Given
+        bitmap.tryClaim(42);
+        bitmap.tryClaim(SEATS - 1);
+
+        // When
+        BitSet seats = BitSet.valueOf(bitmap.toByteArray());
+
+        // Then
+        Assertions.assertEquals((SEATS + 7) / 8, bitmap.toByteArray().length);
+        Assertions.assertEquals(bitmap.cardinality(), seats.cardinality());
+        Assertions.assertFalse(seats.get(0));
+        Assertions.assertTrue(seats.get(41));
+        Assertions.assertFalse(seats.get(42));
+        Assertions.assertFalse(seats.get(SEATS - 1));
+    }
+
+    @Test
+    void tryClaim_whenSeatIsAvailable_returnsTrueOnlyOnce() {
+        // When
+        boolean firstClaim = bitmap.tryClaim(42);
+        boolean secondClaim = bitmap.tryClaim(42);
+
+        // Then
+        Assertions.assertTrue(firstClaim);
+        Assertions.assertFalse(secondClaim);
+        Assertions.assertFalse(bitmap.isAvailable(42));
+    }
+
+    @Test
+    void tryClaim_whenSeatIsOutOfRange_returnsFalse() {
+        Assertions.assertFalse(bitmap.tryClaim(SEATS));
+        Assertions.assertFalse(bitmap.tryClaim(-1));
+        Assertions.assertFalse(bitmap.tryClaim(0));
+    }
+
+    @Test
+    void release_makesSeatAvailableAgain() {
+        // Given
+        bitmap.tryClaim(7);
+
+        // When
+        boolean released = bitmap.release(7);
+
+        // Then
+        Assertions.assertTrue(released);
+        Assertions.assertTrue(bitmap.isAvailable(7));
+        Assertions.assertFalse(bitmap.release(7));
+    }
+
+    @Test
+    void cardinality_returnsNumberOfAvailableSeats() {
+        // Given
+        bitmap.tryClaim(1);
+        bitmap.tryClaim(64);
+        bitmap.tryClaim(SEATS - 1);
+
+        // Then
+        Assertions.assertEquals(SEATS - 4, bitmap.cardinality());
+    }
+
+    @Test
+    void tryClaim_whenManyThreadsRaceForEverySeat_neverDoubleBooks() throws InterruptedException {
+        // Given
+        AtomicIntegerArray winners = new AtomicIntegerArray(SEATS);
+
+        // When
+        race(seatId -> {
+            if (bitmap.tryClaim(seatId)) {
+                winners.incrementAndGet(seatId);
+                return true;
+            }
+            return false;
+        });
+
+        // Then
+        for (int i = 1; i < SEATS; i++) {
+            Assertions.assertEquals(1, winners.get(i), "seat " + i + " was not booked exactly once");
+        }
+        Assertions.assertEquals(0, bitmap.cardinality());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_compareAndSetAgainstCheckThenActPath() throws InterruptedException {
+        // Check-then-act over a seat map, the way isSeatAvailable and changeSeatBookingStatus work
+        Map<Integer, Boolean> bookedBySeat = new ConcurrentHashMap<>();
+        for (int i = 1; i < SEATS; i++) {
+            bookedBySeat.put(i, false);
+        }
+        AtomicIntegerArray checkThenActWinners = new AtomicIntegerArray(SEATS);
+        long checkThenActElapsed = race(seatId -> {
+            if (!bookedBySeat.get(seatId)) {
+                bookedBySeat.put(seatId, true);
+                checkThenActWinners.incrementAndGet(seatId);
+                return true;
+            }
+            return false;
+        });
+
+        // The same path made safe with a single lock
+        Map<Integer, Boolean> lockedBookedBySeat = new ConcurrentHashMap<>();
+        for (int i = 1; i < SEATS; i++) {
+            lockedBookedBySeat.put(i, false);
+        }
+        Object lock = new Object();
+        long lockedElapsed = race(seatId -> {
+            synchronized (lock) {
+                if (!lockedBookedBySeat.get(seatId)) {
+                    lockedBookedBySeat.put(seatId, true);
+                    return true;
+                }
+                return false;
+            }
+        });
+
+        long bitmapElapsed = race(bitmap::tryClaim);
+
+        int doubleBookings = 0;
+        for (int i = 1; i < SEATS; i++) {
+            doubleBookings += Math.max(0, checkThenActWinners.get(i) - 1);
+        }
+        report("check-then-act (" + doubleBookings + " double bookings)", checkThenActElapsed);
+        report("synchronized check-then-act", lockedElapsed);
+        report("bitmap compare-and-set", bitmapElapsed);
+        Assertions.assertEquals(0, bitmap.cardinality());
+    }
+
+    /**
+     * Every thread tries to claim every seat, starting at a different offset so that threads collide
+     * @return elapsed nanoseconds
+     */
+    private long race(IntPredicate claim) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t * (SEATS / THREADS);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < SEATS - 1; i++) {
+                        claim.test(1 + (offset + i) % (SEATS - 1));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        done.await(30, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        return elapsed;
+    }
+
+    private void report(String path, long elapsedNanos) {
+        long attempts = (long) THREADS * (SEATS - 1);
+        long opsPerSecond = attempts * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos);
+        logger.info("{}: {} claim attempts/s", path, opsPerSecond);
+    }
+}
@@ -0,0 +1,109 @@
+package com.carolina.booking_service.inventory;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class SeatChangeJournalTest {
+
+    private SeatChangeJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        this.journal = new SeatChangeJournal(4, 100);
+    }
+
+    @Test
+    void record_numbersEachChange() {
+        // When
+        long first = journal.record(7, false);
+        long second = journal.record(8, false);
+
+        // Then
+        Assertions.assertEquals(101, first);
+        Assertions.assertEquals(102, second);
+        Assertions.assertEquals(102, journal.getVersion());
+    }
+
+    @Test
+    void getChangesSince_keepsTheLastStateOfEachSeat() {
+        // Given
+        journal.record(7, false);
+        journal.record(8, false);
+        journal.record(7, true);
+
+        // When
+        Map<Integer, Boolean> changes = journal.getChangesSince(100);
+
+        // Then
+        Map<Integer, Boolean> expected = new LinkedHashMap<>();
+        expected.put(8, false);
+        expected.put(7, true);
+        Assertions.assertEquals(expected, changes);
+        Assertions.assertEquals(Collections.singletonMap(7, true), journal.getChangesSince(102));
+        Assertions.assertTrue(journal.getChangesSince(103).isEmpty());
+    }
+
+    @Test
+    void getChangesSince_onceTheChangesAreOverwritten_returnsNull() {
+        // Given more changes than the ring holds
+        for (int seatId = 1; seatId <= 6; seatId++) {
+            journal.record(seatId, false);
+        }
+
+        // Then
+        Assertions.assertNull(journal.getChangesSince(101));
+        Assertions.assertEquals(4, journal.getChangesSince(102).size());
+    }
+
+    @Test
+    void getChangesSince_versionUnknownToTheJournal_returnsNull() {
+        // Given
+        journal.record(7, false);
+
+        // Then
+        Assertions.assertNull(journal.getChangesSince(99));
+        Assertions.assertNull(journal.getChangesSince(102));
+    }
+
+    @Test
+    void record_fromManyThreadsAtOnce_publishesEveryVersionOnce() throws Exception {
+        // Given
+        SeatChangeJournal bigJournal = new SeatChangeJournal(1024, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    bigJournal.record(thread * 200 + i, false);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        Assertions.assertEquals(900, bigJournal.getVersion());
+        Assertions.assertEquals(800, bigJournal.getChangesSince(100).size());
+    }
+}
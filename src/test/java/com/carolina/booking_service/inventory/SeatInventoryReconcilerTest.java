@@ -0,0 +1,102 @@
+package com.carolina.booking_service.inventory;
+
+import com.carolina.booking_service.model.ShowSeat;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.model.VenueAreaCount;
+import com.carolina.booking_service.repository.ShowSeatRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SeatInventoryReconcilerTest {
+
+    @Autowired
+    private SeatInventoryReconciler seatInventoryReconciler;
+
+    @MockBean
+    private SeatInventory seatInventory;
+    @MockBean
+    private ShowSeatRepository showSeatRepository;
+
+    private final Long mockShowId = 1L;
+    private ShowInventory mockShowInventory;
+
+    @BeforeEach
+    void setUp() {
+        this.mockShowInventory = new ShowInventory(this.mockShowId, Arrays.asList(
+                new ShowSeat(this.mockShowId, 1, VenueArea.FLOOR, false),
+                new ShowSeat(this.mockShowId, 2, VenueArea.FLOOR, false),
+                new ShowSeat(this.mockShowId, 3, VenueArea.LEVEL_1, false)
+        ));
+        when(seatInventory.getOpenShowIds()).thenReturn(Collections.singleton(this.mockShowId));
+        when(seatInventory.getShowInventory(this.mockShowId)).thenReturn(this.mockShowInventory);
+    }
+
+    @Test
+    void reconcile_whenCountersMatchTheDatabase_doesNotReload() {
+        // Given
+        when(showSeatRepository.countAvailableByVenueArea(this.mockShowId)).thenReturn(Arrays.asList(
+                areaCount(VenueArea.FLOOR, 2L), areaCount(VenueArea.LEVEL_1, 1L)
+        ));
+
+        // When
+        seatInventoryReconciler.reconcile();
+        seatInventoryReconciler.reconcile();
+
+        // Then
+        verify(seatInventory, never()).reload(any(Long.class));
+    }
+
+    @Test
+    void reconcile_whenCountersDriftOnce_doesNotReload() {
+        // Given
+        when(showSeatRepository.countAvailableByVenueArea(this.mockShowId))
+                .thenReturn(Collections.singletonList(areaCount(VenueArea.FLOOR, 2L)))
+                .thenReturn(Arrays.asList(areaCount(VenueArea.FLOOR, 2L), areaCount(VenueArea.LEVEL_1, 1L)));
+
+        // When
+        seatInventoryReconciler.reconcile();
+        seatInventoryReconciler.reconcile();
+
+        // Then
+        verify(seatInventory, never()).reload(any(Long.class));
+    }
+
+    @Test
+    void reconcile_whenCountersDriftTwiceInARow_reloadsTheShow() {
+        // Given
+        when(showSeatRepository.countAvailableByVenueArea(this.mockShowId))
+                .thenReturn(Collections.singletonList(areaCount(VenueArea.FLOOR, 2L)));
+
+        // When
+        seatInventoryReconciler.reconcile();
+        seatInventoryReconciler.reconcile();
+
+        // Then
+        verify(seatInventory, times(1)).reload(this.mockShowId);
+    }
+
+    private VenueAreaCount areaCount(VenueArea venueArea, Long count) {
+        return new VenueAreaCount() {
+            @Override
+            public VenueArea getVenueArea() {
+                return venueArea;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,234 @@
+package com.carolina.booking_service.inventory;
+
+import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.SeatHoldRequestDTO;
+import com.carolina.booking_service.model.SeatHoldResponseDTO;
+import com.carolina.booking_service.model.ShowSeat;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.model.VenueAreaCount;
+import com.carolina.booking_service.repository.BookingRepository;
+import com.carolina.booking_service.repository.SeatRepository;
+import com.carolina.booking_service.repository.ShowSeatRepository;
+import com.carolina.booking_service.seatstream.SeatChangeStream;
+import com.carolina.booking_service.service.BookingService;
+import com.carolina.booking_service.service.SeatHoldServiceImpl;
+import com.carolina.booking_service.service.SeatService;
+import com.carolina.booking_service.service.UserService;
+import com.carolina.booking_service.service.VenueService;
+import com.carolina.booking_service.show.ShowNameCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the inventory and its reconciler against live holds, with the database and show-service mocked
+ */
+class SeatInventoryTest {
+
+    private final Long showId = 1L;
+    private final Long unopenedShowId = 2L;
+    private final ShowSeatRepository showSeatRepository = mock(ShowSeatRepository.class);
+    private final SeatRepository seatRepository = mock(SeatRepository.class);
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ShowNameCache showNameCache = mock(ShowNameCache.class);
+    private SeatInventory seatInventory;
+    private SeatHoldServiceImpl seatHoldService;
+    private SeatInventoryReconciler seatInventoryReconciler;
+
+    @BeforeEach
+    void setUp() {
+        when(showSeatRepository.findEnabledByShowId(this.showId)).thenAnswer(invocation -> Arrays.asList(
+                new ShowSeat(this.showId, 1, VenueArea.FLOOR, false),
+                new ShowSeat(this.showId, 2, VenueArea.FLOOR, false),
+                new ShowSeat(this.showId, 3, VenueArea.LEVEL_1, false)
+        ));
+        // Nothing is booked in the database
+        when(showSeatRepository.countAvailableByVenueArea(this.showId)).thenReturn(Arrays.asList(
+                areaCount(VenueArea.FLOOR, 2L), areaCount(VenueArea.LEVEL_1, 1L)
+        ));
+        when(showSeatRepository.existsByShowId(this.showId)).thenReturn(true);
+        // The other show exists but nobody claimed from it yet, so it has no rows
+        when(showNameCache.isKnownShow(this.unopenedShowId)).thenReturn(true);
+        when(seatRepository.findByEnabledTrue()).thenReturn(Arrays.asList(
+                new Seat(1, VenueArea.FLOOR, true), new Seat(2, VenueArea.FLOOR, true)
+        ));
+        when(bookingRepository.findSeatIdsByShowId(this.unopenedShowId)).thenReturn(Collections.singletonList(1));
+        this.seatInventory = new SeatInventory(showSeatRepository, seatRepository, bookingRepository, showNameCache, 60);
+        this.seatHoldService = new SeatHoldServiceImpl(this.seatInventory, mock(VenueService.class), mock(BookingService.class),
+                mock(SeatService.class), mock(UserService.class), mock(SeatChangeStream.class), 1000);
+        this.seatInventoryReconciler = new SeatInventoryReconciler(this.seatInventory, showSeatRepository);
+    }
+
+    @Test
+    void reconcile_whileAHoldIsActive_keepsTheHeldSeatsClaimed() {
+        // Given
+        seatHoldService.createHold(new SeatHoldRequestDTO(this.showId, 1L, Arrays.asList(1, 3), 30));
+
+        // When
+        seatInventoryReconciler.reconcile();
+        seatInventoryReconciler.reconcile();
+
+        // Then
+        verify(showSeatRepository, times(1)).findEnabledByShowId(this.showId);
+        Assertions.assertFalse(seatInventory.isAvailable(this.showId, 1));
+        Assertions.assertFalse(seatInventory.isAvailable(this.showId, 3));
+        Assertions.assertEquals(1, seatInventory.getAvailableCount(this.showId));
+    }
+
+    @Test
+    void reload_claimsTheHeldSeatsAgain() {
+        // Given
+        SeatHoldResponseDTO hold = seatHoldService.createHold(new SeatHoldRequestDTO(this.showId, 1L, Arrays.asList(1, 3), 30));
+
+        // When
+        seatInventory.reload(this.showId);
+        boolean claimedWhileHeld = seatInventory.tryClaim(this.showId, 1);
+        seatHoldService.releaseHold(hold.getHoldId());
+
+        // Then
+        Assertions.assertFalse(claimedWhileHeld);
+        Assertions.assertEquals(3, seatInventory.getAvailableCount(this.showId));
+    }
+
+    @Test
+    void getShowInventory_ofAnUnknownShow_throwsWithoutOpeningIt() {
+        // Given
+        Long unknownShowId = 3L;
+
+        // When
+        Assertions.assertThrows(EntityNotFoundException.class, () -> seatInventory.getAvailableSeatIds(unknownShowId));
+
+        // Then
+        verify(showSeatRepository, never()).openShow(any(Long.class));
+        verify(showSeatRepository, never()).findEnabledByShowId(unknownShowId);
+    }
+
+    @Test
+    void reads_ofAShowWithoutRows_useTheSeatsAndBookingsUntilTheFirstClaim() {
+        // When
+        int availableBeforeClaim = seatInventory.getAvailableCount(this.unopenedShowId);
+        boolean bookedSeatClaimed = seatInventory.tryClaim(this.unopenedShowId, 1);
+        boolean freeSeatClaimed = seatInventory.tryClaim(this.unopenedShowId, 2);
+
+        // Then
+        Assertions.assertEquals(1, availableBeforeClaim);
+        Assertions.assertFalse(bookedSeatClaimed);
+        Assertions.assertTrue(freeSeatClaimed);
+        verify(showSeatRepository, times(1)).openShow(this.unopenedShowId);
+        Assertions.assertEquals(Collections.singleton(this.unopenedShowId), seatInventory.getOpenShowIds());
+    }
+
+    @Test
+    void tryClaimWithoutOpening_claimsTheSeatWithoutCreatingTheShowsRows() {
+        // When
+        boolean bookedSeatClaimed = seatInventory.tryClaimWithoutOpening(this.unopenedShowId, 1);
+        boolean freeSeatClaimed = seatInventory.tryClaimWithoutOpening(this.unopenedShowId, 2);
+
+        // Then
+        Assertions.assertFalse(bookedSeatClaimed);
+        Assertions.assertTrue(freeSeatClaimed);
+        Assertions.assertFalse(seatInventory.isAvailable(this.unopenedShowId, 2));
+        verify(showSeatRepository, never()).openShow(this.unopenedShowId);
+        Assertions.assertTrue(seatInventory.getOpenShowIds().isEmpty());
+    }
+
+    @Test
+    void reload_ofAShowWhoseRowsAreGone_opensItAgainOnTheNextClaim() {
+        // Given
+        seatInventory.tryClaim(this.unopenedShowId, 2);
+
+        // When
+        seatInventory.reload(this.unopenedShowId);
+        boolean claimedAfterReload = seatInventory.tryClaim(this.unopenedShowId, 2);
+
+        // Then
+        Assertions.assertTrue(claimedAfterReload);
+        verify(showSeatRepository, times(2)).openShow(this.unopenedShowId);
+    }
+
+    @Test
+    void restore_registersTheShowAsOpen() {
+        // Given
+        ShowInventory restored = new ShowInventory(this.unopenedShowId, Arrays.asList(
+                new ShowSeat(this.unopenedShowId, 1, VenueArea.FLOOR, true),
+                new ShowSeat(this.unopenedShowId, 2, VenueArea.FLOOR, false)
+        ));
+
+        // When
+        seatInventory.restore(restored);
+        boolean claimed = seatInventory.tryClaim(this.unopenedShowId, 2);
+
+        // Then
+        Assertions.assertTrue(claimed);
+        Assertions.assertEquals(Collections.singleton(this.unopenedShowId), seatInventory.getOpenShowIds());
+        verify(showSeatRepository, never()).openShow(this.unopenedShowId);
+        verify(seatRepository, never()).findByEnabledTrue();
+    }
+
+    @Test
+    void evictIdleShows_dropsIdleShowsButKeepsShowsWithHolds() {
+        // Given
+        seatHoldService.createHold(new SeatHoldRequestDTO(this.showId, 1L, Collections.singletonList(1), 30));
+        seatInventory.getAvailableCount(this.unopenedShowId);
+        long later = System.currentTimeMillis() + Duration.ofMinutes(61).toMillis();
+
+        // When
+        int evicted = seatInventory.evictIdleShows(later);
+
+        // Then
+        Assertions.assertEquals(1, evicted);
+        Assertions.assertFalse(seatInventory.isAvailable(this.showId, 1));
+        verify(showSeatRepository, times(1)).findEnabledByShowId(this.showId);
+        seatInventory.getAvailableCount(this.unopenedShowId);
+        verify(seatRepository, times(2)).findByEnabledTrue();
+    }
+
+    @Test
+    void releaseAfterCommit_givesTheSeatBackOnlyOnceTheTransactionCommits() {
+        // Given
+        seatInventory.tryClaim(this.showId, 1);
+        seatInventory.tryClaim(this.showId, 2);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            seatInventory.releaseAfterCommit(this.showId, 1);
+            boolean availableBeforeCommit = seatInventory.isAvailable(this.showId, 1);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.initSynchronization();
+            seatInventory.releaseAfterCommit(this.showId, 2);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Then
+            Assertions.assertFalse(availableBeforeCommit);
+            Assertions.assertTrue(seatInventory.isAvailable(this.showId, 1));
+            Assertions.assertFalse(seatInventory.isAvailable(this.showId, 2));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private VenueAreaCount areaCount(VenueArea venueArea, Long count) {
+        return new VenueAreaCount() {
+            @Override
+            public VenueArea getVenueArea() {
+                return venueArea;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+}
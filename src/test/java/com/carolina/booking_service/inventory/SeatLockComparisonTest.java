@@ -0,0 +1,140 @@
+package com.carolina.booking_service.inventory;
+
+import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.repository.SeatRepository;
+import com.carolina.booking_service.repository.ShowSeatRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs the same per seat critical section under the striped locks, one global monitor and database row locks,
+ * checking that each keeps seats consistent and logging how many operations per second each sustains
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class SeatLockComparisonTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatLockComparisonTest.class);
+
+    private static final int THREADS = 8;
+    private static final int SEATS = 64;
+    private static final int IN_MEMORY_OPERATIONS = 20_000;
+    private static final int DATABASE_OPERATIONS = 200;
+
+    @Autowired
+    private SeatLockManager seatLockManager;
+    @Autowired
+    private SeatRepository seatRepository;
+    @Autowired
+    private ShowSeatRepository showSeatRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Long showId = 9003L;
+    private final Object globalMonitor = new Object();
+    private List<Integer> seatIds;
+    private long[] changesBySeat;
+
+    @BeforeEach
+    void setUp() {
+        this.seatIds = new ArrayList<>();
+        for (int i = 0; i < SEATS; i++) {
+            this.seatIds.add(seatRepository.save(new Seat(VenueArea.FLOOR)).getId());
+        }
+        showSeatRepository.openShow(this.showId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        showSeatRepository.deleteAll();
+        seatRepository.deleteAll();
+    }
+
+    @Test
+    void compare_stripedLocksAgainstSynchronizedAndRowLocks() throws Exception {
+        long striped = run("striped locks", IN_MEMORY_OPERATIONS, seatId -> {
+            try (SeatLockManager.SeatLocks ignored = seatLockManager.lock(this.showId, seatId)) {
+                changeSeat(seatId);
+            }
+        });
+        long global = run("synchronized", IN_MEMORY_OPERATIONS, seatId -> {
+            synchronized (this.globalMonitor) {
+                changeSeat(seatId);
+            }
+        });
+        long rowLocks = run("database row locks", DATABASE_OPERATIONS, seatId -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("select booked from show_seat where show_id = ? and seat_id = ? for update",
+                    Boolean.class, this.showId, seatId);
+            changeSeat(seatId);
+        }));
+
+        Assertions.assertTrue(striped > 0 && global > 0 && rowLocks > 0);
+    }
+
+    private long run(String strategy, int operationsPerThread, SeatOperation operation) throws Exception {
+        this.changesBySeat = new long[SEATS];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                start.await();
+                for (int i = 0; i < operationsPerThread; i++) {
+                    operation.apply(this.seatIds.get(random.nextInt(SEATS)));
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        // Every change of a seat happened under its lock, so none were lost
+        long changes = 0;
+        for (long seatChanges : this.changesBySeat) {
+            changes += seatChanges;
+        }
+        Assertions.assertEquals((long) THREADS * operationsPerThread, changes);
+
+        long opsPerSecond = (long) THREADS * operationsPerThread * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos);
+        logger.info("{}: {} seat changes/s", strategy, opsPerSecond);
+        return opsPerSecond;
+    }
+
+    private void changeSeat(int seatId) {
+        int index = this.seatIds.indexOf(seatId);
+        // A read-modify-write that loses updates unless callers on the same seat are serialized
+        long current = this.changesBySeat[index];
+        for (int spin = 0; spin < 200; spin++) {
+            current += spin % 2 == 0 ? 1 : -1;
+        }
+        this.changesBySeat[index] = current + 1;
+    }
+
+    private interface SeatOperation {
+        void apply(int seatId) throws Exception;
+    }
+}
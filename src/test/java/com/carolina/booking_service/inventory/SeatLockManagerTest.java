@@ -0,0 +1,123 @@
+package com.carolina.booking_service.inventory;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+class SeatLockManagerTest {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 20_000;
+
+    private final Long showId = 1L;
+
+    @Test
+    void constructor_rejectsStripeCountsThatAreNotPowersOfTwo() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SeatLockManager(1000));
+    }
+
+    @Test
+    void stripeOf_spreadsSequentialSeatsOverTheStripes() {
+        // Given
+        SeatLockManager seatLockManager = new SeatLockManager(64);
+        Set<Integer> stripes = new HashSet<>();
+
+        // When
+        for (int seatId = 1; seatId <= 256; seatId++) {
+            stripes.add(seatLockManager.stripeOf(this.showId, seatId));
+        }
+
+        // Then
+        Assertions.assertTrue(stripes.size() > 48, "only " + stripes.size() + " stripes used");
+    }
+
+    @Test
+    void lock_whenSeatsShareAStripe_locksItOnce() {
+        // Given
+        SeatLockManager seatLockManager = new SeatLockManager(1);
+
+        // When
+        try (SeatLockManager.SeatLocks ignored = seatLockManager.lock(this.showId, 1, 2, null)) {
+            // Then
+            Assertions.assertEquals(1, seatLockManager.getStripeStats(0).getAcquisitions());
+        }
+    }
+
+    @Test
+    void lock_whenCallersLockTheSameSeatsInOppositeOrder_neverDeadlocks() throws Exception {
+        // Given
+        SeatLockManager seatLockManager = new SeatLockManager(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long[] balance = new long[2];
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When: half of the callers move a seat from 1 to 2 and the other half from 2 to 1
+        for (int t = 0; t < THREADS; t++) {
+            final boolean forward = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    try (SeatLockManager.SeatLocks ignored = forward
+                            ? seatLockManager.lock(this.showId, 1, 2)
+                            : seatLockManager.lock(this.showId, 2, 1)) {
+                        balance[forward ? 0 : 1]--;
+                        balance[forward ? 1 : 0]++;
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        Assertions.assertEquals(0, balance[0] + balance[1]);
+        Assertions.assertEquals(0, balance[0]);
+    }
+
+    @Test
+    void getHottestStripes_reportsContendedStripesFirst() throws Exception {
+        // Given
+        SeatLockManager seatLockManager = new SeatLockManager(1024);
+        int hotStripe = seatLockManager.stripeOf(this.showId, 7);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch waiting = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        seatLockManager.lock(this.showId, 8).close();
+
+        // When
+        Future<?> holder = executor.submit(() -> {
+            try (SeatLockManager.SeatLocks ignored = seatLockManager.lock(this.showId, 7)) {
+                held.countDown();
+                waiting.await();
+                Thread.sleep(50);
+            }
+            return null;
+        });
+        held.await();
+        waiting.countDown();
+        seatLockManager.lock(this.showId, 7).close();
+        holder.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Then
+        SeatLockManager.StripeStats hottest = seatLockManager.getHottestStripes(10).get(0);
+        Assertions.assertEquals(hotStripe, hottest.getStripe());
+        Assertions.assertEquals(2, hottest.getAcquisitions());
+        Assertions.assertEquals(1, hottest.getContended());
+        Assertions.assertTrue(hottest.getWaitNanos() > 0);
+        Assertions.assertEquals(2, seatLockManager.getHottestStripes(10).size());
+    }
+
+    @Test
+    void lockUntilTransactionEnds_outsideATransaction_throwsIllegalStateException() {
+        SeatLockManager seatLockManager = new SeatLockManager(16);
+        Assertions.assertThrows(IllegalStateException.class, () -> seatLockManager.lockUntilTransactionEnds(this.showId, 1));
+    }
+}
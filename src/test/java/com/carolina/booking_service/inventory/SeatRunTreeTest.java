@@ -0,0 +1,86 @@
+package com.carolina.booking_service.inventory;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class SeatRunTreeTest {
+
+    @Test
+    void findRun_returnsLeftmostRunOfTheRequestedLength() {
+        // Given: free slots 1-2 and 4-7
+        SeatRunTree tree = new SeatRunTree(10);
+        for (int slot : new int[]{1, 2, 4, 5, 6, 7}) {
+            tree.set(slot, true);
+        }
+
+        // When / Then
+        Assertions.assertEquals(1, tree.findRun(1));
+        Assertions.assertEquals(1, tree.findRun(2));
+        Assertions.assertEquals(4, tree.findRun(3));
+        Assertions.assertEquals(4, tree.findRun(4));
+        Assertions.assertEquals(-1, tree.findRun(5));
+        Assertions.assertEquals(4, tree.longestRun());
+    }
+
+    @Test
+    void findRun_findsRunsThatCrossTheMiddleOfTheTree() {
+        // Given
+        SeatRunTree tree = new SeatRunTree(8);
+        for (int slot = 2; slot < 7; slot++) {
+            tree.set(slot, true);
+        }
+
+        // When / Then
+        Assertions.assertEquals(2, tree.findRun(5));
+    }
+
+    @Test
+    void set_takingASlotSplitsTheRun() {
+        // Given
+        SeatRunTree tree = new SeatRunTree(6);
+        for (int slot = 0; slot < 6; slot++) {
+            tree.set(slot, true);
+        }
+
+        // When
+        tree.set(3, false);
+
+        // Then
+        Assertions.assertEquals(3, tree.longestRun());
+        Assertions.assertEquals(-1, tree.findRun(4));
+        Assertions.assertEquals(0, tree.findRun(3));
+    }
+
+    @Test
+    void findRun_matchesALinearScanOnRandomLayouts() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            // Given
+            int size = 1 + random.nextInt(300);
+            boolean[] free = new boolean[size];
+            SeatRunTree tree = new SeatRunTree(size);
+            for (int slot = 0; slot < size; slot++) {
+                free[slot] = random.nextInt(4) != 0;
+                tree.set(slot, free[slot]);
+            }
+
+            // When / Then
+            for (int length = 1; length <= 12; length++) {
+                Assertions.assertEquals(scan(free, length), tree.findRun(length));
+            }
+        }
+    }
+
+    private static int scan(boolean[] free, int length) {
+        int run = 0;
+        for (int slot = 0; slot < free.length; slot++) {
+            run = free[slot] ? run + 1 : 0;
+            if (run == length) {
+                return slot - length + 1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,294 @@
+package com.carolina.booking_service.inventory;
+
+import com.carolina.booking_service.model.SeatMapChangesDTO;
+import com.carolina.booking_service.model.SeatMapDTO;
+import com.carolina.booking_service.model.ShowSeat;
+import com.carolina.booking_service.model.VenueArea;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ShowInventoryTest {
+
+    private final Long showId = 1L;
+    private ShowInventory showInventory;
+
+    @BeforeEach
+    void setUp() {
+        // Seat 4 is disabled, so it has no row for the show
+        this.showInventory = new ShowInventory(this.showId, Arrays.asList(
+                new ShowSeat(this.showId, 1, VenueArea.LEVEL_1, false),
+                new ShowSeat(this.showId, 2, VenueArea.FLOOR, false),
+                new ShowSeat(this.showId, 3, VenueArea.FLOOR, true),
+                new ShowSeat(this.showId, 5, VenueArea.LEVEL_2, false)
+        ));
+    }
+
+    @Test
+    void isAvailable_returnsTrueOnlyForEnabledSeatsNotBookedForTheShow() {
+        Assertions.assertTrue(showInventory.isAvailable(1));
+        Assertions.assertTrue(showInventory.isAvailable(2));
+        Assertions.assertFalse(showInventory.isAvailable(3));
+        Assertions.assertFalse(showInventory.isAvailable(4));
+        Assertions.assertFalse(showInventory.isAvailable(99));
+    }
+
+    @Test
+    void getAvailableCount_returnsCountPerVenueArea() {
+        Assertions.assertEquals(3, showInventory.getAvailableCount());
+        Assertions.assertEquals(1, showInventory.getAvailableCount(VenueArea.FLOOR));
+        Assertions.assertEquals(1, showInventory.getAvailableCount(VenueArea.LEVEL_1));
+        Assertions.assertEquals(1, showInventory.getAvailableCount(VenueArea.LEVEL_2));
+    }
+
+    @Test
+    void getAvailableSeatIds_ofAVenueArea_returnsOnlyThatAreasAvailableSeats() {
+        Assertions.assertIterableEquals(Arrays.asList(2), showInventory.getAvailableSeatIds(VenueArea.FLOOR));
+        Assertions.assertIterableEquals(Arrays.asList(1), showInventory.getAvailableSeatIds(VenueArea.LEVEL_1));
+    }
+
+    @Test
+    void getSeatMap_afterAClaim_hasANewVersionAndTheSeatCleared() {
+        // Given
+        SeatMapDTO before = showInventory.getSeatMap();
+
+        // When
+        showInventory.tryClaim(2);
+        SeatMapDTO after = showInventory.getSeatMap();
+
+        // Then
+        Assertions.assertEquals(before.getVersion() + 1, after.getVersion());
+        Assertions.assertEquals(after.getVersion(), showInventory.getSeatMapVersion());
+        Assertions.assertEquals(BitSet.valueOf(new long[]{0b100110}), BitSet.valueOf(before.getSeats()));
+        Assertions.assertEquals(BitSet.valueOf(new long[]{0b100010}), BitSet.valueOf(after.getSeats()));
+    }
+
+    @Test
+    void getSeatMapChanges_returnsTheLastStateOfEachSeatChangedSinceTheVersion() {
+        // Given
+        long version = showInventory.getSeatMapVersion();
+        showInventory.tryClaim(1);
+        showInventory.tryClaim(2);
+        showInventory.release(1);
+
+        // When
+        SeatMapChangesDTO changes = showInventory.getSeatMapChanges(version);
+
+        // Then
+        Assertions.assertEquals(version + 3, changes.getVersion());
+        Assertions.assertIterableEquals(Arrays.asList(1), changes.getAvailableSeatIds());
+        Assertions.assertIterableEquals(Arrays.asList(2), changes.getUnavailableSeatIds());
+        Assertions.assertTrue(showInventory.getSeatMapChanges(changes.getVersion()).getAvailableSeatIds().isEmpty());
+    }
+
+    @Test
+    void tryClaim_updatesAvailableCountOfTheSeatsArea() {
+        // When
+        boolean claimed = showInventory.tryClaim(2);
+
+        // Then
+        Assertions.assertTrue(claimed);
+        Assertions.assertEquals(0, showInventory.getAvailableCount(VenueArea.FLOOR));
+        Assertions.assertEquals(2, showInventory.getAvailableCount());
+        Assertions.assertIterableEquals(Arrays.asList(1, 5), showInventory.getAvailableSeatIds());
+    }
+
+    @Test
+    void release_whenSeatIsBooked_makesItAvailableAgain() {
+        // When
+        boolean released = showInventory.release(3);
+
+        // Then
+        Assertions.assertTrue(released);
+        Assertions.assertTrue(showInventory.isAvailable(3));
+        Assertions.assertEquals(2, showInventory.getAvailableCount(VenueArea.FLOOR));
+    }
+
+    @Test
+    void release_whenSeatIsDisabled_keepsItUnavailable() {
+        // When
+        boolean released = showInventory.release(4);
+
+        // Then
+        Assertions.assertFalse(released);
+        Assertions.assertFalse(showInventory.isAvailable(4));
+        Assertions.assertEquals(3, showInventory.getAvailableCount());
+    }
+
+    @Test
+    void claimAdjacent_claimsFrontRowRunWithinOneRow() {
+        // Given: row 1 has seats 10-12 with 11 booked, row 2 has seats 20-22 free
+        ShowInventory inventory = new ShowInventory(this.showId, Arrays.asList(
+                new ShowSeat(this.showId, 10, VenueArea.LEVEL_1, false, 1, 1),
+                new ShowSeat(this.showId, 11, VenueArea.LEVEL_1, true, 1, 2),
+                new ShowSeat(this.showId, 12, VenueArea.LEVEL_1, false, 1, 3),
+                new ShowSeat(this.showId, 20, VenueArea.LEVEL_1, false, 2, 1),
+                new ShowSeat(this.showId, 21, VenueArea.LEVEL_1, false, 2, 2),
+                new ShowSeat(this.showId, 22, VenueArea.LEVEL_1, false, 2, 3)
+        ));
+
+        // When
+        List<Integer> pair = inventory.claimAdjacent(VenueArea.LEVEL_1, 2);
+        List<Integer> single = inventory.claimAdjacent(VenueArea.LEVEL_1, 1);
+
+        // Then
+        Assertions.assertIterableEquals(Arrays.asList(20, 21), pair);
+        Assertions.assertIterableEquals(Collections.singletonList(10), single);
+        Assertions.assertEquals(2, inventory.getAvailableCount(VenueArea.LEVEL_1));
+    }
+
+    @Test
+    void claimAdjacent_neverSpansRowsOrGapsInTheNumbering() {
+        // Given: seat 2 is the end of row 1, seat 3 the start of row 2, seats 3 and 4 have a gap between them
+        ShowInventory inventory = new ShowInventory(this.showId, Arrays.asList(
+                new ShowSeat(this.showId, 1, VenueArea.FLOOR, false, 1, 1),
+                new ShowSeat(this.showId, 2, VenueArea.FLOOR, false, 1, 2),
+                new ShowSeat(this.showId, 3, VenueArea.FLOOR, false, 2, 1),
+                new ShowSeat(this.showId, 4, VenueArea.FLOOR, false, 2, 3)
+        ));
+
+        // When / Then
+        Assertions.assertTrue(inventory.claimAdjacent(VenueArea.FLOOR, 3).isEmpty());
+        Assertions.assertEquals(2, inventory.getLongestAdjacentRun(VenueArea.FLOOR));
+    }
+
+    @Test
+    void claimAdjacent_seesSeatsClaimedAndReleasedById() {
+        // Given
+        ShowInventory inventory = new ShowInventory(this.showId, Arrays.asList(
+                new ShowSeat(this.showId, 1, VenueArea.FLOOR, false, 1, 1),
+                new ShowSeat(this.showId, 2, VenueArea.FLOOR, false, 1, 2),
+                new ShowSeat(this.showId, 3, VenueArea.FLOOR, false, 1, 3)
+        ));
+
+        // When
+        inventory.tryClaim(2);
+        List<Integer> whileClaimed = inventory.claimAdjacent(VenueArea.FLOOR, 2);
+        inventory.release(2);
+        List<Integer> afterRelease = inventory.claimAdjacent(VenueArea.FLOOR, 3);
+
+        // Then
+        Assertions.assertTrue(whileClaimed.isEmpty());
+        Assertions.assertIterableEquals(Arrays.asList(1, 2, 3), afterRelease);
+    }
+
+    @Test
+    void claimAdjacent_whenManyThreadsCompete_neverHandsOutTheSameSeatTwice() throws Exception {
+        // Given: 50 rows of 20 seats
+        List<ShowSeat> showSeats = new ArrayList<>();
+        for (int row = 0; row < 50; row++) {
+            for (int number = 1; number <= 20; number++) {
+                showSeats.add(new ShowSeat(this.showId, row * 20 + number, VenueArea.LEVEL_2, false, row, number));
+            }
+        }
+        ShowInventory inventory = new ShowInventory(this.showId, showSeats);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<Integer> handedOut = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When: groups of 4 and single seats claimed by id race for the same area
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    List<Integer> seatIds = Collections.emptyList();
+                    int seatId = 1 + (thread * 131 + i * 7) % 1000;
+                    if (thread % 2 == 0) {
+                        seatIds = inventory.claimAdjacent(VenueArea.LEVEL_2, 4);
+                    } else if (inventory.tryClaim(seatId)) {
+                        seatIds = Collections.singletonList(seatId);
+                    }
+                    for (Integer handedOutId : seatIds) {
+                        if (!handedOut.add(handedOutId)) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        Assertions.assertEquals(0, duplicates.get());
+        Assertions.assertEquals(1000 - handedOut.size(), inventory.getAvailableCount(VenueArea.LEVEL_2));
+    }
+
+    @Test
+    void tryClaimAndRelease_whileAdjacentSearchesAndSeatMapReadsRun_neverBlockOnALock() throws Exception {
+        // Given: 50 rows of 20 seats
+        List<ShowSeat> showSeats = new ArrayList<>();
+        for (int row = 0; row < 50; row++) {
+            for (int number = 1; number <= 20; number++) {
+                showSeats.add(new ShowSeat(this.showId, row * 20 + number, VenueArea.FLOOR, false, row, number));
+            }
+        }
+        ShowInventory inventory = new ShowInventory(this.showId, showSeats);
+        long firstVersion = inventory.getSeatMapVersion();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger claimersRunning = new AtomicInteger(4);
+        AtomicInteger timesBlocked = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When: 4 threads claim and release seats by id while others search for runs and read the seat map
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                long blockedBefore = threads.getThreadInfo(Thread.currentThread().getId()).getBlockedCount();
+                for (int i = 0; i < 20_000; i++) {
+                    int seatId = 1 + thread * 250 + i % 250;
+                    if (inventory.tryClaim(seatId)) {
+                        inventory.release(seatId);
+                    }
+                }
+                timesBlocked.addAndGet((int) (threads.getThreadInfo(Thread.currentThread().getId()).getBlockedCount() - blockedBefore));
+                claimersRunning.decrementAndGet();
+                return null;
+            }));
+        }
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                while (claimersRunning.get() > 0) {
+                    if (thread % 2 == 0) {
+                        inventory.claimAdjacent(VenueArea.FLOOR, 4).forEach(inventory::release);
+                    } else {
+                        inventory.getLongestAdjacentRun(VenueArea.FLOOR);
+                        inventory.getSeatMapChanges(inventory.getSeatMapVersion() - 100);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then: no claim or release waited for a monitor, and the tree caught up with every seat given back
+        Assertions.assertEquals(0, timesBlocked.get());
+        Assertions.assertEquals(1000, inventory.getAvailableCount(VenueArea.FLOOR));
+        Assertions.assertEquals(20, inventory.getLongestAdjacentRun(VenueArea.FLOOR));
+        Assertions.assertTrue(inventory.getSeatMapVersion() > firstVersion);
+    }
+}
@@ -0,0 +1,421 @@
+package com.carolina.booking_service.ledger;
+
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.model.BookingLedgerEntry;
+import com.carolina.booking_service.repository.BookingRepository;
+import com.carolina.booking_service.repository.ShowSeatRepository;
+import com.carolina.booking_service.seatstream.SeatChangeStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class BookingLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    private BookingRepository bookingRepository;
+    private ShowSeatRepository showSeatRepository;
+    private TransactionTemplate transactionTemplate;
+    private SeatInventory seatInventory;
+    private SeatChangeStream seatChangeStream;
+    private List<BookingLedgerEntry> written;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        this.written = new ArrayList<>();
+        this.bookingRepository = mock(BookingRepository.class);
+        when(this.bookingRepository.insertLedgerEntries(anyList())).thenAnswer(invocation -> {
+            List<BookingLedgerEntry> entries = invocation.getArgument(0);
+            this.written.addAll(entries);
+            return Collections.emptyList();
+        });
+        this.showSeatRepository = mock(ShowSeatRepository.class);
+        this.transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        this.seatInventory = mock(SeatInventory.class);
+        this.seatChangeStream = mock(SeatChangeStream.class);
+    }
+
+    private BookingLedger openLedger(int batchSize) throws IOException {
+        return openLedger(batchSize, 3);
+    }
+
+    private BookingLedger openLedger(int batchSize, int maxAttempts) throws IOException {
+        BookingLedger ledger = new BookingLedger(this.bookingRepository, this.showSeatRepository, this.transactionTemplate,
+                this.seatInventory, this.seatChangeStream, true, this.directory.resolve("booking-ledger.wal").toString(), batchSize,
+                Long.MAX_VALUE, maxAttempts);
+        ledger.open();
+        return ledger;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rejectSeat(Integer rejectedSeatId) {
+        when(this.bookingRepository.insertLedgerEntries(anyList())).thenAnswer(invocation -> {
+            List<BookingLedgerEntry> entries = invocation.getArgument(0);
+            if (seatIds(entries).contains(rejectedSeatId)) {
+                throw new DataIntegrityViolationException("Cannot add or update a child row");
+            }
+            this.written.addAll(entries);
+            return Collections.emptyList();
+        });
+    }
+
+    @Test
+    void flush_writesAppendedEntriesInBatchesAndInOrder() throws IOException {
+        // Given
+        BookingLedger ledger = openLedger(2);
+        for (int seatId = 1; seatId <= 5; seatId++) {
+            ledger.append(1L, seatId, 7L);
+        }
+
+        // When
+        int flushed = ledger.flush();
+
+        // Then
+        Assertions.assertEquals(5, flushed);
+        Assertions.assertEquals(0, ledger.getPendingCount());
+        Assertions.assertEquals(Arrays.asList(1, 2, 3, 4, 5), seatIds(this.written));
+        verify(this.bookingRepository, times(3)).insertLedgerEntries(anyList());
+    }
+
+    @Test
+    void flush_createsTheRowsOfEachShowOnceBeforeWritingIt() throws IOException {
+        // Given
+        BookingLedger ledger = openLedger(2);
+        ledger.append(1L, 1, 7L);
+        ledger.append(2L, 1, 7L);
+        ledger.append(1L, 2, 7L);
+
+        // When
+        ledger.flush();
+        ledger.append(1L, 3, 7L);
+        ledger.flush();
+
+        // Then
+        InOrder inOrder = inOrder(this.showSeatRepository, this.bookingRepository);
+        inOrder.verify(this.showSeatRepository).openShow(1L);
+        inOrder.verify(this.showSeatRepository).openShow(2L);
+        inOrder.verify(this.bookingRepository, atLeastOnce()).insertLedgerEntries(anyList());
+        verify(this.showSeatRepository, times(1)).openShow(1L);
+        verify(this.showSeatRepository, times(1)).openShow(2L);
+    }
+
+    @Test
+    void open_writesEntriesThatWerentFlushedBeforeARestart() throws IOException {
+        // Given
+        BookingLedger ledger = openLedger(500);
+        ledger.append(1L, 1, 7L);
+        ledger.flush();
+        ledger.append(1L, 2, 7L);
+        ledger.append(1L, 3, 7L);
+        this.written.clear();
+
+        // When the application stops without flushing and starts again
+        BookingLedger restarted = openLedger(500);
+
+        // Then only the entries after the checkpoint are written, and sequences continue after them
+        Assertions.assertEquals(Arrays.asList(2, 3), seatIds(this.written));
+        Assertions.assertEquals(4, restarted.append(1L, 4, 7L).getSequence());
+    }
+
+    @Test
+    void open_dropsATornRecordAtTheEndOfTheLog() throws IOException {
+        // Given
+        BookingLedger ledger = openLedger(500);
+        ledger.append(1L, 1, 7L);
+        ledger.append(1L, 2, 7L);
+        Path logPath = this.directory.resolve("booking-ledger.wal");
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        // When
+        BookingLedger restarted = openLedger(500);
+        restarted.append(1L, 3, 7L);
+        restarted.flush();
+
+        // Then
+        Assertions.assertEquals(Arrays.asList(1, 3), seatIds(this.written));
+    }
+
+    @Test
+    void flush_whenTheDatabaseFails_keepsEntriesForTheNextRun() throws IOException {
+        // Given
+        BookingLedger ledger = openLedger(500, 1);
+        ledger.append(1L, 1, 7L);
+        doThrow(IllegalStateException.class).when(this.bookingRepository).insertLedgerEntries(anyList());
+
+        // When
+        int flushed = ledger.flush();
+        ledger.flush();
+
+        // Then
+        Assertions.assertEquals(0, flushed);
+        Assertions.assertEquals(1, ledger.getPendingCount());
+        Assertions.assertEquals(0, ledger.getDeadLetteredCount());
+    }
+
+    @Test
+    void flush_whenTheDatabaseRejectsOneEntry_writesTheOthersAndDeadLettersIt() throws IOException {
+        // Given
+        BookingLedger ledger = openLedger(500, 1);
+        ledger.append(1L, 1, 7L);
+        ledger.append(1L, 2, 7L);
+        ledger.append(1L, 3, 7L);
+        rejectSeat(2);
+
+        // When
+        int flushed = ledger.flush();
+
+        // Then
+        Assertions.assertEquals(2, flushed);
+        Assertions.assertEquals(Arrays.asList(1, 3), seatIds(this.written));
+        Assertions.assertEquals(0, ledger.getPendingCount());
+        Assertions.assertEquals(1, ledger.getDeadLetteredCount());
+        List<String> deadLetters = Files.readAllLines(ledger.getDeadLetterPath());
+        Assertions.assertEquals(1, deadLetters.size());
+        Assertions.assertTrue(deadLetters.get(0).startsWith("2,1,2,7,"));
+        verify(this.seatInventory, times(1)).release(1L, 2);
+        verify(this.seatChangeStream, times(1)).publish(1L, 2, false);
+    }
+
+    @Test
+    void flush_retriesARejectedEntryUntilMaxAttemptsBeforeDeadLetteringIt() throws IOException {
+        // Given
+        BookingLedger ledger = openLedger(500, 2);
+        ledger.append(1L, 1, 7L);
+        ledger.append(1L, 2, 7L);
+        ledger.append(1L, 3, 7L);
+        rejectSeat(2);
+
+        // When
+        int firstFlush = ledger.flush();
+        int pendingAfterFirstFlush = ledger.getPendingCount();
+        int secondFlush = ledger.flush();
+
+        // Then
+        Assertions.assertEquals(1, firstFlush);
+        Assertions.assertEquals(2, pendingAfterFirstFlush);
+        Assertions.assertEquals(1, secondFlush);
+        Assertions.assertEquals(Arrays.asList(1, 3), seatIds(this.written));
+        Assertions.assertEquals(1, ledger.getDeadLetteredCount());
+    }
+
+    @Test
+    void open_afterADeadLetter_doesNotWriteTheEntryAgain() throws IOException {
+        // Given
+        BookingLedger ledger = openLedger(500, 1);
+        ledger.append(1L, 1, 7L);
+        ledger.append(1L, 2, 7L);
+        rejectSeat(1);
+        ledger.flush();
+        this.written.clear();
+
+        // When
+        openLedger(500, 1);
+
+        // Then
+        Assertions.assertTrue(this.written.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_whenTheSeatHasAnotherBooking_deadLettersTheEntryAndKeepsTheSeatClaimed() throws IOException {
+        // Given
+        BookingLedger ledger = openLedger(500);
+        ledger.append(1L, 1, 7L);
+        BookingLedgerEntry conflicting = ledger.append(1L, 2, 7L);
+        when(this.bookingRepository.insertLedgerEntries(anyList())).thenAnswer(invocation -> {
+            List<BookingLedgerEntry> entries = invocation.getArgument(0);
+            this.written.addAll(entries);
+            return Collections.singletonList(conflicting);
+        });
+
+        // When
+        ledger.flush();
+
+        // Then
+        Assertions.assertEquals(0, ledger.getPendingCount());
+        Assertions.assertEquals(1, ledger.getConflictCount());
+        List<String> deadLetters = Files.readAllLines(ledger.getDeadLetterPath());
+        Assertions.assertEquals(1, deadLetters.size());
+        Assertions.assertTrue(deadLetters.get(0).startsWith("2,1,2,7,"));
+        verify(this.seatInventory, never()).release(1L, 2);
+        verify(this.seatChangeStream, never()).publish(1L, 2, false);
+    }
+
+    @Test
+    void append_whenTheFsyncFails_cutsTheRecordAndNeverWritesIt() throws IOException {
+        // Given
+        Path logPath = this.directory.resolve("booking-ledger.wal");
+        boolean[] failSync = {false};
+        BookingLedger ledger = new BookingLedger(this.bookingRepository, this.showSeatRepository, this.transactionTemplate,
+                this.seatInventory, this.seatChangeStream, true, logPath.toString(), 500, Long.MAX_VALUE, 3) {
+            @Override
+            FileChannel openLog(Path path) throws IOException {
+                return new FailingSyncChannel(super.openLog(path), failSync);
+            }
+        };
+        ledger.open();
+        ledger.append(1L, 1, 7L);
+        failSync[0] = true;
+
+        // When
+        Assertions.assertThrows(RuntimeException.class, () -> ledger.append(1L, 2, 7L));
+        failSync[0] = false;
+        BookingLedgerEntry next = ledger.append(1L, 3, 7L);
+        ledger.flush();
+
+        // Then
+        Assertions.assertEquals(2, next.getSequence());
+        Assertions.assertEquals(Arrays.asList(1, 3), seatIds(this.written));
+        this.written.clear();
+        Files.deleteIfExists(this.directory.resolve("booking-ledger.wal.checkpoint"));
+        openLedger(500);
+        Assertions.assertEquals(Arrays.asList(1, 3), seatIds(this.written));
+    }
+
+    @Test
+    void append_whenDisabled_throwsIllegalStateException() {
+        // Given
+        BookingLedger ledger = new BookingLedger(this.bookingRepository, this.showSeatRepository, this.transactionTemplate,
+                this.seatInventory, this.seatChangeStream, false, this.directory.resolve("booking-ledger.wal").toString(), 500,
+                Long.MAX_VALUE, 3);
+
+        // Then
+        Assertions.assertThrows(IllegalStateException.class, () -> ledger.append(1L, 1, 7L));
+    }
+
+    private static List<Integer> seatIds(List<BookingLedgerEntry> entries) {
+        return entries.stream().map(BookingLedgerEntry::getSeatId).collect(Collectors.toList());
+    }
+
+    /**
+     * The log's file channel, with an fsync that fails while asked to
+     */
+    private static class FailingSyncChannel extends FileChannel {
+
+        private final FileChannel channel;
+        private final boolean[] failSync;
+
+        private FailingSyncChannel(FileChannel channel, boolean[] failSync) {
+            this.channel = channel;
+            this.failSync = failSync;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failSync[0]) {
+                throw new IOException("Input/output error");
+            }
+            channel.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+}
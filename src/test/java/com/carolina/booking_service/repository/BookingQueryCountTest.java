@@ -0,0 +1,159 @@
+package com.carolina.booking_service.repository;
+
+import com.carolina.booking_service.model.Booking;
+import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.Show;
+import com.carolina.booking_service.model.User;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.service.MappingService;
+import com.carolina.booking_service.show.ShowClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the list endpoints and the entity reads once with a single booking and once with many bookings of many
+ * users and seats, and checks they run the same number of SQL statements
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.carolina.booking_service.repository.SqlStatementCounter")
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class BookingQueryCountTest {
+
+    private static final Long SHOW_ID = 9003L;
+    private static final int USERS = 5;
+    private static final int SEATS_PER_USER = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private SeatRepository seatRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MappingService mappingService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @MockBean
+    private ShowClient showClient;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Integer> seatIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(showClient.getShow(any(Long.class))).thenReturn(CompletableFuture.completedFuture(Optional.of(new Show("Aladdin"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        seatRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private void book(int users, int seatsPerUser) {
+        for (int i = 0; i < users; i++) {
+            User user = userRepository.save(new User("Ana", "Almeida", "count" + this.users.size() + "@test.com", "testPassword"));
+            List<Integer> userSeatIds = new ArrayList<>();
+            for (int j = 0; j < seatsPerUser; j++) {
+                userSeatIds.add(seatRepository.save(new Seat(VenueArea.values()[j % VenueArea.values().length])).getId());
+            }
+            bookingRepository.insertAll(SHOW_ID, user.getId(), userSeatIds);
+            this.users.add(user);
+            this.seatIds.addAll(userSeatIds);
+        }
+    }
+
+    private int countStatements(Runnable work) {
+        SqlStatementCounter.reset();
+        work.run();
+        return SqlStatementCounter.count();
+    }
+
+    private int countMapped(Supplier<List<Booking>> read) {
+        return countStatements(() -> transactionTemplate.executeWithoutResult(status -> {
+            List<BookingResponseDTO> responses = mappingService.mapToResponseDTOs(read.get());
+            responses.forEach(response -> Assertions.assertNotNull(response.getUserEmail()));
+        }));
+    }
+
+    private int countRequest(String url) {
+        return countStatements(() -> {
+            try {
+                mockMvc.perform(MockMvcRequestBuilders.get(url)).andExpect(status().isOk());
+            } catch (Exception exception) {
+                throw new AssertionError(exception);
+            }
+        });
+    }
+
+    private int[] countListEndpoints() {
+        Long userId = this.users.get(0).getId();
+        return new int[]{
+                countRequest("/api/v1/bookings/?pageSize=500"),
+                countRequest("/api/v1/bookings/?showId=" + SHOW_ID + "&pageSize=500"),
+                countRequest("/api/v1/users/" + userId + "/bookings")
+        };
+    }
+
+    private int[] countEntityReads() {
+        Long userId = this.users.get(0).getId();
+        return new int[]{
+                countMapped(bookingRepository::findAll),
+                countMapped(() -> bookingRepository.findByUserId(userId)),
+                countMapped(() -> bookingRepository.findByShowIdAndSeatIds(SHOW_ID, this.seatIds))
+        };
+    }
+
+    @Test
+    void listEndpoints_runTheSameNumberOfStatementsWhateverTheNumberOfBookings() {
+        // Given
+        book(1, 1);
+        int[] withOneBooking = countListEndpoints();
+
+        // When
+        book(USERS, SEATS_PER_USER);
+        int[] withManyBookings = countListEndpoints();
+
+        // Then
+        Assertions.assertArrayEquals(withOneBooking, withManyBookings);
+    }
+
+    @Test
+    void entityReads_loadUsersAndSeatsInTheSameStatement() {
+        // Given
+        book(1, 1);
+        int[] withOneBooking = countEntityReads();
+
+        // When
+        book(USERS, SEATS_PER_USER);
+        int[] withManyBookings = countEntityReads();
+
+        // Then
+        Assertions.assertArrayEquals(new int[]{1, 1, 1}, withOneBooking);
+        Assertions.assertArrayEquals(withOneBooking, withManyBookings);
+    }
+}
@@ -0,0 +1,223 @@
+package com.carolina.booking_service.repository;
+
+import com.carolina.booking_service.model.Booking;
+import com.carolina.booking_service.model.BookingCursor;
+import com.carolina.booking_service.model.BookingFilter;
+import com.carolina.booking_service.model.BookingLedgerEntry;
+import com.carolina.booking_service.model.BookingRow;
+import com.carolina.booking_service.model.BookingTimestamps;
+import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.User;
+import com.carolina.booking_service.model.VenueArea;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingRepositoryTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private SeatRepository seatRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Long showId = 9002L;
+    private User user;
+    private List<Integer> seatIds;
+
+    @BeforeEach
+    void setUp() {
+        this.user = userRepository.save(new User("Ana", "Almeida", "batch@test.com", "testPassword"));
+        this.seatIds = Arrays.asList(
+                seatRepository.save(new Seat(VenueArea.FLOOR)).getId(),
+                seatRepository.save(new Seat(VenueArea.FLOOR)).getId(),
+                seatRepository.save(new Seat(VenueArea.LEVEL_1)).getId()
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        seatRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void insertAll_createsOneBookingPerSeat() {
+        // When
+        bookingRepository.insertAll(this.showId, this.user.getId(), this.seatIds);
+        List<Booking> bookings = bookingRepository.findByShowIdAndSeatIds(this.showId, this.seatIds);
+
+        // Then
+        Assertions.assertEquals(3, bookings.size());
+        for (Booking booking : bookings) {
+            Assertions.assertTrue(this.seatIds.contains(booking.getSeat().getId()));
+            Assertions.assertNotNull(booking.getCreatedAt());
+        }
+        Assertions.assertEquals(3, bookingRepository.findByUserId(this.user.getId()).size());
+    }
+
+    @Test
+    void insertAll_whenSeatIsAlreadyBookedForTheShow_throwsDataIntegrityViolationException() {
+        // Given
+        bookingRepository.insertAll(this.showId, this.user.getId(), this.seatIds.subList(0, 1));
+
+        // When / Then
+        Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> bookingRepository.insertAll(this.showId, this.user.getId(), this.seatIds));
+    }
+
+    @Test
+    void insertLedgerEntries_skipsEntriesThatWereAlreadyWritten() {
+        // Given
+        long now = System.currentTimeMillis();
+        List<BookingLedgerEntry> entries = Arrays.asList(
+                new BookingLedgerEntry(1, this.showId, this.seatIds.get(0), this.user.getId(), now),
+                new BookingLedgerEntry(2, this.showId, this.seatIds.get(1), this.user.getId(), now)
+        );
+
+        // When replaying entries that were written already
+        List<BookingLedgerEntry> firstRun = bookingRepository.insertLedgerEntries(entries);
+        List<BookingLedgerEntry> secondRun = bookingRepository.insertLedgerEntries(entries);
+
+        // Then
+        Assertions.assertTrue(firstRun.isEmpty());
+        Assertions.assertTrue(secondRun.isEmpty());
+        Assertions.assertEquals(2, bookingRepository.findByShowIdAndSeatIds(this.showId, this.seatIds).size());
+    }
+
+    @Test
+    void insertLedgerEntries_whenTheSeatHasAnotherBooking_returnsTheEntryAsAConflict() {
+        // Given
+        User otherUser = userRepository.save(new User("Rui", "Costa", "other@test.com", "testPassword"));
+        bookingRepository.insertAll(this.showId, otherUser.getId(), this.seatIds.subList(0, 1));
+        BookingLedgerEntry conflicting = new BookingLedgerEntry(1, this.showId, this.seatIds.get(0), this.user.getId(), System.currentTimeMillis());
+        BookingLedgerEntry free = new BookingLedgerEntry(2, this.showId, this.seatIds.get(1), this.user.getId(), System.currentTimeMillis());
+
+        // When
+        List<BookingLedgerEntry> conflicts = bookingRepository.insertLedgerEntries(Arrays.asList(conflicting, free));
+
+        // Then
+        Assertions.assertEquals(Arrays.asList(conflicting), conflicts);
+        List<Booking> bookings = bookingRepository.findByShowIdAndSeatIds(this.showId, this.seatIds);
+        Assertions.assertEquals(2, bookings.size());
+        Assertions.assertEquals(otherUser.getId(), bookings.stream()
+                .filter(booking -> booking.getSeat().getId().equals(this.seatIds.get(0)))
+                .findFirst().get().getUser().getId());
+    }
+
+    @Test
+    void findPage_walksTheBookingsNewestFirst() {
+        // Given bookings created at the same time, ordered by id
+        bookingRepository.insertAll(this.showId, this.user.getId(), this.seatIds);
+        BookingFilter showFilter = new BookingFilter(this.showId, null, null, null);
+
+        // When
+        List<BookingRow> firstPage = bookingRepository.findPage(showFilter, null, 2);
+        List<BookingRow> secondPage = bookingRepository.findPage(showFilter, BookingCursor.after(firstPage.get(1)), 2);
+
+        // Then
+        List<Long> ids = bookingRepository.findByShowIdAndSeatIds(this.showId, this.seatIds).stream()
+                .map(Booking::getId)
+                .sorted((first, second) -> Long.compare(second, first))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(ids.subList(0, 2), firstPage.stream().map(BookingRow::getId).collect(Collectors.toList()));
+        Assertions.assertEquals(ids.subList(2, 3), secondPage.stream().map(BookingRow::getId).collect(Collectors.toList()));
+        Assertions.assertEquals(this.user.getEmail(), secondPage.get(0).getUserEmail());
+    }
+
+    @Test
+    void findPage_appliesTheFilters() {
+        // Given
+        bookingRepository.insertAll(this.showId, this.user.getId(), this.seatIds);
+        LocalDateTime createdAt = bookingRepository.findByShowIdAndSeatIds(this.showId, this.seatIds).get(0).getCreatedAt();
+
+        // When
+        List<BookingRow> level1 = bookingRepository.findPage(new BookingFilter(this.showId, VenueArea.LEVEL_1, null, null), null, 10);
+        List<BookingRow> otherShow = bookingRepository.findPage(new BookingFilter(this.showId + 1, null, null, null), null, 10);
+        List<BookingRow> createdFrom = bookingRepository.findPage(new BookingFilter(this.showId, null, createdAt, null), null, 10);
+        List<BookingRow> createdBefore = bookingRepository.findPage(new BookingFilter(this.showId, null, null, createdAt), null, 10);
+
+        // Then
+        Assertions.assertEquals(1, level1.size());
+        Assertions.assertEquals(this.seatIds.get(2), level1.get(0).getSeatId());
+        Assertions.assertTrue(otherShow.isEmpty());
+        Assertions.assertEquals(3, createdFrom.size());
+        Assertions.assertTrue(createdBefore.isEmpty());
+    }
+
+    @Test
+    void streamAllRows_readsEveryBookingInIdOrder() {
+        // Given
+        bookingRepository.insertAll(this.showId, this.user.getId(), this.seatIds);
+
+        // When
+        List<Long> streamedIds = transactionTemplate.execute(status -> {
+            try (Stream<BookingRow> bookings = bookingRepository.streamAllRows()) {
+                return bookings.map(BookingRow::getId).collect(Collectors.toList());
+            }
+        });
+
+        // Then
+        List<Long> ids = bookingRepository.findByShowIdAndSeatIds(this.showId, this.seatIds).stream()
+                .map(Booking::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        Assertions.assertEquals(ids, streamedIds);
+    }
+
+    @Test
+    void findRowsByUserId_selectsTheResponseColumns() {
+        // Given
+        bookingRepository.insertAll(this.showId, this.user.getId(), this.seatIds.subList(2, 3));
+
+        // When
+        List<BookingRow> rows = bookingRepository.findRowsByUserId(this.user.getId());
+        BookingRow row = bookingRepository.findRowById(rows.get(0).getId()).orElseThrow(AssertionError::new);
+
+        // Then
+        Assertions.assertEquals(1, rows.size());
+        Assertions.assertEquals(this.showId, row.getShowId());
+        Assertions.assertEquals(this.user.getEmail(), row.getUserEmail());
+        Assertions.assertEquals(this.seatIds.get(2), row.getSeatId());
+        Assertions.assertEquals(VenueArea.LEVEL_1, row.getVenueArea());
+        Assertions.assertNotNull(row.getCreatedAt());
+    }
+
+    @Test
+    void findTimestampsByUserId_changesWhenABookingIsDeleted() {
+        // Given
+        bookingRepository.insertAll(this.showId, this.user.getId(), this.seatIds);
+        BookingTimestamps before = bookingRepository.findTimestampsByUserId(this.user.getId());
+        Long bookingId = bookingRepository.findRowsByUserId(this.user.getId()).get(0).getId();
+
+        // When
+        bookingRepository.deleteById(bookingId);
+        BookingTimestamps after = bookingRepository.findTimestampsByUserId(this.user.getId());
+
+        // Then
+        Assertions.assertEquals(3, before.getCount());
+        Assertions.assertNotNull(before.getBookingsUpdatedAt());
+        Assertions.assertNotNull(before.getUsersUpdatedAt());
+        Assertions.assertNotNull(before.getSeatsUpdatedAt());
+        Assertions.assertEquals(2, after.getCount());
+        Assertions.assertEquals(0, bookingRepository.findTimestampsById(bookingId).getCount());
+    }
+}
@@ -0,0 +1,165 @@
+package com.carolina.booking_service.repository;
+
+import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.model.VenueArea;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ShowSeatRepositoryTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+
+    @Autowired
+    private ShowSeatRepository showSeatRepository;
+    @Autowired
+    private SeatRepository seatRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Long showId = 9001L;
+    private Seat seat;
+    private Seat disabledSeat;
+
+    @BeforeEach
+    void setUp() {
+        this.seat = seatRepository.save(new Seat(VenueArea.FLOOR));
+        Seat disabled = new Seat(VenueArea.LEVEL_1);
+        disabled.setEnabled(false);
+        this.disabledSeat = seatRepository.save(disabled);
+        showSeatRepository.openShow(this.showId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        showSeatRepository.deleteAll();
+        seatRepository.deleteAll();
+    }
+
+    @Test
+    void claim_whenSeatIsFree_updatesOneRowOnlyOnce() {
+        Assertions.assertEquals(1, showSeatRepository.claim(this.showId, this.seat.getId()));
+        Assertions.assertEquals(0, showSeatRepository.claim(this.showId, this.seat.getId()));
+    }
+
+    @Test
+    void claim_whenSeatIsDisabled_updatesNothing() {
+        Assertions.assertEquals(0, showSeatRepository.claim(this.showId, this.disabledSeat.getId()));
+    }
+
+    @Test
+    void claimAll_skipsSeatsThatAreDisabledOrBooked() {
+        // Given
+        Seat otherSeat = seatRepository.save(new Seat(VenueArea.FLOOR));
+        showSeatRepository.openShow(this.showId);
+        showSeatRepository.claim(this.showId, this.seat.getId());
+
+        // When
+        int claimed = showSeatRepository.claimAll(this.showId,
+                Arrays.asList(this.seat.getId(), this.disabledSeat.getId(), otherSeat.getId()));
+
+        // Then
+        Assertions.assertEquals(1, claimed);
+    }
+
+    @Test
+    void openShow_insideATransactionThatRollsBack_keepsTheRows() {
+        // Given
+        Long otherShowId = 9006L;
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            showSeatRepository.openShow(otherShowId);
+            status.setRollbackOnly();
+        });
+
+        // Then
+        Assertions.assertTrue(showSeatRepository.existsByShowId(otherShowId));
+        Assertions.assertEquals(1, showSeatRepository.claim(otherShowId, this.seat.getId()));
+    }
+
+    @Test
+    void release_whenSeatIsNotBooked_updatesNothing() {
+        Assertions.assertEquals(0, showSeatRepository.release(this.showId, this.seat.getId()));
+        showSeatRepository.claim(this.showId, this.seat.getId());
+        Assertions.assertEquals(1, showSeatRepository.release(this.showId, this.seat.getId()));
+    }
+
+    @Test
+    void claim_whenManyThreadsHammerTheSameSeat_onlyOneWins() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger wins = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    wins.addAndGet(showSeatRepository.claim(this.showId, this.seat.getId()));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        Assertions.assertEquals(1, wins.get());
+    }
+
+    @Test
+    void claimAndRelease_whenManyThreadsCycleTheSameSeat_neverHaveTwoHolders() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger maxHolders = new AtomicInteger();
+        AtomicInteger wins = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    if (showSeatRepository.claim(this.showId, this.seat.getId()) == 1) {
+                        wins.incrementAndGet();
+                        maxHolders.accumulateAndGet(holders.incrementAndGet(), Math::max);
+                        holders.decrementAndGet();
+                        showSeatRepository.release(this.showId, this.seat.getId());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        Assertions.assertTrue(wins.get() > 0);
+        Assertions.assertEquals(1, maxHolders.get());
+    }
+}
@@ -0,0 +1,26 @@
+package com.carolina.booking_service.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. Registered as the statement inspector of the
+ * session factory, so a test can reset it before a request and read how many statements the request ran
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Integer> statements = ThreadLocal.withInitial(() -> 0);
+
+    public static void reset() {
+        statements.set(0);
+    }
+
+    public static int count() {
+        return statements.get();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        statements.set(statements.get() + 1);
+        return sql;
+    }
+}
@@ -0,0 +1,150 @@
+package com.carolina.booking_service.seatstream;
+
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.inventory.ShowInventory;
+import com.carolina.booking_service.model.SeatChangeBatchDTO;
+import com.carolina.booking_service.model.SeatMapDTO;
+import com.carolina.booking_service.model.ShowSeat;
+import com.carolina.booking_service.model.VenueArea;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class SeatChangeStreamTest {
+
+    private final Long showId = 1L;
+    private final Deque<Runnable> pendingSends = new ArrayDeque<>();
+    private SeatChangeStream seatChangeStream;
+
+    @BeforeEach
+    void setUp() {
+        SeatInventory seatInventory = mock(SeatInventory.class);
+        when(seatInventory.getShowInventory(this.showId)).thenReturn(new ShowInventory(this.showId, Arrays.asList(
+                new ShowSeat(this.showId, 1, VenueArea.FLOOR, false),
+                new ShowSeat(this.showId, 2, VenueArea.FLOOR, false)
+        )));
+        // Sends only run when the test lets them, like a sender pool that is busy
+        this.seatChangeStream = new SeatChangeStream(seatInventory, Duration.ofMinutes(1), 2, this.pendingSends::add);
+    }
+
+    private void runSends() {
+        while (!this.pendingSends.isEmpty()) {
+            this.pendingSends.poll().run();
+        }
+    }
+
+    @Test
+    void subscribe_sendsASnapshotFirst() {
+        // Given
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        // When
+        seatChangeStream.subscribe(this.showId, emitter);
+        runSends();
+
+        // Then
+        Assertions.assertEquals(1, emitter.events.size());
+        Assertions.assertTrue(emitter.events.get(0) instanceof SeatMapDTO);
+    }
+
+    @Test
+    void flush_sendsTheChangesOfAnIntervalAsOneBatchWithTheLastStateOfEachSeat() {
+        // Given
+        RecordingEmitter emitter = new RecordingEmitter();
+        seatChangeStream.subscribe(this.showId, emitter);
+        runSends();
+
+        // When
+        seatChangeStream.publish(this.showId, 1, true);
+        seatChangeStream.publish(this.showId, 2, true);
+        seatChangeStream.publish(this.showId, 1, false);
+        seatChangeStream.flush();
+        runSends();
+
+        // Then
+        Assertions.assertEquals(2, emitter.events.size());
+        SeatChangeBatchDTO batch = (SeatChangeBatchDTO) emitter.events.get(1);
+        Assertions.assertIterableEquals(Collections.singletonList(2), batch.getBookedSeatIds());
+        Assertions.assertIterableEquals(Collections.singletonList(1), batch.getReleasedSeatIds());
+    }
+
+    @Test
+    void flush_whenASubscriberFallsTooFarBehind_replacesItsBatchesWithASnapshot() {
+        // Given
+        RecordingEmitter emitter = new RecordingEmitter();
+        seatChangeStream.subscribe(this.showId, emitter);
+        runSends();
+
+        // When more batches than the buffer holds pile up before the subscriber is written to
+        for (int seatId = 1; seatId <= 3; seatId++) {
+            seatChangeStream.publish(this.showId, seatId, true);
+            seatChangeStream.flush();
+        }
+        runSends();
+
+        // Then
+        Assertions.assertEquals(2, emitter.events.size());
+        Assertions.assertTrue(emitter.events.get(1) instanceof SeatMapDTO);
+    }
+
+    @Test
+    void flush_afterASendFails_stopsWritingToTheSubscriber() {
+        // Given
+        RecordingEmitter emitter = new RecordingEmitter();
+        seatChangeStream.subscribe(this.showId, emitter);
+        emitter.failing = true;
+        runSends();
+
+        // When
+        seatChangeStream.publish(this.showId, 1, true);
+        seatChangeStream.flush();
+        runSends();
+
+        // Then
+        Assertions.assertEquals(1, emitter.attempts);
+    }
+
+    @Test
+    void publish_withoutSubscribers_keepsNothing() {
+        // When
+        seatChangeStream.publish(this.showId, 1, true);
+        RecordingEmitter emitter = new RecordingEmitter();
+        seatChangeStream.subscribe(this.showId, emitter);
+        seatChangeStream.flush();
+        runSends();
+
+        // Then only the snapshot is sent
+        Assertions.assertEquals(1, emitter.events.size());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<Object> events = new ArrayList<>();
+        private boolean failing;
+        private int attempts;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            attempts++;
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(data -> !(data instanceof String))
+                    .forEach(events::add);
+        }
+    }
+}
@@ -2,10 +2,13 @@ package com.carolina.booking_service.service;
 
 import com.carolina.booking_service.exception.SeatNotAvailableException;
 import com.carolina.booking_service.exception.VenueSoldOutException;
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.ledger.BookingLedger;
 import com.carolina.booking_service.model.*;
 import com.carolina.booking_service.repository.BookingRepository;
 import com.carolina.booking_service.repository.SeatRepository;
 import com.carolina.booking_service.repository.UserRepository;
+import com.carolina.booking_service.seatstream.SeatChangeStream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,13 +19,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityNotFoundException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
 
@@ -43,8 +49,15 @@ class BookingServiceImplTest {
     private UserService userService;
     @MockBean
     private MappingService mappingService;
+    @MockBean
+    private SeatInventory seatInventory;
+    @MockBean
+    private BookingLedger bookingLedger;
+    @MockBean
+    private SeatChangeStream seatChangeStream;
 
     private Booking mockBooking;
+    private BookingRow mockBookingRow;
     private BookingRequestDTO mockRequestBookingDTO;
     private BookingResponseDTO mockResponseBookingDTO;
     private User mockUser;
@@ -53,40 +66,87 @@ class BookingServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        this.mockSeatFloor = new Seat(1, VenueArea.FLOOR, true, true);
-        this.mockSeatLevel1 = new Seat(2, VenueArea.LEVEL_1, true, true);
+        this.mockSeatFloor = new Seat(1, VenueArea.FLOOR, true);
+        this.mockSeatLevel1 = new Seat(2, VenueArea.LEVEL_1, true);
         this.mockUser = new User(1L, "Ana", "Almeida", "ana@test.com", "testPassword");
 
         this.mockBooking = new Booking(1L, 1L, this.mockUser, this.mockSeatFloor);
+        this.mockBookingRow = toRow(this.mockBooking);
         mockRequestBookingDTO =  new BookingRequestDTO(1L, this.mockUser.getId(), this.mockSeatFloor.getId());
         mockResponseBookingDTO =  new BookingResponseDTO(
                 1L, "Dancing Queen", this.mockBooking.getUser().getEmail(), 1, this.mockSeatFloor.getVenueArea(), LocalDateTime.now()
         );
     }
 
+    private static BookingRow toRow(Booking booking) {
+        return new BookingRow(booking.getId(), booking.getShowId(), booking.getUser().getEmail(), booking.getSeat().getId(),
+                booking.getSeat().getVenueArea(), booking.getCreatedAt());
+    }
+
     @Test
-    void getAllBookings_returnsListOfBookingResponseDTO() {
+    void getBookings_whenThereAreMoreBookings_returnsTheCursorOfTheLastOne() {
         // Given
-        Booking mockBooking2 = new Booking(2L, 1L, this.mockUser, this.mockSeatLevel1);
-        BookingResponseDTO mockResponseBookingDTO2 = new BookingResponseDTO(
-                2L, "Beauty and the Beast", this.mockUser.getEmail(), this.mockSeatLevel1.getId(), this.mockSeatLevel1.getVenueArea(), LocalDateTime.now()
-        );
-        List<Booking> mockBookings = Arrays.asList(this.mockBooking, mockBooking2);
-        List<BookingResponseDTO> mockBookingsDTO = Arrays.asList(this.mockResponseBookingDTO, mockResponseBookingDTO2);
+        LocalDateTime createdAt = LocalDateTime.of(2022, 3, 1, 20, 30);
+        BookingRow mockBooking2 = new BookingRow(2L, 1L, this.mockUser.getEmail(), 2, VenueArea.LEVEL_1, createdAt);
+        BookingRow mockBooking3 = new BookingRow(3L, 1L, this.mockUser.getEmail(), 3, VenueArea.LEVEL_1, createdAt);
+        BookingFilter filter = new BookingFilter(1L, null, null, null);
 
-        when(bookingRepository.findAll()).thenReturn(mockBookings);
-        for (BookingResponseDTO dto : mockBookingsDTO) {
-            when(mappingService.mapToResponseDTO(any(Booking.class))).thenReturn(dto);
-        }
+        when(bookingRepository.findPage(filter, null, 3)).thenReturn(Arrays.asList(this.mockBookingRow, mockBooking2, mockBooking3));
+        when(mappingService.mapRowsToResponseDTOs(Arrays.asList(this.mockBookingRow, mockBooking2)))
+                .thenReturn(Arrays.asList(this.mockResponseBookingDTO, this.mockResponseBookingDTO));
 
         // When
-        List<BookingResponseDTO> actualBookingsDTO = this.bookingService.getAllBookings();
+        BookingPageDTO page = bookingService.getBookings(filter, null, 2);
 
         // Then
-        Assertions.assertEquals(mockBookingsDTO.size(), actualBookingsDTO.size());
-        for (Object obj : actualBookingsDTO) {
-            Assertions.assertInstanceOf(BookingResponseDTO.class, obj);
-        }
+        BookingCursor nextCursor = BookingCursor.decode(page.getNextCursor());
+        Assertions.assertEquals(2, page.getBookings().size());
+        Assertions.assertEquals(createdAt, nextCursor.getCreatedAt());
+        Assertions.assertEquals(2L, nextCursor.getId());
+    }
+
+    @Test
+    void getBookings_onTheLastPage_returnsNoCursor() {
+        // Given
+        BookingFilter filter = new BookingFilter();
+        BookingCursor after = new BookingCursor(LocalDateTime.of(2022, 3, 1, 20, 30), 7L);
+
+        when(bookingRepository.findPage(eq(filter), any(BookingCursor.class), eq(501))).thenReturn(Arrays.asList(this.mockBookingRow));
+        when(mappingService.mapRowsToResponseDTOs(Arrays.asList(this.mockBookingRow))).thenReturn(Arrays.asList(this.mockResponseBookingDTO));
+
+        // When asking for more than the maximum page size
+        BookingPageDTO page = bookingService.getBookings(filter, after.encode(), 10_000);
+
+        // Then
+        Assertions.assertEquals(1, page.getBookings().size());
+        Assertions.assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getBookings_withInvalidCursor_throwsIllegalArgumentException() {
+        // When / Then
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> bookingService.getBookings(new BookingFilter(), "not-a-cursor", null));
+        verify(bookingRepository, never()).findPage(any(BookingFilter.class), any(BookingCursor.class), anyInt());
+    }
+
+    @Test
+    void exportBookings_mapsTheStreamedBookingsInChunks() {
+        // Given
+        BookingRow mockBooking2 = toRow(new Booking(2L, 1L, this.mockUser, this.mockSeatLevel1));
+        List<BookingResponseDTO> exported = new ArrayList<>();
+
+        when(bookingRepository.streamAllRows()).thenReturn(Stream.of(this.mockBookingRow, mockBooking2));
+        when(mappingService.mapRowsToResponseDTOs(Arrays.asList(this.mockBookingRow, mockBooking2)))
+                .thenReturn(Arrays.asList(this.mockResponseBookingDTO, this.mockResponseBookingDTO));
+
+        // When
+        long count = bookingService.exportBookings(exported::addAll);
+
+        // Then
+        Assertions.assertEquals(2, count);
+        Assertions.assertEquals(2, exported.size());
+        verify(mappingService, never()).mapToResponseDTO(any(BookingRow.class));
     }
 
     @Test
@@ -95,8 +155,8 @@ class BookingServiceImplTest {
         Long mockBookingId = this.mockResponseBookingDTO.getBookingId();
         VenueArea expectedVenueArea = this.mockResponseBookingDTO.getVenueArea();
 
-        when(bookingRepository.findById(mockBookingId)).thenReturn(Optional.of(this.mockBooking));
-        when(mappingService.mapToResponseDTO(this.mockBooking)).thenReturn(this.mockResponseBookingDTO);
+        when(bookingRepository.findRowById(mockBookingId)).thenReturn(Optional.of(this.mockBookingRow));
+        when(mappingService.mapToResponseDTO(this.mockBookingRow)).thenReturn(this.mockResponseBookingDTO);
 
         // When
         BookingResponseDTO actualBookingDTO = bookingService.getBookingById(mockBookingId);
@@ -111,17 +171,15 @@ class BookingServiceImplTest {
         // Given
         Long mockBookingUserId = this.mockBooking.getUser().getId();
         Booking mockBooking2 = new Booking(2L, this.mockSeatLevel1, this.mockUser);
-        List<Booking> mockBookings = Arrays.asList(this.mockBooking, mockBooking2);
+        List<BookingRow> mockBookings = Arrays.asList(this.mockBookingRow, toRow(mockBooking2));
         List<BookingResponseDTO> mockBookingsResponseDTO = Arrays.asList(
                 this.mockResponseBookingDTO,
                 new BookingResponseDTO(mockBooking2.getId(), "Beauty and the Beast", mockBooking2.getUser().getEmail(), mockBooking2.getSeat().getId(), mockBooking2.getSeat().getVenueArea(), LocalDateTime.now())
         );
         UserBookingDTO mockUserBookingDTO = new UserBookingDTO(mockBookingUserId, mockBookingsResponseDTO);
 
-        when(bookingRepository.findByUserId(any(Long.class))).thenReturn(mockBookings);
-        for (BookingResponseDTO bookingResponseDTO : mockBookingsResponseDTO) {
-            when(this.mappingService.mapToResponseDTO(any(Booking.class))).thenReturn(bookingResponseDTO);
-        }
+        when(bookingRepository.findRowsByUserId(any(Long.class))).thenReturn(mockBookings);
+        when(this.mappingService.mapRowsToResponseDTOs(mockBookings)).thenReturn(mockBookingsResponseDTO);
 
         // When
         UserBookingDTO actualUserBookingDTO = bookingService.getBookingsByUser(mockBookingUserId);
@@ -139,8 +197,9 @@ class BookingServiceImplTest {
     void createBooking_returnsCreatedBookingResponseDTO() {
         // Given
         String expectedUserEmail = this.mockBooking.getUser().getEmail();
-        when(venueService.isVenueSoldOut()).thenReturn(false);
-        when(seatService.isSeatAvailable(this.mockRequestBookingDTO.getSeatId())).thenReturn(true);
+        when(venueService.isVenueSoldOut(any(Long.class))).thenReturn(false);
+        when(seatInventory.tryClaim(this.mockRequestBookingDTO.getShowId(), this.mockRequestBookingDTO.getSeatId())).thenReturn(true);
+        when(seatService.claimSeat(this.mockRequestBookingDTO.getShowId(), this.mockRequestBookingDTO.getSeatId())).thenReturn(true);
         when(mappingService.mapToBooking(any(BookingRequestDTO.class))).thenReturn(this.mockBooking);
         when(bookingRepository.save(any(Booking.class))).thenReturn(this.mockBooking);
         when(mappingService.mapToResponseDTO(any(Booking.class))).thenReturn(this.mockResponseBookingDTO);
@@ -154,10 +213,76 @@ class BookingServiceImplTest {
         Assertions.assertEquals(this.mockResponseBookingDTO.getVenueArea(), actualBookingDTO.getVenueArea());
     }
 
+    @Test
+    void createBooking_withBookingLedger_appendsToTheLedgerInsteadOfTheDatabase() {
+        // Given
+        Long bookingDTOShowId = this.mockRequestBookingDTO.getShowId();
+        Integer bookingDTOSeatId = this.mockRequestBookingDTO.getSeatId();
+        BookingResponseDTO pendingBookingDTO = new BookingResponseDTO(
+                null, "Dancing Queen", this.mockUser.getEmail(), bookingDTOSeatId, this.mockSeatFloor.getVenueArea(), null
+        );
+
+        when(bookingLedger.isEnabled()).thenReturn(true);
+        when(venueService.isVenueSoldOut(any(Long.class))).thenReturn(false);
+        when(seatInventory.tryClaimWithoutOpening(bookingDTOShowId, bookingDTOSeatId)).thenReturn(true);
+        when(mappingService.mapToBooking(any(BookingRequestDTO.class))).thenReturn(new Booking(bookingDTOShowId, this.mockSeatFloor, this.mockUser));
+        when(mappingService.mapToResponseDTO(any(Booking.class))).thenReturn(pendingBookingDTO);
+        List<Boolean> appendedInATransaction = new ArrayList<>();
+        when(bookingLedger.append(bookingDTOShowId, bookingDTOSeatId, this.mockUser.getId())).thenAnswer(invocation -> {
+            appendedInATransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return null;
+        });
+
+        // When
+        BookingResponseDTO actualBookingDTO = bookingService.createBooking(this.mockRequestBookingDTO);
+
+        // Then
+        Assertions.assertNull(actualBookingDTO.getBookingId());
+        Assertions.assertEquals(Arrays.asList(false), appendedInATransaction);
+        verify(bookingLedger, times(1)).append(bookingDTOShowId, bookingDTOSeatId, this.mockUser.getId());
+        verify(seatInventory, never()).tryClaim(any(Long.class), any(Integer.class));
+        verify(seatService, never()).claimSeat(any(Long.class), any(Integer.class));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_withBookingLedgerForAnUnknownUser_throwsEntityNotFoundExceptionWithoutClaimingTheSeat() {
+        // Given
+        when(bookingLedger.isEnabled()).thenReturn(true);
+        when(venueService.isVenueSoldOut(any(Long.class))).thenReturn(false);
+        when(mappingService.mapToBooking(any(BookingRequestDTO.class))).thenThrow(EntityNotFoundException.class);
+
+        // Then
+        Assertions.assertThrows(EntityNotFoundException.class, ()
+                -> bookingService.createBooking(this.mockRequestBookingDTO)
+        );
+        verify(seatInventory, never()).tryClaimWithoutOpening(any(Long.class), any(Integer.class));
+        verify(bookingLedger, never()).append(any(Long.class), any(Integer.class), any(Long.class));
+    }
+
+    @Test
+    void createBooking_whenBookingLedgerFails_releasesClaimedSeat() {
+        // Given
+        Long bookingDTOShowId = this.mockRequestBookingDTO.getShowId();
+        Integer bookingDTOSeatId = this.mockRequestBookingDTO.getSeatId();
+
+        when(bookingLedger.isEnabled()).thenReturn(true);
+        when(venueService.isVenueSoldOut(any(Long.class))).thenReturn(false);
+        when(seatInventory.tryClaimWithoutOpening(bookingDTOShowId, bookingDTOSeatId)).thenReturn(true);
+        when(mappingService.mapToBooking(any(BookingRequestDTO.class))).thenReturn(new Booking(bookingDTOShowId, this.mockSeatFloor, this.mockUser));
+        when(bookingLedger.append(bookingDTOShowId, bookingDTOSeatId, this.mockUser.getId())).thenThrow(IllegalStateException.class);
+
+        // Then
+        Assertions.assertThrows(IllegalStateException.class, ()
+                -> bookingService.createBooking(this.mockRequestBookingDTO)
+        );
+        verify(seatInventory, times(1)).release(bookingDTOShowId, bookingDTOSeatId);
+    }
+
     @Test
     void createBooking_whenVenueIsSoldOut_throwsVenueSoldOutException() {
         // Given
-        when(venueService.isVenueSoldOut()).thenReturn(true);
+        when(venueService.isVenueSoldOut(any(Long.class))).thenReturn(true);
 
         // Then
         Assertions.assertThrows(VenueSoldOutException.class, ()
@@ -170,19 +295,55 @@ class BookingServiceImplTest {
         // Given
         Integer bookingDTOSeatId = this.mockRequestBookingDTO.getSeatId();
 
-        when(venueService.isVenueSoldOut()).thenReturn(false);
-        when(seatService.isSeatAvailable(bookingDTOSeatId)).thenReturn(false);
+        when(venueService.isVenueSoldOut(any(Long.class))).thenReturn(false);
+        when(seatInventory.tryClaim(this.mockRequestBookingDTO.getShowId(), bookingDTOSeatId)).thenReturn(false);
+
+        // Then
+        Assertions.assertThrows(SeatNotAvailableException.class, ()
+                -> bookingService.createBooking(this.mockRequestBookingDTO)
+        );
+    }
+
+    @Test
+    void createBooking_whenSeatIsAlreadyBookedInTheDatabase_throwsSeatNotAvailableException() {
+        // Given
+        Long bookingDTOShowId = this.mockRequestBookingDTO.getShowId();
+        Integer bookingDTOSeatId = this.mockRequestBookingDTO.getSeatId();
+
+        when(venueService.isVenueSoldOut(any(Long.class))).thenReturn(false);
+        when(seatInventory.tryClaim(bookingDTOShowId, bookingDTOSeatId)).thenReturn(true);
+        when(seatService.claimSeat(bookingDTOShowId, bookingDTOSeatId)).thenReturn(false);
 
         // Then
         Assertions.assertThrows(SeatNotAvailableException.class, ()
                 -> bookingService.createBooking(this.mockRequestBookingDTO)
         );
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_whenBookingCantBeSaved_releasesClaimedSeat() {
+        // Given
+        Integer bookingDTOSeatId = this.mockRequestBookingDTO.getSeatId();
+
+        when(venueService.isVenueSoldOut(any(Long.class))).thenReturn(false);
+        when(seatInventory.tryClaim(this.mockRequestBookingDTO.getShowId(), bookingDTOSeatId)).thenReturn(true);
+        when(seatService.claimSeat(this.mockRequestBookingDTO.getShowId(), bookingDTOSeatId)).thenReturn(true);
+        when(mappingService.mapToBooking(any(BookingRequestDTO.class))).thenReturn(this.mockBooking);
+        when(bookingRepository.save(any(Booking.class))).thenThrow(IllegalStateException.class);
+
+        // Then
+        Assertions.assertThrows(IllegalStateException.class, ()
+                -> bookingService.createBooking(this.mockRequestBookingDTO)
+        );
+        verify(seatInventory, times(1)).release(this.mockRequestBookingDTO.getShowId(), bookingDTOSeatId);
     }
 
     @Test
     void updateBooking_returnsUpdatedBookingResponseDTO() {
         // Given
         Long bookingIdToUpdate = this.mockBooking.getId();
+        Integer previousSeatId = this.mockBooking.getSeat().getId();
         Booking updatedMockBooking = new Booking(1L, 1L, this.mockUser, this.mockSeatLevel1);
         BookingRequestDTO updatedMockRequestBookingDTO = new BookingRequestDTO(1L, updatedMockBooking.getUser().getId(), updatedMockBooking.getSeat().getId());
         BookingResponseDTO updatedMockResponseBookingDTO = new BookingResponseDTO(
@@ -190,7 +351,8 @@ class BookingServiceImplTest {
         );
 
         when(bookingRepository.findById(any(Long.class))).thenReturn(Optional.of(this.mockBooking));
-        when(seatService.isSeatAvailable(any(Integer.class))).thenReturn(true);
+        when(seatInventory.tryClaim(any(Long.class), any(Integer.class))).thenReturn(true);
+        when(seatService.claimSeat(any(Long.class), any(Integer.class))).thenReturn(true);
         when(mappingService.mapToBooking(any(BookingRequestDTO.class))).thenReturn(updatedMockBooking);
         when(seatService.getSeat(any(Integer.class))).thenReturn(updatedMockBooking.getSeat());
         when(bookingRepository.save(any(Booking.class))).thenReturn(updatedMockBooking);
@@ -202,9 +364,105 @@ class BookingServiceImplTest {
         // Then
         Assertions.assertInstanceOf(BookingResponseDTO.class, actualBookingDTO);
         Assertions.assertEquals(updatedMockResponseBookingDTO.getSeatId(), actualBookingDTO.getSeatId());
+        verify(seatInventory, times(1)).releaseAfterCommit(this.mockBooking.getShowId(), previousSeatId);
+        verify(seatInventory, never()).release(any(Long.class), any(Integer.class));
         Assertions.assertEquals(updatedMockResponseBookingDTO.getVenueArea(), actualBookingDTO.getVenueArea());
     }
 
+    @Test
+    void createBookings_claimsAndInsertsEverySeatOnce() {
+        // Given
+        List<Integer> seatIds = Arrays.asList(this.mockSeatFloor.getId(), this.mockSeatLevel1.getId());
+        BookingBatchRequestDTO requestDTO = new BookingBatchRequestDTO(1L, this.mockUser.getId(), seatIds);
+        Booking mockBooking2 = new Booking(2L, 1L, this.mockUser, this.mockSeatLevel1);
+
+        when(venueService.isVenueSoldOut(1L)).thenReturn(false);
+        when(seatInventory.tryClaim(eq(1L), any(Integer.class))).thenReturn(true);
+        when(seatService.claimSeats(1L, seatIds)).thenReturn(true);
+        when(bookingRepository.findByShowIdAndSeatIds(1L, seatIds)).thenReturn(Arrays.asList(this.mockBooking, mockBooking2));
+        when(mappingService.mapToResponseDTOs(Arrays.asList(this.mockBooking, mockBooking2)))
+                .thenReturn(Arrays.asList(this.mockResponseBookingDTO, this.mockResponseBookingDTO));
+
+        // When
+        List<BookingResponseDTO> actualBookings = bookingService.createBookings(requestDTO);
+
+        // Then
+        Assertions.assertEquals(2, actualBookings.size());
+        verify(venueService, times(1)).isVenueSoldOut(1L);
+        verify(bookingRepository, times(1)).insertAll(1L, this.mockUser.getId(), seatIds);
+        verify(seatInventory, never()).release(any(Long.class), any(Integer.class));
+    }
+
+    @Test
+    void createBookings_whenOneSeatIsClaimedInMemory_releasesTheOthers() {
+        // Given
+        List<Integer> seatIds = Arrays.asList(this.mockSeatFloor.getId(), this.mockSeatLevel1.getId());
+        BookingBatchRequestDTO requestDTO = new BookingBatchRequestDTO(1L, this.mockUser.getId(), seatIds);
+
+        when(venueService.isVenueSoldOut(1L)).thenReturn(false);
+        when(seatInventory.tryClaim(1L, this.mockSeatFloor.getId())).thenReturn(true);
+        when(seatInventory.tryClaim(1L, this.mockSeatLevel1.getId())).thenReturn(false);
+
+        // When / Then
+        Assertions.assertThrows(SeatNotAvailableException.class, () -> bookingService.createBookings(requestDTO));
+        verify(seatInventory, times(1)).release(1L, this.mockSeatFloor.getId());
+        verify(seatService, never()).claimSeats(any(Long.class), anyList());
+        verify(bookingRepository, never()).insertAll(any(Long.class), any(Long.class), anyList());
+    }
+
+    @Test
+    void createBookings_whenDatabaseClaimFails_releasesEverySeat() {
+        // Given
+        List<Integer> seatIds = Arrays.asList(this.mockSeatFloor.getId(), this.mockSeatLevel1.getId());
+        BookingBatchRequestDTO requestDTO = new BookingBatchRequestDTO(1L, this.mockUser.getId(), seatIds);
+
+        when(venueService.isVenueSoldOut(1L)).thenReturn(false);
+        when(seatInventory.tryClaim(eq(1L), any(Integer.class))).thenReturn(true);
+        when(seatService.claimSeats(1L, seatIds)).thenReturn(false);
+
+        // When / Then
+        Assertions.assertThrows(SeatNotAvailableException.class, () -> bookingService.createBookings(requestDTO));
+        verify(seatInventory, times(2)).release(eq(1L), any(Integer.class));
+        verify(bookingRepository, never()).insertAll(any(Long.class), any(Long.class), anyList());
+    }
+
+    @Test
+    void createBookingsForClaimedSeats_doesNotClaimInMemoryAgain() {
+        // Given
+        List<Integer> seatIds = Arrays.asList(this.mockSeatFloor.getId(), this.mockSeatLevel1.getId());
+        when(seatService.claimSeats(1L, seatIds)).thenReturn(true);
+        when(bookingRepository.findByShowIdAndSeatIds(1L, seatIds)).thenReturn(Arrays.asList(this.mockBooking));
+        when(mappingService.mapToResponseDTOs(Arrays.asList(this.mockBooking))).thenReturn(Arrays.asList(this.mockResponseBookingDTO));
+
+        // When
+        List<BookingResponseDTO> actualBookings = bookingService.createBookingsForClaimedSeats(1L, this.mockUser.getId(), seatIds);
+
+        // Then
+        Assertions.assertEquals(1, actualBookings.size());
+        verify(bookingRepository, times(1)).insertAll(1L, this.mockUser.getId(), seatIds);
+        verify(seatInventory, never()).tryClaim(any(Long.class), any(Integer.class));
+        verify(seatChangeStream, times(1)).publishAfterCommit(1L, this.mockSeatFloor.getId(), true);
+        verify(seatChangeStream, times(1)).publishAfterCommit(1L, this.mockSeatLevel1.getId(), true);
+    }
+
+    @Test
+    void updateBooking_withoutASeatId_keepsTheCurrentSeat() {
+        // Given
+        Long bookingIdToUpdate = this.mockBooking.getId();
+        BookingRequestDTO updatedMockRequestBookingDTO = new BookingRequestDTO(1L, this.mockUser.getId(), null);
+
+        when(bookingRepository.findById(any(Long.class))).thenReturn(Optional.of(this.mockBooking));
+        when(mappingService.mapToResponseDTO(any(Booking.class))).thenReturn(this.mockResponseBookingDTO);
+
+        // When
+        BookingResponseDTO actualBookingDTO = bookingService.updateBooking(bookingIdToUpdate, updatedMockRequestBookingDTO);
+
+        // Then
+        Assertions.assertEquals(this.mockResponseBookingDTO.getSeatId(), actualBookingDTO.getSeatId());
+        verify(seatInventory, never()).tryClaim(any(Long.class), any());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
     @Test
     void updateBooking_whenDoesNotExist_throwsEntityNotFoundException() {
         // Given
@@ -229,7 +487,7 @@ class BookingServiceImplTest {
         BookingRequestDTO updatedMockRequestBookingDTO = new BookingRequestDTO(1L, updatedMockBooking.getUser().getId(), updatedMockBooking.getSeat().getId());
 
         when(bookingRepository.findById(any(Long.class))).thenReturn(Optional.of(this.mockBooking));
-        when(seatService.isSeatAvailable(any(Integer.class))).thenReturn(false);
+        when(seatInventory.tryClaim(any(Long.class), any(Integer.class))).thenReturn(false);
 
         // Then
         Assertions.assertThrows(SeatNotAvailableException.class, ()
@@ -249,6 +507,9 @@ class BookingServiceImplTest {
 
         // Then
         verify(bookingRepository, times(1)).deleteById(eq(mockBookingId));
+        verify(seatChangeStream, times(1)).publishAfterCommit(this.mockBooking.getShowId(), this.mockBooking.getSeat().getId(), false);
+        verify(seatInventory, times(1)).releaseAfterCommit(this.mockBooking.getShowId(), this.mockBooking.getSeat().getId());
+        verify(seatInventory, never()).release(any(Long.class), any(Integer.class));
     }
 
     @Test
@@ -0,0 +1,147 @@
+package com.carolina.booking_service.service;
+
+import com.carolina.booking_service.exception.IdempotencyKeyInUseException;
+import com.carolina.booking_service.exception.IdempotencyKeyReusedException;
+import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.IdempotencyRecord;
+import com.carolina.booking_service.model.IdempotentResponse;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyServiceImplTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final String fingerprint = "1:1:1";
+    private String idempotencyKey;
+    private BookingResponseDTO mockResponseBooking;
+
+    @BeforeEach
+    void setUp() {
+        // Responses are cached in the service, so every test uses its own key
+        this.idempotencyKey = UUID.randomUUID().toString();
+        this.mockResponseBooking = new BookingResponseDTO(1L, "Dancing Queen", "user@test.com", 1, VenueArea.FLOOR, LocalDateTime.now());
+        when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void begin_withNewKey_takesTheKey() {
+        // When
+        Optional<IdempotentResponse> previousResponse = idempotencyService.begin(this.idempotencyKey, this.fingerprint);
+
+        // Then
+        Assertions.assertFalse(previousResponse.isPresent());
+        verify(idempotencyRecordRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void begin_whileTheKeyIsInFlight_throwsIdempotencyKeyInUseException() {
+        // Given
+        idempotencyService.begin(this.idempotencyKey, this.fingerprint);
+
+        // Then
+        Assertions.assertThrows(IdempotencyKeyInUseException.class, ()
+                -> idempotencyService.begin(this.idempotencyKey, this.fingerprint)
+        );
+    }
+
+    @Test
+    void begin_whenAnotherInstanceTookTheKey_throwsIdempotencyKeyInUseException() {
+        // Given
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenThrow(DataIntegrityViolationException.class);
+
+        // Then
+        Assertions.assertThrows(IdempotencyKeyInUseException.class, ()
+                -> idempotencyService.begin(this.idempotencyKey, this.fingerprint)
+        );
+    }
+
+    @Test
+    void begin_afterComplete_returnsTheStoredResponseFromMemory() {
+        // Given
+        idempotencyService.begin(this.idempotencyKey, this.fingerprint);
+        idempotencyService.complete(this.idempotencyKey, this.fingerprint, 201, "/api/v1/bookings/1", this.mockResponseBooking);
+
+        // When
+        Optional<IdempotentResponse> previousResponse = idempotencyService.begin(this.idempotencyKey, this.fingerprint);
+
+        // Then
+        Assertions.assertTrue(previousResponse.isPresent());
+        Assertions.assertEquals(201, previousResponse.get().getStatus());
+        Assertions.assertEquals("/api/v1/bookings/1", previousResponse.get().getLocation());
+        Assertions.assertEquals(this.mockResponseBooking.getBookingId(), previousResponse.get().getBooking().getBookingId());
+        verify(idempotencyRecordRepository, times(1)).findById(this.idempotencyKey);
+    }
+
+    @Test
+    void begin_withKeyCompletedOnAnotherInstance_returnsTheStoredResponse() throws Exception {
+        // Given
+        IdempotencyRecord record = mock(IdempotencyRecord.class);
+        when(record.getCreatedAt()).thenReturn(LocalDateTime.now());
+        when(record.isCompleted()).thenReturn(true);
+        when(record.getRequestFingerprint()).thenReturn(this.fingerprint);
+        when(record.getResponseStatus()).thenReturn(201);
+        when(record.getLocation()).thenReturn("/api/v1/bookings/1");
+        when(record.getResponseBody()).thenReturn(objectMapper.writeValueAsString(this.mockResponseBooking));
+        when(idempotencyRecordRepository.findById(this.idempotencyKey)).thenReturn(Optional.of(record));
+
+        // When
+        Optional<IdempotentResponse> previousResponse = idempotencyService.begin(this.idempotencyKey, this.fingerprint);
+
+        // Then
+        Assertions.assertTrue(previousResponse.isPresent());
+        Assertions.assertEquals(this.mockResponseBooking.getUserEmail(), previousResponse.get().getBooking().getUserEmail());
+        verify(idempotencyRecordRepository, never()).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void begin_withKeyUsedForAnotherRequest_throwsIdempotencyKeyReusedException() {
+        // Given
+        idempotencyService.begin(this.idempotencyKey, this.fingerprint);
+        idempotencyService.complete(this.idempotencyKey, this.fingerprint, 201, "/api/v1/bookings/1", this.mockResponseBooking);
+
+        // Then
+        Assertions.assertThrows(IdempotencyKeyReusedException.class, ()
+                -> idempotencyService.begin(this.idempotencyKey, "1:1:2")
+        );
+    }
+
+    @Test
+    void abandon_freesTheKeyForARetry() {
+        // Given
+        idempotencyService.begin(this.idempotencyKey, this.fingerprint);
+
+        // When
+        idempotencyService.abandon(this.idempotencyKey);
+        Optional<IdempotentResponse> previousResponse = idempotencyService.begin(this.idempotencyKey, this.fingerprint);
+
+        // Then
+        Assertions.assertFalse(previousResponse.isPresent());
+        verify(idempotencyRecordRepository, times(1)).deleteById(this.idempotencyKey);
+    }
+}
@@ -1,6 +1,8 @@
 package com.carolina.booking_service.service;
 
 import com.carolina.booking_service.model.*;
+import com.carolina.booking_service.show.ShowClient;
+import com.carolina.booking_service.show.ShowNameCache;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,13 +10,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -22,13 +27,15 @@ class MappingServiceImplTest {
 
     @Autowired
     private MappingService mappingService;
+    @Autowired
+    private ShowNameCache showNameCache;
 
     @MockBean
     private UserService userService;
     @MockBean
     private SeatService seatService;
     @MockBean
-    private RestTemplate mockRestTemplate;
+    private ShowClient mockShowClient;
 
     private User mockUser;
     private Seat mockSeat;
@@ -37,13 +44,16 @@ class MappingServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        this.mockSeat = new Seat(1, VenueArea.FLOOR, true, true);
+        this.mockSeat = new Seat(1, VenueArea.FLOOR, true);
         this.mockUser = new User(1L, "Ana", "Almeida", "ana@test.com", "testPassword");
 
         this.mockBooking = new Booking(1L, 1L, this.mockUser, this.mockSeat);
         mockResponseBookingDTO =  new BookingResponseDTO(
                 1L, "Dancing Queen", this.mockBooking.getUser().getEmail(), 1, this.mockSeat.getVenueArea(), LocalDateTime.now()
         );
+        // The show names are cached across tests
+        this.showNameCache.evict(1L);
+        this.showNameCache.evict(2L);
     }
 
     @Test
@@ -51,7 +61,7 @@ class MappingServiceImplTest {
         // Given
         Show mockShow = new Show("Aladdin");
 
-        when(mockRestTemplate.getForObject(any(String.class), any())).thenReturn(mockShow);
+        when(mockShowClient.getShow(any(Long.class))).thenReturn(CompletableFuture.completedFuture(Optional.of(mockShow)));
 
         // When
         BookingResponseDTO actualBookingResponseDTO = this.mappingService.mapToResponseDTO(this.mockBooking);
@@ -62,6 +72,53 @@ class MappingServiceImplTest {
         Assertions.assertEquals(mockShow.getName(), actualBookingResponseDTO.getShowName());
     }
 
+    @Test
+    void sendBookings_looksUpEachShowOnce() {
+        // Given
+        Booking sameShowBooking = new Booking(2L, 1L, this.mockUser, new Seat(2, VenueArea.LEVEL_1, true));
+        Booking otherShowBooking = new Booking(3L, 2L, this.mockUser, new Seat(3, VenueArea.LEVEL_2, true));
+
+        when(mockShowClient.getShow(1L)).thenReturn(CompletableFuture.completedFuture(Optional.of(new Show("Aladdin"))));
+        when(mockShowClient.getShow(2L)).thenReturn(CompletableFuture.completedFuture(Optional.of(new Show("Cats"))));
+
+        // When
+        List<BookingResponseDTO> actualBookingsDTO = this.mappingService.mapToResponseDTOs(
+                Arrays.asList(this.mockBooking, sameShowBooking, otherShowBooking));
+
+        // Then
+        Assertions.assertEquals(Arrays.asList("Aladdin", "Aladdin", "Cats"),
+                Arrays.asList(actualBookingsDTO.get(0).getShowName(), actualBookingsDTO.get(1).getShowName(),
+                        actualBookingsDTO.get(2).getShowName()));
+        Assertions.assertEquals(Arrays.asList(1L, 2L, 3L), Arrays.asList(actualBookingsDTO.get(0).getBookingId(),
+                actualBookingsDTO.get(1).getBookingId(), actualBookingsDTO.get(2).getBookingId()));
+        verify(mockShowClient, times(1)).getShow(1L);
+    }
+
+    @Test
+    void sendBookingRows_mapsThemWithoutEntities() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2022, 3, 1, 20, 30);
+        List<BookingRow> rows = Arrays.asList(
+                new BookingRow(1L, 1L, "ana@test.com", 1, VenueArea.FLOOR, createdAt),
+                new BookingRow(2L, 2L, "rui@test.com", 7, VenueArea.LEVEL_2, createdAt)
+        );
+
+        when(mockShowClient.getShow(1L)).thenReturn(CompletableFuture.completedFuture(Optional.of(new Show("Aladdin"))));
+        when(mockShowClient.getShow(2L)).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        // When
+        List<BookingResponseDTO> actualBookingsDTO = this.mappingService.mapRowsToResponseDTOs(rows);
+
+        // Then
+        Assertions.assertEquals(2, actualBookingsDTO.size());
+        Assertions.assertEquals("Aladdin", actualBookingsDTO.get(0).getShowName());
+        Assertions.assertEquals("", actualBookingsDTO.get(1).getShowName());
+        Assertions.assertEquals("rui@test.com", actualBookingsDTO.get(1).getUserEmail());
+        Assertions.assertEquals(7, actualBookingsDTO.get(1).getSeatId());
+        Assertions.assertEquals(VenueArea.LEVEL_2, actualBookingsDTO.get(1).getVenueArea());
+        Assertions.assertEquals(createdAt, actualBookingsDTO.get(1).getCreatedAt());
+    }
+
     @Test
     void sendBookingRequestDTO_returnsBooking() {
         // Given
@@ -0,0 +1,254 @@
+package com.carolina.booking_service.service;
+
+import com.carolina.booking_service.exception.SeatNotAvailableException;
+import com.carolina.booking_service.exception.VenueSoldOutException;
+import com.carolina.booking_service.inventory.PendingClaims;
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.model.BestAvailableHoldRequestDTO;
+import com.carolina.booking_service.model.BookingResponseDTO;
+import com.carolina.booking_service.model.SeatHoldRequestDTO;
+import com.carolina.booking_service.model.SeatHoldResponseDTO;
+import com.carolina.booking_service.model.VenueArea;
+import com.carolina.booking_service.seatstream.SeatChangeStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+// Holds and the expiry wheel live in the service, so every test gets a fresh one
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SeatHoldServiceImplTest {
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @MockBean
+    private SeatInventory seatInventory;
+    @MockBean
+    private VenueService venueService;
+    @MockBean
+    private BookingService bookingService;
+    @MockBean
+    private SeatService seatService;
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private SeatChangeStream seatChangeStream;
+
+    private final Long showId = 1L;
+    private final Long userId = 1L;
+    private SeatHoldRequestDTO mockRequestHold;
+
+    @BeforeEach
+    void setUp() {
+        this.mockRequestHold = new SeatHoldRequestDTO(this.showId, this.userId, Arrays.asList(1, 2, 3), 5);
+        when(venueService.isVenueSoldOut(this.showId)).thenReturn(false);
+        when(seatInventory.tryClaim(anyLong(), anyInt())).thenReturn(true);
+    }
+
+    @Test
+    void createHold_claimsEverySeatInMemory() {
+        // When
+        SeatHoldResponseDTO hold = seatHoldService.createHold(this.mockRequestHold);
+
+        // Then
+        Assertions.assertNotNull(hold.getHoldId());
+        Assertions.assertEquals(Arrays.asList(1, 2, 3), hold.getSeatIds());
+        Assertions.assertTrue(hold.getExpiresAt().isAfter(LocalDateTime.now().plusMinutes(4)));
+        verify(seatInventory).tryClaim(this.showId, 1);
+        verify(seatInventory).tryClaim(this.showId, 2);
+        verify(seatInventory).tryClaim(this.showId, 3);
+        verify(seatInventory, never()).release(anyLong(), anyInt());
+        verify(seatChangeStream).publish(this.showId, 1, true);
+        verify(seatChangeStream).publish(this.showId, 2, true);
+        verify(seatChangeStream).publish(this.showId, 3, true);
+    }
+
+    @Test
+    void createHold_releasesClaimedSeatsIfOneIsNotAvailable() {
+        // Given
+        when(seatInventory.tryClaim(this.showId, 3)).thenReturn(false);
+
+        // When / Then
+        Assertions.assertThrows(SeatNotAvailableException.class, () -> seatHoldService.createHold(this.mockRequestHold));
+        verify(seatInventory).release(this.showId, 1);
+        verify(seatInventory).release(this.showId, 2);
+        verify(seatInventory, never()).release(this.showId, 3);
+        verify(seatChangeStream, never()).publish(anyLong(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void createHold_throwsVenueSoldOutException() {
+        // Given
+        when(venueService.isVenueSoldOut(this.showId)).thenReturn(true);
+
+        // When / Then
+        Assertions.assertThrows(VenueSoldOutException.class, () -> seatHoldService.createHold(this.mockRequestHold));
+        verify(seatInventory, never()).tryClaim(anyLong(), anyInt());
+    }
+
+    @Test
+    void createHold_forAnUnknownUser_throwsEntityNotFoundExceptionWithoutClaimingSeats() {
+        // Given
+        when(userService.getUser(this.userId)).thenThrow(new EntityNotFoundException());
+
+        // When / Then
+        Assertions.assertThrows(EntityNotFoundException.class, () -> seatHoldService.createHold(this.mockRequestHold));
+        verify(seatInventory, never()).tryClaim(anyLong(), anyInt());
+        verify(seatChangeStream, never()).publish(anyLong(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void createBestAvailableHold_holdsTheAdjacentSeatsFromTheInventory() {
+        // Given
+        BestAvailableHoldRequestDTO requestDTO = new BestAvailableHoldRequestDTO(this.showId, this.userId, VenueArea.LEVEL_1, 3, null);
+        when(seatInventory.claimAdjacent(this.showId, VenueArea.LEVEL_1, 3)).thenReturn(Arrays.asList(7, 8, 9));
+
+        // When
+        SeatHoldResponseDTO hold = seatHoldService.createBestAvailableHold(requestDTO);
+
+        // Then
+        Assertions.assertEquals(Arrays.asList(7, 8, 9), hold.getSeatIds());
+        Assertions.assertEquals(hold.getSeatIds(), seatHoldService.getHold(hold.getHoldId()).getSeatIds());
+    }
+
+    @Test
+    void createBestAvailableHold_whenThereIsNoRunLongEnough_throwsSeatNotAvailableException() {
+        // Given
+        BestAvailableHoldRequestDTO requestDTO = new BestAvailableHoldRequestDTO(this.showId, this.userId, VenueArea.LEVEL_1, 3, null);
+        when(seatInventory.claimAdjacent(this.showId, VenueArea.LEVEL_1, 3)).thenReturn(Collections.emptyList());
+
+        // When / Then
+        Assertions.assertThrows(SeatNotAvailableException.class, () -> seatHoldService.createBestAvailableHold(requestDTO));
+    }
+
+    @Test
+    void confirmHold_createsBookingsAndRemovesTheHold() {
+        // Given
+        String holdId = seatHoldService.createHold(this.mockRequestHold).getHoldId();
+        List<BookingResponseDTO> bookings = Collections.singletonList(
+                new BookingResponseDTO(1L, "Dancing Queen", "user@test.com", 1, VenueArea.FLOOR, LocalDateTime.now()));
+        when(bookingService.createBookingsForClaimedSeats(this.showId, this.userId, Arrays.asList(1, 2, 3))).thenReturn(bookings);
+
+        // When
+        List<BookingResponseDTO> actualBookings = seatHoldService.confirmHold(holdId);
+
+        // Then
+        Assertions.assertEquals(bookings, actualBookings);
+        Assertions.assertThrows(EntityNotFoundException.class, () -> seatHoldService.getHold(holdId));
+        verify(seatInventory, never()).release(anyLong(), anyInt());
+    }
+
+    @Test
+    void confirmHold_keepsTheSeatsPendingUntilTheBookingsAreCreated() {
+        // Given
+        String holdId = seatHoldService.createHold(this.mockRequestHold).getHoldId();
+        List<Integer> pendingWhileBooking = new ArrayList<>();
+        when(bookingService.createBookingsForClaimedSeats(this.showId, this.userId, Arrays.asList(1, 2, 3))).thenAnswer(invocation -> {
+            pendingWhileBooking.addAll(((PendingClaims) seatHoldService).getPendingSeatIds(this.showId));
+            return Collections.emptyList();
+        });
+
+        // When
+        seatHoldService.confirmHold(holdId);
+
+        // Then
+        Assertions.assertEquals(Arrays.asList(1, 2, 3), pendingWhileBooking);
+        Assertions.assertTrue(((PendingClaims) seatHoldService).getPendingSeatIds(this.showId).isEmpty());
+    }
+
+    @Test
+    void confirmHold_releasesSeatsIfBookingFails() {
+        // Given
+        String holdId = seatHoldService.createHold(this.mockRequestHold).getHoldId();
+        when(bookingService.createBookingsForClaimedSeats(anyLong(), anyLong(), anyList())).thenThrow(new IllegalStateException());
+
+        // When / Then
+        Assertions.assertThrows(IllegalStateException.class, () -> seatHoldService.confirmHold(holdId));
+        verify(seatInventory, times(3)).release(eq(this.showId), anyInt());
+        Assertions.assertThrows(EntityNotFoundException.class, () -> seatHoldService.getHold(holdId));
+    }
+
+    @Test
+    void confirmHold_whenTheDatabaseHasBookedASeat_keepsThatSeatClaimed() {
+        // Given
+        String holdId = seatHoldService.createHold(this.mockRequestHold).getHoldId();
+        when(bookingService.createBookingsForClaimedSeats(anyLong(), anyLong(), anyList())).thenThrow(new SeatNotAvailableException());
+        when(seatService.getBookedSeatIds(this.showId, Arrays.asList(1, 2, 3))).thenReturn(Collections.singletonList(2));
+
+        // When / Then
+        Assertions.assertThrows(SeatNotAvailableException.class, () -> seatHoldService.confirmHold(holdId));
+        verify(seatInventory).release(this.showId, 1);
+        verify(seatInventory, never()).release(this.showId, 2);
+        verify(seatInventory).release(this.showId, 3);
+        verify(seatChangeStream, never()).publish(this.showId, 2, false);
+    }
+
+    @Test
+    void releaseHold_releasesTheSeatsAndPublishesThem() {
+        // Given
+        String holdId = seatHoldService.createHold(this.mockRequestHold).getHoldId();
+
+        // When
+        seatHoldService.releaseHold(holdId);
+
+        // Then
+        verify(seatInventory, times(3)).release(eq(this.showId), anyInt());
+        verify(seatChangeStream).publish(this.showId, 1, false);
+        verify(seatChangeStream).publish(this.showId, 2, false);
+        verify(seatChangeStream).publish(this.showId, 3, false);
+    }
+
+    @Test
+    void releaseHold_throwsEntityNotFoundExceptionForUnknownHold() {
+        Assertions.assertThrows(EntityNotFoundException.class, () -> seatHoldService.releaseHold("unknown"));
+    }
+
+    @Test
+    void expireHolds_releasesSeatsOnlyAfterTheHoldExpires() {
+        // Given
+        String holdId = seatHoldService.createHold(this.mockRequestHold).getHoldId();
+        long now = System.currentTimeMillis();
+
+        // When
+        int expiredEarly = seatHoldService.expireHolds(now + 60_000);
+        int expiredLate = seatHoldService.expireHolds(now + 6 * 60_000);
+
+        // Then
+        Assertions.assertEquals(0, expiredEarly);
+        Assertions.assertEquals(1, expiredLate);
+        Assertions.assertThrows(EntityNotFoundException.class, () -> seatHoldService.getHold(holdId));
+        verify(seatInventory, times(3)).release(eq(this.showId), anyInt());
+        verify(seatChangeStream, times(3)).publish(eq(this.showId), anyInt(), eq(false));
+    }
+
+    @Test
+    void expireHolds_ignoresHoldsThatWereConfirmed() {
+        // Given
+        String holdId = seatHoldService.createHold(this.mockRequestHold).getHoldId();
+        seatHoldService.confirmHold(holdId);
+
+        // When
+        int expired = seatHoldService.expireHolds(System.currentTimeMillis() + 6 * 60_000);
+
+        // Then
+        Assertions.assertEquals(0, expired);
+        verify(seatInventory, never()).release(anyLong(), anyInt());
+    }
+}
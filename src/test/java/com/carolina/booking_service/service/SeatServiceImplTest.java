@@ -1,8 +1,10 @@
 package com.carolina.booking_service.service;
 
+import com.carolina.booking_service.inventory.SeatInventory;
 import com.carolina.booking_service.model.Seat;
 import com.carolina.booking_service.model.VenueArea;
 import com.carolina.booking_service.repository.SeatRepository;
+import com.carolina.booking_service.repository.ShowSeatRepository;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,7 +15,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -30,12 +34,16 @@ class SeatServiceImplTest {
     
     @MockBean
     private SeatRepository seatRepository;
+    @MockBean
+    private ShowSeatRepository showSeatRepository;
+    @MockBean
+    private SeatInventory seatInventory;
 
     private Seat mockSeat;
 
     @BeforeEach
     void setUp() {
-        this.mockSeat = new Seat(1, VenueArea.FLOOR, true, false);
+        this.mockSeat = new Seat(1, VenueArea.FLOOR, true);
     }
 
     @Test
@@ -65,100 +73,128 @@ class SeatServiceImplTest {
     }
 
     @Test
-    void getAvailableSeats_returnsListOfSeatsEnabledAndNotBookedYet() {
+    void getAvailableSeats_returnsSeatsAvailableForTheShow() {
         // Given
-        List<Seat> mockSeats = new ArrayList<>() {
-            {
-                add(new Seat(1, VenueArea.LEVEL_1, true, false));
-                add(new Seat(2, VenueArea.FLOOR, true, false));
-                add(new Seat(3, VenueArea.FLOOR, true, true));
-                add(new Seat(4, VenueArea.LEVEL_1, true, false));
-                add(new Seat(5, VenueArea.LEVEL_2, false, false));
-            }
-        };
-        List<Seat> availableMockSeats = mockSeats.stream()
-                                                .filter(s -> s.isEnabled() && !s.isBooked())
-                                                .collect(Collectors.toList());
-        Integer expectedAvailableSeatsCount = availableMockSeats.size();
-
-        when(seatRepository.findAll()).thenReturn(mockSeats);
+        Long mockShowId = 1L;
+        List<Integer> availableMockSeatIds = Arrays.asList(1, 2, 4);
+        List<Seat> availableMockSeats = Arrays.asList(
+                new Seat(1, VenueArea.LEVEL_1, true),
+                new Seat(2, VenueArea.FLOOR, true),
+                new Seat(4, VenueArea.LEVEL_1, true)
+        );
+
+        when(seatInventory.getAvailableSeatIds(mockShowId)).thenReturn(availableMockSeatIds);
+        when(seatRepository.findAllById(availableMockSeatIds)).thenReturn(availableMockSeats);
 
         // When
-        List<Seat> actualSeats = seatService.getAvailableSeats();
+        List<Seat> actualSeats = seatService.getAvailableSeats(mockShowId);
 
         // Then
-        Assertions.assertEquals(expectedAvailableSeatsCount, actualSeats.size());
+        Assertions.assertEquals(availableMockSeats.size(), actualSeats.size());
         Assertions.assertIterableEquals(availableMockSeats, actualSeats);
     }
 
     @Test
-    void isSeatAvailable_returnsTrueIfSeatIsNotNullAndIsEnabledAndNotBookedYet() {
+    void getAvailableSeats_ofAVenueArea_loadsOnlyThatAreasSeats() {
         // Given
-        Integer mockSeatId = this.mockSeat.getId();
+        Long mockShowId = 1L;
+        List<Integer> availableMockSeatIds = Arrays.asList(2);
+        List<Seat> availableMockSeats = Arrays.asList(new Seat(2, VenueArea.FLOOR, true));
 
-        when(seatRepository.findById(mockSeatId)).thenReturn(Optional.of(this.mockSeat));
+        when(seatInventory.getAvailableSeatIds(mockShowId, VenueArea.FLOOR)).thenReturn(availableMockSeatIds);
+        when(seatRepository.findAllById(availableMockSeatIds)).thenReturn(availableMockSeats);
 
         // When
-        Boolean actualIsSeatAvailable = seatService.isSeatAvailable(mockSeatId);
+        List<Seat> actualSeats = seatService.getAvailableSeats(mockShowId, VenueArea.FLOOR);
 
         // Then
-        Assertions.assertTrue(actualIsSeatAvailable);
+        Assertions.assertIterableEquals(availableMockSeats, actualSeats);
+        verify(seatInventory, never()).getAvailableSeatIds(mockShowId);
     }
 
     @Test
-    void isSeatAvailable_returnsFalseIfSeatIsNotNullAndIsEnabledAndIsBooked() {
+    void getAvailableCounts_returnsTheInventoryCountOfEveryVenueArea() {
         // Given
-        Seat mockBookedSeat = new Seat(1, VenueArea.FLOOR, true, true);
-        Integer mockBookedSeatId = mockBookedSeat.getId();
-
-        when(seatRepository.findById(mockBookedSeatId)).thenReturn(Optional.of(mockBookedSeat));
+        Long mockShowId = 1L;
+        when(seatInventory.getAvailableCount(mockShowId, VenueArea.FLOOR)).thenReturn(3);
+        when(seatInventory.getAvailableCount(mockShowId, VenueArea.LEVEL_1)).thenReturn(0);
+        when(seatInventory.getAvailableCount(mockShowId, VenueArea.LEVEL_2)).thenReturn(12);
 
         // When
-        Boolean actualIsSeatAvailable = seatService.isSeatAvailable(mockBookedSeatId);
+        Map<VenueArea, Integer> actualCounts = seatService.getAvailableCounts(mockShowId);
 
         // Then
-        Assertions.assertFalse(actualIsSeatAvailable);
+        Assertions.assertEquals(3, actualCounts.get(VenueArea.FLOOR));
+        Assertions.assertEquals(0, actualCounts.get(VenueArea.LEVEL_1));
+        Assertions.assertEquals(12, actualCounts.get(VenueArea.LEVEL_2));
+        verifyNoInteractions(seatRepository);
     }
 
     @Test
-    void isSeatAvailable_returnsFalseIfSeatIsNotNullAndIsNotEnabledAndNotBookedYet() {
+    void isSeatAvailable_returnsTrueIfSeatIsAvailableForTheShow() {
         // Given
-        Seat mockBookedSeat = new Seat(1, VenueArea.FLOOR, false, false);
-        Integer mockBookedSeatId = mockBookedSeat.getId();
+        Long mockShowId = 1L;
+        Integer mockSeatId = this.mockSeat.getId();
 
-        when(seatRepository.findById(mockBookedSeatId)).thenReturn(Optional.of(mockBookedSeat));
+        when(seatInventory.isAvailable(mockShowId, mockSeatId)).thenReturn(true);
 
         // When
-        Boolean actualIsSeatAvailable = seatService.isSeatAvailable(mockBookedSeatId);
+        Boolean actualIsSeatAvailable = seatService.isSeatAvailable(mockShowId, mockSeatId);
 
         // Then
-        Assertions.assertFalse(actualIsSeatAvailable);
+        Assertions.assertTrue(actualIsSeatAvailable);
     }
 
     @Test
-    void isSeatAvailable_returnsFalseIfSeatIsNull() {
+    void isSeatAvailable_returnsFalseIfSeatIsBookedForTheShow() {
         // Given
+        Long mockShowId = 1L;
         Integer mockSeatId = this.mockSeat.getId();
 
-        when(seatRepository.findById(mockSeatId)).thenReturn(Optional.empty());
+        when(seatInventory.isAvailable(mockShowId, mockSeatId)).thenReturn(false);
 
         // When
-        Boolean actualIsSeatAvailable = seatService.isSeatAvailable(mockSeatId);
+        Boolean actualIsSeatAvailable = seatService.isSeatAvailable(mockShowId, mockSeatId);
 
         // Then
         Assertions.assertFalse(actualIsSeatAvailable);
     }
 
     @Test
-    void changeSeatBookingStatus_fromNotBookedToBooked_verifySeatRepositorySaveIsCalled() {
-        Seat mockUpdatedSeat = new Seat(1, VenueArea.FLOOR, true, true);
+    void claimSeat_whenConditionalUpdateMatches_returnsTrue() {
+        // Given
+        Long mockShowId = 1L;
+        when(showSeatRepository.claim(mockShowId, this.mockSeat.getId())).thenReturn(1);
 
-        when(seatRepository.findById(this.mockSeat.getId())).thenReturn(Optional.of(mockUpdatedSeat));
+        // When
+        Boolean actualClaimed = seatService.claimSeat(mockShowId, this.mockSeat.getId());
+
+        // Then
+        Assertions.assertTrue(actualClaimed);
+    }
+
+    @Test
+    void claimSeat_whenSeatIsAlreadyBooked_returnsFalse() {
+        // Given
+        Long mockShowId = 1L;
+        when(showSeatRepository.claim(mockShowId, this.mockSeat.getId())).thenReturn(0);
+
+        // When
+        Boolean actualClaimed = seatService.claimSeat(mockShowId, this.mockSeat.getId());
+
+        // Then
+        Assertions.assertFalse(actualClaimed);
+    }
+
+    @Test
+    void releaseSeat_verifyShowSeatRepositoryReleaseIsCalled() {
+        // Given
+        Long mockShowId = 1L;
 
         // When
-        seatService.changeSeatBookingStatus(this.mockSeat.getId(), true);
+        seatService.releaseSeat(mockShowId, this.mockSeat.getId());
 
         // Then
-        verify(seatRepository, times(1)).save(mockUpdatedSeat);
+        verify(showSeatRepository, times(1)).release(mockShowId, this.mockSeat.getId());
     }
-}
\ No newline at end of file
+}
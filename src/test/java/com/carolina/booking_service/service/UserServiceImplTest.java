@@ -1,6 +1,7 @@
 package com.carolina.booking_service.service;
 
 import com.carolina.booking_service.exception.UserAlreadyExistsException;
+import com.carolina.booking_service.model.ResourceVersion;
 import com.carolina.booking_service.model.User;
 import com.carolina.booking_service.repository.UserRepository;
 import org.junit.jupiter.api.Assertions;
@@ -11,6 +12,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
 import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -58,6 +61,34 @@ class UserServiceImplTest {
         });
     }
 
+    @Test
+    void getUserVersion_changesWhenTheUserIsUpdated() {
+        // Given
+        Long mockUserId = this.mockUser.getId();
+        LocalDateTime updatedAt = LocalDateTime.of(2022, 3, 1, 12, 0);
+        when(userRepository.findUpdatedAtById(mockUserId)).thenReturn(Optional.of(updatedAt), Optional.of(updatedAt.plusNanos(1000)));
+
+        // When
+        ResourceVersion before = userService.getUserVersion(mockUserId);
+        ResourceVersion after = userService.getUserVersion(mockUserId);
+
+        // Then
+        Assertions.assertNotEquals(before.getETag(), after.getETag());
+        Assertions.assertEquals(updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), before.getLastModifiedMillis());
+    }
+
+    @Test
+    void getUserVersion_whenDoesntExist_throwsEntityNotFoundException() {
+        // Given
+        Long mockUserId = this.mockUser.getId();
+        when(userRepository.findUpdatedAtById(mockUserId)).thenReturn(Optional.empty());
+
+        // Then
+        Assertions.assertThrows(EntityNotFoundException.class, () -> {
+            userService.getUserVersion(mockUserId);
+        });
+    }
+
     @Test
     void createUser_returnsCreatedUser() {
         // Given
@@ -1,6 +1,8 @@
 package com.carolina.booking_service.service;
 
-import com.carolina.booking_service.model.Seat;
+import com.carolina.booking_service.inventory.SeatInventory;
+import com.carolina.booking_service.inventory.ShowInventory;
+import com.carolina.booking_service.model.ShowSeat;
 import com.carolina.booking_service.model.Venue;
 import com.carolina.booking_service.model.VenueArea;
 import com.carolina.booking_service.repository.VenueRepository;
@@ -28,9 +30,11 @@ class VenueServiceImplTest {
     @MockBean
     private VenueRepository venueRepository;
     @MockBean
-    private SeatService seatService;
+    private SeatInventory seatInventory;
     
     private Venue mockVenue;
+    private Long mockShowId;
+    private ShowInventory mockShowInventory;
 
     @BeforeEach
     void setUp() {
@@ -38,7 +42,12 @@ class VenueServiceImplTest {
         mockVenue.setId(1);
         mockVenue.setName("Test venue");
         mockVenue.setAddress("Test address");
-        mockVenue.setSoldOut(false);
+
+        this.mockShowId = 1L;
+        this.mockShowInventory = new ShowInventory(this.mockShowId, Arrays.asList(
+                new ShowSeat(this.mockShowId, 1, VenueArea.FLOOR, false),
+                new ShowSeat(this.mockShowId, 2, VenueArea.LEVEL_1, false)
+        ));
     }
 
     @Test
@@ -67,27 +76,43 @@ class VenueServiceImplTest {
     }
 
     @Test
-    void isVenueSoldOut_whenVenueIsntSoldOut_returnsFalse() {
+    void isVenueSoldOut_whenShowIsntSoldOut_returnsFalse() {
         // Given
-         when(venueRepository.findById(this.mockVenue.getId())).thenReturn(Optional.of(this.mockVenue));
+        when(seatInventory.getShowInventory(this.mockShowId)).thenReturn(this.mockShowInventory);
 
-         // When
-        Boolean actualIsVenueSoldOut = venueService.isVenueSoldOut();
+        // When
+        Boolean actualIsVenueSoldOut = venueService.isVenueSoldOut(this.mockShowId);
 
-         // Then
+        // Then
         Assertions.assertFalse(actualIsVenueSoldOut);
     }
 
     @Test
-    void isVenueSoldOut_whenVenueIsSoldOut_returnsTrue() {
+    void isVenueSoldOut_whenLastSeatIsClaimed_returnsTrue() {
         // Given
-        this.mockVenue.setSoldOut(true);
-        when(venueRepository.findById(this.mockVenue.getId())).thenReturn(Optional.of(this.mockVenue));
+        when(seatInventory.getShowInventory(this.mockShowId)).thenReturn(this.mockShowInventory);
+        this.mockShowInventory.tryClaim(1);
+        this.mockShowInventory.tryClaim(2);
 
         // When
-        Boolean actualIsVenueSoldOut = venueService.isVenueSoldOut();
+        Boolean actualIsVenueSoldOut = venueService.isVenueSoldOut(this.mockShowId);
 
         // Then
         Assertions.assertTrue(actualIsVenueSoldOut);
     }
-}
\ No newline at end of file
+
+    @Test
+    void isVenueSoldOut_whenSeatIsReleasedAfterSellingOut_returnsFalse() {
+        // Given
+        when(seatInventory.getShowInventory(this.mockShowId)).thenReturn(this.mockShowInventory);
+        this.mockShowInventory.tryClaim(1);
+        this.mockShowInventory.tryClaim(2);
+        this.mockShowInventory.release(2);
+
+        // When
+        Boolean actualIsVenueSoldOut = venueService.isVenueSoldOut(this.mockShowId);
+
+        // Then
+        Assertions.assertFalse(actualIsVenueSoldOut);
+    }
+}
@@ -0,0 +1,95 @@
+package com.carolina.booking_service.show;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        this.circuitBreaker = new CircuitBreaker(4, 4, 50, Duration.ofSeconds(30), this.nanos::get);
+    }
+
+    private void call(boolean fails) {
+        Assertions.assertTrue(this.circuitBreaker.tryAcquirePermission());
+        if (fails) {
+            this.circuitBreaker.onFailure();
+        } else {
+            this.circuitBreaker.onSuccess();
+        }
+    }
+
+    @Test
+    void onFailure_opensOnceHalfOfTheWindowFailed() {
+        // Given
+        call(false);
+        call(true);
+        call(false);
+        CircuitBreaker.State beforeLastFailure = circuitBreaker.getState();
+
+        // When
+        call(true);
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, beforeLastFailure);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void onFailure_onlyCountsTheLastCallsOfTheWindow() {
+        // Given
+        call(true);
+        call(false);
+        call(false);
+        call(false);
+
+        // When the first failure leaves the window
+        call(true);
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void tryAcquirePermission_afterTheOpenDuration_letsOneTrialCallThrough() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+
+        // When
+        this.nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+        boolean trial = circuitBreaker.tryAcquirePermission();
+        boolean secondTrial = circuitBreaker.tryAcquirePermission();
+        circuitBreaker.onSuccess();
+
+        // Then
+        Assertions.assertTrue(trial);
+        Assertions.assertFalse(secondTrial);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void onFailure_ofTheTrialCall_opensAgain() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        this.nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        // When
+        call(true);
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+}
@@ -0,0 +1,162 @@
+package com.carolina.booking_service.show;
+
+import com.carolina.booking_service.exception.ShowServiceUnavailableException;
+import com.carolina.booking_service.model.Show;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the client against a local show-service stub whose answer each test decides
+ */
+class ShowClientTest {
+
+    private interface Answer {
+        void answer(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+
+    private HttpServer showService;
+    private volatile Answer answer;
+    private final AtomicInteger requests = new AtomicInteger();
+    private ShowClient showClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.showService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.showService.createContext("/api/v1/shows/", exchange -> {
+            this.requests.incrementAndGet();
+            try {
+                this.answer.answer(exchange);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        this.showService.setExecutor(Executors.newCachedThreadPool());
+        this.showService.start();
+        String showApiUrl = "http://localhost:" + this.showService.getAddress().getPort() + "/api/v1/shows";
+        this.showClient = new ShowClient(new ObjectMapper(), null, showApiUrl, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                1, 0, new CircuitBreaker(4, 4, 50, Duration.ofMinutes(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.showService.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    private static Throwable failureOf(CompletableFuture<Optional<Show>> call) {
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+        return exception.getCause();
+    }
+
+    @Test
+    void getShow_returnsTheShow() throws Exception {
+        // Given
+        this.answer = exchange -> respond(exchange, 200, "{\"id\":1,\"name\":\"Aladdin\"}");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        showClient.bindTo(registry);
+
+        // When
+        Optional<Show> show = showClient.getShow(1L).get(5, TimeUnit.SECONDS);
+
+        // Then
+        Assertions.assertEquals("Aladdin", show.map(Show::getName).orElse(null));
+        Assertions.assertEquals(1.0, registry.get("show.client.calls").tag("outcome", "success").functionCounter().count());
+    }
+
+    @Test
+    void getShow_forUnknownShow_returnsEmpty() throws Exception {
+        // Given
+        this.answer = exchange -> respond(exchange, 404, "");
+
+        // When
+        Optional<Show> show = showClient.getShow(1L).get(5, TimeUnit.SECONDS);
+
+        // Then
+        Assertions.assertFalse(show.isPresent());
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, showClient.getCircuitState());
+    }
+
+    @Test
+    void getShow_whenShowServiceIsSlow_failsAfterTheCallTimeout() {
+        // Given
+        this.answer = exchange -> {
+            Thread.sleep(2000);
+            respond(exchange, 200, "{\"id\":1,\"name\":\"Aladdin\"}");
+        };
+
+        // When
+        long start = System.nanoTime();
+        Throwable failure = failureOf(showClient.getShow(1L));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        Assertions.assertTrue(failure instanceof TimeoutException || failure instanceof ShowServiceUnavailableException);
+        Assertions.assertTrue(elapsedMillis < 1500);
+    }
+
+    @Test
+    void getShow_whenACallIsAlreadyInFlight_isRefusedByTheBulkhead() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        this.answer = exchange -> {
+            release.await();
+            respond(exchange, 200, "{\"id\":1,\"name\":\"Aladdin\"}");
+        };
+        CompletableFuture<Optional<Show>> inFlight = showClient.getShow(1L);
+
+        // When
+        Throwable failure = failureOf(showClient.getShow(2L));
+        release.countDown();
+
+        // Then
+        Assertions.assertInstanceOf(ShowServiceUnavailableException.class, failure);
+        Assertions.assertTrue(inFlight.get(5, TimeUnit.SECONDS).isPresent());
+    }
+
+    @Test
+    void getShow_afterRepeatedFailures_failsFastWithoutCallingShowService() {
+        // Given
+        this.answer = exchange -> respond(exchange, 503, "");
+        for (long showId = 1; showId <= 4; showId++) {
+            failureOf(showClient.getShow(showId));
+        }
+
+        // When
+        Throwable failure = failureOf(showClient.getShow(5L));
+
+        // Then
+        Assertions.assertInstanceOf(ShowServiceUnavailableException.class, failure);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, showClient.getCircuitState());
+        Assertions.assertEquals(4, this.requests.get());
+    }
+}
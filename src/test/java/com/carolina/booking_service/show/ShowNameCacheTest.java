@@ -0,0 +1,146 @@
+package com.carolina.booking_service.show;
+
+import com.carolina.booking_service.exception.ShowServiceUnavailableException;
+import com.carolina.booking_service.model.Show;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ShowNameCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private ShowClient showClient;
+    private ShowNameCache showNameCache;
+
+    @BeforeEach
+    void setUp() {
+        this.showClient = mock(ShowClient.class);
+        // Refreshes run on the calling thread, so they are done when get returns
+        this.showNameCache = new ShowNameCache(this.showClient, 100, Duration.ofHours(1), Duration.ofMinutes(10),
+                Duration.ofMinutes(1), this.nanos::get, Runnable::run, Duration.ofSeconds(5));
+    }
+
+    private void advance(Duration duration) {
+        this.nanos.addAndGet(duration.toNanos());
+    }
+
+    private static CompletableFuture<Optional<Show>> found(String name) {
+        return CompletableFuture.completedFuture(Optional.of(new Show(name)));
+    }
+
+    private static CompletableFuture<Optional<Show>> notFound() {
+        return CompletableFuture.completedFuture(Optional.empty());
+    }
+
+    private static CompletableFuture<Optional<Show>> unavailable() {
+        return CompletableFuture.failedFuture(new ShowServiceUnavailableException("call timed out"));
+    }
+
+    @Test
+    void getShowName_callsShowServiceOncePerShow() {
+        // Given
+        when(showClient.getShow(1L)).thenReturn(found("Aladdin"));
+
+        // When
+        String first = showNameCache.getShowName(1L);
+        String second = showNameCache.getShowName(1L);
+
+        // Then
+        Assertions.assertEquals("Aladdin", first);
+        Assertions.assertEquals("Aladdin", second);
+        verify(showClient, times(1)).getShow(1L);
+    }
+
+    @Test
+    void getShowName_forUnknownShow_remembersItUntilTheNegativeTtl() {
+        // Given
+        when(showClient.getShow(1L)).thenReturn(notFound());
+
+        // When
+        showNameCache.getShowName(1L);
+        String cachedMiss = showNameCache.getShowName(1L);
+        advance(Duration.ofMinutes(2));
+        showNameCache.getShowName(1L);
+
+        // Then
+        Assertions.assertEquals("", cachedMiss);
+        verify(showClient, times(2)).getShow(1L);
+    }
+
+    @Test
+    void getShowName_afterTheRefreshInterval_reloadsTheName() {
+        // Given
+        when(showClient.getShow(1L)).thenReturn(found("Aladdin"), found("Aladdin Jr."));
+        showNameCache.getShowName(1L);
+
+        // When
+        advance(Duration.ofMinutes(11));
+        String stale = showNameCache.getShowName(1L);
+        String refreshed = showNameCache.getShowName(1L);
+
+        // Then the old name is served while it is being refreshed
+        Assertions.assertEquals("Aladdin", stale);
+        Assertions.assertEquals("Aladdin Jr.", refreshed);
+    }
+
+    @Test
+    void getShowName_whenShowServiceFails_servesTheStaleName() {
+        // Given
+        when(showClient.getShow(1L)).thenReturn(found("Aladdin"), unavailable());
+        showNameCache.getShowName(1L);
+
+        // When
+        advance(Duration.ofMinutes(11));
+        String duringRefresh = showNameCache.getShowName(1L);
+        String afterFailedRefresh = showNameCache.getShowName(1L);
+
+        // Then
+        Assertions.assertEquals("Aladdin", duringRefresh);
+        Assertions.assertEquals("Aladdin", afterFailedRefresh);
+    }
+
+    @Test
+    void getShowName_whenShowServiceFailsAndNothingIsCached_returnsEmptyName() {
+        // Given
+        when(showClient.getShow(any(Long.class))).thenReturn(unavailable());
+
+        // When
+        String name = showNameCache.getShowName(1L);
+
+        // Then
+        Assertions.assertEquals("", name);
+    }
+
+    @Test
+    void getShowNames_fetchesOnlyTheShowsThatArentCached() {
+        // Given
+        when(showClient.getShow(1L)).thenReturn(found("Aladdin"));
+        when(showClient.getShow(2L)).thenReturn(found("Cats"));
+        when(showClient.getShow(3L)).thenReturn(notFound());
+        when(showClient.getShow(4L)).thenReturn(unavailable());
+        showNameCache.getShowName(1L);
+
+        // When
+        Map<Long, String> names = showNameCache.getShowNames(Arrays.asList(1L, 2L, 3L, 4L));
+
+        // Then
+        Map<Long, String> expectedNames = new HashMap<>();
+        expectedNames.put(1L, "Aladdin");
+        expectedNames.put(2L, "Cats");
+        expectedNames.put(3L, "");
+        expectedNames.put(4L, "");
+        Assertions.assertEquals(expectedNames, names);
+        verify(showClient, times(1)).getShow(1L);
+    }
+}
@@ -0,0 +1,104 @@
+package com.carolina.booking_service.show;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Resolves the shows of a page of bookings against a local show-service stub that answers after a fixed delay,
+ * once one show at a time as mapping every booking used to do and once all at once, logging both
+ */
+@Tag("benchmark")
+class ShowNameFanOutBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShowNameFanOutBenchmarkTest.class);
+
+    private static final int SHOWS = 50;
+    private static final int LATENCY_MS = 20;
+    private static final int MAX_CONCURRENT_CALLS = 8;
+
+    private HttpServer showService;
+    private String showApiUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.showService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.showService.createContext("/api/v1/shows/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String showId = path.substring(path.lastIndexOf('/') + 1);
+            byte[] body = ("{\"id\":" + showId + ",\"name\":\"Show " + showId + "\"}").getBytes(StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(LATENCY_MS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        this.showService.setExecutor(Executors.newCachedThreadPool());
+        this.showService.start();
+        this.showApiUrl = "http://localhost:" + this.showService.getAddress().getPort() + "/api/v1/shows";
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.showService.stop(0);
+    }
+
+    @Test
+    void showNames_ofAPageOfBookings() {
+        List<Long> showIds = new ArrayList<>();
+        for (long showId = 1; showId <= SHOWS; showId++) {
+            showIds.add(showId);
+        }
+        // Warm up the HTTP client and the stub first
+        newShowNameCache().getShowNames(showIds.subList(0, MAX_CONCURRENT_CALLS));
+
+        ShowNameCache oneByOne = newShowNameCache();
+        long start = System.nanoTime();
+        for (Long showId : showIds) {
+            Assertions.assertEquals("Show " + showId, oneByOne.getShowName(showId));
+        }
+        long oneByOneMillis = (System.nanoTime() - start) / 1_000_000;
+
+        ShowNameCache fanOut = newShowNameCache();
+        start = System.nanoTime();
+        Map<Long, String> names = fanOut.getShowNames(showIds);
+        long fanOutMillis = (System.nanoTime() - start) / 1_000_000;
+
+        logger.info("Names of {} shows at {} ms each, one by one: {} ms", SHOWS, LATENCY_MS, oneByOneMillis);
+        logger.info("Names of {} shows at {} ms each, {} at a time: {} ms", SHOWS, LATENCY_MS, MAX_CONCURRENT_CALLS, fanOutMillis);
+        for (Long showId : showIds) {
+            Assertions.assertEquals("Show " + showId, names.get(showId));
+        }
+        Assertions.assertTrue(fanOutMillis < oneByOneMillis / 2);
+    }
+
+    private ShowNameCache newShowNameCache() {
+        ShowClient showClient = new ShowClient(new ObjectMapper(), null, this.showApiUrl, Duration.ofSeconds(1),
+                Duration.ofSeconds(5), MAX_CONCURRENT_CALLS, SHOWS, new CircuitBreaker(20, 10, 50, Duration.ofSeconds(30)));
+        return new ShowNameCache(showClient, 1000, Duration.ofHours(1), Duration.ofMinutes(10), Duration.ofMinutes(1),
+                Ticker.systemTicker(), ForkJoinPool.commonPool(), Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,90 @@
+package com.carolina.booking_service.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class HashedTimerWheelTest {
+
+    private final long startedAt = 1_000_000L;
+
+    @Test
+    void advance_returnsItemsOnlyAfterTheirDeadline() {
+        // Given
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(100, 8, this.startedAt);
+        wheel.schedule("a", this.startedAt + 250);
+        wheel.schedule("b", this.startedAt + 520);
+
+        // When / Then
+        Assertions.assertEquals(Collections.emptyList(), wheel.advance(this.startedAt + 200));
+        Assertions.assertEquals(Collections.singletonList("a"), wheel.advance(this.startedAt + 300));
+        Assertions.assertEquals(Collections.emptyList(), wheel.advance(this.startedAt + 500));
+        Assertions.assertEquals(Collections.singletonList("b"), wheel.advance(this.startedAt + 600));
+    }
+
+    @Test
+    void advance_waitsForTheRightRoundWhenTheDeadlineIsPastOneRevolution() {
+        // Given
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(100, 4, this.startedAt);
+        wheel.schedule("late", this.startedAt + 1_050);
+
+        // When / Then
+        Assertions.assertEquals(Collections.emptyList(), wheel.advance(this.startedAt + 1_000));
+        Assertions.assertEquals(Collections.singletonList("late"), wheel.advance(this.startedAt + 1_100));
+    }
+
+    @Test
+    void advance_skipsCancelledItems() {
+        // Given
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(100, 8, this.startedAt);
+        HashedTimerWheel.Timeout<String> cancelled = wheel.schedule("cancelled", this.startedAt + 100);
+        wheel.schedule("kept", this.startedAt + 100);
+
+        // When
+        boolean wasCancelled = cancelled.cancel();
+        List<String> expired = wheel.advance(this.startedAt + 1_000);
+
+        // Then
+        Assertions.assertTrue(wasCancelled);
+        Assertions.assertEquals(Collections.singletonList("kept"), expired);
+    }
+
+    @Test
+    void cancel_returnsFalseOnceTheItemExpired() {
+        // Given
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(100, 8, this.startedAt);
+        HashedTimerWheel.Timeout<String> timeout = wheel.schedule("a", this.startedAt);
+        wheel.advance(this.startedAt + 100);
+
+        // When / Then
+        Assertions.assertTrue(timeout.isDone());
+        Assertions.assertFalse(timeout.cancel());
+    }
+
+    @Test
+    void advance_expiresThousandsOfItemsInOnePass() {
+        // Given
+        HashedTimerWheel<Integer> wheel = new HashedTimerWheel<>(100, 64, this.startedAt);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            wheel.schedule(i, this.startedAt + (i % 50) * 100);
+            expected.add(i);
+        }
+
+        // When
+        List<Integer> expired = new ArrayList<>(wheel.advance(this.startedAt + 5_000));
+        Collections.sort(expired);
+
+        // Then
+        Assertions.assertEquals(expected, expired);
+    }
+
+    @Test
+    void constructor_rejectsWheelSizesThatAreNotPowersOfTwo() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HashedTimerWheel<String>(100, 6, this.startedAt));
+    }
+}